@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2018 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dcc.portal.pql.benchmark;
+
+import static org.dcc.portal.pql.ast.visitor.Visitors.createEsAstVisitor;
+import static org.dcc.portal.pql.benchmark.Queries.INDEX_NAME;
+import static org.dcc.portal.pql.benchmark.Queries.getQueries;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+
+import org.dcc.portal.pql.ast.StatementNode;
+import org.dcc.portal.pql.es.ast.ExpressionNode;
+import org.dcc.portal.pql.meta.Type;
+import org.dcc.portal.pql.meta.TypeModel;
+import org.dcc.portal.pql.query.PqlParser;
+import org.dcc.portal.pql.query.QueryContext;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.google.common.collect.Lists;
+
+import lombok.val;
+
+/**
+ * The {@link Queries} of a single index {@link Type}, parsed once per trial.
+ */
+@State(Scope.Benchmark)
+public class Corpus {
+
+  @Param({ "DONOR_CENTRIC", "GENE_CENTRIC", "MUTATION_CENTRIC", "OBSERVATION_CENTRIC", "FILE", "DRUG_CENTRIC" })
+  public Type type;
+
+  public QueryContext context;
+  public Optional<TypeModel> typeModel;
+  public List<String> queries;
+  public List<StatementNode> statements;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = new QueryContext(INDEX_NAME, type);
+    typeModel = Optional.of(context.getTypeModel());
+    queries = getQueries(type);
+    statements = Lists.newArrayListWithCapacity(queries.size());
+    for (val query : queries) {
+      statements.add(PqlParser.parse(query));
+    }
+  }
+
+  /**
+   * Creates fresh ES ASTs for the corpus. The transformations mutate the ES AST so they can't be shared between
+   * invocations.
+   */
+  public List<ExpressionNode> createEsAsts() {
+    val esAsts = Lists.<ExpressionNode> newArrayListWithCapacity(statements.size());
+    for (val statement : statements) {
+      esAsts.add(statement.accept(createEsAstVisitor(), typeModel));
+    }
+
+    return esAsts;
+  }
+
+  public static List<ExpressionNode> transform(List<ExpressionNode> esAsts, UnaryOperator<ExpressionNode> stage) {
+    esAsts.replaceAll(stage);
+
+    return esAsts;
+  }
+
+}
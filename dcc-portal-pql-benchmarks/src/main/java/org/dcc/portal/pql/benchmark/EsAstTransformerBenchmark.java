@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2018 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dcc.portal.pql.benchmark;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static org.dcc.portal.pql.benchmark.Corpus.transform;
+import static org.dcc.portal.pql.es.utils.Visitors.createResolveNestedFieldVisitor;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.dcc.portal.pql.es.ast.ExpressionNode;
+import org.dcc.portal.pql.es.utils.EsAstTransformer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import lombok.val;
+
+/**
+ * Measures each stage of {@link EsAstTransformer#process} in isolation as well as the whole chain.
+ * <p>
+ * The stages mutate the ES AST, so every invocation gets a fresh input that has already been run through the preceding
+ * stages. Preparing the input is not part of the measurement.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(MICROSECONDS)
+public class EsAstTransformerBenchmark {
+
+  private static final EsAstTransformer TRANSFORMER = new EsAstTransformer();
+
+  @Benchmark
+  public void process(Created input, Corpus corpus, Blackhole blackhole) {
+    for (val esAst : input.esAsts) {
+      blackhole.consume(TRANSFORMER.process(esAst, corpus.context));
+    }
+  }
+
+  @Benchmark
+  public void resolveSpecialCases(Created input, Corpus corpus, Blackhole blackhole) {
+    for (val esAst : input.esAsts) {
+      blackhole.consume(TRANSFORMER.resolveSpecialCases(esAst, corpus.context));
+    }
+  }
+
+  @Benchmark
+  public void resolveNestedFields(SpecialCasesResolved input, Corpus corpus, Blackhole blackhole) {
+    for (val esAst : input.esAsts) {
+      blackhole.consume(resolveNestedFields(esAst, corpus));
+    }
+  }
+
+  @Benchmark
+  public void resolveFacets(NestedFieldsResolved input, Corpus corpus, Blackhole blackhole) {
+    for (val esAst : input.esAsts) {
+      blackhole.consume(TRANSFORMER.resolveFacets(esAst, corpus.context.getTypeModel()));
+    }
+  }
+
+  @Benchmark
+  public void score(FacetsResolved input, Corpus corpus, Blackhole blackhole) {
+    for (val esAst : input.esAsts) {
+      blackhole.consume(TRANSFORMER.score(esAst, corpus.context));
+    }
+  }
+
+  @Benchmark
+  public void optimize(Scored input, Blackhole blackhole) {
+    for (val esAst : input.esAsts) {
+      blackhole.consume(TRANSFORMER.optimize(esAst));
+    }
+  }
+
+  /**
+   * Same as the nested fields resolution step of {@link EsAstTransformer#process}.
+   */
+  private static ExpressionNode resolveNestedFields(ExpressionNode esAst, Corpus corpus) {
+    return esAst.accept(createResolveNestedFieldVisitor(), Optional.of(corpus.context.getTypeModel())).get();
+  }
+
+  @State(Scope.Thread)
+  public static class Created {
+
+    List<ExpressionNode> esAsts;
+
+    @Setup(Level.Invocation)
+    public void setUp(Corpus corpus) {
+      esAsts = corpus.createEsAsts();
+    }
+
+  }
+
+  @State(Scope.Thread)
+  public static class SpecialCasesResolved {
+
+    List<ExpressionNode> esAsts;
+
+    @Setup(Level.Invocation)
+    public void setUp(Corpus corpus) {
+      esAsts = transform(corpus.createEsAsts(), esAst -> TRANSFORMER.resolveSpecialCases(esAst, corpus.context));
+    }
+
+  }
+
+  @State(Scope.Thread)
+  public static class NestedFieldsResolved {
+
+    List<ExpressionNode> esAsts;
+
+    @Setup(Level.Invocation)
+    public void setUp(Corpus corpus) {
+      esAsts = transform(corpus.createEsAsts(), esAst -> TRANSFORMER.resolveSpecialCases(esAst, corpus.context));
+      esAsts = transform(esAsts, esAst -> resolveNestedFields(esAst, corpus));
+    }
+
+  }
+
+  @State(Scope.Thread)
+  public static class FacetsResolved {
+
+    List<ExpressionNode> esAsts;
+
+    @Setup(Level.Invocation)
+    public void setUp(Corpus corpus) {
+      esAsts = transform(corpus.createEsAsts(), esAst -> TRANSFORMER.resolveSpecialCases(esAst, corpus.context));
+      esAsts = transform(esAsts, esAst -> resolveNestedFields(esAst, corpus));
+      esAsts = transform(esAsts, esAst -> TRANSFORMER.resolveFacets(esAst, corpus.context.getTypeModel()));
+    }
+
+  }
+
+  @State(Scope.Thread)
+  public static class Scored {
+
+    List<ExpressionNode> esAsts;
+
+    @Setup(Level.Invocation)
+    public void setUp(Corpus corpus) {
+      esAsts = transform(corpus.createEsAsts(), esAst -> TRANSFORMER.resolveSpecialCases(esAst, corpus.context));
+      esAsts = transform(esAsts, esAst -> resolveNestedFields(esAst, corpus));
+      esAsts = transform(esAsts, esAst -> TRANSFORMER.resolveFacets(esAst, corpus.context.getTypeModel()));
+      esAsts = transform(esAsts, esAst -> TRANSFORMER.score(esAst, corpus.context));
+      esAsts = transform(esAsts, esAst -> TRANSFORMER.fixNotQuery(esAst, corpus.context));
+    }
+
+  }
+
+}
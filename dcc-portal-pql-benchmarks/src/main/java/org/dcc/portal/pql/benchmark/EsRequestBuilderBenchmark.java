@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2018 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dcc.portal.pql.benchmark;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static org.dcc.portal.pql.benchmark.Corpus.transform;
+
+import java.util.List;
+
+import org.dcc.portal.pql.es.ast.ExpressionNode;
+import org.dcc.portal.pql.es.utils.EsAstTransformer;
+import org.dcc.portal.pql.query.EsRequestBuilder;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.test.client.NoOpClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import lombok.val;
+
+/**
+ * Measures {@link EsRequestBuilder#buildSearchRequest} on fully transformed ES ASTs. The request builder only reads the
+ * AST, so the inputs are prepared once per trial. Requests are built against a {@link NoOpClient} and never executed.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(MICROSECONDS)
+public class EsRequestBuilderBenchmark {
+
+  @Benchmark
+  public void buildSearchRequest(Transformed input, Corpus corpus, Blackhole blackhole) {
+    for (val esAst : input.esAsts) {
+      blackhole.consume(input.requestBuilder.buildSearchRequest(esAst, corpus.context));
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class Transformed {
+
+    Client client;
+    EsRequestBuilder requestBuilder;
+    List<ExpressionNode> esAsts;
+
+    @Setup(Level.Trial)
+    public void setUp(Corpus corpus) {
+      val transformer = new EsAstTransformer();
+      client = new NoOpClient(EsRequestBuilderBenchmark.class.getSimpleName());
+      requestBuilder = new EsRequestBuilder(client);
+      esAsts = transform(corpus.createEsAsts(), esAst -> transformer.process(esAst, corpus.context));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+      client.close();
+    }
+
+  }
+
+}
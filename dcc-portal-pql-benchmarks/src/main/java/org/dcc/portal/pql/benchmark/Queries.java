@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2018 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dcc.portal.pql.benchmark;
+
+import static lombok.AccessLevel.PRIVATE;
+import static org.dcc.portal.pql.meta.Type.DONOR_CENTRIC;
+import static org.dcc.portal.pql.meta.Type.DRUG_CENTRIC;
+import static org.dcc.portal.pql.meta.Type.FILE;
+import static org.dcc.portal.pql.meta.Type.GENE_CENTRIC;
+import static org.dcc.portal.pql.meta.Type.MUTATION_CENTRIC;
+import static org.dcc.portal.pql.meta.Type.OBSERVATION_CENTRIC;
+
+import java.util.List;
+import java.util.Map;
+
+import org.dcc.portal.pql.meta.Type;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+
+/**
+ * Corpus of queries shaped like the ones the portal issues for each index type: paged and faceted listings, counts,
+ * nested filters, entity sets, gene sets and genomic locations.
+ */
+@NoArgsConstructor(access = PRIVATE)
+public final class Queries {
+
+  /**
+   * Index name used for the entity set terms lookups.
+   */
+  public static final String INDEX_NAME = "icgc-release";
+
+  private static final Map<Type, List<String>> QUERIES = ImmutableMap.<Type, List<String>> builder()
+      .put(DONOR_CENTRIC, ImmutableList.of(
+          "select(*),facets(*),in(donor.projectId,'BRCA-US','LIRI-JP'),eq(donor.gender,'female'),"
+              + "sort(-ssmAffectedGenes),limit(0,10)",
+          "count(),nested(gene,in(gene.id,'ENSG00000141510','ENSG00000133703')),gt(donor.ageAtDiagnosis,60)",
+          "select(*),facets(gender),or(missing(donor.gender),in(donor.gender,'male')),"
+              + "not(nested(gene,eq(gene.symbol,'TTN'))),limit(10)",
+          "select(*),facets(*),in(donor.id,'ES:6d66b2bd-daed-431e-9a8d-b1d99be0bc18','DO1'),"
+              + "in(gene.pathwayId,'REACT_6326'),in(mutation.consequenceType,'missense_variant'),limit(0,10)"))
+      .put(GENE_CENTRIC, ImmutableList.of(
+          "select(*),facets(*),in(gene.type,'protein_coding'),in(gene.chromosome,'12','17'),"
+              + "sort(-affectedDonorCountFiltered),limit(0,10)",
+          "count(),in(donor.projectId,'BRCA-US'),in(gene.location,'chr20:31446730-31549006')",
+          "select(*),facets(*),in(gene.goTermId,'GO:0003674'),exists(gene.pathwayId),"
+              + "in(mutation.consequenceType,'missense_variant','frameshift_variant'),limit(0,10)",
+          "select(*),in(gene.id,'ENSG00000141510','ES:6d66b2bd-daed-431e-9a8d-b1d99be0bc18'),"
+              + "in(donor.primarySite,'Breast'),eq(mutation.functionalImpact,'High')"))
+      .put(MUTATION_CENTRIC, ImmutableList.of(
+          "select(*),facets(*),in(mutation.consequenceType,'missense_variant'),eq(mutation.functionalImpact,'High'),"
+              + "in(donor.projectId,'BRCA-US','LIRI-JP'),sort(-affectedDonorCountFiltered),limit(0,10)",
+          "count(),in(mutation.location,'chrY:13463924-13463924'),in(gene.id,'ENSG00000141510')",
+          "select(*),facets(platform),eq(mutation.verificationStatus,'tested'),"
+              + "in(mutation.sequencingStrategy,'WGS','WXS'),not(in(mutation.id,'MU1','MU2'))",
+          "select(*),facets(*),in(gene.pathwayId,'REACT_6326'),in(donor.gender,'male'),"
+              + "in(donor.id,'ES:6d66b2bd-daed-431e-9a8d-b1d99be0bc18'),limit(0,10)"))
+      .put(OBSERVATION_CENTRIC, ImmutableList.of(
+          "select(*),in(donor.projectId,'BRCA-US'),in(mutation.consequenceType,'missense_variant'),"
+              + "eq(mutation.platform,'Illumina GA sequencing'),limit(100)",
+          "count(),in(gene.id,'ENSG00000141510'),eq(mutation.verificationStatus,'tested')"))
+      .put(FILE, ImmutableList.of(
+          "select(*),facets(*),in(file.projectCode,'BRCA-US'),in(file.dataType,'SSM'),"
+              + "in(file.repoName,'Collaboratory - Toronto'),sort(-fileSize),limit(0,25)",
+          "count(),in(file.donorId,'DO1','DO2'),eq(file.access,'open'),in(file.fileFormat,'VCF','BAM')",
+          "select(*),facets(primarySite),or(eq(file.study,'PCAWG'),missing(file.study)),limit(0,25)"))
+      .put(DRUG_CENTRIC, ImmutableList.of(
+          "select(*),or(eq(drug.id,'ZINC123'),in(gene.id,'ENS123','ES:6d66b2bd-daed-431e-9a8d-b1d99be0bc18'))",
+          "select(*),in(drug.drugClass,'fda'),gt(drug.cancerTrialCount,0),sort(-cancerTrialCount),limit(0,20)"))
+      .build();
+
+  public static List<String> getQueries(@NonNull Type type) {
+    return QUERIES.get(type);
+  }
+
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2018 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dcc.portal.pql.benchmark;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+import java.util.List;
+
+import org.dcc.portal.pql.meta.IndexModel;
+import org.dcc.portal.pql.meta.Type;
+import org.dcc.portal.pql.meta.TypeModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.common.collect.ImmutableList;
+
+import lombok.val;
+
+/**
+ * Measures the {@link TypeModel} field resolution used by the PQL visitors over every alias defined in a type model:
+ * with and without the type prefix, nesting checks and nested path lookups.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(MICROSECONDS)
+public class TypeModelBenchmark {
+
+  @Benchmark
+  public void resolveField(Fields fields, Blackhole blackhole) {
+    for (val alias : fields.aliases) {
+      blackhole.consume(fields.typeModel.resolveField(alias));
+    }
+  }
+
+  @Benchmark
+  public void resolvePrefixedField(Fields fields, Blackhole blackhole) {
+    for (val alias : fields.prefixedAliases) {
+      blackhole.consume(fields.typeModel.resolveField(alias));
+    }
+  }
+
+  @Benchmark
+  public void isNested(Fields fields, Blackhole blackhole) {
+    for (val field : fields.fields) {
+      blackhole.consume(fields.typeModel.isNested(field));
+    }
+  }
+
+  @Benchmark
+  public void getNestedPath(Fields fields, Blackhole blackhole) {
+    for (val field : fields.nestedFields) {
+      blackhole.consume(fields.typeModel.getNestedPath(field));
+    }
+  }
+
+  @Benchmark
+  public void getNestedPaths(Fields fields, Blackhole blackhole) {
+    for (val path : fields.nestedPaths) {
+      blackhole.consume(fields.typeModel.getNestedPaths(path));
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class Fields {
+
+    @Param({ "DONOR_CENTRIC", "GENE_CENTRIC", "MUTATION_CENTRIC", "OBSERVATION_CENTRIC", "PROJECT", "FILE", "GENE_SET",
+        "DRUG_CENTRIC", "DIAGRAM" })
+    public Type type;
+
+    TypeModel typeModel;
+    List<String> aliases;
+    List<String> prefixedAliases;
+    List<String> fields;
+    List<String> nestedFields;
+    List<String> nestedPaths;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      typeModel = IndexModel.getTypeModel(type);
+
+      val plain = ImmutableList.<String> builder();
+      val prefixed = ImmutableList.<String> builder();
+      val resolved = ImmutableList.<String> builder();
+      val nested = ImmutableList.<String> builder();
+      val paths = ImmutableList.<String> builder();
+      for (val alias : typeModel.getDefinedAliases()) {
+        // Some aliases point to fields which are not part of the field models, e.g. 'gene.GoTerm'
+        if (!isResolvable(typeModel, alias)) {
+          continue;
+        }
+
+        plain.add(alias);
+        prefixed.add(typeModel.prefix() + "." + alias);
+
+        val field = typeModel.getField(alias);
+        resolved.add(field);
+        if (typeModel.isNested(field)) {
+          nested.add(field);
+          paths.add(typeModel.getNestedPath(field));
+        }
+      }
+
+      aliases = plain.build();
+      prefixedAliases = prefixed.build();
+      fields = resolved.build();
+      nestedFields = nested.build();
+      nestedPaths = paths.build();
+    }
+
+    private static boolean isResolvable(TypeModel typeModel, String alias) {
+      try {
+        typeModel.resolveField(alias);
+        typeModel.resolveField(typeModel.prefix() + "." + alias);
+        typeModel.isNested(typeModel.getField(alias));
+
+        return true;
+      } catch (RuntimeException e) {
+        return false;
+      }
+    }
+
+  }
+
+}
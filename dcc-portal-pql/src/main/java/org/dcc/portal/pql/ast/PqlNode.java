@@ -108,6 +108,28 @@ public abstract class PqlNode implements ConvertiblePqlNode {
     }
   }
 
+  /**
+   * Nodes are equal if they are of the same class and have equal children. Subclasses holding state of their own add
+   * it to the comparison.
+   */
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+
+    if (other == null || getClass() != other.getClass()) {
+      return false;
+    }
+
+    return children.equals(((PqlNode) other).children);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * getClass().hashCode() + children.hashCode();
+  }
+
   @Override
   public String toString() {
     return accept(createPqlStringVisitor(), Optional.empty());
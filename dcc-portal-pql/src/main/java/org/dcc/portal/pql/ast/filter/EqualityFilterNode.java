@@ -25,7 +25,7 @@ import lombok.experimental.FieldDefaults;
 
 @Getter
 @AllArgsConstructor
-@EqualsAndHashCode(callSuper = false)
+@EqualsAndHashCode(callSuper = true)
 @FieldDefaults(makeFinal = true, level = PRIVATE)
 public abstract class EqualityFilterNode extends FilterNode {
 
@@ -27,7 +27,7 @@ import org.dcc.portal.pql.ast.Type;
 import org.dcc.portal.pql.ast.visitor.PqlNodeVisitor;
 
 @Value
-@EqualsAndHashCode(callSuper = false)
+@EqualsAndHashCode(callSuper = true)
 public class NestedNode extends FilterNode {
 
   @NonNull
@@ -108,10 +108,17 @@ public abstract class ExpressionNode {
     }
   }
 
+  /**
+   * Replaces the child at {@code index}. The replaced child is detached only if it still belongs to this node, so a
+   * child that has been moved into {@code newChild} (e.g. enclosed in a new {@link NestedNode}) keeps its new parent.
+   */
   public void setChild(int index, @NonNull ExpressionNode newChild) {
     checkChildrenBoundaries(index);
     val oldChild = children.get(index);
-    oldChild.parent = null;
+    if (oldChild.parent == this) {
+      oldChild.parent = null;
+    }
+
     children.set(index, newChild);
     newChild.parent = this;
   }
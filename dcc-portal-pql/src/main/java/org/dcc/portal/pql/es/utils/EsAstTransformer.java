@@ -20,17 +20,15 @@ package org.dcc.portal.pql.es.utils;
 import static com.google.common.base.Preconditions.checkArgument;
 import static org.dcc.portal.pql.es.utils.Visitors.createAggregationsResolverVisitor;
 import static org.dcc.portal.pql.es.utils.Visitors.createEmptyNodesCleanerVisitor;
-import static org.dcc.portal.pql.es.utils.Visitors.createEntitySetVisitor;
 import static org.dcc.portal.pql.es.utils.Visitors.createFieldsToSourceVisitor;
 import static org.dcc.portal.pql.es.utils.Visitors.createFixNotQueryVisitor;
-import static org.dcc.portal.pql.es.utils.Visitors.createGeneSetFilterVisitor;
-import static org.dcc.portal.pql.es.utils.Visitors.createLocationFilterVisitor;
 import static org.dcc.portal.pql.es.utils.Visitors.createMissingAggregationVisitor;
 import static org.dcc.portal.pql.es.utils.Visitors.createNestedAggregationVisitor;
 import static org.dcc.portal.pql.es.utils.Visitors.createQuerySimplifierVisitor;
 import static org.dcc.portal.pql.es.utils.Visitors.createRemoveAggregationFilterVisitor;
 import static org.dcc.portal.pql.es.utils.Visitors.createResolveNestedFieldVisitor;
 import static org.dcc.portal.pql.es.utils.Visitors.createScoreSortVisitor;
+import static org.dcc.portal.pql.es.utils.Visitors.createSpecialFiltersVisitor;
 import static org.dcc.portal.pql.meta.IndexModel.getDiagramTypeModel;
 import static org.dcc.portal.pql.meta.IndexModel.getDonorCentricTypeModel;
 import static org.dcc.portal.pql.meta.IndexModel.getDrugTypeModel;
@@ -66,7 +64,10 @@ import lombok.val;
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * Performs series of transformations to resolve different processing rules and to optimize the AST
+ * Performs series of transformations to resolve different processing rules and to optimize the AST<br>
+ * <br>
+ * The entity set, gene set and location filters are resolved in a single traversal. The other stages still traverse
+ * the AST one after another, as they depend on the nesting and parent links set up by the stages before them.
  */
 @Slf4j
 @NoArgsConstructor
@@ -124,21 +125,13 @@ public class EsAstTransformer {
     esAst = esAst.accept(createFieldsToSourceVisitor(), Optional.of(context)).get();
     log.debug("{} Moved object fields to _source. Resulting AST: {}", tag, esAst);
 
-    log.debug("{} Resolving EntitySets...", tag);
-    esAst = esAst.accept(createEntitySetVisitor(), Optional.of(context)).get();
-    log.debug("{} Resolved EntitySets. Resulting AST: {}", tag, esAst);
-
     log.debug("{} Resolving sorting by score...", tag);
     esAst = esAst.accept(createScoreSortVisitor(), Optional.empty());
     log.debug("{} Resolved sorting by score. Resulting AST: {}", tag, esAst);
 
-    log.debug("{} Resolving GeneSets...", tag);
-    esAst = esAst.accept(createGeneSetFilterVisitor(), Optional.of(context)).get();
-    log.debug("{} Resolved GeneSets. Resulting AST: {}", tag, esAst);
-
-    log.debug("{} Resolving location filters...", tag);
-    esAst = esAst.accept(createLocationFilterVisitor(), Optional.of(context)).get();
-    log.debug("{} Resolved location filters. Resulting AST: {}", tag, esAst);
+    log.debug("{} Resolving EntitySets, GeneSets and location filters...", tag);
+    esAst = esAst.accept(createSpecialFiltersVisitor(), Optional.of(context)).get();
+    log.debug("{} Resolved EntitySets, GeneSets and location filters. Resulting AST: {}", tag, esAst);
 
     return esAst;
   }
@@ -18,10 +18,14 @@
 package org.dcc.portal.pql.es.utils;
 
 import static lombok.AccessLevel.PRIVATE;
+import static org.elasticsearch.index.query.QueryBuilders.termsLookupQuery;
+import static org.elasticsearch.index.query.QueryBuilders.termsQuery;
 
 import java.util.Optional;
 
 import org.dcc.portal.pql.es.ast.filter.TermNode;
+import org.dcc.portal.pql.query.TermsLookupResolver;
+import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.indices.TermsLookup;
 
 import lombok.NoArgsConstructor;
@@ -42,4 +46,24 @@ public final class TermsLookups {
     return Optional.empty();
   }
 
+  /**
+   * Creates a filter for a {@code node} which references an entity set. Sets resolved by the {@code resolver} are
+   * inlined as a {@code terms} filter, the others are kept as a terms lookup.
+   */
+  public static Optional<QueryBuilder> createTermsLookupFilter(@NonNull TermNode node,
+      @NonNull TermsLookupResolver resolver) {
+    val termsLookup = createTermsLookup(node);
+    if (!termsLookup.isPresent()) {
+      return Optional.empty();
+    }
+
+    val field = node.getField();
+    val values = resolver.resolve(node.getLookup());
+    if (values.isPresent()) {
+      return Optional.of(termsQuery(field, values.get()));
+    }
+
+    return Optional.of(termsLookupQuery(field, termsLookup.get()));
+  }
+
 }
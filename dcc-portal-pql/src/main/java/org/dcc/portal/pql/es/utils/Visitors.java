@@ -57,6 +57,7 @@ import org.dcc.portal.pql.es.visitor.special.FixNotQueryVisitor;
 import org.dcc.portal.pql.es.visitor.special.GeneSetFilterVisitor;
 import org.dcc.portal.pql.es.visitor.special.LocationFilterVisitor;
 import org.dcc.portal.pql.es.visitor.special.ScoreSortVisitor;
+import org.dcc.portal.pql.es.visitor.special.SpecialFiltersVisitor;
 import org.dcc.portal.pql.es.visitor.util.CloneNodeVisitor;
 import org.dcc.portal.pql.es.visitor.util.EmptyNodesCleanerVisitor;
 import org.dcc.portal.pql.es.visitor.util.QuerySimplifierVisitor;
@@ -110,6 +111,8 @@ public final class Visitors {
 
   private static final EntitySetVisitor ENTITY_SET_VISITOR = new EntitySetVisitor();
   private static final FieldsToSourceVisitor FIELDS_TO_SOURCE_VISITOR = new FieldsToSourceVisitor();
+  private static final SpecialFiltersVisitor SPECIAL_FILTERS_VISITOR =
+      new SpecialFiltersVisitor(ENTITY_SET_VISITOR, GENE_SET_FILTER_VISITOR, LOCATION_FILTER_VISITOR);
 
   private static final NonNestedFieldsVisitor NON_NESTED_FIELDS_VISITOR = new NonNestedFieldsVisitor();
   private static final NestedFieldsVisitor NESTED_FIELDS_VISITOR = new NestedFieldsVisitor();
@@ -178,6 +181,13 @@ public final class Visitors {
     return MUTATION_SCORE_QUERY_VISITOR;
   }
 
+  /**
+   * Resolves entity sets, gene sets and locations, in that order, in a single traversal.
+   */
+  public static SpecialFiltersVisitor createSpecialFiltersVisitor() {
+    return SPECIAL_FILTERS_VISITOR;
+  }
+
   public static ScoreSortVisitor createScoreSortVisitor() {
     return SCORE_SORT_VISITOR;
   }
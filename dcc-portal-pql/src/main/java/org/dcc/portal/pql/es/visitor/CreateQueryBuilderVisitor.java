@@ -22,14 +22,13 @@ import static java.lang.String.format;
 import static java.util.Optional.empty;
 import static org.dcc.portal.pql.es.utils.Nodes.getOptionalChild;
 import static org.dcc.portal.pql.es.utils.ScoreModes.resolveScoreMode;
-import static org.dcc.portal.pql.es.utils.TermsLookups.createTermsLookup;
+import static org.dcc.portal.pql.es.utils.TermsLookups.createTermsLookupFilter;
 import static org.dcc.portal.pql.es.utils.Visitors.filterBuilderVisitor;
 import static org.elasticsearch.common.lucene.search.function.CombineFunction.REPLACE;
 import static org.elasticsearch.index.query.QueryBuilders.boolQuery;
 import static org.elasticsearch.index.query.QueryBuilders.functionScoreQuery;
 import static org.elasticsearch.index.query.QueryBuilders.nestedQuery;
 import static org.elasticsearch.index.query.QueryBuilders.termQuery;
-import static org.elasticsearch.index.query.QueryBuilders.termsLookupQuery;
 import static org.elasticsearch.index.query.QueryBuilders.termsQuery;
 import static org.elasticsearch.index.query.functionscore.ScoreFunctionBuilders.scriptFunction;
 import static org.icgc.dcc.common.core.util.stream.Collectors.toImmutableList;
@@ -48,6 +47,7 @@ import org.dcc.portal.pql.es.ast.filter.TermsNode;
 import org.dcc.portal.pql.es.ast.query.FunctionScoreNode;
 import org.dcc.portal.pql.es.ast.query.QueryNode;
 import org.dcc.portal.pql.query.QueryContext;
+import org.dcc.portal.pql.query.TermsLookupResolver;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.script.Script;
 
@@ -85,10 +85,10 @@ public class CreateQueryBuilderVisitor extends NodeVisitor<QueryBuilder, QueryCo
    */
   @Override
   public QueryBuilder visitTerm(@NonNull TermNode node, @NonNull Optional<QueryContext> context) {
-    val lookupOpt = createTermsLookup(node);
-    if (lookupOpt.isPresent()) {
-      val lookup = lookupOpt.get();
-      return termsLookupQuery(node.getField(), lookup);
+    val resolver = context.map(QueryContext::getLookupResolver).orElse(TermsLookupResolver.NONE);
+    val lookupFilter = createTermsLookupFilter(node, resolver);
+    if (lookupFilter.isPresent()) {
+      return lookupFilter.get();
     }
 
     return termQuery(node.getField(), node.getValueNode().getValue());
@@ -22,14 +22,13 @@ import static com.google.common.base.Preconditions.checkState;
 import static java.lang.String.format;
 import static org.dcc.portal.pql.es.utils.Nodes.getValues;
 import static org.dcc.portal.pql.es.utils.ScoreModes.resolveScoreMode;
-import static org.dcc.portal.pql.es.utils.TermsLookups.createTermsLookup;
+import static org.dcc.portal.pql.es.utils.TermsLookups.createTermsLookupFilter;
 import static org.dcc.portal.pql.es.utils.VisitorHelpers.checkOptional;
 import static org.elasticsearch.index.query.QueryBuilders.boolQuery;
 import static org.elasticsearch.index.query.QueryBuilders.existsQuery;
 import static org.elasticsearch.index.query.QueryBuilders.nestedQuery;
 import static org.elasticsearch.index.query.QueryBuilders.rangeQuery;
 import static org.elasticsearch.index.query.QueryBuilders.termQuery;
-import static org.elasticsearch.index.query.QueryBuilders.termsLookupQuery;
 import static org.elasticsearch.index.query.QueryBuilders.termsQuery;
 
 import java.util.List;
@@ -183,9 +182,9 @@ public class FilterBuilderVisitor extends NodeVisitor<QueryBuilder, QueryContext
 
     QueryBuilder filter;
     val field = node.getField();
-    val lookupOpt = createTermsLookup(node);
-    if (lookupOpt.isPresent()) {
-      filter = termsLookupQuery(field, lookupOpt.get());
+    val lookupFilter = createTermsLookupFilter(node, context.get().getLookupResolver());
+    if (lookupFilter.isPresent()) {
+      filter = lookupFilter.get();
     } else {
       val value = node.getValueNode().getValue();
       log.debug("[visitTerm] Name: {}, Value: {}", field, value);
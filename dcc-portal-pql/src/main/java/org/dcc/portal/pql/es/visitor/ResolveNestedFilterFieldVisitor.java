@@ -17,7 +17,6 @@
  */
 package org.dcc.portal.pql.es.visitor;
 
-import static org.dcc.portal.pql.es.utils.Nodes.cloneNode;
 import static org.dcc.portal.pql.es.utils.VisitorHelpers.visitChildren;
 
 import java.util.Optional;
@@ -195,7 +194,8 @@ public class ResolveNestedFilterFieldVisitor extends NodeVisitor<Optional<Expres
       return Optional.empty();
     }
 
-    return Optional.of(new NestedNode(typeModel.getNestedPath(fieldName), cloneNode(node)));
+    // The node is replaced by the NestedNode in its parent, so it can be moved without copying
+    return Optional.of(new NestedNode(typeModel.getNestedPath(fieldName), node));
   }
 
 }
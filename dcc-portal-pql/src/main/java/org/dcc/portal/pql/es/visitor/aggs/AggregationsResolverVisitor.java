@@ -243,9 +243,8 @@ public class AggregationsResolverVisitor extends NodeVisitor<Optional<Expression
 
   private static boolean hasFiltersAtLevel(Optional<? extends ExpressionNode> filters, String nestedPath) {
     if (filters.isPresent()) {
-      val filtersClone = cloneNode(filters.get());
-
-      return filtersClone.accept(Visitors.createVerifyNestedFilterVisitor(), Optional.of(nestedPath));
+      // The verification is read-only, so the filters don't have to be copied
+      return filters.get().accept(Visitors.createVerifyNestedFilterVisitor(), Optional.of(nestedPath));
     }
 
     return false;
@@ -98,7 +98,7 @@ public abstract class ScoreQueryVisitor extends NodeVisitor<ExpressionNode, Quer
 
     // Preparing filters with non-nested fields.
     val scoreQueryContext = Optional.of(new ScoreQueryContext(nestingPath, typeModel));
-    ExpressionNode filtersClone = Nodes.cloneNode(filterNodeOpt.get());
+    val filtersClone = Nodes.cloneNode(filterNodeOpt.get());
 
     // Returns a FilterNode with filters non-nested under the path.
     val nonNestedChildren = filtersClone.accept(createNonNestedFieldsVisitor(), scoreQueryContext).get();
@@ -107,10 +107,12 @@ public abstract class ScoreQueryVisitor extends NodeVisitor<ExpressionNode, Quer
     mustNode.addChildren(nonNestedChildren);
     log.debug("Added non nested filters \n{}", nonNestedChildren);
 
-    // Preparing filters with nested fields.
-    filtersClone = Nodes.cloneNode(filterNodeOpt.get());
+    // Preparing filters with nested fields. The original filters were removed from the query node and are not used
+    // anymore, so they are processed in place instead of being copied once more.
+    val filters = filterNodeOpt.get();
+    filters.setParent(null);
     val requestContext = new NestedFieldsVisitor.RequestContext(typeModel, nestedNode);
-    val nestedChildren = filtersClone.accept(createNestedFieldsVisitor(), Optional.of(requestContext)).get();
+    val nestedChildren = filters.accept(createNestedFieldsVisitor(), Optional.of(requestContext)).get();
 
     mustNode.addChildren(nestedChildren);
     log.debug("Added nested filters \n{}", nestedChildren);
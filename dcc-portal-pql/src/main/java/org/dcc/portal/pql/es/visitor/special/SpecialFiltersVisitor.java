@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2015 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dcc.portal.pql.es.visitor.special;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.dcc.portal.pql.es.ast.ExpressionNode;
+import org.dcc.portal.pql.es.ast.NestedNode;
+import org.dcc.portal.pql.es.ast.RootNode;
+import org.dcc.portal.pql.es.ast.filter.BoolNode;
+import org.dcc.portal.pql.es.ast.filter.FilterNode;
+import org.dcc.portal.pql.es.ast.filter.MustBoolNode;
+import org.dcc.portal.pql.es.ast.filter.NotNode;
+import org.dcc.portal.pql.es.ast.filter.ShouldBoolNode;
+import org.dcc.portal.pql.es.ast.query.QueryNode;
+import org.dcc.portal.pql.es.utils.Nodes;
+import org.dcc.portal.pql.es.visitor.NodeVisitor;
+import org.dcc.portal.pql.query.QueryContext;
+
+import com.google.common.collect.ImmutableList;
+
+import lombok.NonNull;
+import lombok.val;
+
+/**
+ * Applies filter resolving visitors like {@link EntitySetVisitor}, {@link GeneSetFilterVisitor} and
+ * {@link LocationFilterVisitor} in a single traversal of the query.<br>
+ * <br>
+ * These visitors only replace leaf filters, and only look at the ancestors of the leaf they replace, which none of them
+ * modify. So applying all of them to one leaf before moving on to the next results in the same AST as running them one
+ * after another over the whole query. Each visitor gets what the previous one replaced the leaf with, once it has been
+ * attached to the AST.
+ */
+public class SpecialFiltersVisitor extends NodeVisitor<Optional<ExpressionNode>, QueryContext> {
+
+  private final List<NodeVisitor<Optional<ExpressionNode>, QueryContext>> visitors;
+
+  @SafeVarargs
+  public SpecialFiltersVisitor(@NonNull NodeVisitor<Optional<ExpressionNode>, QueryContext>... visitors) {
+    this.visitors = ImmutableList.copyOf(visitors);
+  }
+
+  @Override
+  public Optional<ExpressionNode> visitRoot(@NonNull RootNode node, @NonNull Optional<QueryContext> context) {
+    val queryNode = Nodes.getOptionalChild(node, QueryNode.class);
+    if (queryNode.isPresent()) {
+      queryNode.get().accept(this, context);
+    }
+
+    return Optional.of(node);
+  }
+
+  @Override
+  public Optional<ExpressionNode> visitQuery(@NonNull QueryNode node, @NonNull Optional<QueryContext> context) {
+    checkState(node.childrenCount() == 1, "Malformed QueryNode %s", node);
+
+    return resolveChildren(node, context);
+  }
+
+  @Override
+  public Optional<ExpressionNode> visitFilter(@NonNull FilterNode node, @NonNull Optional<QueryContext> context) {
+    return resolveChildren(node, context);
+  }
+
+  @Override
+  public Optional<ExpressionNode> visitBool(@NonNull BoolNode node, @NonNull Optional<QueryContext> context) {
+    return resolveChildren(node, context);
+  }
+
+  @Override
+  public Optional<ExpressionNode> visitMustBool(@NonNull MustBoolNode node, @NonNull Optional<QueryContext> context) {
+    return resolveChildren(node, context);
+  }
+
+  @Override
+  public Optional<ExpressionNode> visitShouldBool(@NonNull ShouldBoolNode node,
+      @NonNull Optional<QueryContext> context) {
+    return resolveChildren(node, context);
+  }
+
+  @Override
+  public Optional<ExpressionNode> visitNot(@NonNull NotNode node, @NonNull Optional<QueryContext> context) {
+    return resolveChildren(node, context);
+  }
+
+  @Override
+  public Optional<ExpressionNode> visitNested(@NonNull NestedNode node, @NonNull Optional<QueryContext> context) {
+    return resolveChildren(node, context);
+  }
+
+  private Optional<ExpressionNode> resolveChildren(ExpressionNode parent, Optional<QueryContext> context) {
+    for (int i = 0; i < parent.childrenCount(); i++) {
+      val child = parent.getChild(i);
+      if (isStructural(child)) {
+        child.accept(this, context);
+      } else {
+        resolveLeaf(parent, i, context);
+      }
+    }
+
+    return Optional.empty();
+  }
+
+  private void resolveLeaf(ExpressionNode parent, int index, Optional<QueryContext> context) {
+    for (val visitor : visitors) {
+      val result = parent.getChild(index).accept(visitor, context);
+      if (result.isPresent()) {
+        parent.setChild(index, result.get());
+      }
+    }
+  }
+
+  /**
+   * Nodes which none of the visitors replace, but only descend into.
+   */
+  private static boolean isStructural(ExpressionNode node) {
+    return node instanceof FilterNode || node instanceof BoolNode || node instanceof MustBoolNode
+        || node instanceof ShouldBoolNode || node instanceof NotNode || node instanceof NestedNode;
+  }
+
+}
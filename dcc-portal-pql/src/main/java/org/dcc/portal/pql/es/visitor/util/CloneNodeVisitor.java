@@ -34,6 +34,7 @@ import org.dcc.portal.pql.es.ast.TerminalNode;
 import org.dcc.portal.pql.es.ast.aggs.AggregationsNode;
 import org.dcc.portal.pql.es.ast.aggs.FilterAggregationNode;
 import org.dcc.portal.pql.es.ast.aggs.MissingAggregationNode;
+import org.dcc.portal.pql.es.ast.aggs.NestedAggregationNode;
 import org.dcc.portal.pql.es.ast.aggs.ReverseNestedAggregationNode;
 import org.dcc.portal.pql.es.ast.aggs.TermsAggregationNode;
 import org.dcc.portal.pql.es.ast.filter.BoolNode;
@@ -197,6 +198,14 @@ public class CloneNodeVisitor extends NodeVisitor<ExpressionNode, Void> {
     return result;
   }
 
+  @Override
+  public ExpressionNode visitNestedAggregation(NestedAggregationNode node, Optional<Void> context) {
+    val result = new NestedAggregationNode(node.getAggregationName(), node.getPath());
+    result.addChildren(visitChildren(node));
+
+    return result;
+  }
+
   @Override
   public ExpressionNode visitReverseNestedAggregation(ReverseNestedAggregationNode node, Optional<Void> context) {
     val result = new ReverseNestedAggregationNode(node.getAggregationName());
@@ -78,6 +78,16 @@ public class FileTypeModel extends TypeModel {
     public static final String ACCESS = "access";
     public static final String DATA_CATEGORIZATION = "data_categorization";
     public static final String REFERENCE_GENOME = "reference_genome";
+    public static final String DATA_TYPE = "data_type";
+    public static final String EXPERIMENTAL_STRATEGY = "experimental_strategy";
+    public static final String REPO_NAME = "repo_name";
+    public static final String FILE_NAME = "file_name";
+    public static final String FILE_FORMAT = "file_format";
+    public static final String FILE_SIZE = "file_size";
+    public static final String PROJECT_CODE = "project_code";
+    public static final String SAMPLE_ID = "sample_id";
+    public static final String SPECIMEN_ID = "specimen_id";
+    public static final String SPECIMEN_TYPE = "specimen_type";
 
   }
 
@@ -22,12 +22,13 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static java.lang.String.format;
 import static org.dcc.portal.pql.meta.field.FieldModel.FIELD_SEPARATOR;
-import static org.icgc.dcc.common.core.util.stream.Collectors.toImmutableSet;
+import static org.icgc.dcc.common.core.util.Joiners.DOT;
 
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.function.Function;
 
 import lombok.NonNull;
 import lombok.val;
@@ -41,7 +42,10 @@ import org.dcc.portal.pql.meta.visitor.CreateFullyQualifiedNameVisitor;
 import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.Maps;
+import com.google.common.collect.SetMultimap;
+import com.google.common.collect.Sets;
 
 @Slf4j
 public abstract class TypeModel {
@@ -105,6 +109,18 @@ public abstract class TypeModel {
   protected final List<String> allowedFields;
   protected final List<String> aliases;
 
+  /**
+   * Field resolution tables. They are pre-computed from the field models when the type model is created, so resolving
+   * a field while visiting a query is a single map lookup. Fields missing from the tables are resolved the slow way,
+   * which also reports the errors.
+   */
+  private final Map<String, String> resolvedFields;
+  private final Map<String, Boolean> nestedFields;
+  private final Map<String, String> nestedPathsByField;
+  private final Map<String, String> parentNestedPaths;
+  private final Map<String, List<String>> nestedPathsByPath;
+  private final SetMultimap<String, String> aliasesByField;
+
   /**
    * Represents fields added as includes to the Query.<br>
    * <br>
@@ -133,6 +149,15 @@ public abstract class TypeModel {
     this.allowedFields = defineAllowedFields(allowedAliases);
     this.includeFields = includeFields;
     this.aliases = allowedAliases;
+
+    val fieldNames = Sets.newLinkedHashSet(fieldsByAlias.keySet());
+    fieldNames.addAll(fieldsByFullPath.keySet());
+    this.resolvedFields = tabulate(defineQueryAliases(), this::resolveQueryAlias);
+    this.nestedFields = tabulate(fieldNames, this::resolveNested);
+    this.nestedPathsByField = tabulate(fieldNames, this::resolveNestedPath);
+    this.parentNestedPaths = tabulate(fieldNames, this::resolveParentNestedPath);
+    this.nestedPathsByPath = tabulate(fieldNames, this::resolveNestedPaths);
+    this.aliasesByField = initAliasesByField(fieldsByAlias);
   }
 
   /**
@@ -179,6 +204,12 @@ public abstract class TypeModel {
    * @param field - fully qualified name. Not field alias.
    */
   public final boolean isNested(@NonNull String field) {
+    val nested = nestedFields.get(field);
+
+    return nested == null ? resolveNested(field) : nested;
+  }
+
+  private boolean resolveNested(String field) {
     val fullyQualifiedName = getFullName(field);
     val nestedPaths = split(fullyQualifiedName);
     log.debug("Nested Paths: {}", nestedPaths);
@@ -213,6 +244,13 @@ public abstract class TypeModel {
     return nestedPath.startsWith(path);
   }
 
+  /**
+   * @return all field aliases defined in this type model
+   */
+  public final Set<String> getDefinedAliases() {
+    return fieldsByAlias.keySet();
+  }
+
   public final boolean isAliasDefined(String alias) {
     return (null == alias) ? false : fieldsByAlias.containsKey(alias);
   }
@@ -222,7 +260,7 @@ public abstract class TypeModel {
    * @throws NoSuchElementException if there is a field with such an alias.
    */
   public final String getField(@NonNull String field) {
-    if (hasFieldsMapping.keySet().contains(field)) {
+    if (hasFieldsMapping.containsKey(field)) {
       return hasFieldsMapping.get(field);
     }
 
@@ -234,6 +272,17 @@ public abstract class TypeModel {
     return alias;
   }
 
+  /**
+   * Returns fully qualified name of the field referenced by {@code alias} in a PQL query. The {@code alias} may be
+   * prefixed with the {@link #prefix()} of this type model. E.g. 'donor.id' and 'id' resolve to the same field in the
+   * donor-centric type model.
+   */
+  public final String resolveField(@NonNull String alias) {
+    val field = resolvedFields.get(alias);
+
+    return field == null ? resolveQueryAlias(alias) : field;
+  }
+
   public final FieldModel getFieldModelByAlias(@NonNull String alias) {
     val result = fieldsByFullPath.get(getField(alias));
 
@@ -264,10 +313,7 @@ public abstract class TypeModel {
    * @throws IllegalArgumentException is the alias was not found
    */
   public final Set<String> getAliasByField(@NonNull String field) {
-    val aliases = fieldsByAlias.entrySet().stream()
-        .filter(entry -> entry.getValue().equals(field))
-        .map(entry -> entry.getKey())
-        .collect(toImmutableSet());
+    val aliases = aliasesByField.get(field);
     checkArgument(aliases.size() > 0, "Failed to resolve alias from field '%s'", field);
 
     return aliases;
@@ -304,6 +350,12 @@ public abstract class TypeModel {
    * @return path under which the {@code field} is nested
    */
   public final String getNestedPath(@NonNull String field) {
+    val nestedPath = nestedPathsByField.get(field);
+
+    return nestedPath == null ? resolveNestedPath(field) : nestedPath;
+  }
+
+  private String resolveNestedPath(String field) {
     val fullyQualifiedName = getFullName(field);
 
     for (val path : split(fullyQualifiedName)) {
@@ -324,6 +376,12 @@ public abstract class TypeModel {
    * @return closest parent's path if one exists. Otherwise, returns {@code path}.
    */
   public final String getParentNestedPath(@NonNull String path) {
+    val parentPath = parentNestedPaths.get(path);
+
+    return parentPath == null ? resolveParentNestedPath(path) : parentPath;
+  }
+
+  private String resolveParentNestedPath(String path) {
     checkState(!path.isEmpty(), "Empty nested path %s", path);
     for (val token : split(path)) {
       if (token.equals(path)) {
@@ -344,6 +402,12 @@ public abstract class TypeModel {
    * @return all parent nested paths + {@code path}
    */
   public final List<String> getNestedPaths(@NonNull String path) {
+    val nestedPaths = nestedPathsByPath.get(path);
+
+    return nestedPaths == null ? resolveNestedPaths(path) : nestedPaths;
+  }
+
+  private List<String> resolveNestedPaths(String path) {
     checkState(!path.isEmpty(), "Empty nested path %s", path);
     val result = ImmutableList.<String> builder();
     for (val token : split(path)) {
@@ -363,6 +427,55 @@ public abstract class TypeModel {
     return fieldModel.isIdentifiable();
   }
 
+  /**
+   * Strips the type model prefix from {@code alias} unless the alias is one of the {@link #SPECIAL_CASES_FIELDS}.
+   */
+  private String resolveQueryAlias(String alias) {
+    if (SPECIAL_CASES_FIELDS.contains(alias)) {
+      return getField(alias);
+    }
+
+    val components = FIELD_SEPARATOR_SPLITTER.splitToList(alias);
+    val noPrefixAndPrefixFromTypeModel = components.size() == 1 || !prefix().equals(components.get(0));
+    if (noPrefixAndPrefixFromTypeModel) {
+      return getField(alias);
+    }
+
+    return getField(DOT.join(components.listIterator(1)));
+  }
+
+  /**
+   * @return aliases as they may be referenced in a query: with and without the type model prefix.
+   */
+  private Set<String> defineQueryAliases() {
+    val result = Sets.<String> newLinkedHashSet();
+    result.addAll(SPECIAL_CASES_FIELDS);
+    result.addAll(hasFieldsMapping.keySet());
+    for (val alias : fieldsByAlias.keySet()) {
+      result.add(alias);
+      result.add(prefix() + FIELD_SEPARATOR + alias);
+    }
+
+    return result;
+  }
+
+  /**
+   * Resolves every key with {@code resolver}. Keys that fail to resolve are left out, so they go through the
+   * {@code resolver} again and fail at query time.
+   */
+  private static <T> Map<String, T> tabulate(Set<String> keys, Function<String, T> resolver) {
+    val result = ImmutableMap.<String, T> builder();
+    for (val key : keys) {
+      try {
+        result.put(key, resolver.apply(key));
+      } catch (RuntimeException e) {
+        log.trace("Skipping '{}': {}", key, e.getMessage());
+      }
+    }
+
+    return result.build();
+  }
+
   private String getFullName(String path) {
     val uiAlias = fieldsByAlias.get(path);
 
@@ -400,6 +513,15 @@ public abstract class TypeModel {
     return result.build();
   }
 
+  private static SetMultimap<String, String> initAliasesByField(Map<String, String> fieldsByAlias) {
+    val result = ImmutableSetMultimap.<String, String> builder();
+    for (val entry : fieldsByAlias.entrySet()) {
+      result.put(entry.getValue(), entry.getKey());
+    }
+
+    return result.build();
+  }
+
   private List<String> defineAllowedFields(List<String> allowedAliases) {
     val result = new ImmutableList.Builder<String>();
     for (val alias : allowedAliases) {
@@ -19,16 +19,11 @@ package org.dcc.portal.pql.query;
 
 import static com.google.common.base.Preconditions.checkState;
 import static lombok.AccessLevel.PRIVATE;
-import static org.icgc.dcc.common.core.util.Joiners.DOT;
-
-import java.util.List;
 
 import org.dcc.portal.pql.es.model.Order;
 import org.dcc.portal.pql.meta.TypeModel;
 import org.icgc.dcc.portal.pql.antlr4.PqlParser.OrderContext;
 
-import com.google.common.base.Splitter;
-
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
 import lombok.val;
@@ -36,7 +31,6 @@ import lombok.val;
 @NoArgsConstructor(access = PRIVATE)
 public class ParseTreeVisitors {
 
-  private static final Splitter FIELD_SPLITTER = Splitter.on(".");
   private static final String DOUBLE_QUOTE = "\"";
   private static final String SINGLE_QUOTE = "'";
 
@@ -60,27 +54,7 @@ public class ParseTreeVisitors {
   }
 
   public static String getField(@NonNull String alias, @NonNull TypeModel typeModel) {
-    return typeModel.getField(resolveAlias(alias, typeModel));
-  }
-
-  private static List<String> splitFields(String fullyQualifiedFieldName) {
-    val fields = ParseTreeVisitors.FIELD_SPLITTER.splitToList(fullyQualifiedFieldName);
-
-    return fields;
-  }
-
-  private static String resolveAlias(String alias, TypeModel typeModel) {
-    if (TypeModel.SPECIAL_CASES_FIELDS.contains(alias)) {
-      return alias;
-    }
-
-    val components = splitFields(alias);
-    val noPrefixAndPrefixFromTypeModel = components.size() == 1 || !typeModel.prefix().equals(components.get(0));
-    if (noPrefixAndPrefixFromTypeModel) {
-      return alias;
-    }
-    
-    return DOT.join(components.listIterator(1));
+    return typeModel.resolveField(alias);
   }
 
 }
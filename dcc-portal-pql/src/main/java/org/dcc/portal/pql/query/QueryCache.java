@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2015 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dcc.portal.pql.query;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.dcc.portal.pql.ast.StatementNode;
+import org.dcc.portal.pql.es.ast.ExpressionNode;
+import org.dcc.portal.pql.meta.Type;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import lombok.NonNull;
+import lombok.Value;
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bounded cache of fully transformed ES ASTs keyed by the normalized PQL string, or the structure of the PQL AST, the
+ * index and the {@link Type} it was compiled for.<br>
+ * <br>
+ * <b>NB:</b> Cached ASTs are shared between requests, so they must be treated as read-only once compiled. The
+ * {@link EsRequestBuilder} only reads the AST.
+ */
+@Slf4j
+public class QueryCache {
+
+  /**
+   * Default cache capacity measured in ES AST nodes.
+   */
+  public static final long DEFAULT_MAX_NODES = 250_000;
+
+  /**
+   * Compilation stages which are timed.
+   */
+  public enum Stage {
+
+    PARSE, RESOLVE, TRANSFORM, BUILD;
+
+  }
+
+  private final Cache<Key, ExpressionNode> cache;
+  private final Map<Stage, StageTimer> timers;
+
+  public QueryCache() {
+    this(DEFAULT_MAX_NODES);
+  }
+
+  public QueryCache(long maxNodes) {
+    this.cache = CacheBuilder.newBuilder()
+        .maximumWeight(maxNodes)
+        .weigher((Key key, ExpressionNode esAst) -> countNodes(esAst))
+        .recordStats()
+        .build();
+    this.timers = Maps.newEnumMap(Stage.class);
+    for (val stage : Stage.values()) {
+      timers.put(stage, new StageTimer());
+    }
+  }
+
+  /**
+   * Returns the cached ES AST for {@code pql} or compiles and caches it with {@code compiler}.
+   */
+  public ExpressionNode get(@NonNull String index, @NonNull Type type, @NonNull String pql,
+      @NonNull Supplier<ExpressionNode> compiler) {
+    return get(new Key(index, type, normalize(pql)), compiler);
+  }
+
+  /**
+   * Returns the cached ES AST for a structurally equal {@code pqlAst} or compiles and caches it with {@code compiler}.
+   * The AST is part of the key, so it must not be modified afterwards.
+   */
+  public ExpressionNode get(@NonNull String index, @NonNull Type type, @NonNull StatementNode pqlAst,
+      @NonNull Supplier<ExpressionNode> compiler) {
+    return get(new Key(index, type, pqlAst), compiler);
+  }
+
+  private ExpressionNode get(Key key, Supplier<ExpressionNode> compiler) {
+    try {
+      return cache.get(key, compiler::get);
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      val cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+
+      throw new IllegalStateException(cause);
+    }
+  }
+
+  /**
+   * Runs {@code action} recording its duration against {@code stage}.
+   */
+  public <T> T time(@NonNull Stage stage, @NonNull Supplier<T> action) {
+    val watch = Stopwatch.createStarted();
+    try {
+      return action.get();
+    } finally {
+      timers.get(stage).record(watch.elapsed(MICROSECONDS));
+    }
+  }
+
+  public void invalidate() {
+    log.info("Invalidating {} compiled queries", cache.size());
+    cache.invalidateAll();
+  }
+
+  public Stats getStats() {
+    val stats = cache.stats();
+    val timings = ImmutableMap.<Stage, Timing> builder();
+    for (val entry : timers.entrySet()) {
+      timings.put(entry.getKey(), entry.getValue().snapshot());
+    }
+
+    return new Stats(cache.size(), stats.hitCount(), stats.missCount(), stats.evictionCount(), timings.build());
+  }
+
+  /**
+   * Collapses insignificant whitespace so that equivalent queries share a cache entry. Whitespace inside string
+   * literals is kept as is.
+   */
+  static String normalize(String pql) {
+    val result = new StringBuilder(pql.length());
+    char quote = 0;
+    boolean pendingSpace = false;
+    for (int i = 0; i < pql.length(); i++) {
+      val c = pql.charAt(i);
+      if (quote != 0) {
+        result.append(c);
+        if (c == quote) {
+          quote = 0;
+        }
+      } else if (Character.isWhitespace(c)) {
+        pendingSpace = result.length() > 0;
+      } else {
+        if (pendingSpace && isWordChar(result.charAt(result.length() - 1)) && isWordChar(c)) {
+          result.append(' ');
+        }
+
+        pendingSpace = false;
+        result.append(c);
+        if (c == '\'' || c == '"') {
+          quote = c;
+        }
+      }
+    }
+
+    return result.toString();
+  }
+
+  private static boolean isWordChar(char c) {
+    return Character.isLetterOrDigit(c) || c == '_' || c == '.' || c == '-' || c == '+' || c == '*';
+  }
+
+  private static int countNodes(ExpressionNode node) {
+    int result = 1;
+    for (val child : node.getChildren()) {
+      result += countNodes(child);
+    }
+
+    return result;
+  }
+
+  @Value
+  private static class Key {
+
+    String index;
+    Type type;
+
+    /**
+     * Either the normalized PQL string or the PQL AST.
+     */
+    Object query;
+
+  }
+
+  private static class StageTimer {
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalMicros = new LongAdder();
+
+    void record(long micros) {
+      count.increment();
+      totalMicros.add(micros);
+    }
+
+    Timing snapshot() {
+      return new Timing(count.sum(), totalMicros.sum());
+    }
+
+  }
+
+  @Value
+  public static class Timing {
+
+    long count;
+    long totalMicros;
+
+    public long getMeanMicros() {
+      return count == 0 ? 0 : totalMicros / count;
+    }
+
+  }
+
+  @Value
+  public static class Stats {
+
+    long size;
+    long hitCount;
+    long missCount;
+    long evictionCount;
+    Map<Stage, Timing> timings;
+
+  }
+
+}
@@ -18,6 +18,8 @@
 package org.dcc.portal.pql.query;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import lombok.AllArgsConstructor;
+import lombok.NonNull;
 import lombok.Value;
 
 import org.dcc.portal.pql.meta.TypeModel;
@@ -25,10 +27,17 @@ import org.dcc.portal.pql.meta.IndexModel;
 import org.dcc.portal.pql.meta.Type;
 
 @Value
+@AllArgsConstructor
 public class QueryContext {
 
   private String index;
   private Type type;
+  @NonNull
+  private TermsLookupResolver lookupResolver;
+
+  public QueryContext(String index, Type type) {
+    this(index, type, TermsLookupResolver.NONE);
+  }
 
   public TypeModel getTypeModel() {
     checkNotNull(type);
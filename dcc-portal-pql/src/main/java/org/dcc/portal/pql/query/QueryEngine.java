@@ -28,6 +28,10 @@ import static org.dcc.portal.pql.meta.Type.MUTATION_CENTRIC;
 import static org.dcc.portal.pql.meta.Type.OBSERVATION_CENTRIC;
 import static org.dcc.portal.pql.meta.Type.PROJECT;
 import static org.dcc.portal.pql.meta.Type.FILE;
+import static org.dcc.portal.pql.query.QueryCache.Stage.BUILD;
+import static org.dcc.portal.pql.query.QueryCache.Stage.PARSE;
+import static org.dcc.portal.pql.query.QueryCache.Stage.RESOLVE;
+import static org.dcc.portal.pql.query.QueryCache.Stage.TRANSFORM;
 
 import java.util.Optional;
 
@@ -46,6 +50,7 @@ public class QueryEngine {
 
   private static final EsAstTransformer esAstTransformator = new EsAstTransformer();
   private final EsRequestBuilder requestBuilder;
+  private final QueryCache queryCache;
 
   private final QueryContext donorContext;
   private final QueryContext geneContext;
@@ -57,33 +62,70 @@ public class QueryEngine {
   private final QueryContext diagramContext;
 
   public QueryEngine(@NonNull Client client, @NonNull String index) {
-    this.requestBuilder = new EsRequestBuilder(client);
+    this(client, index, new QueryCache());
+  }
 
-    this.donorContext = new QueryContext(index, DONOR_CENTRIC);
-    this.geneContext = new QueryContext(index, GENE_CENTRIC);
-    this.mutationContext = new QueryContext(index, MUTATION_CENTRIC);
-    this.observationContext = new QueryContext(index, OBSERVATION_CENTRIC);
-    this.projectContext = new QueryContext(index, PROJECT);
-    this.repositoryFileContext = new QueryContext(index, FILE);
-    this.drugContext = new QueryContext(index, DRUG_CENTRIC);
-    this.diagramContext = new QueryContext(index, DIAGRAM);
+  public QueryEngine(@NonNull Client client, @NonNull String index, @NonNull QueryCache queryCache) {
+    this(client, index, queryCache, TermsLookupResolver.NONE);
+  }
+
+  /**
+   * @param lookupResolver resolves entity sets which should be inlined into the built requests. It is consulted on
+   * every request build, so sets are never inlined into the cached ES ASTs.
+   */
+  public QueryEngine(@NonNull Client client, @NonNull String index, @NonNull QueryCache queryCache,
+      @NonNull TermsLookupResolver lookupResolver) {
+    this.requestBuilder = new EsRequestBuilder(client);
+    this.queryCache = queryCache;
+
+    this.donorContext = new QueryContext(index, DONOR_CENTRIC, lookupResolver);
+    this.geneContext = new QueryContext(index, GENE_CENTRIC, lookupResolver);
+    this.mutationContext = new QueryContext(index, MUTATION_CENTRIC, lookupResolver);
+    this.observationContext = new QueryContext(index, OBSERVATION_CENTRIC, lookupResolver);
+    this.projectContext = new QueryContext(index, PROJECT, lookupResolver);
+    this.repositoryFileContext = new QueryContext(index, FILE, lookupResolver);
+    this.drugContext = new QueryContext(index, DRUG_CENTRIC, lookupResolver);
+    this.diagramContext = new QueryContext(index, DIAGRAM, lookupResolver);
   }
 
   public QueryRequest execute(@NonNull String pql, @NonNull Type type) {
-    val pqlAst = PqlParser.parse(pql);
-    return execute(pqlAst, type);
+    val context = createQueryContext(type);
+    ExpressionNode esAst = queryCache.get(context.getIndex(), type, pql, () -> {
+      StatementNode pqlAst = queryCache.time(PARSE, () -> PqlParser.parse(pql));
+      return compile(pqlAst, context);
+    });
+
+    return buildRequest(esAst, context);
   }
 
+  /**
+   * Executes an already built PQL AST. The AST itself is compared structurally as the cache key, so neither the ANTLR
+   * parse nor rendering it to PQL is needed on hits or misses. It must not be modified afterwards.
+   */
   public QueryRequest execute(@NonNull StatementNode pqlAst, @NonNull Type type) {
-    ExpressionNode esAst = resolvePqlAst(pqlAst, type);
-    log.debug("Resolved PQL AST into ES AST: {}", esAst);
-
     val context = createQueryContext(type);
-    esAst = esAstTransformator.process(esAst, context);
+    ExpressionNode esAst = queryCache.get(context.getIndex(), type, pqlAst, () -> compile(pqlAst, context));
 
-    val result = new QueryRequest(requestBuilder.buildSearchRequest(esAst, context));
+    return buildRequest(esAst, context);
+  }
+
+  public QueryCache.Stats getCacheStats() {
+    return queryCache.getStats();
+  }
+
+  public void invalidateCache() {
+    queryCache.invalidate();
+  }
+
+  private ExpressionNode compile(StatementNode pqlAst, QueryContext context) {
+    ExpressionNode esAst = queryCache.time(RESOLVE, () -> resolvePqlAst(pqlAst, context.getType()));
+    log.debug("Resolved PQL AST into ES AST: {}", esAst);
+
+    return queryCache.time(TRANSFORM, () -> esAstTransformator.process(esAst, context));
+  }
 
-    return result;
+  private QueryRequest buildRequest(ExpressionNode esAst, QueryContext context) {
+    return queryCache.time(BUILD, () -> new QueryRequest(requestBuilder.buildSearchRequest(esAst, context)));
   }
 
   private static ExpressionNode resolvePqlAst(StatementNode pqlAst, Type type) {
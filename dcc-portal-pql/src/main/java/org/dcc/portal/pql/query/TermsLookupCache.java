@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2018 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dcc.portal.pql.query;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.dcc.portal.pql.es.model.LookupInfo;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.xcontent.support.XContentMapValues;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import lombok.NonNull;
+import lombok.Value;
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bounded cache of saved entity set contents keyed by the terms lookup document they are stored in and weighed by
+ * their number of ids.<br>
+ * <br>
+ * Sets of up to {@code maxInlineTerms} ids are resolved so that they can be sent as an inline {@code terms} filter.
+ * Larger sets are only remembered as such, so the lookup document is fetched once and Elasticsearch keeps resolving
+ * the lookup itself.<br>
+ * <br>
+ * <b>NB:</b> Entity sets are never modified once created, so entries only leave the cache on eviction or
+ * {@link #invalidate()}.
+ */
+@Slf4j
+public class TermsLookupCache implements TermsLookupResolver {
+
+  /**
+   * Default cache capacity measured in set ids.
+   */
+  public static final long DEFAULT_MAX_TERMS = 2_000_000;
+
+  /**
+   * Default size of the largest set which is inlined.
+   */
+  public static final int DEFAULT_MAX_INLINE_TERMS = 1_000;
+
+  private final Client client;
+  private final int maxInlineTerms;
+  private final Cache<LookupInfo, Terms> cache;
+  private final LongAdder inlined = new LongAdder();
+  private final LongAdder kept = new LongAdder();
+
+  public TermsLookupCache(@NonNull Client client) {
+    this(client, DEFAULT_MAX_TERMS, DEFAULT_MAX_INLINE_TERMS);
+  }
+
+  public TermsLookupCache(@NonNull Client client, long maxTerms, int maxInlineTerms) {
+    checkArgument(maxInlineTerms >= 0, "maxInlineTerms must not be negative");
+    this.client = client;
+    this.maxInlineTerms = maxInlineTerms;
+    this.cache = CacheBuilder.newBuilder()
+        .maximumWeight(maxTerms)
+        .weigher((LookupInfo lookup, Terms terms) -> terms.getWeight())
+        .recordStats()
+        .build();
+  }
+
+  @Override
+  public Optional<List<Object>> resolve(@NonNull LookupInfo lookup) {
+    Terms terms;
+    try {
+      // Concurrent requests for the same set share a single load
+      terms = cache.get(lookup, () -> load(lookup));
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      val cause = e.getCause();
+      if (cause instanceof NotIndexedException) {
+        // Not indexed yet. Let Elasticsearch resolve it and try again next time
+        kept.increment();
+        return Optional.empty();
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+
+      throw new IllegalStateException(cause);
+    }
+
+    if (terms.getValues() == null) {
+      kept.increment();
+      return Optional.empty();
+    }
+
+    inlined.increment();
+    return Optional.of(terms.getValues());
+  }
+
+  public void invalidate() {
+    log.info("Invalidating {} cached terms lookups", cache.size());
+    cache.invalidateAll();
+  }
+
+  public Stats getStats() {
+    val stats = cache.stats();
+    return new Stats(cache.size(), stats.hitCount(), stats.missCount(), stats.evictionCount(), inlined.sum(),
+        kept.sum());
+  }
+
+  private Terms load(LookupInfo lookup) {
+    val response = client.prepareGet(lookup.getIndex(), lookup.getType(), lookup.getId())
+        .setFetchSource(lookup.getPath(), null)
+        .get();
+    if (!response.isExists() || response.isSourceEmpty()) {
+      // Not cached
+      throw new NotIndexedException();
+    }
+
+    val values = XContentMapValues.extractValue(lookup.getPath(), response.getSourceAsMap());
+    if (values == null) {
+      return new Terms(ImmutableList.<Object> of(), 1);
+    }
+
+    Collection<?> collection = values instanceof Collection ? (Collection<?>) values : ImmutableList.of(values);
+    log.debug("Loaded {} terms for lookup {}", collection.size(), lookup);
+    if (collection.size() > maxInlineTerms) {
+      return new Terms(null, 1);
+    }
+
+    return new Terms(ImmutableList.<Object> copyOf(collection), Math.max(1, collection.size()));
+  }
+
+  /**
+   * Set contents. {@code values} is {@code null} when the set is too large to be inlined.
+   */
+  @Value
+  private static class Terms {
+
+    List<Object> values;
+    int weight;
+
+  }
+
+  /**
+   * Signals a lookup document which does not exist yet.
+   */
+  private static class NotIndexedException extends RuntimeException {
+
+    private NotIndexedException() {
+      super(null, null, false, false);
+    }
+
+  }
+
+  @Value
+  public static class Stats {
+
+    long size;
+    long hitCount;
+    long missCount;
+    long evictionCount;
+    long inlinedCount;
+    long keptCount;
+
+  }
+
+}
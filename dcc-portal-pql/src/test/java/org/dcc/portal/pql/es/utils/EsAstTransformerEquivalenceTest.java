@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2015 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dcc.portal.pql.es.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.dcc.portal.pql.ast.visitor.Visitors.createEsAstVisitor;
+import static org.dcc.portal.pql.es.utils.Visitors.createEntitySetVisitor;
+import static org.dcc.portal.pql.es.utils.Visitors.createFieldsToSourceVisitor;
+import static org.dcc.portal.pql.es.utils.Visitors.createGeneSetFilterVisitor;
+import static org.dcc.portal.pql.es.utils.Visitors.createLocationFilterVisitor;
+import static org.dcc.portal.pql.es.utils.Visitors.createResolveNestedFieldVisitor;
+import static org.dcc.portal.pql.es.utils.Visitors.createScoreSortVisitor;
+import static org.dcc.portal.pql.meta.Type.DONOR_CENTRIC;
+import static org.dcc.portal.pql.meta.Type.DRUG_CENTRIC;
+import static org.dcc.portal.pql.meta.Type.FILE;
+import static org.dcc.portal.pql.meta.Type.GENE_CENTRIC;
+import static org.dcc.portal.pql.meta.Type.MUTATION_CENTRIC;
+import static org.dcc.portal.pql.meta.Type.OBSERVATION_CENTRIC;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.dcc.portal.pql.es.ast.ExpressionNode;
+import org.dcc.portal.pql.meta.Type;
+import org.dcc.portal.pql.query.EsRequestBuilder;
+import org.dcc.portal.pql.query.PqlParser;
+import org.dcc.portal.pql.query.QueryContext;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.test.client.NoOpClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import lombok.val;
+
+/**
+ * Checks that {@link EsAstTransformer#process} generates the same requests as a reference run of the same stages in
+ * which every stage works on a copy of its input, so that no stage output shares nodes with the tree it was given.
+ * This is how the chain behaved before copies were dropped from it, and guards the stages that now move or reuse
+ * nodes instead of copying them. The reference also resolves the special filters one visitor at a time, which guards
+ * their fused traversal.
+ */
+public class EsAstTransformerEquivalenceTest {
+
+  private static final String INDEX_NAME = "icgc-release";
+
+  /**
+   * Queries shaped like the ones the portal issues: paged and faceted listings, counts, nested filters, negations,
+   * entity sets, gene sets and genomic locations.
+   */
+  private static final Map<Type, List<String>> QUERIES = ImmutableMap.<Type, List<String>> builder()
+      .put(DONOR_CENTRIC, ImmutableList.of(
+          "select(*),facets(*),in(donor.projectId,'BRCA-US','LIRI-JP'),eq(donor.gender,'female'),"
+              + "sort(-ssmAffectedGenes),limit(0,10)",
+          "count(),nested(gene,in(gene.id,'ENSG00000141510','ENSG00000133703')),gt(donor.ageAtDiagnosis,60)",
+          "select(*),facets(gender),or(missing(donor.gender),in(donor.gender,'male')),"
+              + "not(nested(gene,eq(gene.symbol,'TTN'))),limit(10)",
+          "select(*),facets(*),in(donor.id,'ES:6d66b2bd-daed-431e-9a8d-b1d99be0bc18','DO1'),"
+              + "in(gene.pathwayId,'REACT_6326'),in(mutation.consequenceType,'missense_variant'),limit(0,10)"))
+      .put(GENE_CENTRIC, ImmutableList.of(
+          "select(*),facets(*),in(gene.type,'protein_coding'),in(gene.chromosome,'12','17'),"
+              + "sort(-affectedDonorCountFiltered),limit(0,10)",
+          "count(),in(donor.projectId,'BRCA-US'),in(gene.location,'chr20:31446730-31549006')",
+          "select(*),facets(*),in(gene.goTermId,'GO:0003674'),exists(gene.pathwayId),"
+              + "in(mutation.consequenceType,'missense_variant','frameshift_variant'),limit(0,10)",
+          "select(*),in(gene.id,'ENSG00000141510','ES:6d66b2bd-daed-431e-9a8d-b1d99be0bc18'),"
+              + "in(donor.primarySite,'Breast'),eq(mutation.functionalImpact,'High')"))
+      .put(MUTATION_CENTRIC, ImmutableList.of(
+          "select(*),facets(*),in(mutation.consequenceType,'missense_variant'),eq(mutation.functionalImpact,'High'),"
+              + "in(donor.projectId,'BRCA-US','LIRI-JP'),sort(-affectedDonorCountFiltered),limit(0,10)",
+          "count(),in(mutation.location,'chrY:13463924-13463924'),in(gene.id,'ENSG00000141510')",
+          "select(*),facets(platform),eq(mutation.verificationStatus,'tested'),"
+              + "in(mutation.sequencingStrategy,'WGS','WXS'),not(in(mutation.id,'MU1','MU2'))",
+          "select(*),facets(*),in(gene.pathwayId,'REACT_6326'),in(donor.gender,'male'),"
+              + "in(donor.id,'ES:6d66b2bd-daed-431e-9a8d-b1d99be0bc18'),limit(0,10)"))
+      .put(OBSERVATION_CENTRIC, ImmutableList.of(
+          "select(*),in(donor.projectId,'BRCA-US'),in(mutation.consequenceType,'missense_variant'),"
+              + "eq(mutation.platform,'Illumina GA sequencing'),limit(100)",
+          "count(),in(gene.id,'ENSG00000141510'),eq(mutation.verificationStatus,'tested')"))
+      .put(FILE, ImmutableList.of(
+          "select(*),facets(*),in(file.projectCode,'BRCA-US'),in(file.dataType,'SSM'),"
+              + "in(file.repoName,'Collaboratory - Toronto'),sort(-fileSize),limit(0,25)",
+          "count(),in(file.donorId,'DO1','DO2'),eq(file.access,'open'),in(file.fileFormat,'VCF','BAM')",
+          "select(*),facets(primarySite),or(eq(file.study,'PCAWG'),missing(file.study)),limit(0,25)"))
+      .put(DRUG_CENTRIC, ImmutableList.of(
+          "select(*),or(eq(drug.id,'ZINC123'),in(gene.id,'ENS123','ES:6d66b2bd-daed-431e-9a8d-b1d99be0bc18'))",
+          "select(*),in(drug.drugClass,'fda'),gt(drug.cancerTrialCount,0),sort(-cancerTrialCount),limit(0,20)"))
+      .build();
+
+  EsAstTransformer transformer = new EsAstTransformer();
+  Client client;
+  EsRequestBuilder requestBuilder;
+
+  @Before
+  public void setUp() {
+    client = new NoOpClient(getClass().getSimpleName());
+    requestBuilder = new EsRequestBuilder(client);
+  }
+
+  @After
+  public void tearDown() {
+    client.close();
+  }
+
+  @Test
+  public void testRequestsMatchReference() {
+    for (val entry : QUERIES.entrySet()) {
+      val context = new QueryContext(INDEX_NAME, entry.getKey());
+
+      for (val query : entry.getValue()) {
+        val actual = transformer.process(createEsAst(query, context), context);
+        val expected = processWithCopies(createEsAst(query, context), context);
+
+        assertThat(build(actual, context)).as(query).isEqualTo(build(expected, context));
+      }
+    }
+  }
+
+  private ExpressionNode processWithCopies(ExpressionNode esAst, QueryContext context) {
+    esAst = resolveSpecialCasesSeparately(copy(esAst), context);
+    esAst = copy(esAst).accept(createResolveNestedFieldVisitor(), Optional.of(context.getTypeModel())).get();
+    esAst = transformer.resolveFacets(copy(esAst), context.getTypeModel());
+    esAst = transformer.score(copy(esAst), context);
+    esAst = transformer.fixNotQuery(copy(esAst), context);
+
+    return transformer.optimize(copy(esAst));
+  }
+
+  /**
+   * The special cases as they were resolved before the filter visitors were fused into a single traversal.
+   */
+  private static ExpressionNode resolveSpecialCasesSeparately(ExpressionNode esAst, QueryContext context) {
+    esAst = esAst.accept(createFieldsToSourceVisitor(), Optional.of(context)).get();
+    esAst = copy(esAst).accept(createEntitySetVisitor(), Optional.of(context)).get();
+    esAst = copy(esAst).accept(createScoreSortVisitor(), Optional.empty());
+    esAst = copy(esAst).accept(createGeneSetFilterVisitor(), Optional.of(context)).get();
+
+    return copy(esAst).accept(createLocationFilterVisitor(), Optional.of(context)).get();
+  }
+
+  private String build(ExpressionNode esAst, QueryContext context) {
+    return requestBuilder.buildSearchRequest(esAst, context).toString();
+  }
+
+  private static ExpressionNode createEsAst(String query, QueryContext context) {
+    return PqlParser.parse(query).accept(createEsAstVisitor(), Optional.of(context.getTypeModel()));
+  }
+
+  private static ExpressionNode copy(ExpressionNode esAst) {
+    return Nodes.cloneNode(esAst);
+  }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2015 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dcc.portal.pql.es.visitor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.dcc.portal.pql.es.utils.Visitors.createResolveNestedFieldVisitor;
+import static org.dcc.portal.pql.meta.IndexModel.getMutationCentricTypeModel;
+
+import java.util.Optional;
+
+import org.dcc.portal.pql.es.ast.NestedNode;
+import org.dcc.portal.pql.es.ast.RootNode;
+import org.dcc.portal.pql.es.ast.filter.FilterNode;
+import org.dcc.portal.pql.es.ast.filter.TermNode;
+import org.dcc.portal.pql.es.ast.query.QueryNode;
+import org.junit.Test;
+
+import lombok.val;
+
+public class ResolveNestedFilterFieldVisitorTest {
+
+  @Test
+  public void nestedFieldTest() {
+    val termNode = new TermNode("transcript.id", "T1");
+    val filterNode = new FilterNode(termNode);
+    val root = new RootNode(new QueryNode(filterNode));
+
+    root.accept(createResolveNestedFieldVisitor(), Optional.of(getMutationCentricTypeModel()));
+
+    val nestedNode = (NestedNode) filterNode.getFirstChild();
+    assertThat(nestedNode.getPath()).isEqualTo("transcript");
+    assertThat(nestedNode.getParent()).isSameAs(filterNode);
+    assertThat(nestedNode.getFirstChild()).isSameAs(termNode);
+    assertThat(termNode.getParent()).isSameAs(nestedNode);
+  }
+
+  @Test
+  public void nonNestedFieldTest() {
+    val termNode = new TermNode("_mutation_id", "MU1");
+    val filterNode = new FilterNode(termNode);
+    val root = new RootNode(new QueryNode(filterNode));
+
+    root.accept(createResolveNestedFieldVisitor(), Optional.of(getMutationCentricTypeModel()));
+
+    assertThat(filterNode.getFirstChild()).isSameAs(termNode);
+    assertThat(termNode.getParent()).isSameAs(filterNode);
+  }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2015 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dcc.portal.pql.es.visitor.special;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.dcc.portal.pql.es.utils.Visitors.createEntitySetVisitor;
+import static org.dcc.portal.pql.es.utils.Visitors.createGeneSetFilterVisitor;
+import static org.dcc.portal.pql.es.utils.Visitors.createLocationFilterVisitor;
+import static org.dcc.portal.pql.es.utils.Visitors.createSpecialFiltersVisitor;
+import static org.dcc.portal.pql.meta.Type.DONOR_CENTRIC;
+import static org.dcc.portal.pql.meta.Type.GENE_CENTRIC;
+import static org.dcc.portal.pql.meta.Type.MUTATION_CENTRIC;
+import static org.dcc.portal.pql.utils.Tests.createEsAst;
+import static org.dcc.portal.pql.utils.Tests.initQueryContext;
+
+import java.util.Optional;
+
+import org.dcc.portal.pql.es.ast.ExpressionNode;
+import org.dcc.portal.pql.meta.Type;
+import org.dcc.portal.pql.query.QueryContext;
+import org.junit.Test;
+
+import lombok.val;
+
+public class SpecialFiltersVisitorTest {
+
+  private static final String SET_ID = "ES:6d66b2bd-daed-431e-9a8d-b1d99be0bc18";
+
+  @Test
+  public void donorTest() {
+    assertSameAsSeparateVisitors(DONOR_CENTRIC, "in(donor.id,'" + SET_ID + "','DO1'),"
+        + "in(gene.location,'chr12:123-456'),in(gene.goTermId,'GO:0003674')");
+  }
+
+  @Test
+  public void geneTest() {
+    assertSameAsSeparateVisitors(GENE_CENTRIC, "in(gene.id,'" + SET_ID + "'),in(gene.geneSetId,'REACT_6326'),"
+        + "or(in(gene.location,'chr22'),in(mutation.location,'chrY:13463924-13463924'))");
+  }
+
+  @Test
+  public void mutationTest() {
+    assertSameAsSeparateVisitors(MUTATION_CENTRIC, "in(mutation.location,'chr12:123-456'),"
+        + "in(gene.geneSetId,'GO:0003674'),not(in(donor.id,'" + SET_ID + "'))");
+  }
+
+  @Test
+  public void nestedTest() {
+    assertSameAsSeparateVisitors(DONOR_CENTRIC, "nested(gene,in(gene.location,'chr22')),"
+        + "nested(gene,in(gene.goTermId,'GO:0003674')),in(donor.id,'" + SET_ID + "')");
+  }
+
+  private static void assertSameAsSeparateVisitors(Type type, String query) {
+    val context = Optional.of(initQueryContext(type));
+
+    val expected = resolveSeparately(createEsAst(query, type), context);
+    val actual = createEsAst(query, type).accept(createSpecialFiltersVisitor(), context).get();
+
+    assertThat(actual).isEqualTo(expected);
+  }
+
+  private static ExpressionNode resolveSeparately(ExpressionNode esAst, Optional<QueryContext> context) {
+    esAst = esAst.accept(createEntitySetVisitor(), context).get();
+    esAst = esAst.accept(createGeneSetFilterVisitor(), context).get();
+
+    return esAst.accept(createLocationFilterVisitor(), context).get();
+  }
+
+}
@@ -21,6 +21,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import lombok.val;
 import lombok.extern.slf4j.Slf4j;
 
+import org.dcc.portal.pql.exception.SemanticException;
 import org.junit.Test;
 
 import com.google.common.collect.Lists;
@@ -67,4 +68,30 @@ public class DonorCentricTypeModelTest extends DonorCentricTypeModel {
     assertThat(alias).containsOnly("gene.pathways", "gene.pathwayId");
   }
 
+  @Test
+  public void resolveFieldTest() {
+    assertThat(model.resolveField("donor.id")).isEqualTo(model.getField("id"));
+    assertThat(model.resolveField("id")).isEqualTo(model.getField("id"));
+    assertThat(model.resolveField("gene.id")).isEqualTo(model.getField("gene.id"));
+    assertThat(model.resolveField("hasPathway")).isEqualTo("gene.pathwayId");
+  }
+
+  @Test(expected = SemanticException.class)
+  public void resolveFieldUnknownTest() {
+    model.resolveField("donor.fake");
+  }
+
+  @Test
+  public void nestedPathsTest() {
+    assertThat(model.isNested("gene.ssm.observation")).isTrue();
+    assertThat(model.getNestedPath("gene.ssm.observation")).isEqualTo("gene.ssm.observation");
+    assertThat(model.getParentNestedPath("gene.ssm.observation")).isEqualTo("gene.ssm");
+    assertThat(model.getNestedPaths("gene.ssm.observation")).containsExactly("gene", "gene.ssm", "gene.ssm.observation");
+  }
+
+  @Test(expected = SemanticException.class)
+  public void isNestedUnknownTest() {
+    model.isNested("fake");
+  }
+
 }
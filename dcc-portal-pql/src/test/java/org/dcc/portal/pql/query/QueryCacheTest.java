@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2015 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dcc.portal.pql.query;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.dcc.portal.pql.meta.Type.DONOR_CENTRIC;
+import static org.dcc.portal.pql.meta.Type.GENE_CENTRIC;
+import static org.dcc.portal.pql.query.QueryCache.Stage.PARSE;
+import static org.dcc.portal.pql.utils.Tests.createEsAst;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.dcc.portal.pql.ast.StatementNode;
+import org.dcc.portal.pql.es.ast.ExpressionNode;
+import org.dcc.portal.pql.exception.SemanticException;
+import org.junit.Test;
+
+import lombok.val;
+
+public class QueryCacheTest {
+
+  QueryCache cache = new QueryCache();
+
+  @Test
+  public void normalizeTest() {
+    assertThat(QueryCache.normalize(" select( * ) , eq( gender ,  'a  b' ) ")).isEqualTo("select(*),eq(gender,'a  b')");
+    assertThat(QueryCache.normalize("in(id, \"x, y\",'z')")).isEqualTo("in(id,\"x, y\",'z')");
+    assertThat(QueryCache.normalize("select(a b)")).isEqualTo("select(a b)");
+  }
+
+  @Test
+  public void hitTest() {
+    val compilations = new AtomicInteger();
+    val first = get("eq(gender, 'male')", compilations);
+    val second = get("eq(gender,'male')", compilations);
+
+    assertThat(second).isSameAs(first);
+    assertThat(compilations.get()).isEqualTo(1);
+
+    val stats = cache.getStats();
+    assertThat(stats.getHitCount()).isEqualTo(1);
+    assertThat(stats.getMissCount()).isEqualTo(1);
+    assertThat(stats.getSize()).isEqualTo(1);
+  }
+
+  @Test
+  public void astHitTest() {
+    val compilations = new AtomicInteger();
+    val query = "select(*),and(eq(gender,'male'),in(id,'a','b')),count()";
+    val first = get(PqlParser.parse(query), compilations);
+    val second = get(PqlParser.parse(query), compilations);
+
+    assertThat(second).isSameAs(first);
+    assertThat(compilations.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void astStructureIsPartOfKeyTest() {
+    val compilations = new AtomicInteger();
+    get(PqlParser.parse("and(eq(gender,'male'),eq(id,'a'))"), compilations);
+    get(PqlParser.parse("or(eq(gender,'male'),eq(id,'a'))"), compilations);
+    get(PqlParser.parse("and(eq(gender,'male'),not(eq(id,'a')))"), compilations);
+    get(PqlParser.parse("and(eq(gender,'male'),eq(id,1))"), compilations);
+
+    assertThat(compilations.get()).isEqualTo(4);
+  }
+
+  @Test
+  public void eqIsNotNeTest() {
+    assertDistinctKeys("eq(gender,'male')", "ne(gender,'male')");
+  }
+
+  @Test
+  public void existsIsNotMissingTest() {
+    assertDistinctKeys("exists(gender)", "missing(gender)");
+  }
+
+  @Test
+  public void gtIsNotLtTest() {
+    assertDistinctKeys("gt(ageAtDiagnosis,50)", "lt(ageAtDiagnosis,50)");
+  }
+
+  @Test
+  public void typeIsPartOfKeyTest() {
+    val compilations = new AtomicInteger();
+    cache.get("", DONOR_CENTRIC, "select(*)", () -> compile("select(*)", compilations));
+    cache.get("", GENE_CENTRIC, "select(*)", () -> compile("select(*)", compilations));
+
+    assertThat(compilations.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void invalidateTest() {
+    val compilations = new AtomicInteger();
+    get("select(*)", compilations);
+    cache.invalidate();
+    get("select(*)", compilations);
+
+    assertThat(compilations.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void evictionTest() {
+    val smallCache = new QueryCache(1);
+    smallCache.get("", DONOR_CENTRIC, "select(*)", () -> createEsAst("select(*)"));
+
+    assertThat(smallCache.getStats().getSize()).isEqualTo(0);
+    assertThat(smallCache.getStats().getEvictionCount()).isEqualTo(1);
+  }
+
+  @Test(expected = SemanticException.class)
+  public void compileErrorTest() {
+    cache.get("", DONOR_CENTRIC, "select()", () -> createEsAst("select()"));
+  }
+
+  @Test
+  public void timingTest() {
+    cache.time(PARSE, () -> PqlParser.parse("select(*)"));
+
+    val timing = cache.getStats().getTimings().get(PARSE);
+    assertThat(timing.getCount()).isEqualTo(1);
+  }
+
+  private void assertDistinctKeys(String pql, String otherPql) {
+    val compilations = new AtomicInteger();
+    val first = get(PqlParser.parse(pql), compilations);
+    val second = get(PqlParser.parse(otherPql), compilations);
+
+    assertThat(compilations.get()).isEqualTo(2);
+    assertThat(second).isNotSameAs(first);
+  }
+
+  private ExpressionNode get(String pql, AtomicInteger compilations) {
+    return cache.get("", DONOR_CENTRIC, pql, () -> compile(pql, compilations));
+  }
+
+  private ExpressionNode get(StatementNode pqlAst, AtomicInteger compilations) {
+    return cache.get("", DONOR_CENTRIC, pqlAst, () -> compile(pqlAst.toString(), compilations));
+  }
+
+  private static ExpressionNode compile(String pql, AtomicInteger compilations) {
+    compilations.incrementAndGet();
+
+    return createEsAst(pql);
+  }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2018 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dcc.portal.pql.query;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.dcc.portal.pql.es.model.LookupInfo;
+import org.dcc.portal.pql.utils.BaseElasticsearchTest;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import lombok.val;
+
+public class TermsLookupCacheTest extends BaseElasticsearchTest {
+
+  private static final String LOOKUP_INDEX = "terms-lookup";
+  private static final String LOOKUP_TYPE = "donor-ids";
+  private static final String LOOKUP_PATH = "values";
+
+  TermsLookupCache cache;
+
+  @Before
+  public void setUpTermsLookupCacheTest() {
+    createTermsLookupType();
+    indexSet("small", "DO1", "DO2");
+    indexSet("large", "DO1", "DO2", "DO3", "DO4");
+    cache = new TermsLookupCache(client, 100, 3);
+  }
+
+  @Test
+  public void inlineTest() {
+    val lookup = createLookup("small");
+    assertThat(cache.resolve(lookup).get()).containsExactly("DO1", "DO2");
+    assertThat(cache.resolve(lookup).get()).containsExactly("DO1", "DO2");
+
+    val stats = cache.getStats();
+    assertThat(stats.getMissCount()).isEqualTo(1);
+    assertThat(stats.getHitCount()).isEqualTo(1);
+    assertThat(stats.getInlinedCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void largeSetTest() {
+    val lookup = createLookup("large");
+    assertThat(cache.resolve(lookup).isPresent()).isFalse();
+    assertThat(cache.resolve(lookup).isPresent()).isFalse();
+
+    val stats = cache.getStats();
+    assertThat(stats.getSize()).isEqualTo(1);
+    assertThat(stats.getHitCount()).isEqualTo(1);
+    assertThat(stats.getKeptCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void missingSetTest() {
+    val lookup = createLookup("missing");
+    assertThat(cache.resolve(lookup).isPresent()).isFalse();
+    assertThat(cache.getStats().getSize()).isEqualTo(0);
+  }
+
+  private void indexSet(String id, String... values) {
+    val source = ImmutableMap.of(LOOKUP_PATH, ImmutableList.copyOf(values));
+    indexRandom(true, client.prepareIndex(LOOKUP_INDEX, LOOKUP_TYPE, id).setSource(source));
+  }
+
+  private static LookupInfo createLookup(String id) {
+    return new LookupInfo(LOOKUP_INDEX, LOOKUP_TYPE, id, LOOKUP_PATH);
+  }
+
+}
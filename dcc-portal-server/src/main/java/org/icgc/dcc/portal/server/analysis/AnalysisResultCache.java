@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2018 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.portal.server.analysis;
+
+import static com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES;
+import static com.google.common.base.Charsets.UTF_8;
+import static java.util.stream.Collectors.joining;
+import static lombok.AccessLevel.PRIVATE;
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.icgc.dcc.portal.server.config.ServerProperties;
+import org.icgc.dcc.portal.server.model.EntitySet.State;
+import org.icgc.dcc.portal.server.repository.AnalysisResultRepository;
+import org.icgc.dcc.portal.server.repository.EntitySetRepository;
+import org.skife.jdbi.v2.exceptions.UnableToExecuteStatementException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Joiner;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Content addressed cache of set analysis results.
+ * <p>
+ * Finished entity sets are immutable, so the result of an analysis of them only depends on its type, the ids of its
+ * sets, its parameters and the release it was computed against. Analyses of sets that are still being built are not
+ * cached. Cached results are shared between requests, so they must be immutable. Results are stored as JSON in the database, keyed by a digest
+ * of these inputs, with the most recently used ones also kept in memory. Results of other releases are purged the first
+ * time the cache is used.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class AnalysisResultCache {
+
+  /**
+   * Constants.
+   */
+  private static final ObjectMapper MAPPER = new ObjectMapper().disable(FAIL_ON_UNKNOWN_PROPERTIES);
+
+  /**
+   * Dependencies.
+   */
+  @NonNull
+  private final AnalysisResultRepository repository;
+  @NonNull
+  private final EntitySetRepository entitySetRepository;
+  @NonNull
+  private final ServerProperties properties;
+
+  /**
+   * State.
+   */
+  @Getter(lazy = true, value = PRIVATE)
+  private final int dataVersion = resolveDataVersion();
+  @Getter(lazy = true, value = PRIVATE)
+  private final Cache<String, Object> memory = createMemory();
+
+  /**
+   * Returns the cached result of an analysis, running it if it has not been run against the current release.
+   *
+   * @param type the kind of analysis
+   * @param setIds ids of the analyzed sets, in any order
+   * @param parameters other inputs of the analysis, serialized to JSON for the key. May be {@code null}.
+   * @param resultType type of the result, used to read it back from the database
+   * @param analysis computes the result on a miss or if not all sets are finished. Must return an immutable result.
+   */
+  @SneakyThrows
+  public <T> T get(@NonNull AnalysisType type, @NonNull Collection<UUID> setIds, Object parameters,
+      @NonNull TypeReference<T> resultType, @NonNull Supplier<T> analysis) {
+    if (!properties.getAnalysisCache().isEnabled() || !isFinished(setIds)) {
+      return analysis.get();
+    }
+
+    val dataVersion = getDataVersion();
+    val key = createKey(type, setIds, parameters, dataVersion);
+
+    @SuppressWarnings("unchecked")
+    T result = (T) getMemory().getIfPresent(key);
+    if (result != null) {
+      log.debug("Found {} analysis result '{}' in memory", type, key);
+      return result;
+    }
+
+    val data = repository.find(key, dataVersion);
+    if (data != null) {
+      log.debug("Found {} analysis result '{}' in the database", type, key);
+      result = MAPPER.readValue(MAPPER.treeAsTokens(data), resultType);
+    } else {
+      result = analysis.get();
+      save(type, key, dataVersion, result);
+    }
+
+    getMemory().put(key, result);
+    return result;
+  }
+
+  private boolean isFinished(Collection<UUID> setIds) {
+    for (val setId : setIds) {
+      val set = entitySetRepository.find(setId);
+      if (set == null || set.getState() != State.FINISHED) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  @SneakyThrows
+  private void save(AnalysisType type, String key, int dataVersion, Object result) {
+    try {
+      repository.save(key, type.getId(), dataVersion, MAPPER.writeValueAsString(result));
+    } catch (UnableToExecuteStatementException e) {
+      // Concurrent analyses of the same sets produce the same result
+      log.debug("Could not save {} analysis result '{}': {}", new Object[] { type, key, e.getMessage() });
+    }
+  }
+
+  @SneakyThrows
+  private static String createKey(AnalysisType type, Collection<UUID> setIds, Object parameters, int dataVersion) {
+    val content = Joiner.on('\n').join(
+        type.getId(),
+        dataVersion,
+        setIds.stream().sorted().map(UUID::toString).collect(joining(",")),
+        MAPPER.writeValueAsString(parameters));
+
+    return Hashing.sha256().hashString(content, UTF_8).toString();
+  }
+
+  private int resolveDataVersion() {
+    val dataVersion = properties.getRelease().getDataVersion();
+    val deleteCount = repository.deleteOtherVersions(dataVersion);
+    log.info("Purged {} analysis results of releases other than data version {}", deleteCount, dataVersion);
+
+    return dataVersion;
+  }
+
+  private Cache<String, Object> createMemory() {
+    return CacheBuilder.newBuilder()
+        .maximumSize(properties.getAnalysisCache().getSize())
+        .build();
+  }
+
+  @Getter
+  @RequiredArgsConstructor
+  public enum AnalysisType {
+
+    SURVIVAL("survival"),
+    PHENOTYPE("phenotype"),
+    UNION("union");
+
+    @NonNull
+    private final String id;
+
+  }
+
+}
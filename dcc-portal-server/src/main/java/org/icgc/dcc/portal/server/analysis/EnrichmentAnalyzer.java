@@ -32,12 +32,15 @@ import static org.icgc.dcc.portal.server.model.EnrichmentAnalysis.State.POST_PRO
 import static org.icgc.dcc.portal.server.model.Query.idField;
 import static org.icgc.dcc.portal.server.repository.TermsLookupRepository.TermLookupType.GENE_IDS;
 import static org.icgc.dcc.portal.server.util.Aggregations.getTermsCounts;
+import static org.icgc.dcc.portal.server.util.SearchResponses.getCounts;
 import static org.icgc.dcc.portal.server.util.SearchResponses.getHitIds;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
+import org.icgc.dcc.portal.server.config.ServerProperties;
 import org.icgc.dcc.portal.server.model.EnrichmentAnalysis.Overview;
 import org.icgc.dcc.portal.server.model.EnrichmentAnalysis.Result;
 import org.icgc.dcc.portal.server.model.Query;
@@ -54,6 +57,7 @@ import org.springframework.stereotype.Service;
 
 import com.google.common.base.Optional;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
@@ -76,6 +80,12 @@ public class EnrichmentAnalyzer {
    */
   private static final int GENE_SET_GENE_COUNT_THRESHOLD = 0;
 
+  /**
+   * Multi search keys of the overview gene counts.
+   */
+  private static final String OVERLAP_KEY = "overlap";
+  private static final String UNIVERSE_KEY = "universe";
+
   /**
    * Dependencies.
    */
@@ -92,6 +102,12 @@ public class EnrichmentAnalyzer {
   @NonNull
   private final MutationRepository mutationRepository;
 
+  /**
+   * Configuration.
+   */
+  @NonNull
+  private final ServerProperties properties;
+
   /**
    * This method runs asynchronously to perform enrichment analysis.
    * 
@@ -215,10 +231,28 @@ public class EnrichmentAnalyzer {
   }
 
   private Overview analyzeOverview(Query query, Universe universe, UUID inputGeneListId) {
-    return new Overview()
-        .setOverlapGeneCount(countGenes(overlapQuery(query, universe, inputGeneListId)))
-        .setUniverseGeneCount(countUniverseGenes(universe))
+    val watch = createStarted();
+
+    // Both gene counts target the gene index so they share a single multi search, unless the universe is a GO term
+    val queries = Maps.<String, Query> newLinkedHashMap();
+    queries.put(OVERLAP_KEY, overlapQuery(query, universe, inputGeneListId));
+    if (!universe.isGo()) {
+      queries.put(UNIVERSE_KEY, universeQuery(universe));
+    }
+
+    val geneCounts = countGenes(queries);
+    val universeGeneCount = universe.isGo() ?
+        countGeneSetGenes(universe.getGeneSetId()) :
+        geneCounts.get(UNIVERSE_KEY).intValue();
+    log.info("Counted overview genes in {}", watch);
+
+    val overview = new Overview()
+        .setOverlapGeneCount(geneCounts.get(OVERLAP_KEY).intValue())
+        .setUniverseGeneCount(universeGeneCount)
         .setUniverseGeneSetCount(countUniverseGeneSets(universe));
+    log.info("Counted overview gene sets in {}", watch);
+
+    return overview;
   }
 
   private List<Result> analyzeGeneSetResults(Query query, Universe universe, UUID inputGeneListId,
@@ -304,17 +338,34 @@ public class EnrichmentAnalyzer {
   }
 
   private void postProcessGeneSetResults(Query query, Universe universe, UUID inputGeneListId, List<Result> results) {
-    for (int i = 0; i < results.size(); i++) {
-      val geneSetResult = results.get(i);
-      val geneSetId = geneSetResult.getGeneSetId();
+    val multiSearchSize = properties.getEnrichment().getMultiSearchSize();
 
-      log.debug("[{}/{}] Post-processing {}", new Object[] { i + 1, results.size(), geneSetId });
-      val geneSetOverlapQuery = geneSetOverlapQuery(query, universe, inputGeneListId, geneSetId);
+    int processed = 0;
+    for (val batch : Lists.partition(results, multiSearchSize)) {
+      val watch = createStarted();
 
-      // Update
-      geneSetResult
-          .setOverlapGeneSetDonorCount(countDonors(geneSetOverlapQuery))
-          .setOverlapGeneSetMutationCount(countMutations(geneSetOverlapQuery));
+      val geneSetOverlapQueries = Maps.<String, Query> newLinkedHashMap();
+      for (val geneSetResult : batch) {
+        val geneSetId = geneSetResult.getGeneSetId();
+        geneSetOverlapQueries.put(geneSetId, geneSetOverlapQuery(query, universe, inputGeneListId, geneSetId));
+      }
+
+      val donorCounts = countDonors(geneSetOverlapQueries);
+      log.debug("Counted donors of {} gene sets in {}", batch.size(), watch);
+      val mutationCounts = countMutations(geneSetOverlapQueries);
+      log.debug("Counted mutations of {} gene sets in {}", batch.size(), watch);
+
+      for (val geneSetResult : batch) {
+        val geneSetId = geneSetResult.getGeneSetId();
+
+        // Update
+        geneSetResult
+            .setOverlapGeneSetDonorCount(donorCounts.get(geneSetId).intValue())
+            .setOverlapGeneSetMutationCount(mutationCounts.get(geneSetId).intValue());
+      }
+
+      processed += batch.size();
+      log.info("[{}/{}] Post-processed gene sets in {}", new Object[] { processed, results.size(), watch });
     }
   }
 
@@ -353,28 +404,24 @@ public class EnrichmentAnalyzer {
     return geneSetRepository.findName(geneSetIds);
   }
 
-  private int countGenes(Query query) {
-    return (int) geneRepository.count(query);
+  private Map<String, Long> countGenes(LinkedHashMap<String, Query> queries) {
+    return getCounts(queries, geneRepository.counts(queries));
   }
 
-  private int countDonors(Query query) {
-    return (int) donorRepository.count(query);
+  private Map<String, Long> countDonors(LinkedHashMap<String, Query> queries) {
+    return getCounts(queries, donorRepository.counts(queries));
   }
 
-  private int countMutations(Query query) {
-    return (int) mutationRepository.count(query);
+  private Map<String, Long> countMutations(LinkedHashMap<String, Query> queries) {
+    return getCounts(queries, mutationRepository.counts(queries));
   }
 
   private int countGeneSetGenes(String geneSetId) {
     return geneSetRepository.countGenes(geneSetId);
   }
 
-  private int countUniverseGenes(Universe universe) {
-    if (universe.isGo()) {
-      return countGeneSetGenes(universe.getGeneSetId());
-    } else {
-      return (int) geneRepository.count(Query.builder().filters(universe.getFilter()).build());
-    }
+  private static Query universeQuery(Universe universe) {
+    return Query.builder().filters(universe.getFilter()).build();
   }
 
   private int countUniverseGeneSets(Universe universe) {
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2018 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.portal.server.analysis;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.icgc.dcc.portal.server.model.UnionUnit;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import lombok.NonNull;
+import lombok.val;
+
+/**
+ * Evaluates {@link UnionUnit}s over materialized entity sets in memory.<br>
+ * <br>
+ * Every entity id seen is assigned a dense ordinal, so that each set is a {@link BitSet} of {@code n} bits where
+ * {@code n} is the number of distinct ids across all loaded sets. Unions, intersections and differences are then word
+ * wise bit operations.
+ */
+public class EntitySetAlgebra {
+
+  /**
+   * State.
+   */
+  private final Map<String, Integer> ordinals = Maps.newHashMap();
+  private final List<String> ids = Lists.newArrayList();
+  private final Map<UUID, BitSet> sets = Maps.newHashMap();
+
+  public void add(@NonNull UUID setId, @NonNull Iterable<String> entityIds) {
+    val bits = new BitSet();
+    for (val entityId : entityIds) {
+      bits.set(getOrdinal(entityId));
+    }
+
+    sets.put(setId, bits);
+  }
+
+  public boolean contains(@NonNull UUID setId) {
+    return sets.containsKey(setId);
+  }
+
+  /**
+   * Drops the entities which are not in {@code entityIds} from every loaded set, e.g. those of a set saved against an
+   * earlier release which are no longer indexed.
+   */
+  public void retainAll(@NonNull Iterable<String> entityIds) {
+    val retained = new BitSet(ids.size());
+    for (val entityId : entityIds) {
+      val ordinal = ordinals.get(entityId);
+      if (ordinal != null) {
+        retained.set(ordinal);
+      }
+    }
+
+    for (val bits : sets.values()) {
+      bits.and(retained);
+    }
+  }
+
+  /**
+   * @return the entities of all the {@code intersection} sets which are in none of the {@code exclusions} sets, or none
+   * if there are no {@code intersection} sets
+   */
+  public BitSet evaluate(@NonNull UnionUnit unit) {
+    if (unit.getIntersection().isEmpty()) {
+      return new BitSet();
+    }
+
+    BitSet result = null;
+    for (val setId : unit.getIntersection()) {
+      if (result == null) {
+        result = (BitSet) getSet(setId).clone();
+      } else {
+        result.and(getSet(setId));
+      }
+    }
+
+    for (val setId : unit.getExclusions()) {
+      result.andNot(getSet(setId));
+    }
+
+    return result;
+  }
+
+  /**
+   * @return the union of all {@code units}
+   */
+  public BitSet evaluate(@NonNull Iterable<UnionUnit> units) {
+    val result = new BitSet();
+    for (val unit : units) {
+      result.or(evaluate(unit));
+    }
+
+    return result;
+  }
+
+  public long count(@NonNull UnionUnit unit) {
+    return evaluate(unit).cardinality();
+  }
+
+  /**
+   * @return the ids of at most {@code max} entities of {@code bits} in the order they were first added
+   */
+  public List<String> getIds(@NonNull BitSet bits, int max) {
+    val result = ImmutableList.<String> builder();
+    int remaining = max;
+    for (int i = bits.nextSetBit(0); i >= 0 && remaining > 0; i = bits.nextSetBit(i + 1), remaining--) {
+      result.add(ids.get(i));
+    }
+
+    return result.build();
+  }
+
+  public List<String> getIds(@NonNull BitSet bits) {
+    return getIds(bits, Integer.MAX_VALUE);
+  }
+
+  private BitSet getSet(UUID setId) {
+    val result = sets.get(setId);
+    checkArgument(result != null, "Entity set %s has not been loaded", setId);
+
+    return result;
+  }
+
+  private int getOrdinal(String entityId) {
+    val ordinal = ordinals.get(entityId);
+    if (ordinal != null) {
+      return ordinal;
+    }
+
+    ids.add(entityId);
+    ordinals.put(entityId, ids.size() - 1);
+
+    return ids.size() - 1;
+  }
+
+}
@@ -17,7 +17,14 @@
  */
 package org.icgc.dcc.portal.server.analysis;
 
+import static lombok.AccessLevel.NONE;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
@@ -28,18 +35,22 @@ import java.util.List;
 @Slf4j
 public class KaplanMeier {
 
+  /**
+   * @param donors sorted by time
+   */
   public static List<Interval> compute(List<DonorValue> donors) {
-    val size = donors.size();
-    int[] time = new int[donors.size()];
-    boolean[] censured = new boolean[donors.size()];
+    return compute(SurvivalData.of(donors));
+  }
 
+  public static List<Interval> compute(SurvivalData data) {
+    val size = data.size();
+    val time = data.getTimes();
+    val censured = new boolean[size];
     for (int i = 0; i < size; i++) {
-      val donor = donors.get(i);
-      time[i] = donor.getTime();
-      censured[i] = !donor.isDeceased();
+      censured[i] = !data.getDeceased()[i];
     }
 
-    val intervals = createIntervals(time, censured);
+    val intervals = createIntervals(data, time, censured);
 
     // init variables. Initially everyone is at risk, and the cumulative survival is 1
     float atRisk = time.length;
@@ -74,7 +85,7 @@ public class KaplanMeier {
         }
       }
 
-      currentInterval.addDonor(donors.get(i));
+      currentInterval.addDonor(i);
 
       if (!censured[i]) {
         currentInterval.incDied();
@@ -86,9 +97,14 @@ public class KaplanMeier {
     return intervals;
   }
 
+  /**
+   * Log-log confidence intervals using Greenwood's variance, accumulated in a single pass since the sum for an
+   * interval only covers the intervals before it.
+   */
   private static void confidenceIntervals(List<Interval> intervals, int numDonors) {
-    for (int i = 0; i< intervals.size(); i++) {
-      val interval = intervals.get(i);
+    int atRisk = numDonors;
+    double sigma = 0.0;
+    for (val interval : intervals) {
       if (interval.getCumulativeSurvival() <= 0f) {
         interval.setUpperConfidence(0f);
         interval.setLowerConfidence(0f);
@@ -97,16 +113,6 @@ public class KaplanMeier {
         interval.setLowerConfidence(1f);
       } else {
         double loglog = Math.log( -1.0 * Math.log(interval.cumulativeSurvival));
-
-        int atRisk = numDonors;
-        double sigma = 0.0;
-        for(int j = 0; j < i; j++) {
-          val sigmaInterval = intervals.get(j);
-          val died = (double) sigmaInterval.getDied();
-          sigma += died / (atRisk * (atRisk - died));
-          atRisk -= died;
-        }
-
         double variance = sigma / Math.pow(Math.log(interval.getCumulativeSurvival()), 2);
 
         val c1 = loglog + (1.96 * Math.sqrt(variance));
@@ -117,10 +123,14 @@ public class KaplanMeier {
 
         log.debug("{} {} {}", interval.getCumulativeSurvival(), interval.getLowerConfidence(), interval.getUpperConfidence());
       }
+
+      val died = (double) interval.getDied();
+      sigma += died / (atRisk * (atRisk - died));
+      atRisk -= died;
     }
   }
 
-  private static List<Interval> createIntervals(int[] time, boolean[] censured) {
+  private static List<Interval> createIntervals(SurvivalData data, int[] time, boolean[] censured) {
     val intervals = new ArrayList<Interval>();
     int startTime = 0;
     int endTime = 0;
@@ -128,12 +138,12 @@ public class KaplanMeier {
     for (int i = 0; i < time.length; i++) {
       endTime = time[i];
       if (!censured[i] && endTime > startTime) {
-        intervals.add(new Interval(startTime, endTime));
+        intervals.add(new Interval(startTime, endTime, data));
         startTime = endTime;
       }
     }
     if (endTime > startTime) {
-      intervals.add(new Interval(startTime, endTime));
+      intervals.add(new Interval(startTime, endTime, data));
     }
     return intervals;
   }
@@ -144,23 +154,73 @@ public class KaplanMeier {
     private final int start;
     private final int end;
     private int died;
-    private List<DonorValue> donors = new ArrayList<>();
+    private List<DonorValue> donors;
     private float cumulativeSurvival;
     private float upperConfidence;
     private float lowerConfidence;
 
+    /**
+     * The donors of the interval as the range {@code [from, to)} of the columns it was computed from.
+     */
+    @Getter(NONE)
+    @Setter(NONE)
+    private final SurvivalData data;
+    @Getter(NONE)
+    @Setter(NONE)
+    private int from;
+    @Getter(NONE)
+    @Setter(NONE)
+    private int to;
+
+    @JsonCreator
+    public Interval(@JsonProperty("start") int start, @JsonProperty("end") int end) {
+      this(start, end, SurvivalData.EMPTY);
+    }
+
+    private Interval(int start, int end, SurvivalData data) {
+      this.start = start;
+      this.end = end;
+      this.data = data;
+    }
+
     void incDied() {
       died++;
     }
 
-    void addDonor(DonorValue donor) {
-      donors.add(donor);
+    void addDonor(int index) {
+      if (from == to) {
+        from = index;
+      }
+      to = index + 1;
+    }
+
+    /**
+     * Materializes the donors of the interval on first access, which only happens when serializing the response.
+     */
+    public List<DonorValue> getDonors() {
+      if (donors == null) {
+        val values = new ArrayList<DonorValue>(to - from);
+        for (int i = from; i < to; i++) {
+          values.add(new DonorValue(data.getIds()[i], data.getStatuses()[i], data.getTimes()[i], data.getDeceased()[i]));
+        }
+
+        // Only published once complete since cached intervals are shared between responses
+        donors = values;
+      }
+
+      return donors;
     }
 
     int getCensured() {
       int sum = 0;
-      for (val donor : donors) {
-        sum += donor.getStatus().equalsIgnoreCase("alive") ? 1 : 0;
+      if (donors != null) {
+        for (val donor : donors) {
+          sum += donor.getStatus().equalsIgnoreCase("alive") ? 1 : 0;
+        }
+      } else {
+        for (int i = from; i < to; i++) {
+          sum += data.getStatuses()[i].equalsIgnoreCase("alive") ? 1 : 0;
+        }
       }
       return sum;
     }
@@ -175,6 +235,18 @@ public class KaplanMeier {
     int time;
     boolean deceased;
 
+    @JsonCreator
+    public DonorValue(
+        @JsonProperty("id") String id,
+        @JsonProperty("status") String status,
+        @JsonProperty("time") int time,
+        @JsonProperty("deceased") boolean deceased) {
+      this.id = id;
+      this.status = status;
+      this.time = time;
+      this.deceased = deceased;
+    }
+
   }
 
 }
@@ -17,28 +17,16 @@
  */
 package org.icgc.dcc.portal.server.analysis;
 
-import static java.util.Comparator.comparing;
-import static java.util.stream.Collectors.toList;
 import static org.icgc.dcc.common.core.util.stream.Collectors.toImmutableList;
 import static org.icgc.dcc.common.core.util.stream.Collectors.toImmutableSet;
 import static org.icgc.dcc.portal.server.model.BaseEntitySet.Type.DONOR;
-import static org.icgc.dcc.portal.server.analysis.KaplanMeier.Interval;
-import static org.icgc.dcc.portal.server.analysis.KaplanMeier.DonorValue;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Optional;
 import java.util.UUID;
-import java.util.function.Predicate;
 
-import lombok.extern.slf4j.Slf4j;
 import org.elasticsearch.search.SearchHit;
 import org.icgc.dcc.portal.server.model.SurvivalAnalysis;
-import org.icgc.dcc.portal.server.model.SurvivalAnalysis.Result;
 import org.icgc.dcc.portal.server.model.UnionUnit;
 import org.icgc.dcc.portal.server.repository.EntitySetRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -47,11 +35,12 @@ import org.springframework.stereotype.Service;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Maps;
+import com.google.common.collect.Lists;
 
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.val;
+import lombok.extern.slf4j.Slf4j;
 
 @Service
 @Slf4j
@@ -62,19 +51,19 @@ public class SurvivalAnalyzer {
    * Constants.
    */
   private final static List<String> OVERALL = ImmutableList.of("alive");
-  private final static List<String> OVERALL_SORT =
-      ImmutableList.of("donor_survival_time", "donor_interval_of_last_followup");
-  private final static List<String> OVERALL_FIELDS = ImmutableList.<String> builder()
-      .add("donor_vital_status")
-      .addAll(OVERALL_SORT)
-      .build();
+  private final static String VITAL_STATUS = "donor_vital_status";
+  private final static String SURVIVAL_TIME = "donor_survival_time";
+  private final static String INTERVAL_OF_LAST_FOLLOWUP = "donor_interval_of_last_followup";
+  private final static List<String> OVERALL_SORT = ImmutableList.of(SURVIVAL_TIME, INTERVAL_OF_LAST_FOLLOWUP);
   public final static List<String> DISEASE_FREE = ImmutableList.of(
       "complete remission", "partial remission", "stable", "no evidence of disease");
-  private final static List<String> DISEASE_FREE_SORT = ImmutableList.of("donor_interval_of_last_followup");
-  private final static List<String> DISEASE_FREE_FIELDS = ImmutableList.<String> builder()
-      .add("disease_status_last_followup")
-      .addAll(DISEASE_FREE_SORT)
-      .build();
+  private final static String DISEASE_STATUS = "disease_status_last_followup";
+
+  /**
+   * The fields of both the overall and disease free curves, so that a single search serves both.
+   */
+  private final static List<String> FIELDS =
+      ImmutableList.of(VITAL_STATUS, SURVIVAL_TIME, INTERVAL_OF_LAST_FOLLOWUP, DISEASE_STATUS);
 
   /**
    * Dependencies.
@@ -86,115 +75,107 @@ public class SurvivalAnalyzer {
 
   /**
    * Method for computing the overall and disease free
-   * @param analysis SurvivalAnalysis object with no results.
-   * @return SurvivalAnalysis with populated results.
+   * @param setIds ids of the sets to analyze.
+   * @return the results of the sets in the given order.
    */
-  public SurvivalAnalysis analyze(SurvivalAnalysis analysis) {
-    analysis.setResults(new ArrayList<>());
-    val setIds = analysis.getEntitySetIds();
+  public SurvivalAnalysis.Outcome analyze(List<UUID> setIds) {
+    val results = ImmutableList.<SurvivalAnalysis.Result> builder();
     val entitySetMap = getEntitySetMap(setIds);
+    val overallData = Lists.<SurvivalData> newArrayList();
+    val diseaseFreeData = Lists.<SurvivalData> newArrayList();
+
+    // The sets are loaded once for all the exclusions
+    val unionUnits = setIds.stream().map(entitySetMap::get).collect(toImmutableList());
+    val responses = unionAnalyzer.computeExclusions(unionUnits, DONOR, FIELDS, OVERALL_SORT);
 
     boolean intersection = false;
-    for (val setId : setIds) {
-      val unionUnit = entitySetMap.get(setId);
+    for (int i = 0; i < setIds.size(); i++) {
+      val setId = setIds.get(i);
 
       // The original size of the set, so we know if there is an intersection.
       val originalCount = entitySetRepository.find(setId).getCount();
 
-      val overallIntervals = runAnalysis(unionUnit, false, SurvivalAnalyzer::hasData);
-      val diseaseFreeIntervals = runAnalysis(unionUnit, true, SurvivalAnalyzer::hasDiseaseStatusData);
+      val hits = responses.get(i).getHits().getHits();
+      val overall = SurvivalData.builder(hits.length);
+      val diseaseFree = SurvivalData.builder(hits.length);
+      decode(hits, overall, diseaseFree);
+      log.debug("Decoded {} overall and {} disease free donors of set {}",
+          new Object[] { overall.size(), diseaseFree.size(), setId });
 
-      analysis.getResults().add(
-          analysis.new Result(setId, overallIntervals.getValue(), diseaseFreeIntervals.getValue()));
+      val overallColumns = toCurveData(overall);
+      val diseaseFreeColumns = toCurveData(diseaseFree);
+      overallData.add(overallColumns);
+      diseaseFreeData.add(diseaseFreeColumns);
 
-      if (overallIntervals.getKey() != originalCount.intValue() && !intersection) {
+      results.add(new SurvivalAnalysis.Result(
+          setId, KaplanMeier.compute(overallColumns), KaplanMeier.compute(diseaseFreeColumns)));
+
+      if (hits.length != originalCount.intValue() && !intersection) {
         intersection = true;
       }
     }
 
-    analysis.setIntersection(intersection);
-    val results = analysis.getResults();
-
-    val overall = results.stream().map(Result::getOverall).collect(toImmutableList());
-    analysis.setOverallStats(new SurvivalLogRank(overall).runLogRankTest());
-
-    val diseaseFree = results.stream().map(Result::getDiseaseFree).collect(toImmutableList());
-    analysis.setDiseaseFreeStats(new SurvivalLogRank(diseaseFree).runLogRankTest());
-
-    return analysis;
+    return new SurvivalAnalysis.Outcome(results.build(), intersection,
+        new SurvivalLogRank(overallData).runLogRankTest(),
+        new SurvivalLogRank(diseaseFreeData).runLogRankTest());
   }
 
-  private Entry<Integer, List<Interval>> runAnalysis(UnionUnit unionunit, boolean diseaseFree,
-                                                                 Predicate<SearchHit> filter) {
-    val sort = diseaseFree ? DISEASE_FREE_SORT : OVERALL_SORT;
-    val fields = diseaseFree ? DISEASE_FREE_FIELDS : OVERALL_FIELDS;
-
-    val response = unionAnalyzer.computeExclusion(unionunit, DONOR, fields, sort);
-    SearchHit[] hits = response.getHits().getHits();
-    val donors = filterDonors(hits, filter);
+  /**
+   * Decodes the source of each donor hit once into the overall and disease free survival columns.
+   */
+  private static void decode(SearchHit[] hits, SurvivalData.Builder overall, SurvivalData.Builder diseaseFree) {
+    for (val hit : hits) {
+      val source = hit.getSource();
+      val id = hit.getId();
+
+      val vitalStatus = getString(source, VITAL_STATUS);
+      val overallTime = getOverallTime(source);
+      if (hasData(vitalStatus, overallTime)) {
+        overall.add(id, vitalStatus, overallTime, !OVERALL.contains(vitalStatus));
+      }
 
-    // Cannot produce curve with one data point.
-    val intervals = donors.length <= 1 ? Collections.<Interval> emptyList() : compute(donors, diseaseFree);
-    return Maps.immutableEntry(hits.length, intervals);
+      val diseaseStatus = getString(source, DISEASE_STATUS);
+      val diseaseTime = source.get(INTERVAL_OF_LAST_FOLLOWUP);
+      if (diseaseStatus != null && diseaseTime != null) {
+        diseaseFree.add(id, diseaseStatus, ((Number) diseaseTime).intValue(), !DISEASE_FREE.contains(diseaseStatus));
+      }
+    }
   }
 
-  private static List<Interval> compute(SearchHit[] donors, boolean diseaseFree) {
-    val censuredTerms = diseaseFree ? DISEASE_FREE : OVERALL;
-    val censuredField = diseaseFree ? DISEASE_FREE_FIELDS.get(0) : OVERALL_FIELDS.get(0);
-    Arrays.asList(donors).sort(comparing(x -> diseaseFree ? getDiseaseTime(x) : getOverallTime(x)));
-    val donorValues = Arrays.stream(donors)
-        .map( d ->
-            new DonorValue(
-              d.getId(),
-              d.getSource().get(censuredField).toString(),
-              diseaseFree ? getDiseaseTime(d) : getOverallTime(d),
-              !censuredTerms.contains(d.sourceAsMap().get(censuredField).toString())
-            )
-        )
-        .collect(toList());
-
-    return KaplanMeier.compute(donorValues);
+  private static SurvivalData toCurveData(SurvivalData.Builder builder) {
+    // Cannot produce curve with one data point.
+    return builder.size() <= 1 ? SurvivalData.EMPTY : builder.build(true);
   }
 
-  private static boolean hasData(SearchHit donor) {
-    val statusOptional = Optional.ofNullable(donor.sourceAsMap().get("donor_vital_status"));
-    if (!statusOptional.isPresent()) {
+  private static boolean hasData(String status, int time) {
+    if (status == null) {
       return false;
     }
 
-    val status = statusOptional.get().toString();
     if (!status.equalsIgnoreCase("alive") && !status.equalsIgnoreCase("deceased")) {
       return false;
     }
 
-    val time = getOverallTime(donor);
     return time > 0;
   }
 
-  private static Integer getOverallTime(SearchHit donor) {
-    val survivalOptional = Optional.ofNullable((Integer) donor.sourceAsMap().get("donor_survival_time"));
-    val intervalOptional = Optional.ofNullable((Integer) donor.sourceAsMap().get("donor_interval_of_last_followup"));
+  private static int getOverallTime(Map<String, Object> source) {
+    val survivalTime = source.get(SURVIVAL_TIME);
+    if (survivalTime != null) {
+      return ((Number) survivalTime).intValue();
+    }
 
-    if (survivalOptional.isPresent()) {
-      return survivalOptional.get();
-    } else if (intervalOptional.isPresent()) {
-      return intervalOptional.get();
-    } else {
-      return -1;
+    val interval = source.get(INTERVAL_OF_LAST_FOLLOWUP);
+    if (interval != null) {
+      return ((Number) interval).intValue();
     }
-  }
 
-  private static Integer getDiseaseTime(SearchHit donor) {
-    val censuredTime = DISEASE_FREE_SORT.get(0);
-    return (Integer) donor.sourceAsMap().get(censuredTime);
+    return -1;
   }
 
-  private static boolean hasDiseaseStatusData(SearchHit donor) {
-    for (val field : DISEASE_FREE_FIELDS) {
-      if (donor.sourceAsMap().get(field) == null) return false;
-    }
-
-    return true;
+  private static String getString(Map<String, Object> source, String field) {
+    val value = source.get(field);
+    return value == null ? null : value.toString();
   }
 
   private static Map<UUID, UnionUnit> getEntitySetMap(List<UUID> sets) {
@@ -211,10 +192,4 @@ public class SurvivalAnalyzer {
     return entitySetMapBuilder.build();
   }
 
-  private static SearchHit[] filterDonors(SearchHit[] hits, Predicate<SearchHit> predicate) {
-    return Arrays.stream(hits)
-        .filter(predicate)
-        .toArray(SearchHit[]::new);
-  }
-
 }
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2018 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.portal.server.analysis;
+
+import static lombok.AccessLevel.PRIVATE;
+
+import java.util.Arrays;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.val;
+
+/**
+ * Column oriented survival observations of the donors of a set, sorted by time.
+ */
+@Getter
+@AllArgsConstructor(access = PRIVATE)
+public class SurvivalData {
+
+  public static final SurvivalData EMPTY = new SurvivalData(new String[0], new String[0], new int[0], new boolean[0]);
+
+  private final String[] ids;
+  private final String[] statuses;
+  private final int[] times;
+  private final boolean[] deceased;
+
+  /**
+   * Creates survival data from donors that are already sorted by time.
+   */
+  static SurvivalData of(@NonNull List<KaplanMeier.DonorValue> donors) {
+    val builder = builder(donors.size());
+    for (val donor : donors) {
+      builder.add(donor.getId(), donor.getStatus(), donor.getTime(), donor.isDeceased());
+    }
+
+    return builder.build(false);
+  }
+
+  public static Builder builder(int expectedSize) {
+    return new Builder(expectedSize);
+  }
+
+  public int size() {
+    return times.length;
+  }
+
+  public int getDeceasedCount() {
+    int count = 0;
+    for (val value : deceased) {
+      if (value) {
+        count++;
+      }
+    }
+
+    return count;
+  }
+
+  public static class Builder {
+
+    private String[] ids;
+    private String[] statuses;
+    private int[] times;
+    private boolean[] deceased;
+    private int size;
+
+    private Builder(int expectedSize) {
+      val capacity = Math.max(expectedSize, 1);
+      this.ids = new String[capacity];
+      this.statuses = new String[capacity];
+      this.times = new int[capacity];
+      this.deceased = new boolean[capacity];
+    }
+
+    public Builder add(String id, String status, int time, boolean deceased) {
+      if (size == times.length) {
+        grow();
+      }
+
+      this.ids[size] = id;
+      this.statuses[size] = status;
+      this.times[size] = time;
+      this.deceased[size] = deceased;
+      size++;
+
+      return this;
+    }
+
+    public int size() {
+      return size;
+    }
+
+    /**
+     * Builds the columns, stable sorting them by time first if {@code sort} is set.
+     */
+    public SurvivalData build(boolean sort) {
+      if (!sort) {
+        return new SurvivalData(
+            Arrays.copyOf(ids, size), Arrays.copyOf(statuses, size), Arrays.copyOf(times, size),
+            Arrays.copyOf(deceased, size));
+      }
+
+      // Sort (time, position) pairs packed into longs to keep the original order of ties without boxing
+      val keys = new long[size];
+      for (int i = 0; i < size; i++) {
+        keys[i] = (long) times[i] << 32 | i;
+      }
+      Arrays.sort(keys);
+
+      val sortedIds = new String[size];
+      val sortedStatuses = new String[size];
+      val sortedTimes = new int[size];
+      val sortedDeceased = new boolean[size];
+      for (int i = 0; i < size; i++) {
+        val j = (int) keys[i];
+        sortedIds[i] = ids[j];
+        sortedStatuses[i] = statuses[j];
+        sortedTimes[i] = times[j];
+        sortedDeceased[i] = deceased[j];
+      }
+
+      return new SurvivalData(sortedIds, sortedStatuses, sortedTimes, sortedDeceased);
+    }
+
+    private void grow() {
+      val capacity = times.length * 2;
+      ids = Arrays.copyOf(ids, capacity);
+      statuses = Arrays.copyOf(statuses, capacity);
+      times = Arrays.copyOf(times, capacity);
+      deceased = Arrays.copyOf(deceased, capacity);
+    }
+
+  }
+
+}
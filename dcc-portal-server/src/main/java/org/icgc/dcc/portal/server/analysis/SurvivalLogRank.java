@@ -17,6 +17,9 @@
  */
 package org.icgc.dcc.portal.server.analysis;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import lombok.NonNull;
 import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
@@ -25,9 +28,8 @@ import org.apache.commons.math3.distribution.ChiSquaredDistribution;
 import org.icgc.dcc.portal.server.analysis.KaplanMeier.DonorValue;
 import org.icgc.dcc.portal.server.analysis.KaplanMeier.Interval;
 
+import java.util.Collection;
 import java.util.List;
-import java.util.SortedMap;
-import java.util.TreeMap;
 
 import static java.lang.System.arraycopy;
 import static java.util.Arrays.stream;
@@ -48,26 +50,40 @@ public class SurvivalLogRank {
 
   private int largestTime;
 
-  private SortedMap<Integer, Sample> samples;
+  /**
+   * Survival columns of each set, sorted by time.
+   */
+  private int[][] times;
+  private boolean[][] deceased;
 
   SurvivalLogRank(@NonNull List<List<Interval>> survivalResults) {
-    numSets = survivalResults.size();
+    this(toSurvivalData(survivalResults));
+  }
+
+  /**
+   * @param survivalData the donor survival columns of each set
+   */
+  SurvivalLogRank(@NonNull Collection<SurvivalData> survivalData) {
+    numSets = survivalData.size();
     setTotals = new int[numSets];
     totalObserved = new int[numSets];
-
-    for (int i = 0; i < numSets; i++) {
-      setTotals[i] = survivalResults.get(i).stream()
-              .mapToInt(r -> r.getDonors().size())
-              .sum();
-
-      totalObserved[i] = survivalResults.get(i).stream()
-              .mapToInt(Interval::getDied)
-              .sum();
+    times = new int[numSets][];
+    deceased = new boolean[numSets][];
+
+    int i = 0;
+    for (val data : survivalData) {
+      setTotals[i] = data.size();
+      totalObserved[i] = data.getDeceasedCount();
+      times[i] = data.getTimes();
+      deceased[i] = data.getDeceased();
+
+      for (int j = 0; j < times[i].length; j++) {
+        if (deceased[i][j] && times[i][j] > largestTime) largestTime = times[i][j];
+      }
+      i++;
     }
 
     log.debug("Totals: {}", setTotals);
-    constructSampleGroups(survivalResults);
-    log.debug("TreeMap Size: {}", samples.size());
   }
 
   /**
@@ -80,11 +96,36 @@ public class SurvivalLogRank {
     arraycopy(setTotals, 0, alive, 0, numSets);
     double[] expectedSums = new double[numSets];
 
-    for (val entry: samples.entrySet()) {
-      if (entry.getKey() > largestTime) break;
+    int[] died = new int[numSets];
+    int[] censored = new int[numSets];
+
+    // Merge the sorted time columns of all sets, one distinct time at a time
+    int[] cursors = new int[numSets];
+    while (true) {
+      int time = Integer.MAX_VALUE;
+      boolean remaining = false;
+      for (int i = 0; i < numSets; i++) {
+        if (cursors[i] < times[i].length) {
+          time = Math.min(time, times[i][cursors[i]]);
+          remaining = true;
+        }
+      }
+
+      if (!remaining || time > largestTime) break;
+
+      for (int i = 0; i < numSets; i++) {
+        died[i] = 0;
+        censored[i] = 0;
+        while (cursors[i] < times[i].length && times[i][cursors[i]] == time) {
+          if (deceased[i][cursors[i]]) {
+            died[i]++;
+          } else {
+            censored[i]++;
+          }
+          cursors[i]++;
+        }
+      }
 
-      int[] died = entry.getValue().died;
-      int[] censored = entry.getValue().censured;
       int totalDied = stream(died).sum();
       int totalAlive = stream(alive).sum();
 
@@ -106,41 +147,23 @@ public class SurvivalLogRank {
     return new SurvivalStats(chiSquared, degreesFreedom, pValue);
   }
 
-  /**
-   * Constructs a map of time -> ([died columns], [censored columns])
-   *
-   * @param results intervals of the kaplan meier survival plot.
-   */
-  private void constructSampleGroups(List<List<Interval>> results) {
-    samples = new TreeMap<>();
-
-    for (int i = 0; i < numSets; i++) {
-      val resultDonors = results.get(i).stream()
-              .map(Interval::getDonors)
-              .flatMap(List::stream)
-              .collect(toImmutableList());
-
-      for (val donor : resultDonors) {
-        val time = donor.getTime();
-
-        Sample sample = samples.get(time);
-        if (sample == null) {
-          sample = new Sample(numSets);
-        }
-
-        if (isCensured(donor)) {
-          sample.censured[i]++;
-        } else {
-          if (time > largestTime) largestTime = time;
-          sample.died[i]++;
-        }
-        samples.put(time, sample);
-      }
-    }
-
+  private static List<SurvivalData> toSurvivalData(List<List<Interval>> results) {
+    return results.stream()
+        .map(intervals -> {
+          val builder = SurvivalData.builder(intervals.size());
+          for (val interval : intervals) {
+            for (val donor : interval.getDonors()) {
+              builder.add(donor.getId(), donor.getStatus(), donor.getTime(), !isCensured(donor));
+            }
+          }
+
+          // Donors of an interval are not necessarily ordered by time
+          return builder.build(true);
+        })
+        .collect(toImmutableList());
   }
 
-  private boolean isCensured(DonorValue donor) {
+  private static boolean isCensured(DonorValue donor) {
     return donor.getStatus().equals("alive") || SurvivalAnalyzer.DISEASE_FREE.contains(donor.getStatus());
   }
 
@@ -149,21 +172,16 @@ public class SurvivalLogRank {
     public double chiSquared;
     public int degreesFreedom;
     public double pValue;
-  }
 
-  /**
-   * Represents the number of donors that died or became censored at a specific point in time.
-   */
-  private static class Sample {
-
-    Sample(int setCount) {
-      died = new int[setCount];
-      censured = new int[setCount];
+    @JsonCreator
+    public SurvivalStats(
+        @JsonProperty("chiSquared") double chiSquared,
+        @JsonProperty("degreesFreedom") int degreesFreedom,
+        @JsonProperty("pValue") double pValue) {
+      this.chiSquared = chiSquared;
+      this.degreesFreedom = degreesFreedom;
+      this.pValue = pValue;
     }
-
-    int[] died;
-    int[] censured;
-
   }
 
 }
@@ -17,10 +17,16 @@
  */
 package org.icgc.dcc.portal.server.analysis;
 
+import static com.google.common.base.Preconditions.checkState;
 import static java.lang.Math.min;
+import static java.util.Collections.singleton;
+import static org.dcc.portal.pql.query.TermsLookupCache.DEFAULT_MAX_INLINE_TERMS;
+import static org.elasticsearch.index.query.QueryBuilders.boolQuery;
+import static org.elasticsearch.index.query.QueryBuilders.termsQuery;
+import static org.icgc.dcc.common.core.util.stream.Collectors.toImmutableList;
+import static org.icgc.dcc.portal.server.analysis.AnalysisResultCache.AnalysisType.UNION;
 import static org.icgc.dcc.portal.server.repository.TermsLookupRepository.TERMS_LOOKUP_PATH;
 import static org.icgc.dcc.portal.server.util.ElasticsearchRequestUtils.toBoolFilterFrom;
-import static org.icgc.dcc.portal.server.util.ElasticsearchRequestUtils.toDonorBoolFilter;
 import static org.icgc.dcc.portal.server.util.JsonUtils.LIST_TYPE_REFERENCE;
 import static org.icgc.dcc.portal.server.util.SearchResponses.getHitIdsSet;
 import static org.icgc.dcc.portal.server.util.SearchResponses.getTotalHitCount;
@@ -28,11 +34,15 @@ import static org.icgc.dcc.portal.server.util.SearchResponses.getTotalHitCount;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
+import org.elasticsearch.action.search.MultiSearchResponse;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.search.SearchType;
 import org.elasticsearch.client.Client;
+import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.icgc.dcc.portal.server.config.ServerProperties;
 import org.icgc.dcc.portal.server.model.BaseEntitySet;
 import org.icgc.dcc.portal.server.model.DerivedEntitySetDefinition;
@@ -47,14 +57,19 @@ import org.icgc.dcc.portal.server.repository.FileRepository;
 import org.icgc.dcc.portal.server.repository.GeneRepository;
 import org.icgc.dcc.portal.server.repository.TermsLookupRepository;
 import org.icgc.dcc.portal.server.repository.UnionAnalysisRepository;
+import org.icgc.dcc.portal.server.util.ElasticsearchRequestUtils;
 import org.icgc.dcc.portal.server.util.SearchResponses;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
@@ -73,6 +88,9 @@ public class UnionAnalyzer {
    * Constants.
    */
   private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final String ID_FIELD_NAME = "_id";
+  private static final TypeReference<List<UnionUnitWithCount>> RESULT_TYPE =
+      new TypeReference<List<UnionUnitWithCount>>() {};
 
   /**
    * Dependencies.
@@ -98,6 +116,8 @@ public class UnionAnalyzer {
   private final FileRepository fileRepository;
   @NonNull
   private final DonorRepository donorRepository;
+  @NonNull
+  private final AnalysisResultCache analysisCache;
 
   @Async
   public void calculateUnionUnitCounts(@NonNull final UUID id, @NonNull final UnionAnalysisRequest request) {
@@ -108,22 +128,9 @@ public class UnionAnalyzer {
       val dataVersion = analysis.getVersion();
       unionAnalysisRepository.update(analysis.updateStateToInProgress(), dataVersion);
 
-      val entityType = request.getType();
-      val definitions = request.toUnionSets();
-
-      val result = new ArrayList<UnionUnitWithCount>(definitions.size());
-
-      if (entityType == BaseEntitySet.Type.DONOR) {
-        for (val def : definitions) {
-          val count = getDonorCount(def);
-          result.add(UnionUnitWithCount.copyOf(def, count));
-        }
-      } else {
-        for (val def : definitions) {
-          val count = getUnionCount(def, entityType);
-          result.add(UnionUnitWithCount.copyOf(def, count));
-        }
-      }
+      val units = analysisCache.get(UNION, request.getLists(), request.getType(), RESULT_TYPE,
+          () -> countUnionUnits(request));
+      val result = inRequestOrder(units, request);
 
       log.debug("Result of Union Analysis is: '{}'", result);
       unionAnalysisRepository.update(analysis.updateStateToFinished(result), dataVersion);
@@ -136,19 +143,95 @@ public class UnionAnalyzer {
     }
   }
 
+  /**
+   * Orders the units like the requested sets, which may differ from the order the cached result was computed with.
+   */
+  static List<UnionUnitWithCount> inRequestOrder(List<UnionUnitWithCount> units,
+      UnionAnalysisRequest request) {
+    val counts = Maps.<UnionUnit, Long> newHashMapWithExpectedSize(units.size());
+    for (val unit : units) {
+      counts.put(new UnionUnit(unit.getIntersection(), unit.getExclusions()), unit.getCount());
+    }
+
+    val result = new ArrayList<UnionUnitWithCount>(units.size());
+    for (val def : request.toUnionSets()) {
+      val count = counts.get(def);
+      checkState(count != null, "No count of union unit %s in %s", def, units);
+      result.add(UnionUnitWithCount.copyOf(def, count));
+    }
+
+    return result;
+  }
+
+  private List<UnionUnitWithCount> countUnionUnits(UnionAnalysisRequest request) {
+    val entityType = request.getType();
+    val definitions = request.toUnionSets();
+
+    val sets = loadSets(definitions, entityType, true);
+    val result = new ArrayList<UnionUnitWithCount>(definitions.size());
+    if (sets.isPresent()) {
+      for (val def : definitions) {
+        result.add(UnionUnitWithCount.copyOf(def, sets.get().count(def)));
+      }
+    } else {
+      // All regions are counted in a single round trip
+      val counts = entityType == BaseEntitySet.Type.DONOR ? getDonorCounts(definitions) : getUnionCounts(
+          definitions, entityType);
+      for (int i = 0; i < definitions.size(); i++) {
+        result.add(UnionUnitWithCount.copyOf(definitions.get(i), counts[i]));
+      }
+    }
+
+    return ImmutableList.copyOf(result);
+  }
+
   public List<String> previewSetUnion(@NonNull final DerivedEntitySetDefinition definition) {
     val definitions = definition.getUnion();
     val entityType = definition.getType();
+    val maxPreviewNumberOfHits = termsLookupRepository.getMaxPreviewNumberOfHits();
 
-    val response = unionAll(definitions, entityType, termsLookupRepository.getMaxPreviewNumberOfHits());
+    val sets = loadSets(definitions, entityType, true);
+    if (sets.isPresent()) {
+      return sets.get().getIds(sets.get().evaluate(definitions), maxPreviewNumberOfHits);
+    }
+
+    val response = unionAll(definitions, entityType, maxPreviewNumberOfHits);
     return SearchResponses.getHitIds(response);
   }
 
   public SearchResponse computeExclusion(@NonNull final UnionUnit unionUnit, BaseEntitySet.Type type,
       List<String> fields, List<String> sort) {
-    val response =
-        subtractOne(unionUnit, type, 20000, fields, sort);
-    return response;
+    return computeExclusions(ImmutableList.of(unionUnit), type, fields, sort).get(0);
+  }
+
+  /**
+   * Same as {@link #computeExclusion(UnionUnit, BaseEntitySet.Type, List, List)} for every unit, loading the sets they
+   * reference only once. Responses are in {@code unionUnits} order.
+   */
+  public List<SearchResponse> computeExclusions(@NonNull final List<UnionUnit> unionUnits, BaseEntitySet.Type type,
+      List<String> fields, List<String> sort) {
+    // Ids which are no longer indexed need not be dropped here, as the search only returns indexed documents anyway
+    val sets = loadSets(unionUnits, type, false);
+
+    val result = ImmutableList.<SearchResponse> builder();
+    for (val unionUnit : unionUnits) {
+      BoolQueryBuilder boolFilter = null;
+      if (sets.isPresent()) {
+        val exclusion = sets.get().evaluate(unionUnit);
+        if (exclusion.cardinality() <= getMaxInlineIds()) {
+          boolFilter = toIdsFilter(sets.get().getIds(exclusion));
+        }
+      }
+
+      if (boolFilter == null) {
+        // Too large to inline, so let Elasticsearch resolve the terms lookups
+        boolFilter = toBoolFilterFrom(unionUnit, type);
+      }
+
+      result.add(subtractOne(boolFilter, type, 20000, fields, sort));
+    }
+
+    return result.build();
   }
 
   @Async
@@ -173,7 +256,13 @@ public class UnionAnalyzer {
       long totalHits;
       Iterable<String> entityIds;
       val maxUnionCount = termsLookupRepository.getMaxUnionCount();
-      if (entityType == BaseEntitySet.Type.DONOR) {
+      val sets = loadSets(definitions, entityType, true);
+      if (sets.isPresent()) {
+        // Computed locally, so the result is not limited by the number of hits a search may return
+        val union = sets.get().evaluate(definitions);
+        entityIds = sets.get().getIds(union);
+        totalHits = union.cardinality();
+      } else if (entityType == BaseEntitySet.Type.DONOR) {
         response = getDonorUnion(definitions);
         entityIds = SearchResponses.getHitIdsSet(response);
         totalHits = Iterables.size(entityIds);
@@ -184,7 +273,7 @@ public class UnionAnalyzer {
       }
       log.debug("Union result is: '{}'", entityIds);
 
-      if (totalHits > maxUnionCount) {
+      if (!sets.isPresent() && totalHits > maxUnionCount) {
         log.info(
             "Because the total hit count ({}) exceeds the allowed maximum ({}), this set operation is aborted.",
             totalHits, maxUnionCount);
@@ -234,12 +323,12 @@ public class UnionAnalyzer {
     return response;
   }
 
-  private SearchResponse subtractOne(final UnionUnit definition, final BaseEntitySet.Type entityType,
+  private SearchResponse subtractOne(final BoolQueryBuilder boolFilter, final BaseEntitySet.Type entityType,
       final int max, List<String> fields, List<String> sort) {
     val response = donorRepository.singleDonorUnion(
         entityType.getIndexTypeName(),
         SearchType.QUERY_THEN_FETCH,
-        toBoolFilterFrom(definition, entityType),
+        boolFilter,
         max,
         fields.toArray(new String[fields.size()]),
         sort);
@@ -254,27 +343,106 @@ public class UnionAnalyzer {
     return response;
   }
 
-  private long getDonorCount(final UnionUnit unionDefinition) {
-    val boolFilter = toDonorBoolFilter(unionDefinition);
-    val response = donorRepository.donorSearchRequest(boolFilter, termsLookupRepository.getMaxUnionCount());
+  /**
+   * Loads every set referenced by {@code definitions} for local evaluation.
+   * 
+   * @param indexedOnly whether to drop the ids which are not in the current release, so that local results agree with
+   * those of Elasticsearch
+   * @return absent if any of the sets is not materialized yet, in which case the definitions are evaluated by
+   * Elasticsearch
+   */
+  private Optional<EntitySetAlgebra> loadSets(final List<UnionUnit> definitions,
+      final BaseEntitySet.Type entityType, final boolean indexedOnly) {
+    val setIds = Sets.<UUID> newLinkedHashSet();
+    for (val definition : definitions) {
+      setIds.addAll(definition.getIntersection());
+      setIds.addAll(definition.getExclusions());
+    }
+
+    val lookups = termsLookupRepository.findTermsLookups(entityType.toLookupType(), setIds);
+    if (lookups.size() < setIds.size()) {
+      log.info("Not all of the entity sets {} are materialized, falling back to Elasticsearch", setIds);
+      return Optional.empty();
+    }
 
-    return getHitIdsSet(response).size();
+    val result = new EntitySetAlgebra();
+    for (val lookup : lookups.entrySet()) {
+      result.add(lookup.getKey(), lookup.getValue());
+    }
+
+    if (indexedOnly) {
+      result.retainAll(findIndexedIds(setIds, entityType));
+    }
+
+    return Optional.of(result);
+  }
+
+  /**
+   * @return the ids of the entities in any of the {@code setIds} sets which are in the current release
+   */
+  private Set<String> findIndexedIds(final Set<UUID> setIds, final BaseEntitySet.Type entityType) {
+    val members = setIds.stream()
+        .map(setId -> UnionUnit.noExclusionInstance(singleton(setId)))
+        .collect(toImmutableList());
+    val boolFilter = toBoolFilterFrom(members, entityType);
+
+    return entityType == BaseEntitySet.Type.DONOR ? donorRepository.findDonorIds(boolFilter) : termsLookupRepository
+        .findIds(entityType.getIndexTypeName(), boolFilter);
   }
 
-  private long getUnionCount(
-      final UnionUnit unionDefinition,
+  /**
+   * Ids beyond this are not sent inline, to keep the size of a search request bounded.
+   */
+  private int getMaxInlineIds() {
+    return min(termsLookupRepository.getMaxUnionCount(), DEFAULT_MAX_INLINE_TERMS);
+  }
+
+  private static BoolQueryBuilder toIdsFilter(final List<String> ids) {
+    return boolQuery().must(termsQuery(ID_FIELD_NAME, ids));
+  }
+
+  /**
+   * Donors are searched across the release and repository indices, so their ids are needed to count each donor once.
+   */
+  private long[] getDonorCounts(final List<UnionUnit> unionDefinitions) {
+    List<BoolQueryBuilder> boolFilters = unionDefinitions.stream()
+        .map(ElasticsearchRequestUtils::toDonorBoolFilter)
+        .collect(toImmutableList());
+    val responses = donorRepository.donorSearchRequests(boolFilters, termsLookupRepository.getMaxUnionCount());
+
+    val result = new long[boolFilters.size()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = getHitIdsSet(getResponse(responses, i)).size();
+    }
+
+    return result;
+  }
+
+  private long[] getUnionCounts(
+      final List<UnionUnit> unionDefinitions,
       final BaseEntitySet.Type entityType) {
     val maxUnionCount = termsLookupRepository.getMaxUnionCount();
+    List<BoolQueryBuilder> boolFilters = unionDefinitions.stream()
+        .map(unionDefinition -> toBoolFilterFrom(unionDefinition, entityType))
+        .collect(toImmutableList());
+    val responses = termsLookupRepository.runUnionEsQueryCounts(entityType.getIndexTypeName(), boolFilters);
+
+    val result = new long[boolFilters.size()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = getCountFrom(getResponse(responses, i), maxUnionCount);
+    }
 
-    val response = termsLookupRepository.runUnionEsQueryCount(
-        entityType.getIndexTypeName(),
-        toBoolFilterFrom(unionDefinition, entityType),
-        maxUnionCount);
+    log.debug("Total hits: {}", result);
+    return result;
+  }
 
-    val count = getCountFrom(response, maxUnionCount);
-    log.debug("Total hits: {}", count);
+  private static SearchResponse getResponse(final MultiSearchResponse responses, final int i) {
+    val item = responses.getResponses()[i];
+    if (item.isFailure()) {
+      throw new IllegalStateException("Union count search failed: " + item.getFailureMessage(), item.getFailure());
+    }
 
-    return count;
+    return item.getResponse();
   }
 
   private static long getCountFrom(@NonNull final SearchResponse response, final long max) {
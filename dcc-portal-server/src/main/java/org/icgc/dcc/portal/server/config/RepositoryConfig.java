@@ -18,6 +18,7 @@ package org.icgc.dcc.portal.server.config;
 
 import javax.sql.DataSource;
 
+import org.icgc.dcc.portal.server.repository.AnalysisResultRepository;
 import org.icgc.dcc.portal.server.repository.EnrichmentAnalysisRepository;
 import org.icgc.dcc.portal.server.repository.EntitySetRepository;
 import org.icgc.dcc.portal.server.repository.ManifestRepository;
@@ -75,6 +76,11 @@ public class RepositoryConfig {
     return dbi.open(OncogridAnalysisRepository.class);
   }
 
+  @Bean
+  public AnalysisResultRepository analysisResultRepository(DBI dbi) {
+    return dbi.open(AnalysisResultRepository.class);
+  }
+
   @Bean
   public DBI dbi(DataSource dataSource) {
     return new DBI(dataSource);
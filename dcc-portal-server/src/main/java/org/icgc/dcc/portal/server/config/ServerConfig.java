@@ -17,7 +17,9 @@
 
 package org.icgc.dcc.portal.server.config;
 
+import org.dcc.portal.pql.query.QueryCache;
 import org.dcc.portal.pql.query.QueryEngine;
+import org.dcc.portal.pql.query.TermsLookupCache;
 import org.elasticsearch.client.Client;
 import org.icgc.dcc.common.core.mail.Mailer;
 import org.icgc.dcc.portal.server.config.ServerProperties.AuthProperties;
@@ -39,6 +41,7 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolExecutorFactoryBean;
 
 import lombok.NonNull;
 import lombok.val;
@@ -47,6 +50,12 @@ import lombok.val;
 @Configuration
 public class ServerConfig {
 
+  /**
+   * Constants.
+   */
+  private static final int EXPORT_THREADS = 8;
+  private static final int BEACON_THREADS = 2;
+
   /**
    * Properties.
    */
@@ -66,9 +75,19 @@ public class ServerConfig {
     return new UserAuthProvider(authenticator, "OpenID");
   }
 
+  @Bean
+  public TermsLookupCache termsLookupCache(@NonNull Client client) {
+    return new TermsLookupCache(client);
+  }
+
+  @Bean
+  public QueryCache queryCache() {
+    return new QueryCache();
+  }
+
   @Bean
   public QueryEngine queryEngine(@NonNull Client client, @Value("#{indexName}") String index) {
-    return new QueryEngine(client, index);
+    return new QueryEngine(client, index, queryCache(), termsLookupCache(client));
   }
 
   @Bean
@@ -82,6 +101,41 @@ public class ServerConfig {
         .build();
   }
 
+  /**
+   * Executors.
+   */
+
+  /**
+   * Runs the scroll prefetching of file exports. Exports beyond {@link #EXPORT_THREADS} are rejected rather than queued
+   * and page without prefetching.
+   */
+  @Bean
+  public ThreadPoolExecutorFactoryBean exportExecutor() {
+    val executor = executor("file-export-", EXPORT_THREADS);
+    executor.setQueueCapacity(0);
+
+    return executor;
+  }
+
+  /**
+   * Runs the background build of the Beacon allele index, which needs a second thread for its scroll prefetching.
+   */
+  @Bean
+  public ThreadPoolExecutorFactoryBean beaconExecutor() {
+    return executor("beacon-index-", BEACON_THREADS);
+  }
+
+  private static ThreadPoolExecutorFactoryBean executor(String threadNamePrefix, int threads) {
+    val executor = new ThreadPoolExecutorFactoryBean();
+    executor.setThreadNamePrefix(threadNamePrefix);
+    executor.setDaemon(true);
+    executor.setCorePoolSize(threads);
+    executor.setMaxPoolSize(threads);
+    executor.setAllowCoreThreadTimeOut(true);
+
+    return executor;
+  }
+
   /**
    * Settings
    */
@@ -79,6 +79,18 @@ public class ServerProperties {
   @JsonProperty
   SetOperationProperties setOperation = new SetOperationProperties();
 
+  @Valid
+  @JsonProperty
+  EnrichmentProperties enrichment = new EnrichmentProperties();
+
+  @Valid
+  @JsonProperty
+  AnalysisCacheProperties analysisCache = new AnalysisCacheProperties();
+
+  @Valid
+  @JsonProperty
+  BeaconProperties beacon = new BeaconProperties();
+
   @Valid
   @JsonProperty
   OAuthProperties oauth = new OAuthProperties();
@@ -122,6 +134,39 @@ public class ServerProperties {
     @JsonProperty
     List<String> excludeETag = newArrayList();
 
+    @JsonProperty
+    boolean enableResponseCache;
+
+    /**
+     * Resources whose anonymous responses are cached for the lifetime of the release.
+     */
+    @JsonProperty
+    List<String> includeResponseCache = newArrayList();
+
+    /**
+     * Maximum compressed bytes of cached responses kept in memory.
+     */
+    @JsonProperty
+    long responseCacheSize = 256L * 1024 * 1024;
+
+    /**
+     * Maximum uncompressed bytes of a single cached response.
+     */
+    @JsonProperty
+    int responseCacheMaxEntrySize = 8 * 1024 * 1024;
+
+    /**
+     * Optional directory to spill responses evicted from memory to.
+     */
+    @JsonProperty
+    String responseCacheDir;
+
+    /**
+     * Maximum compressed bytes of cached responses kept on disk.
+     */
+    @JsonProperty
+    long responseCacheDiskSize = 2L * 1024 * 1024 * 1024;
+
   }
 
   @Data
@@ -229,6 +274,9 @@ public class ServerProperties {
     @JsonProperty
     int openidAuthTTL;
 
+    @JsonProperty
+    int tokensCacheTTL = 600;
+
     @JsonProperty
     boolean multicast = false;
 
@@ -318,6 +366,54 @@ public class ServerProperties {
     int maxNumberOfHits;
     @JsonProperty
     int maxMultiplier;
+    /**
+     * Limit for the number of items of a set materialized from filters. These are streamed, so they are not bound by
+     * {@link #maxNumberOfHits}.
+     */
+    @JsonProperty
+    int maxMaterializedNumberOfHits = 1_000_000;
+  }
+
+  @Data
+  public static class EnrichmentProperties {
+
+    /**
+     * Number of gene set count searches sent to ElasticSearch in a single multi search request.
+     */
+    @JsonProperty
+    @Min(value = 1, message = "Must be greater than or equal to {value} but was '${validatedValue}'")
+    int multiSearchSize = 50;
+  }
+
+  @Data
+  public static class AnalysisCacheProperties {
+
+    @JsonProperty
+    boolean enabled = true;
+
+    /**
+     * Number of analysis results kept in memory in front of the database.
+     */
+    @JsonProperty
+    @Min(value = 0, message = "Must be greater than or equal to {value} but was '${validatedValue}'")
+    int size = 100;
+  }
+
+  @Data
+  public static class BeaconProperties {
+
+    /**
+     * Build an allele index of the release in the background and answer Beacon queries from it once ready?
+     */
+    @JsonProperty
+    boolean indexed = false;
+
+    /**
+     * Directory under which the allele index of each release is kept between restarts. Must be set to a persistent
+     * location if {@link #indexed}, as the index is expensive to rebuild.
+     */
+    @JsonProperty
+    String indexDir;
   }
 
   @Data
@@ -17,6 +17,7 @@
 
 package org.icgc.dcc.portal.server.config;
 
+import org.icgc.dcc.portal.server.service.BrowserService;
 import org.icgc.dcc.portal.server.service.GeneService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
@@ -35,6 +36,8 @@ public class ServiceConfig {
 
   @Autowired
   private GeneService geneService;
+  @Autowired
+  private BrowserService browserService;
 
   /**
    * Initialization of services.
@@ -45,6 +48,7 @@ public class ServiceConfig {
   public void init() {
     log.info("Initializing services...");
     geneService.init();
+    browserService.init();
   }
 
 }
@@ -24,9 +24,12 @@ import java.util.Map;
 import java.util.UUID;
 
 import org.icgc.dcc.portal.server.config.ServerProperties.HazelcastProperties;
+import org.icgc.dcc.portal.server.model.Settings;
 import org.icgc.dcc.portal.server.model.User;
 import org.icgc.dcc.portal.server.security.openid.DistributedConsumerAssociationStore;
 import org.icgc.dcc.portal.server.security.openid.DistributedNonceVerifier;
+import org.icgc.dcc.portal.server.service.EgoAuthService;
+import org.icgc.dcc.portal.server.service.EgoAuthService.VerifiedToken;
 import org.icgc.dcc.portal.server.service.SessionService;
 import org.openid4java.consumer.ConsumerManager;
 import org.openid4java.consumer.InMemoryConsumerAssociationStore;
@@ -58,6 +61,8 @@ public class SessionConfig {
    */
   @Autowired
   private HazelcastProperties hazelcast;
+  @Autowired
+  private Settings settings;
 
   @Bean
   public HazelcastInstance hazelcastInstance() {
@@ -98,6 +103,17 @@ public class SessionConfig {
     }
   }
 
+  @Bean
+  public EgoAuthService egoAuthService() {
+    if (isDistributed()) {
+      Map<String, VerifiedToken> tokensCache = hazelcastInstance().getMap(EgoAuthService.TOKENS_CACHE_NAME);
+
+      return new EgoAuthService(settings, tokensCache);
+    } else {
+      return new EgoAuthService(settings);
+    }
+  }
+
   /**
    * Utilities.
    */
@@ -141,6 +157,11 @@ public class SessionConfig {
     openidAuthMapConfig.setName(SessionService.DISCOVERY_INFO_CACHE_NAME);
     openidAuthMapConfig.setTimeToLiveSeconds(hazelcastConfig.getOpenidAuthTTL());
     mapConfigs.put(SessionService.DISCOVERY_INFO_CACHE_NAME, openidAuthMapConfig);
+
+    val tokensMapConfig = new MapConfig();
+    tokensMapConfig.setName(EgoAuthService.TOKENS_CACHE_NAME);
+    tokensMapConfig.setTimeToLiveSeconds(hazelcastConfig.getTokensCacheTTL());
+    mapConfigs.put(EgoAuthService.TOKENS_CACHE_NAME, tokensMapConfig);
   }
 
 }
@@ -32,6 +32,7 @@ import org.icgc.dcc.portal.server.controller.IndexController;
 import org.icgc.dcc.portal.server.jersey.filter.CachingFilter;
 import org.icgc.dcc.portal.server.jersey.filter.CrossOriginFilter;
 import org.icgc.dcc.portal.server.jersey.filter.DownloadFilter;
+import org.icgc.dcc.portal.server.jersey.filter.ResponseCacheFilter;
 import org.icgc.dcc.portal.server.jersey.filter.VersionFilter;
 import org.icgc.dcc.portal.server.resource.Resource;
 import org.icgc.dcc.portal.server.spring.SpringComponentProviderFactory;
@@ -134,12 +135,14 @@ public class WebConfig extends WebMvcConfigurerAdapter {
     config.getProperties().put(PROPERTY_CONTAINER_REQUEST_FILTERS,
         ImmutableList.of(LoggingFilter.class.getName(),
             DownloadFilter.class.getName(),
-            CachingFilter.class.getName()));
+            CachingFilter.class.getName(),
+            ResponseCacheFilter.class.getName()));
     config.getProperties().put(PROPERTY_CONTAINER_RESPONSE_FILTERS,
         ImmutableList.of(LoggingFilter.class.getName(),
             VersionFilter.class.getName(),
             CrossOriginFilter.class.getName(),
-            CachingFilter.class.getName()));
+            CachingFilter.class.getName(),
+            ResponseCacheFilter.class.getName()));
 
     return config;
   }
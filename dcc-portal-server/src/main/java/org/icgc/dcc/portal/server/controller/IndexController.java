@@ -17,20 +17,30 @@
  */
 package org.icgc.dcc.portal.server.controller;
 
+import static com.google.common.net.HttpHeaders.ACCEPT_ENCODING;
+import static com.google.common.net.HttpHeaders.CONTENT_ENCODING;
+import static com.google.common.net.HttpHeaders.VARY;
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.HOURS;
 import static org.icgc.dcc.common.core.json.Jackson.DEFAULT;
+import static org.icgc.dcc.portal.server.util.ContentEncodings.GZIP;
+import static org.icgc.dcc.portal.server.util.ContentEncodings.gzip;
+import static org.icgc.dcc.portal.server.util.ContentEncodings.isGzipAccepted;
 
 import java.io.InputStreamReader;
 
 import org.icgc.dcc.portal.server.model.Settings;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.io.CharStreams;
 
 import lombok.SneakyThrows;
@@ -39,6 +49,8 @@ import lombok.val;
 /**
  * Dynamic {@literal index.html} page that injects {@link Settings} into a {@code <script>} tag at
  * {@code <portal-settings></portal-settings>} if present.
+ * <p>
+ * The page is rendered and compressed once an hour, and served compressed to clients accepting gzip.
  * 
  * @see https://jira.oicr.on.ca/browse/DCC-5331
  */
@@ -51,6 +63,7 @@ public class IndexController {
   private static final String VARIABLE_NAME = "ICGC_SETTINGS";
   private static final String SETTINGS_TAG = "<portal-settings></portal-settings>";
   private static final String GA_TAG = "<ga-account>";
+  private static final MediaType TEXT_HTML_UTF8 = new MediaType("text", "html", UTF_8);
 
   /**
    * Dependencies
@@ -62,9 +75,26 @@ public class IndexController {
   @Autowired
   private Settings settings;
 
-  @Cacheable("index.html")
+  /**
+   * State.
+   */
+  private final Supplier<Page> page = Suppliers.memoizeWithExpiration(this::render, 1, HOURS);
+
   @RequestMapping("/index.html")
-  public ResponseEntity<String> index() {
+  public ResponseEntity<byte[]> index(@RequestHeader(value = ACCEPT_ENCODING, required = false) String acceptEncoding) {
+    val rendered = page.get();
+    val response = ResponseEntity.ok()
+        .contentType(TEXT_HTML_UTF8)
+        .header(VARY, ACCEPT_ENCODING);
+
+    if (isGzipAccepted(acceptEncoding)) {
+      return response.header(CONTENT_ENCODING, GZIP).body(rendered.getGzip());
+    }
+
+    return response.body(rendered.getHtml());
+  }
+
+  private Page render() {
     // Inject script into existing HTML content
     val script = createScript();
 
@@ -72,7 +102,8 @@ public class IndexController {
     html = injectScript(html, script);
     html = injectGAAccount(html, gaAccount);
 
-    return ResponseEntity.ok(html);
+    val bytes = html.getBytes(UTF_8);
+    return new Page(bytes, gzip(bytes));
   }
 
   @SneakyThrows
@@ -94,4 +125,12 @@ public class IndexController {
     return html.replace(SETTINGS_TAG, script);
   }
 
+  @lombok.Value
+  private static class Page {
+
+    byte[] html;
+    byte[] gzip;
+
+  }
+
 }
@@ -17,6 +17,8 @@
  */
 package org.icgc.dcc.portal.server.endpoint;
 
+import org.dcc.portal.pql.query.QueryEngine;
+import org.icgc.dcc.portal.server.jersey.filter.ResponseCacheFilter;
 import org.icgc.dcc.portal.server.service.IndexService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.actuate.endpoint.Endpoint;
@@ -45,11 +47,15 @@ public class IndexEndpoint implements MvcEndpoint {
    * Dependencies
    */
   private final IndexService indexService;
+  private final QueryEngine queryEngine;
+  private final ResponseCacheFilter responseCacheFilter;
 
   @RequestMapping(method = RequestMethod.DELETE)
   public @ResponseBody String clearCache() {
     log.info("Requesting index clearCache...");
     indexService.clearCache();
+    queryEngine.invalidateCache();
+    responseCacheFilter.clear();
     return "Cache cleared";
   }
 
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2015 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.portal.server.endpoint;
+
+import org.dcc.portal.pql.query.QueryCache;
+import org.dcc.portal.pql.query.QueryEngine;
+import org.dcc.portal.pql.query.TermsLookupCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.Endpoint;
+import org.springframework.boot.actuate.endpoint.mvc.MvcEndpoint;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Exposes the compiled PQL query and entity set cache statistics and allows the caches to be cleared after a release
+ * change.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+@ConfigurationProperties(prefix = "endpoints." + QueryEndpoint.ENDPOINT_ID, ignoreUnknownFields = false)
+public class QueryEndpoint implements MvcEndpoint {
+
+  /**
+   * Constants.
+   */
+  protected static final String ENDPOINT_ID = "query";
+
+  /**
+   * Dependencies
+   */
+  private final QueryEngine queryEngine;
+  private final TermsLookupCache termsLookupCache;
+
+  @RequestMapping(method = RequestMethod.GET)
+  public @ResponseBody QueryCache.Stats getCacheStats() {
+    return queryEngine.getCacheStats();
+  }
+
+  @RequestMapping(value = "/lookups", method = RequestMethod.GET)
+  public @ResponseBody TermsLookupCache.Stats getLookupCacheStats() {
+    return termsLookupCache.getStats();
+  }
+
+  @RequestMapping(method = RequestMethod.DELETE)
+  public @ResponseBody String clearCache() {
+    log.info("Requesting query clearCache...");
+    queryEngine.invalidateCache();
+    termsLookupCache.invalidate();
+    return "Cache cleared";
+  }
+
+  @Override
+  public String getPath() {
+    return ENDPOINT_ID;
+  }
+
+  @Override
+  public boolean isSensitive() {
+    return true;
+  }
+
+  @Override
+  @SuppressWarnings("rawtypes")
+  public Class<? extends Endpoint> getEndpointType() {
+    return null;
+  }
+
+}
@@ -19,18 +19,27 @@ package org.icgc.dcc.portal.server.jersey.filter;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
-import static com.google.common.hash.Hashing.murmur3_128;
+import static com.google.common.hash.Hashing.sha256;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static javax.ws.rs.core.HttpHeaders.ACCEPT;
+import static javax.ws.rs.core.HttpHeaders.AUTHORIZATION;
+import static javax.ws.rs.core.HttpHeaders.CONTENT_ENCODING;
 import static javax.ws.rs.core.Response.fromResponse;
+import static javax.ws.rs.core.Response.Status.NOT_MODIFIED;
+import static javax.ws.rs.core.Response.Status.Family.SUCCESSFUL;
+import static org.icgc.dcc.portal.server.util.ContentEncodings.GZIP;
 
 import java.util.Date;
 import java.util.List;
 import java.util.regex.Pattern;
 
+import javax.ws.rs.HttpMethod;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.Response.ResponseBuilder;
 
 import org.elasticsearch.client.Client;
+import org.icgc.dcc.portal.server.config.ServerProperties.AuthProperties;
 import org.icgc.dcc.portal.server.config.ServerProperties.CacheProperties;
 import org.joda.time.DateTime;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -38,7 +47,9 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Ordering;
 import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
 import com.sun.jersey.spi.container.ContainerRequest;
 import com.sun.jersey.spi.container.ContainerRequestFilter;
 import com.sun.jersey.spi.container.ContainerResponse;
@@ -46,12 +57,21 @@ import com.sun.jersey.spi.container.ContainerResponseFilter;
 
 import lombok.val;
 
+/**
+ * Generates {@code Last-Modified} and {@code ETag} headers and answers conditional requests with
+ * {@code 304 Not Modified}.
+ * <p>
+ * Responses only change with the release, so the ETag is derived from the release date and the request itself (path,
+ * sorted query parameters, accepted media types and the credentials presented) rather than from the response entity.
+ * This lets a matching {@code If-None-Match} be answered before the resource method is invoked.
+ */
 @Component
 public class CachingFilter implements ContainerRequestFilter, ContainerResponseFilter {
 
   private static final String DATE_FIELD_NAME = "date";
   private static final String RELEASE_TYPE_NAME = "release";
-  private static final HashFunction HASH_FUNCTION = murmur3_128();
+  private static final HashFunction HASH_FUNCTION = sha256();
+  private static final char SEPARATOR = '\0';
 
   private final boolean enableLastModified;
   private final boolean enableEtag;
@@ -72,7 +92,20 @@ public class CachingFilter implements ContainerRequestFilter, ContainerResponseF
 
   @Override
   public ContainerRequest filter(ContainerRequest request) {
-    if (isLastModifiedPreconditioned(request) && !isEtagPreconditioned(request)) {
+    val generateLastModified = isLastModifiedPreconditioned(request);
+
+    if (isEtagPreconditioned(request)) {
+      val etag = entityTag(request, lastModifiedDate);
+
+      // Accept the "gzip" version too, since compression may have decorated the tag sent to the client
+      for (val tag : ImmutableList.of(getGzipEtag(etag), etag)) {
+        val builder = generateLastModified ?
+            request.evaluatePreconditions(lastModifiedDate, tag) :
+            request.evaluatePreconditions(tag);
+
+        checkNotModified(builder);
+      }
+    } else if (generateLastModified) {
       val builder = request.evaluatePreconditions(lastModifiedDate);
       checkNotModified(builder);
     }
@@ -86,24 +119,12 @@ public class CachingFilter implements ContainerRequestFilter, ContainerResponseF
     val generateLastModified = isLastModifiedPreconditioned(request);
 
     if (isEtagPreconditioned(request)) {
-      val etag = getEtag(response);
-      val gzipEtag = getGzipEtag(etag);
-      val hasEtag = hasEtag(etag);
-
-      if (hasEtag && generateLastModified) {
-        // Compare using "gzip" version
-        builder = request.evaluatePreconditions(lastModifiedDate, gzipEtag);
-      } else if (hasEtag) {
-        builder = request.evaluatePreconditions(gzipEtag);
-      } else if (generateLastModified) {
-        builder = request.evaluatePreconditions(lastModifiedDate);
-      }
-
-      checkNotModified(builder);
+      // Tag the response, including a 304 thrown by the request filter
       builder = fromResponse(response.getResponse());
 
-      if (hasEtag(etag)) {
-        builder.tag(etag);
+      if (isTaggable(response)) {
+        val etag = entityTag(request, lastModifiedDate);
+        builder.tag(isGzipEncoded(response) ? getGzipEtag(etag) : etag);
       }
 
       if (generateLastModified) {
@@ -111,7 +132,6 @@ public class CachingFilter implements ContainerRequestFilter, ContainerResponseF
       }
 
       response.setResponse(builder.build());
-      // Both ETag and LastModified are enabled, but ETag could not be generated because of empty entity
     } else if (generateLastModified) {
       builder = fromResponse(response.getResponse());
       builder.lastModified(lastModifiedDate);
@@ -121,10 +141,6 @@ public class CachingFilter implements ContainerRequestFilter, ContainerResponseF
     return response;
   }
 
-  private static boolean hasEtag(EntityTag etag) {
-    return etag != null;
-  }
-
   private static void checkNotModified(ResponseBuilder builder) {
     // Do not process the request. Go straight to the response filters.
     val fresh = builder != null;
@@ -133,16 +149,6 @@ public class CachingFilter implements ContainerRequestFilter, ContainerResponseF
     }
   }
 
-  private static EntityTag getEtag(ContainerResponse response) {
-    val entity = response.getEntity();
-    if (hasEntity(entity)) {
-      // Compute <hash> and <hash>-gzip eTags
-      return entityTag(entity);
-    }
-
-    return null;
-  }
-
   private static EntityTag getGzipEtag(EntityTag eTag) {
     return new EntityTag(eTag.getValue() + "-gzip");
   }
@@ -152,18 +158,60 @@ public class CachingFilter implements ContainerRequestFilter, ContainerResponseF
   }
 
   private boolean isEtagPreconditioned(ContainerRequest request) {
-    return enableEtag && isCacheable(request, excludeEtagPatterns);
+    return enableEtag && isSafe(request) && isCacheable(request, excludeEtagPatterns);
+  }
+
+  private static boolean isSafe(ContainerRequest request) {
+    val method = request.getMethod();
+    return HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method);
+  }
+
+  private static boolean isTaggable(ContainerResponse response) {
+    return response.getStatus() == NOT_MODIFIED.getStatusCode()
+        || response.getStatusType().getFamily() == SUCCESSFUL;
   }
 
-  private static boolean hasEntity(Object entity) {
-    return entity != null;
+  private static boolean isGzipEncoded(ContainerResponse response) {
+    val encoding = response.getHttpHeaders().getFirst(CONTENT_ENCODING);
+    return encoding != null && GZIP.equalsIgnoreCase(encoding.toString());
   }
 
-  private static EntityTag entityTag(Object entity) {
-    val text = entity.toString();
-    val hash = HASH_FUNCTION.hashUnencodedChars(text).toString();
+  /**
+   * Derives the ETag of a response from the release date and everything in the request that the response depends on.
+   * Credentials are included as presented, so that users with different access never share a tag.
+   */
+  static EntityTag entityTag(ContainerRequest request, Date lastModifiedDate) {
+    val hasher = HASH_FUNCTION.newHasher()
+        .putLong(lastModifiedDate.getTime())
+        .putString(request.getPath(), UTF_8).putChar(SEPARATOR);
+
+    val parameters = request.getQueryParameters();
+    for (val name : Ordering.natural().sortedCopy(parameters.keySet())) {
+      for (val value : parameters.get(name)) {
+        hasher.putString(name, UTF_8).putChar('=').putString(value, UTF_8).putChar(SEPARATOR);
+      }
+    }
+
+    putHeader(hasher, request, ACCEPT);
+    putHeader(hasher, request, AUTHORIZATION);
+
+    val sessionToken = request.getCookies().get(AuthProperties.SESSION_TOKEN_NAME);
+    if (sessionToken != null) {
+      hasher.putString(sessionToken.getValue(), UTF_8);
+    }
+
+    return new EntityTag(hasher.hash().toString());
+  }
+
+  private static void putHeader(Hasher hasher, ContainerRequest request, String name) {
+    val values = request.getRequestHeader(name);
+    if (values != null) {
+      for (val value : values) {
+        hasher.putString(value, UTF_8).putChar(SEPARATOR);
+      }
+    }
 
-    return new EntityTag(hash);
+    hasher.putChar(SEPARATOR);
   }
 
   private static Date getLastModified(Client client, String indexName) {
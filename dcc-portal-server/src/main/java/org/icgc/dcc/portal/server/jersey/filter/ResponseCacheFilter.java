@@ -0,0 +1,341 @@
+/*
+ * Copyright (c) 2018 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.portal.server.jersey.filter;
+
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static com.google.common.net.HttpHeaders.CONTENT_DISPOSITION;
+import static javax.ws.rs.core.HttpHeaders.ACCEPT;
+import static javax.ws.rs.core.HttpHeaders.ACCEPT_ENCODING;
+import static javax.ws.rs.core.HttpHeaders.AUTHORIZATION;
+import static javax.ws.rs.core.HttpHeaders.CONTENT_ENCODING;
+import static javax.ws.rs.core.HttpHeaders.CONTENT_LANGUAGE;
+import static javax.ws.rs.core.HttpHeaders.CONTENT_LOCATION;
+import static javax.ws.rs.core.HttpHeaders.CONTENT_TYPE;
+import static javax.ws.rs.core.HttpHeaders.LOCATION;
+import static javax.ws.rs.core.HttpHeaders.SET_COOKIE;
+import static javax.ws.rs.core.HttpHeaders.VARY;
+import static javax.ws.rs.core.Response.Status.OK;
+import static org.icgc.dcc.portal.server.pql.convert.FiltersConverter.ENTITY_SET_PREFIX;
+import static org.icgc.dcc.portal.server.util.ContentEncodings.GZIP;
+import static org.icgc.dcc.portal.server.util.ContentEncodings.isGzipAccepted;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.icgc.dcc.portal.server.config.ServerProperties.AuthProperties;
+import org.icgc.dcc.portal.server.config.ServerProperties.CacheProperties;
+import org.icgc.dcc.portal.server.util.ResponseCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Ordering;
+import com.sun.jersey.spi.container.ContainerRequest;
+import com.sun.jersey.spi.container.ContainerRequestFilter;
+import com.sun.jersey.spi.container.ContainerResponse;
+import com.sun.jersey.spi.container.ContainerResponseFilter;
+import com.sun.jersey.spi.container.ContainerResponseWriter;
+
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+
+/**
+ * Serves anonymous {@code GET}s of release-immutable resources from a {@link ResponseCache}, so that repeated requests
+ * never reach the resource methods or Elasticsearch.
+ * <p>
+ * Responses are keyed by release index and canonical request (path, sorted query parameters and accepted media types).
+ * Requests with credentials, and filters referencing entity sets, whose contents are not part of the release, are never
+ * cached.
+ * <p>
+ * Bodies are stored gzip compressed and served as is to clients accepting gzip, so that large responses are not
+ * compressed again on every request.
+ */
+@Component
+public class ResponseCacheFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+  /**
+   * Constants.
+   */
+  private static final String KEY_PROPERTY = ResponseCacheFilter.class.getName() + ".key";
+  private static final char SEPARATOR = '\0';
+
+  /**
+   * Headers set by resources that are not restored on a hit, which only carries the content type.
+   */
+  private static final Set<String> UNCACHEABLE_HEADERS = ImmutableSet.of(
+      CONTENT_DISPOSITION, CONTENT_ENCODING, CONTENT_LANGUAGE, CONTENT_LOCATION, LOCATION, SET_COOKIE);
+
+  /**
+   * Configuration.
+   */
+  private final boolean enabled;
+  private final String indexName;
+  private final List<Pattern> includePatterns;
+
+  /**
+   * State.
+   */
+  private final ResponseCache cache;
+
+  @Autowired
+  public ResponseCacheFilter(@Value("#{indexName}") String indexName, CacheProperties cacheConfig) {
+    this.enabled = cacheConfig.isEnableResponseCache();
+    this.indexName = indexName;
+    this.includePatterns = compilePatterns(cacheConfig.getIncludeResponseCache());
+
+    val dir = isNullOrEmpty(cacheConfig.getResponseCacheDir()) ?
+        Optional.<File> empty() :
+        Optional.of(new File(cacheConfig.getResponseCacheDir()));
+    this.cache = new ResponseCache(cacheConfig.getResponseCacheSize(), cacheConfig.getResponseCacheMaxEntrySize(),
+        enabled ? dir : Optional.empty(), cacheConfig.getResponseCacheDiskSize());
+  }
+
+  @Override
+  public ContainerRequest filter(ContainerRequest request) {
+    if (!isCacheable(request)) {
+      return request;
+    }
+
+    val key = getKey(request);
+    val entry = cache.get(key);
+    if (entry.isPresent()) {
+      // Do not process the request. Go straight to the response filters.
+      throw new WebApplicationException(createResponse(request, entry.get()));
+    }
+
+    request.getProperties().put(KEY_PROPERTY, key);
+    return request;
+  }
+
+  @Override
+  public ContainerResponse filter(ContainerRequest request, ContainerResponse response) {
+    val key = (String) request.getProperties().get(KEY_PROPERTY);
+    if (key != null && isCacheable(response)) {
+      response.setContainerResponseWriter(new CachingWriter(response.getContainerResponseWriter(), key));
+    }
+
+    return response;
+  }
+
+  /**
+   * Discards all cached responses, for example when the release index changes.
+   */
+  public void clear() {
+    cache.clear();
+  }
+
+  private static Response createResponse(ContainerRequest request, ResponseCache.Entry entry) {
+    val builder = Response.ok()
+        .type(entry.getContentType())
+        .header(VARY, ACCEPT_ENCODING);
+
+    if (isGzipAccepted(request.getRequestHeader(ACCEPT_ENCODING))) {
+      // Already compressed
+      return builder.entity(entry.getBody()).header(CONTENT_ENCODING, GZIP).build();
+    }
+
+    return builder.entity((StreamingOutput) entry::writeTo).build();
+  }
+
+  private boolean isCacheable(ContainerRequest request) {
+    return enabled
+        && HttpMethod.GET.equals(request.getMethod())
+        && isIncluded(request.getPath())
+        && isAnonymous(request)
+        && !isEntitySetReferenced(request);
+  }
+
+  static boolean isCacheable(ContainerResponse response) {
+    if (response.getStatus() != OK.getStatusCode() || response.getEntity() == null) {
+      return false;
+    }
+
+    // Case insensitive
+    val headers = response.getHttpHeaders();
+    for (val header : UNCACHEABLE_HEADERS) {
+      if (headers.containsKey(header)) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private boolean isIncluded(String path) {
+    for (val includePattern : includePatterns) {
+      if (includePattern.matcher(path).matches()) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  private static boolean isEntitySetReferenced(ContainerRequest request) {
+    for (val values : request.getQueryParameters().values()) {
+      for (val value : values) {
+        if (value.contains(ENTITY_SET_PREFIX)) {
+          return true;
+        }
+      }
+    }
+
+    return false;
+  }
+
+  private static boolean isAnonymous(ContainerRequest request) {
+    return request.getRequestHeader(AUTHORIZATION) == null
+        && !request.getCookies().containsKey(AuthProperties.SESSION_TOKEN_NAME);
+  }
+
+  private String getKey(ContainerRequest request) {
+    val key = new StringBuilder(indexName).append(SEPARATOR).append(request.getPath()).append(SEPARATOR);
+
+    val parameters = request.getQueryParameters();
+    for (val name : Ordering.natural().sortedCopy(parameters.keySet())) {
+      for (val value : parameters.get(name)) {
+        key.append(name).append('=').append(value).append(SEPARATOR);
+      }
+    }
+
+    val accept = request.getRequestHeader(ACCEPT);
+    if (accept != null) {
+      key.append(SEPARATOR).append(accept);
+    }
+
+    return key.toString();
+  }
+
+  private static List<Pattern> compilePatterns(List<String> source) {
+    val result = new ImmutableList.Builder<Pattern>();
+    for (val regex : source) {
+      result.add(Pattern.compile(regex));
+    }
+
+    return result.build();
+  }
+
+  /**
+   * Captures the body as it is written to the client and caches it once the response is complete.
+   */
+  @RequiredArgsConstructor
+  private class CachingWriter implements ContainerResponseWriter {
+
+    private final ContainerResponseWriter delegate;
+    private final String key;
+
+    private String contentType;
+    private CapturingOutputStream capture;
+
+    @Override
+    public OutputStream writeStatusAndHeaders(long contentLength, ContainerResponse response) throws IOException {
+      val output = delegate.writeStatusAndHeaders(contentLength, response);
+      val type = response.getHttpHeaders().getFirst(CONTENT_TYPE);
+      if (type == null || contentLength > cache.getMaxEntrySize()) {
+        return output;
+      }
+
+      contentType = type.toString();
+      capture = new CapturingOutputStream(output, cache.getMaxEntrySize());
+      return capture;
+    }
+
+    @Override
+    public void finish() throws IOException {
+      delegate.finish();
+
+      if (capture != null && capture.isComplete()) {
+        cache.put(key, contentType, capture.toByteArray());
+      }
+    }
+
+  }
+
+  /**
+   * Copies what is written to a bounded buffer.
+   */
+  private static class CapturingOutputStream extends OutputStream {
+
+    private final OutputStream delegate;
+    private final int maxSize;
+    private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+    private CapturingOutputStream(OutputStream delegate, int maxSize) {
+      this.delegate = delegate;
+      this.maxSize = maxSize;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      delegate.write(b);
+      if (capture(1)) {
+        buffer.write(b);
+      }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      delegate.write(b, off, len);
+      if (capture(len)) {
+        buffer.write(b, off, len);
+      }
+    }
+
+    @Override
+    public void flush() throws IOException {
+      delegate.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      delegate.close();
+    }
+
+    private boolean capture(int len) {
+      if (buffer != null && buffer.size() + len > maxSize) {
+        // Too large to be worth caching
+        buffer = null;
+      }
+
+      return buffer != null;
+    }
+
+    private boolean isComplete() {
+      return buffer != null;
+    }
+
+    private byte[] toByteArray() {
+      return buffer.toByteArray();
+    }
+
+  }
+
+}
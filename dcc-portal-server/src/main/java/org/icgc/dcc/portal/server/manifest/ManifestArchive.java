@@ -20,7 +20,6 @@ package org.icgc.dcc.portal.server.manifest;
 import static org.apache.commons.compress.archivers.tar.TarArchiveOutputStream.LONGFILE_GNU;
 
 import java.io.BufferedOutputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.zip.GZIPOutputStream;
@@ -28,6 +27,8 @@ import java.util.zip.GZIPOutputStream;
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
 
+import com.google.common.io.ByteSource;
+
 import lombok.NonNull;
 import lombok.SneakyThrows;
 import lombok.val;
@@ -43,13 +44,13 @@ public class ManifestArchive implements AutoCloseable {
     this.tar = createTar(output);
   }
 
-  public void addManifest(@NonNull String fileName, @NonNull ByteArrayOutputStream fileContents) throws IOException {
+  public void addManifest(@NonNull String fileName, @NonNull ByteSource fileContents) throws IOException {
     val tarEntry = new TarArchiveEntry(fileName);
 
     tarEntry.setSize(fileContents.size());
     tar.putArchiveEntry(tarEntry);
 
-    fileContents.writeTo(tar);
+    fileContents.copyTo(tar);
     tar.closeArchiveEntry();
   }
 
@@ -19,7 +19,6 @@ package org.icgc.dcc.portal.server.manifest;
 
 import static com.google.common.collect.Maps.uniqueIndex;
 import static java.lang.String.format;
-import static org.icgc.dcc.common.core.util.stream.Streams.stream;
 import static org.icgc.dcc.portal.server.util.ElasticsearchResponseUtils.getString;
 import static org.icgc.dcc.portal.server.util.Strings.defaultString;
 
@@ -31,7 +30,6 @@ import java.util.stream.Stream;
 
 import org.dcc.portal.pql.meta.FileTypeModel.Fields;
 import org.dcc.portal.pql.meta.IndexModel;
-import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.search.SearchHit;
 import org.icgc.dcc.portal.server.manifest.model.ManifestFile;
 import org.icgc.dcc.portal.server.model.File;
@@ -59,14 +57,18 @@ public class ManifestMapper {
     this.repositories = uniqueIndex(repositories, Repository::getCode);
   }
 
-  public Stream<ManifestFile> map(SearchResponse searchResult) {
-    return stream(searchResult.getHits()).flatMap(hit -> mapHit(hit));
+  /**
+   * The codes that copies of {@code repoCode} are indexed under.
+   */
+  public static List<String> getIndexRepoCodes(@NonNull String repoCode) {
+    // See the kludge in mapFileCopy
+    return repoCode.equals("pdc") ? ImmutableList.of("pdc", "song-pdc") : ImmutableList.of(repoCode);
   }
 
   /**
    * Merge the fields with flattened file copies fields.
    */
-  private Stream<ManifestFile> mapHit(SearchHit hit) {
+  public Stream<ManifestFile> map(@NonNull SearchHit hit) {
     val file = File.parse(hit.sourceAsString());
 
     // Collect common data
@@ -17,34 +17,36 @@
  */
 package org.icgc.dcc.portal.server.manifest;
 
+import static com.google.common.collect.Iterators.concat;
+import static com.google.common.collect.Iterators.peekingIterator;
+import static com.google.common.collect.Iterators.transform;
 import static com.google.common.collect.Ordering.explicit;
 import static com.google.common.collect.Ordering.natural;
 import static com.sun.jersey.core.header.ContentDisposition.type;
 import static java.util.Comparator.comparing;
-import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.joining;
 import static org.dcc.portal.pql.meta.Type.FILE;
 import static org.icgc.dcc.common.core.json.Jackson.DEFAULT;
-import static org.icgc.dcc.common.core.util.Formats.formatCount;
 import static org.icgc.dcc.common.core.util.Joiners.COMMA;
 import static org.icgc.dcc.common.core.util.Joiners.DOT;
-import static org.icgc.dcc.common.core.util.function.Predicates.distinctByKey;
+import static org.icgc.dcc.common.core.util.stream.Collectors.toImmutableList;
 import static org.icgc.dcc.portal.server.model.EntitySetDefinition.SortOrder.DESCENDING;
-import static org.icgc.dcc.portal.server.util.SearchResponses.getTotalHitCount;
+import static org.icgc.dcc.portal.server.manifest.ManifestMapper.getIndexRepoCodes;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
-import java.util.SortedSet;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
-import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.search.SearchHit;
 import org.icgc.dcc.portal.server.config.ServerProperties;
 import org.icgc.dcc.portal.server.manifest.model.Manifest;
+import org.icgc.dcc.portal.server.manifest.model.ManifestBundle;
 import org.icgc.dcc.portal.server.manifest.model.ManifestField;
 import org.icgc.dcc.portal.server.manifest.model.ManifestFile;
 import org.icgc.dcc.portal.server.manifest.model.ManifestFormat;
@@ -68,11 +70,13 @@ import org.icgc.dcc.portal.server.util.MultiPartOutputStream;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.google.common.base.Stopwatch;
-import com.google.common.collect.ImmutableSortedSet;
-import com.google.common.collect.ListMultimap;
-import com.google.common.collect.Multimaps;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Ordering;
+import com.google.common.io.FileBackedOutputStream;
 import com.sun.jersey.multipart.file.DefaultMediaTypePredictor;
 
 import lombok.Cleanup;
@@ -165,21 +169,18 @@ public class ManifestService {
   public void generateManifests(@NonNull ManifestContext context) throws IOException {
     val watch = Stopwatch.createStarted();
 
-    // Get requested file copies
     log.info("Finding files to include in manifest using query: {} ...", context.getQuery());
-    val searchResponse = findFiles(context.getQuery());
-    log.info("Found {} manifest files in {}", formatCount(getTotalHitCount(searchResponse)), watch);
 
     try {
       switch (context.getManifest().getFormat()) {
       case TARBALL:
-        generateManifestArchive(searchResponse, context);
+        generateManifestArchive(context);
         break;
       case FILES:
-        generateManifestFiles(searchResponse, context);
+        generateManifestFiles(context);
         break;
       case JSON:
-        generateManifestJSON(searchResponse, context);
+        generateManifestJSON(context);
         break;
       }
     } catch (Exception e) {
@@ -190,30 +191,35 @@ public class ManifestService {
     log.info("Finished creating manifest in {}", watch);
   }
 
-  public void generateManifestArchive(SearchResponse searchResponse, ManifestContext context) throws IOException {
+  public void generateManifestArchive(ManifestContext context) throws IOException {
     @Cleanup
     val archive = new ManifestArchive(context.getOutput());
     val timestamp = context.getManifest().getTimestamp();
 
     // Write a manifest for each repository in turn
     log.info("Writing manifest archive...");
-    eachRepository(context, searchResponse, (repo, bundles) -> {
-      ByteArrayOutputStream fileContents = new ByteArrayOutputStream(BUFFER_SIZE);
-      writeManifest(repo, timestamp, bundles, fileContents);
+    eachRepository(context, (repo, bundles) -> {
+      // Entries need their size up front so contents are spooled, to disk past the buffer size
+      FileBackedOutputStream fileContents = new FileBackedOutputStream(BUFFER_SIZE, true);
+      try {
+        writeManifest(repo, timestamp, bundles, fileContents);
 
-      String fileName = formatFileName(repo, timestamp);
-      archive.addManifest(fileName, fileContents);
+        String fileName = formatFileName(repo, timestamp);
+        archive.addManifest(fileName, fileContents.asByteSource());
+      } finally {
+        fileContents.reset();
+      }
     });
   }
 
-  private void generateManifestFiles(SearchResponse searchResponse, ManifestContext context) throws IOException {
+  private void generateManifestFiles(ManifestContext context) throws IOException {
     val timestamp = context.getManifest().getTimestamp();
     if (context.getManifest().isMultipart()) {
       val boundary = "boundary_" + timestamp;
       @Cleanup
       val output = new MultiPartOutputStream(boundary, context.getOutput());
 
-      eachRepository(context, searchResponse, (repo, bundles) -> {
+      eachRepository(context, (repo, bundles) -> {
         String fileName = formatFileName(repo, timestamp);
         String fileType = DefaultMediaTypePredictor.getInstance().getMediaTypeFromFileName(fileName).toString();
         output.startPart(fileType, new String[] { "ContentDisposition: " +
@@ -222,13 +228,13 @@ public class ManifestService {
       });
     } else {
       val output = context.getOutput();
-      eachRepository(context, searchResponse, (repo, bundles) -> {
+      eachRepository(context, (repo, bundles) -> {
         writeManifest(repo, timestamp, bundles, output);
       });
     }
   }
 
-  private void generateManifestJSON(SearchResponse searchResponse, ManifestContext context) throws IOException {
+  private void generateManifestJSON(ManifestContext context) throws IOException {
     val output = context.getOutput();
     val manifest = context.getManifest();
     val generator = DEFAULT.getFactory().createGenerator(output);
@@ -236,6 +242,7 @@ public class ManifestService {
     val files = fields.contains(ManifestField.ID) ||
         fields.contains(ManifestField.MD5SUM) ||
         fields.contains(ManifestField.SIZE);
+    val contents = fields.contains(ManifestField.CONTENT);
 
     // This is too big to fit in a {@link Manifest} so we stream instead
     generator.writeStartObject();
@@ -253,38 +260,39 @@ public class ManifestService {
     generator.writeFieldName("entries");
 
     generator.writeStartArray();
-    eachRepository(context, searchResponse, (repo, bundles) -> {
+    eachRepository(context, (repo, bundles) -> {
       generator.writeStartObject();
       generator.writeStringField("repo", repo.getCode());
 
-      // Files
+      // Files are written as the bundles stream by, while the contents are spooled for afterwards
       if (files) {
         generator.writeArrayFieldStart("files");
-        for (ManifestFile file : bundles.values()) {
-          generator.writeStartObject();
-          if (fields.contains(ManifestField.ID)) {
-            generator.writeStringField(ManifestField.ID.getKey(), file.getId());
-          }
-          if (fields.contains(ManifestField.MD5SUM)) {
-            generator.writeStringField(ManifestField.MD5SUM.getKey(), file.getMd5sum());
-          }
-          if (fields.contains(ManifestField.REPOFILEID)) {
-            generator.writeStringField(ManifestField.REPOFILEID.getKey(), file.getRepoFileId());
-          }
-          if (fields.contains(ManifestField.SIZE)) {
-            generator.writeNumberField(ManifestField.SIZE.getKey(), file.getSize());
-          }
-          generator.writeEndObject();
-        }
-        generator.writeEndArray();
       }
 
-      // Contents
-      if (fields.contains(ManifestField.CONTENT)) {
-        ByteArrayOutputStream fileContents = new ByteArrayOutputStream(BUFFER_SIZE);
-        writeManifest(repo, manifest.getTimestamp(), bundles, fileContents);
+      FileBackedOutputStream fileContents = new FileBackedOutputStream(BUFFER_SIZE, true);
+      try {
+        if (contents) {
+          Iterable<ManifestBundle> entries =
+              files ? Iterables.transform(bundles, bundle -> writeFiles(generator, fields, bundle)) : bundles;
+          writeManifest(repo, manifest.getTimestamp(), entries, fileContents);
+        } else if (files) {
+          for (ManifestBundle bundle : bundles) {
+            writeFiles(generator, fields, bundle);
+          }
+        }
+        if (files) {
+          generator.writeEndArray();
+        }
 
-        generator.writeBinaryField(ManifestField.CONTENT.getKey(), fileContents.toByteArray());
+        // Contents
+        if (contents) {
+          generator.writeFieldName(ManifestField.CONTENT.getKey());
+          try (InputStream input = fileContents.asByteSource().openStream()) {
+            generator.writeBinary(input, -1);
+          }
+        }
+      } finally {
+        fileContents.reset();
       }
       generator.writeEndObject();
     });
@@ -294,46 +302,119 @@ public class ManifestService {
     generator.flush();
   }
 
-  private void eachRepository(ManifestContext context, SearchResponse searchResponse, BundlesCallback callback)
-      throws IOException {
-    // Map and filter
-    Stream<ManifestFile> files = new ManifestMapper(repositories.findAll())
-        .map(searchResponse)
+  private void eachRepository(ManifestContext context, BundlesCallback callback) throws IOException {
+    val pql = convertQuery(context.getQuery());
+    val mapper = new ManifestMapper(repositories.findAll());
+    val order = priorityRepoOrder(context.getManifest().getRepos());
+
+    // Iterate in order of priority, paging through one repository at a time
+    val repos = repositories.findAll().stream()
+        .filter(repo -> context.isActive(repo.getCode()))
+        .sorted(comparing(Repository::getCode, order))
+        .collect(toImmutableList());
+
+    for (val repo : repos) {
+      val watch = Stopwatch.createStarted();
+
+      @Cleanup
+      val scroll = fileRepository.findManifestFiles(pql, getIndexRepoCodes(repo.getCode()), repo.isGNOS());
+      Iterator<SearchHit> hits = concat(transform(scroll, response -> response.getHits().iterator()));
+      Iterator<ManifestFile> files =
+          concat(transform(hits, hit -> selectFiles(context, repo, mapper.map(hit)).iterator()));
+
+      // Group adjacent files by url. The scroll order keeps the files of a bundle together
+      Iterator<ManifestBundle> bundles = bundle(files, file -> formatFileURL(repo, file));
+      if (!bundles.hasNext()) {
+        continue;
+      }
+
+      // Hand off
+      callback.handle(repo, () -> bundles);
+      log.info("Wrote {} manifest in {}", repo.getCode(), watch);
+    }
+  }
+
+  /**
+   * Selects the {@code copies} of a file hit to include in the manifest of {@code repo}.
+   */
+  static List<ManifestFile> selectFiles(ManifestContext context, Repository repo, Stream<ManifestFile> copies) {
+    // Filter
+    Stream<ManifestFile> files = copies
         .filter(file -> context.isActive(file.getRepoCode()));
 
     if (context.getManifest().isUnique()) {
-      // Remove duplicates by file id by choosing the one with the higest priority
+      // Remove duplicates by choosing the copy with the highest priority. All copies of a file are in the same hit
       files = files
-          .sorted(fileIdOrder().thenComparing(priorityFileCopyOrder(context.getManifest().getRepos())))
-          .filter(distinctByKey(file -> file.getId()));
+          .min(priorityFileCopyOrder(context.getManifest().getRepos()))
+          .map(Stream::of)
+          .orElseGet(Stream::empty);
     }
 
-    // Group files from each repo together
-    val repoCodeFiles = files.collect(groupingBy(file -> file.getRepoCode()));
+    return files
+        .filter(file -> file.getRepoCode().equals(repo.getCode()))
+        .collect(toImmutableList());
+  }
 
-    // Iterate in order of priority
-    for (val repoCode : prioritizeRepoCodes(context.getManifest().getRepos(), repoCodeFiles.keySet())) {
-      val repo = repositories.findOne(repoCode);
-      val repoFiles = repoCodeFiles.get(repoCode);
+  /**
+   * Groups adjacent {@code files} with the same {@code url} into bundles.
+   */
+  static Iterator<ManifestBundle> bundle(Iterator<ManifestFile> files, Function<ManifestFile, String> url) {
+    val peeking = peekingIterator(files);
 
-      // Index
-      val bundles = Multimaps.index(repoFiles, file -> formatFileURL(repo, file));
+    return new AbstractIterator<ManifestBundle>() {
 
-      // Hand off
-      callback.handle(repo, bundles);
-    }
+      @Override
+      protected ManifestBundle computeNext() {
+        if (!peeking.hasNext()) {
+          return endOfData();
+        }
+
+        val first = peeking.next();
+        val bundleUrl = url.apply(first);
+        val bundleFiles = Lists.newArrayList(first);
+        while (peeking.hasNext() && bundleUrl.equals(url.apply(peeking.peek()))) {
+          bundleFiles.add(peeking.next());
+        }
+
+        return new ManifestBundle(bundleUrl, bundleFiles);
+      }
+
+    };
   }
 
-  private SearchResponse findFiles(Query query) {
+  private static String convertQuery(Query query) {
     val converter = Jql2PqlConverter.getInstance();
     val pql = converter.convert(query, FILE);
     log.debug("Received JQL: '{}'; converted to PQL: '{}'.", query.getFilters(), pql);
 
-    return fileRepository.findFileInfoPQL(pql);
+    return pql;
+  }
+
+  @SneakyThrows
+  private static ManifestBundle writeFiles(JsonGenerator generator, List<ManifestField> fields,
+      ManifestBundle bundle) {
+    for (val file : bundle.getFiles()) {
+      generator.writeStartObject();
+      if (fields.contains(ManifestField.ID)) {
+        generator.writeStringField(ManifestField.ID.getKey(), file.getId());
+      }
+      if (fields.contains(ManifestField.MD5SUM)) {
+        generator.writeStringField(ManifestField.MD5SUM.getKey(), file.getMd5sum());
+      }
+      if (fields.contains(ManifestField.REPOFILEID)) {
+        generator.writeStringField(ManifestField.REPOFILEID.getKey(), file.getRepoFileId());
+      }
+      if (fields.contains(ManifestField.SIZE)) {
+        generator.writeNumberField(ManifestField.SIZE.getKey(), file.getSize());
+      }
+      generator.writeEndObject();
+    }
+
+    return bundle;
   }
 
   private static void writeManifest(Repository repo, long timestamp,
-      ListMultimap<String, ManifestFile> downloadUrlGroups, OutputStream out) {
+      Iterable<ManifestBundle> downloadUrlGroups, OutputStream out) {
     if (repo.isGNOS()) {
       GNOSManifestWriter.write(out, downloadUrlGroups, timestamp);
     } else if (repo.isS3()) {
@@ -350,15 +431,6 @@ public class ManifestService {
     }
   }
 
-  private static Comparator<ManifestFile> fileIdOrder() {
-    return comparing(file -> file.getId());
-  }
-
-  private static SortedSet<String> prioritizeRepoCodes(List<String> priorities, Set<String> repoCodes) {
-    val order = priorityRepoOrder(priorities);
-    return ImmutableSortedSet.orderedBy(order).addAll(repoCodes).build();
-  }
-
   private static Comparator<ManifestFile> priorityFileCopyOrder(List<String> priorities) {
     val order = priorityRepoOrder(priorities);
     return comparing(file -> file.getRepoCode(), order);
@@ -405,7 +477,7 @@ public class ManifestService {
    */
   private interface BundlesCallback {
 
-    void handle(Repository repo, ListMultimap<String, ManifestFile> bundles)
+    void handle(Repository repo, Iterable<ManifestBundle> bundles)
         throws IOException;
 
   }
@@ -18,7 +18,6 @@
 package org.icgc.dcc.portal.server.manifest.writer;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
-import static java.util.stream.Collectors.toMap;
 import static org.icgc.dcc.common.core.util.Joiners.WHITESPACE;
 
 import java.io.IOException;
@@ -26,9 +25,9 @@ import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.util.Map;
 
-import org.icgc.dcc.portal.server.manifest.model.ManifestFile;
+import org.icgc.dcc.portal.server.manifest.model.ManifestBundle;
 
-import com.google.common.collect.Multimap;
+import com.google.common.collect.Maps;
 import com.google.common.io.Resources;
 
 import lombok.SneakyThrows;
@@ -42,7 +41,7 @@ public class EGAManifestWriter {
   private static final String MANIFEST_TEMPLATE = "/templates/manifest.ega.sh.template";
 
   @SneakyThrows
-  public static void write(OutputStream buffer, Multimap<String, ManifestFile> bundles) {
+  public static void write(OutputStream buffer, Iterable<ManifestBundle> bundles) {
     val mapping = resolveFileIdMap(bundles);
     val manifest = createManifest(mapping);
 
@@ -51,8 +50,16 @@ public class EGAManifestWriter {
     writer.flush();
   }
 
-  private static Map<String, String> resolveFileIdMap(Multimap<String, ManifestFile> bundles) {
-    return bundles.values().stream().collect(toMap(ManifestFile::getRepoFileId, ManifestFile::getId));
+  private static Map<String, String> resolveFileIdMap(Iterable<ManifestBundle> bundles) {
+    // Only the id pairs are retained since the template references the whole set of ids twice
+    val mapping = Maps.<String, String> newLinkedHashMap();
+    for (val bundle : bundles) {
+      for (val file : bundle.getFiles()) {
+        mapping.put(file.getRepoFileId(), file.getId());
+      }
+    }
+
+    return mapping;
   }
 
   @SneakyThrows
@@ -23,10 +23,10 @@ import static com.google.common.collect.Iterables.getFirst;
 import java.io.OutputStream;
 import java.util.List;
 
+import org.icgc.dcc.portal.server.manifest.model.ManifestBundle;
 import org.icgc.dcc.portal.server.manifest.model.ManifestFile;
 
 import com.google.common.collect.Lists;
-import com.google.common.collect.Multimap;
 
 import lombok.SneakyThrows;
 import lombok.val;
@@ -40,15 +40,15 @@ public class GDCManifestWriter extends TSVManifestWriter {
       { "id", "filename", "md5", "size", "state" };
 
   @SneakyThrows
-  public static void write(OutputStream buffer, Multimap<String, ManifestFile> bundles) {
+  public static void write(OutputStream buffer, Iterable<ManifestBundle> bundles) {
     val tsv = createTsv(buffer);
     tsv.writeHeader(TSV_HEADERS);
 
-    for (val url : bundles.keySet()) {
-      val bundle = bundles.get(url);
-      checkState(bundle.size() == 1, "%s expected to have only one file", bundle);
+    for (val bundle : bundles) {
+      val files = bundle.getFiles();
+      checkState(files.size() == 1, "%s expected to have only one file", files);
 
-      val file = getFirst(bundle, null);
+      val file = getFirst(files, null);
       val row = createRow(file);
 
       tsv.write(row);
@@ -30,9 +30,9 @@ import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
 
+import org.icgc.dcc.portal.server.manifest.model.ManifestBundle;
 import org.icgc.dcc.portal.server.manifest.model.ManifestFile;
 
-import com.google.common.collect.ListMultimap;
 import com.sun.xml.txw2.output.IndentingXMLStreamWriter;
 
 import lombok.Cleanup;
@@ -58,7 +58,7 @@ public class GNOSManifestWriter {
   private static final String FILE_ENCODING = UTF_8.name();
 
   @SneakyThrows
-  public static void write(OutputStream buffer, ListMultimap<String, ManifestFile> bundles,
+  public static void write(OutputStream buffer, Iterable<ManifestBundle> bundles,
       long timestamp) {
     int rowCount = 0;
     // If this is thread-safe, perhaps we can make this static???
@@ -68,16 +68,16 @@ public class GNOSManifestWriter {
 
     startXmlDocument(writer, timestamp);
 
-    for (val url : bundles.keySet()) {
-      val bundle = bundles.get(url);
+    for (val bundle : bundles) {
+      val files = bundle.getFiles();
 
-      if (isEmpty(bundle)) {
+      if (isEmpty(files)) {
         continue;
       }
 
-      val bundleId = bundle.get(0).getDataBundleId();
+      val bundleId = files.get(0).getDataBundleId();
 
-      writeXmlEntry(writer, bundleId, url, bundle, ++rowCount);
+      writeXmlEntry(writer, bundleId, bundle.getUrl(), files, ++rowCount);
     }
 
     endXmlDocument(writer);
@@ -21,10 +21,10 @@ import java.io.OutputStream;
 import java.util.Collection;
 import java.util.List;
 
+import org.icgc.dcc.portal.server.manifest.model.ManifestBundle;
 import org.icgc.dcc.portal.server.manifest.model.ManifestFile;
 
 import com.google.common.collect.Lists;
-import com.google.common.collect.Multimap;
 
 import lombok.SneakyThrows;
 import lombok.val;
@@ -38,13 +38,12 @@ public class ICGCManifestWriter extends TSVManifestWriter {
       { "repo_code", "file_id", "object_id", "file_format", "file_name", "file_size", "md5_sum", "index_object_id", "donor_id/donor_count", "project_id/project_count", "study" };
 
   @SneakyThrows
-  public static void write(OutputStream buffer, Multimap<String, ManifestFile> bundles) {
+  public static void write(OutputStream buffer, Iterable<ManifestBundle> bundles) {
     val tsv = createTsv(buffer);
     tsv.writeHeader(TSV_HEADERS);
 
-    for (val url : bundles.keySet()) {
-      val bundle = bundles.get(url);
-      val row = createRow(bundle);
+    for (val bundle : bundles) {
+      val row = createRow(bundle.getFiles());
 
       tsv.write(row);
     }
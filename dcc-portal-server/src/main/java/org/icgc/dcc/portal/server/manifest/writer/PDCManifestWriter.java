@@ -24,11 +24,9 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.net.URL;
-import java.util.Set;
 
-import org.icgc.dcc.portal.server.manifest.model.ManifestFile;
+import org.icgc.dcc.portal.server.manifest.model.ManifestBundle;
 
-import com.google.common.collect.Multimap;
 import com.google.common.io.Resources;
 
 import lombok.SneakyThrows;
@@ -42,32 +40,28 @@ public class PDCManifestWriter {
   private static final String MANIFEST_TEMPLATE = "/templates/manifest.pdc.sh.template";
 
   @SneakyThrows
-  public static void write(OutputStream buffer, Multimap<String, ManifestFile> bundles) {
-    val urls = bundles.keySet();
-
+  public static void write(OutputStream buffer, Iterable<ManifestBundle> bundles) {
     val writer = new OutputStreamWriter(buffer, UTF_8);
-    writer.write(createManifest(urls));
+    writer.write(readTemplate());
+    for (val bundle : bundles) {
+      writer.write(createCommand(bundle.getUrl()));
+      writer.write('\n');
+    }
+
     writer.flush();
   }
 
-  private static String createManifest(Set<String> urls) throws IOException {
-    val manifest = new StringBuilder(readTemplate());
-    for (val url : urls) {
-      val endpointUrl = resolveEndpointURL(url);
-      val remoteFile = formatS3URL(url);
-      val localFile = ".";
-      val command =
-          formatCommand(
-              "aws",
-              "--profile", "pdc",
-              "--endpoint-url", endpointUrl,
-              "s3", "cp",
-              remoteFile, localFile);
-
-      manifest.append(command).append('\n');
-    }
-
-    return manifest.toString();
+  private static String createCommand(String url) {
+    val endpointUrl = resolveEndpointURL(url);
+    val remoteFile = formatS3URL(url);
+    val localFile = ".";
+
+    return formatCommand(
+        "aws",
+        "--profile", "pdc",
+        "--endpoint-url", endpointUrl,
+        "s3", "cp",
+        remoteFile, localFile);
   }
 
   @SneakyThrows
@@ -72,6 +72,14 @@ public class EntitySet extends BaseEntitySet implements Identifiable<UUID> {
     return this;
   }
 
+  public EntitySet updateStateToInProgress(final long count) {
+    checkArgument(count >= 0, "The 'count' argument must be a positive integer.");
+
+    this.state = State.IN_PROGRESS;
+    this.count = count;
+    return this;
+  }
+
   public EntitySet updateStateToFinished(final long count) {
     checkArgument(count >= 0, "The 'count' argument must be a positive integer.");
 
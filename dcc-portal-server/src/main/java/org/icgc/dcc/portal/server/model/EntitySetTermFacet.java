@@ -22,6 +22,8 @@ import java.util.UUID;
 
 import lombok.Value;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.annotations.ApiModel;
 
 /**
@@ -35,4 +37,14 @@ public class EntitySetTermFacet {
   List<TermFacet.Term> terms;
   Statistics summary;
 
+  @JsonCreator
+  public EntitySetTermFacet(
+      @JsonProperty("id") UUID id,
+      @JsonProperty("terms") List<TermFacet.Term> terms,
+      @JsonProperty("summary") Statistics summary) {
+    this.id = id;
+    this.terms = terms;
+    this.summary = summary;
+  }
+
 }
@@ -17,6 +17,9 @@
  */
 package org.icgc.dcc.portal.server.model;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import io.swagger.annotations.ApiModel;
 import lombok.Value;
 
@@ -33,4 +36,14 @@ public class PhenotypeResult {
   List<EntitySetTermFacet> data;
   double pValue;
 
+  @JsonCreator
+  public PhenotypeResult(
+      @JsonProperty("name") String name,
+      @JsonProperty("data") List<EntitySetTermFacet> data,
+      @JsonProperty("pvalue") double pValue) {
+    this.name = name;
+    this.data = data;
+    this.pValue = pValue;
+  }
+
 }
@@ -20,7 +20,9 @@ package org.icgc.dcc.portal.server.model;
 import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
 import lombok.Value;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.annotations.ApiModel;
 
 /**
@@ -35,4 +37,14 @@ public class Statistics {
   Long missing;
   Double mean;
 
+  @JsonCreator
+  public Statistics(
+      @JsonProperty("total") Long total,
+      @JsonProperty("missing") Long missing,
+      @JsonProperty("mean") Double mean) {
+    this.total = total;
+    this.missing = missing;
+    this.mean = mean;
+  }
+
 }
@@ -20,6 +20,7 @@ package org.icgc.dcc.portal.server.model;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
 import io.swagger.annotations.ApiModel;
 import lombok.*;
 import org.icgc.dcc.portal.server.analysis.KaplanMeier;
@@ -30,6 +31,8 @@ import java.util.List;
 import java.util.UUID;
 
 import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
+import static java.util.Comparator.comparingInt;
+import static org.icgc.dcc.common.core.util.stream.Collectors.toImmutableList;
 
 /**
  * Represents the result set of a survival plot analysis.
@@ -76,13 +79,63 @@ public class SurvivalAnalysis implements Identifiable<UUID> {
     this.version = dataVersion;
   }
 
+  /**
+   * Attaches the outcome of analyzing the sets of this analysis, which may have been computed for the same sets in
+   * another order.
+   */
+  public SurvivalAnalysis attach(@NonNull Outcome outcome) {
+    this.results = outcome.getResults().stream()
+        .sorted(comparingInt(result -> entitySetIds.indexOf(result.getId())))
+        .collect(toImmutableList());
+    this.intersection = outcome.isIntersection();
+    this.overallStats = outcome.getOverallStats();
+    this.diseaseFreeStats = outcome.getDiseaseFreeStats();
+
+    return this;
+  }
+
+  /**
+   * The outcome of analyzing a list of sets, independent of the analysis that requested it.
+   */
   @Value
-  public class Result {
+  public static class Outcome {
+
+    List<Result> results;
+    boolean intersection;
+    SurvivalLogRank.SurvivalStats overallStats;
+    SurvivalLogRank.SurvivalStats diseaseFreeStats;
+
+    @JsonCreator
+    public Outcome(
+        @JsonProperty("results") List<Result> results,
+        @JsonProperty("intersection") boolean intersection,
+        @JsonProperty("overallStats") SurvivalLogRank.SurvivalStats overallStats,
+        @JsonProperty("diseaseFreeStats") SurvivalLogRank.SurvivalStats diseaseFreeStats) {
+      this.results = ImmutableList.copyOf(results);
+      this.intersection = intersection;
+      this.overallStats = overallStats;
+      this.diseaseFreeStats = diseaseFreeStats;
+    }
+
+  }
+
+  @Value
+  public static class Result {
 
     UUID id;
     List<KaplanMeier.Interval> overall;
     List<KaplanMeier.Interval> diseaseFree;
 
+    @JsonCreator
+    public Result(
+        @JsonProperty("id") UUID id,
+        @JsonProperty("overall") List<KaplanMeier.Interval> overall,
+        @JsonProperty("diseaseFree") List<KaplanMeier.Interval> diseaseFree) {
+      this.id = id;
+      this.overall = overall;
+      this.diseaseFree = diseaseFree;
+    }
+
   }
 
   @RequiredArgsConstructor
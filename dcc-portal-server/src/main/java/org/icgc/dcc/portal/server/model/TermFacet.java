@@ -20,7 +20,9 @@ package org.icgc.dcc.portal.server.model;
 import static com.fasterxml.jackson.annotation.JsonInclude.Include.ALWAYS;
 import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_EMPTY;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.collect.ImmutableList;
 
 import lombok.NonNull;
@@ -63,6 +65,12 @@ public class TermFacet {
     String term;
     Long count;
 
+    @JsonCreator
+    public Term(@JsonProperty("term") String term, @JsonProperty("count") Long count) {
+      this.term = term;
+      this.count = count;
+    }
+
   }
 
 }
@@ -0,0 +1,337 @@
+/*
+ * Copyright (c) 2015 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.portal.server.pql.convert;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Sets.newTreeSet;
+import static java.util.Collections.emptyList;
+import static org.dcc.portal.pql.meta.IndexModel.getTypeModel;
+import static org.dcc.portal.pql.meta.Type.PROJECT;
+import static org.icgc.dcc.portal.server.pql.convert.FiltersConverter.MISSING_VALUE;
+import static org.icgc.dcc.portal.server.pql.convert.FiltersConverter.cleanProjectFilters;
+import static org.icgc.dcc.portal.server.pql.convert.FiltersConverter.getGeneFacetFieldFamily;
+import static org.icgc.dcc.portal.server.pql.convert.FiltersConverter.groupFields;
+import static org.icgc.dcc.portal.server.pql.convert.FiltersConverter.groupNestedPaths;
+import static org.icgc.dcc.portal.server.pql.convert.FiltersConverter.isChildNesting;
+import static org.icgc.dcc.portal.server.pql.convert.FiltersConverter.isEncloseWithCommonParent;
+import static org.icgc.dcc.portal.server.pql.convert.FiltersConverter.isGeneFacetField;
+import static org.icgc.dcc.portal.server.pql.convert.FiltersConverter.isNestFilter;
+import static org.icgc.dcc.portal.server.pql.convert.FiltersConverter.isTrue;
+import static org.icgc.dcc.portal.server.pql.convert.FiltersConverter.parseFieldName;
+import static org.icgc.dcc.portal.server.pql.convert.FiltersConverter.resolveNestedPath;
+import static org.icgc.dcc.portal.server.pql.convert.model.Operation.ALL;
+import static org.icgc.dcc.portal.server.pql.convert.model.Operation.HAS;
+import static org.icgc.dcc.portal.server.pql.convert.model.Operation.IS;
+import static org.icgc.dcc.portal.server.pql.convert.model.Operation.NOT;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.dcc.portal.pql.ast.filter.AndNode;
+import org.dcc.portal.pql.ast.filter.EqNode;
+import org.dcc.portal.pql.ast.filter.ExistsNode;
+import org.dcc.portal.pql.ast.filter.FilterNode;
+import org.dcc.portal.pql.ast.filter.InNode;
+import org.dcc.portal.pql.ast.filter.MissingNode;
+import org.dcc.portal.pql.ast.filter.NeNode;
+import org.dcc.portal.pql.ast.filter.NestedNode;
+import org.dcc.portal.pql.ast.filter.NotNode;
+import org.dcc.portal.pql.ast.filter.OrNode;
+import org.dcc.portal.pql.meta.Type;
+import org.icgc.dcc.portal.server.pql.convert.model.JqlArrayValue;
+import org.icgc.dcc.portal.server.pql.convert.model.JqlField;
+import org.icgc.dcc.portal.server.pql.convert.model.JqlFilters;
+import org.icgc.dcc.portal.server.pql.convert.model.Operation;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Converts {@link JqlFilters} directly into PQL AST filter nodes, skipping the PQL string the {@link FiltersConverter}
+ * produces and its re-parse.<br>
+ * <br>
+ * Mirrors the {@link FiltersConverter} rules one to one, so the result is equal to parsing the string it creates. A
+ * list of filters here corresponds to a comma separated list of filters there. Inputs for which that string would not
+ * parse (e.g. single element {@code and()} / {@code or()} or multiple filters inside {@code not()}) fail here too,
+ * with an {@link IllegalArgumentException}, so that both conversions either fail or agree.
+ */
+@Slf4j
+public class FiltersAstConverter {
+
+  public List<FilterNode> convertFilters(JqlFilters filters, Type indexType) {
+    if (indexType == PROJECT) {
+      filters = cleanProjectFilters(filters);
+    }
+
+    // These fields are required to create the correct nesting order. E.g. nested(gene, nested(gene.ssm ...))
+    val fieldsGroupedByNestedPath = groupFields(filters, indexType, f -> f.getOperation() != NOT);
+    val notFieldsGroupedByNestedPath = groupFields(filters, indexType, f -> f.getOperation() == NOT);
+
+    val result = Lists.<FilterNode> newArrayList();
+    result.addAll(getGroupedFilters(fieldsGroupedByNestedPath, indexType, false));
+    result.addAll(getGroupedFilters(notFieldsGroupedByNestedPath, indexType, true));
+
+    return result;
+  }
+
+  private static List<FilterNode> getGroupedFilters(ListMultimap<String, JqlField> fieldsGroupedByNestedPath,
+      Type indexType, boolean isNotFilter) {
+    if (fieldsGroupedByNestedPath.isEmpty()) {
+      return emptyList();
+    }
+
+    val sortedDescPaths = newTreeSet(fieldsGroupedByNestedPath.keySet()).descendingSet();
+    val groupedPaths = groupNestedPaths(sortedDescPaths, getTypeModel(indexType));
+    log.debug("Groupped paths: {}", groupedPaths);
+
+    val result = Lists.<FilterNode> newArrayList();
+    for (val entry : groupedPaths.asMap().entrySet()) {
+      val values = entry.getValue();
+      val filter = createFilterByNestedPath(indexType, fieldsGroupedByNestedPath,
+          newArrayList(newTreeSet(values).descendingSet()), isNotFilter);
+
+      List<FilterNode> retFilter = isEncloseWithCommonParent(values) ?
+          ImmutableList.<FilterNode> of(nested(entry.getKey(), filter)) :
+          filter;
+
+      if (isNotFilter) {
+        result.add(not(retFilter));
+      } else {
+        result.addAll(retFilter);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * @see FiltersConverter#createFilterByNestedPath
+   */
+  private static List<FilterNode> createFilterByNestedPath(Type indexType,
+      ListMultimap<String, JqlField> sortedFields, List<String> sortedDescPaths, boolean isNotFilter) {
+    if (sortedDescPaths.isEmpty()) {
+      return emptyList();
+    }
+
+    String previousSiblingPath = sortedDescPaths.get(0);
+    List<FilterNode> result = resolveFirstNestedPath(indexType, previousSiblingPath, sortedFields);
+    for (val nestedPath : sortedDescPaths.subList(1, sortedDescPaths.size())) {
+      result = resolveRestNestedPath(indexType, result, previousSiblingPath, nestedPath, sortedFields, isNotFilter);
+      previousSiblingPath = nestedPath;
+    }
+
+    return result;
+  }
+
+  private static List<FilterNode> resolveFirstNestedPath(Type indexType, String nestedPath,
+      ListMultimap<String, JqlField> sortedFields) {
+    val typeFilter = createTypeFilter(sortedFields.get(nestedPath), indexType);
+
+    return isNestFilter(nestedPath, indexType) ?
+        ImmutableList.<FilterNode> of(nested(resolveNestedPath(nestedPath, indexType), typeFilter)) :
+        typeFilter;
+  }
+
+  private static List<FilterNode> resolveRestNestedPath(Type indexType, List<FilterNode> reducedValue,
+      String previousSiblingPath, String nestedPath, ListMultimap<String, JqlField> sortedFields,
+      boolean isNotFilter) {
+    val filter = createTypeFilter(sortedFields.get(nestedPath), indexType);
+    val result = Lists.<FilterNode> newArrayList();
+
+    if (!isNestFilter(nestedPath, indexType)) {
+      result.addAll(filter);
+      result.addAll(reducedValue);
+    } else if (isChildNesting(nestedPath, previousSiblingPath)) {
+      val children = Lists.<FilterNode> newArrayList(reducedValue);
+      children.addAll(filter);
+      val combined = isNotFilter ? or(children) : and(children);
+      result.add(nested(resolveNestedPath(nestedPath, indexType), ImmutableList.of(combined)));
+    } else {
+      result.add(nested(nestedPath, filter));
+      result.addAll(reducedValue);
+    }
+
+    return result;
+  }
+
+  private static List<FilterNode> createTypeFilter(Collection<JqlField> fields, Type indexType) {
+    val geneFacetFilters = new GeneFacetFilters();
+    val remainingFields = Lists.<JqlField> newArrayList();
+
+    // Separates fields into different categories.
+    for (val jqlField : fields) {
+      val fieldName = jqlField.getName();
+      if (isGeneFacetField(fieldName)) {
+        val fieldFamily = getGeneFacetFieldFamily(fieldName);
+        if (jqlField.getOperation() == Operation.HAS) {
+          geneFacetFilters.addHasField(fieldFamily, jqlField);
+        } else {
+          geneFacetFilters.addIdField(fieldFamily, jqlField);
+        }
+      } else {
+        remainingFields.add(jqlField);
+      }
+    }
+
+    val typeFilter = Lists.<FilterNode> newArrayList();
+    for (val familyFields : geneFacetFilters.getFieldsByFamily()) {
+      if (familyFields.size() > 1) {
+        typeFilter.add(or(createFilters(familyFields, indexType)));
+      } else {
+        remainingFields.addAll(familyFields);
+      }
+    }
+
+    val result = createFilters(remainingFields, indexType);
+    result.addAll(typeFilter);
+
+    return result;
+  }
+
+  private static List<FilterNode> createFilters(Collection<JqlField> fields, Type indexType) {
+    val result = Lists.<FilterNode> newArrayList();
+    for (val field : fields) {
+      result.add(createFilter(field, indexType));
+    }
+
+    return result;
+  }
+
+  private static FilterNode createFilter(JqlField jqlField, Type indexType) {
+    val operation = jqlField.getOperation();
+
+    if (operation == HAS) {
+      val fieldName = getTypeModel(indexType).getField(jqlField.getName());
+
+      return isTrue(jqlField.getValue()) ? new ExistsNode(fieldName) : new MissingNode(fieldName);
+    }
+
+    if (operation == ALL) {
+      return createAllFilter(jqlField, indexType);
+    }
+
+    val fieldValue = jqlField.getValue();
+    if (fieldValue.contains(MISSING_VALUE)) {
+      return createMissingFilter(jqlField, indexType);
+    }
+
+    if (!fieldValue.isArray()) {
+      return createEqFilter(jqlField, indexType);
+    }
+
+    val inFilter = createInFilter(jqlField, indexType);
+
+    return operation == NOT ? new NotNode(inFilter) : inFilter;
+  }
+
+  private static FilterNode createAllFilter(JqlField jqlField, Type indexType) {
+    val fieldName = parseFieldName(jqlField, indexType);
+    val values = (JqlArrayValue) jqlField.getValue();
+
+    val result = Lists.<FilterNode> newArrayList();
+    for (val value : values.get()) {
+      result.add(new InNode(fieldName, ImmutableList.of(toPqlValue(value))));
+    }
+
+    return and(result);
+  }
+
+  private static FilterNode createMissingFilter(JqlField jqlField, Type indexType) {
+    val fieldName = parseFieldName(jqlField, indexType);
+    val fieldValue = jqlField.getValue();
+
+    if (!fieldValue.isArray()) {
+      return isTrue(fieldValue) ? new MissingNode(fieldName) : new ExistsNode(fieldName);
+    }
+
+    val values = newArrayList(((JqlArrayValue) fieldValue).get());
+    values.remove(MISSING_VALUE);
+
+    FilterNode result = new MissingNode(fieldName);
+    if (!values.isEmpty()) {
+      result = new OrNode(result, new InNode(fieldName, toPqlValues(values)));
+    }
+
+    return jqlField.getOperation() == NOT ? new NotNode(result) : result;
+  }
+
+  private static FilterNode createEqFilter(JqlField jqlField, Type indexType) {
+    val fieldName = parseFieldName(jqlField, indexType);
+    val value = toPqlValue(jqlField.getValue().get());
+
+    return (IS == jqlField.getOperation()) ? new EqNode(fieldName, value) : new NeNode(fieldName, value);
+  }
+
+  private static InNode createInFilter(JqlField jqlField, Type indexType) {
+    val arrayField = (JqlArrayValue) jqlField.getValue();
+
+    return new InNode(parseFieldName(jqlField, indexType), toPqlValues(arrayField.get()));
+  }
+
+  private static List<Object> toPqlValues(List<Object> values) {
+    val result = Lists.<Object> newArrayListWithCapacity(values.size());
+    for (val value : values) {
+      result.add(toPqlValue(value));
+    }
+
+    return result;
+  }
+
+  /**
+   * The PQL parser reads integral values as {@code int}s.
+   */
+  private static Object toPqlValue(Object value) {
+    if (value instanceof Long) {
+      val longValue = (Long) value;
+      if (longValue == longValue.intValue()) {
+        return longValue.intValue();
+      }
+    }
+
+    return value;
+  }
+
+  private static NestedNode nested(String path, List<FilterNode> filters) {
+    return new NestedNode(path, toArray(filters));
+  }
+
+  private static FilterNode not(List<FilterNode> filters) {
+    checkArgument(filters.size() == 1, "not() takes exactly one filter but got %s", filters);
+    return new NotNode(filters.get(0));
+  }
+
+  private static FilterNode and(List<FilterNode> filters) {
+    checkArgument(filters.size() > 1, "and() takes at least two filters but got %s", filters);
+    return new AndNode(toArray(filters));
+  }
+
+  private static FilterNode or(List<FilterNode> filters) {
+    checkArgument(filters.size() > 1, "or() takes at least two filters but got %s", filters);
+    return new OrNode(toArray(filters));
+  }
+
+  private static FilterNode[] toArray(List<FilterNode> filters) {
+    return filters.toArray(new FilterNode[filters.size()]);
+  }
+
+}
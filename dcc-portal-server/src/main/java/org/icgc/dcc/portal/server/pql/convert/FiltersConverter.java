@@ -74,7 +74,7 @@ import lombok.extern.slf4j.Slf4j;
 public class FiltersConverter {
 
   private static final String GENE_PATH = "gene";
-  private static final String MISSING_VALUE = "_missing";
+  static final String MISSING_VALUE = "_missing";
   private static final String EMPTY_NESTED_PATH = "";
   private static final String PQL_OR_TEMPLATE = "or(%s)";
   private static final String NOT_TEMPLATE = "not(%s)";
@@ -140,14 +140,14 @@ public class FiltersConverter {
     return Stream.concat(groupedFilters.values().stream(), notFilters.values().stream()).collect(joining(","));
   }
 
-  private ListMultimap<String, JqlField> groupFields(JqlFilters filters, Type indexType,
+  static ListMultimap<String, JqlField> groupFields(JqlFilters filters, Type indexType,
       Predicate<JqlField> streamFilter) {
     val groupedByNestedPath = ArrayListMultimap.<String, JqlField> create();
 
     for (val entry : filters.getEntityValues().entrySet()) {
       val values = entry.getValue().stream()
           .filter(streamFilter)
-          .map(this::removeNot)
+          .map(FiltersConverter::removeNot)
           .collect(toList());
       if (!values.isEmpty()) {
         val fieldsByNestedPath = groupFieldsByNestedPath(entry.getKey(), values, indexType);
@@ -164,7 +164,7 @@ public class FiltersConverter {
    * @param field JqlField
    * @return JqlField where the operation is IS.
    */
-  private JqlField removeNot(JqlField field) {
+  static JqlField removeNot(JqlField field) {
     if (field.getOperation() == NOT) {
       return new JqlField(field.getName(), IS, field.getValue(), field.getPrefix());
     } else {
@@ -195,7 +195,7 @@ public class FiltersConverter {
     return groupedFilters;
   }
 
-  private static JqlFilters cleanProjectFilters(JqlFilters filters) {
+  static JqlFilters cleanProjectFilters(JqlFilters filters) {
     val indexType = PROJECT.getId();
     val entityValues = transformValues(filterKeys(filters.getEntityValues(), key -> key.equals(indexType)),
         value -> filterValidProjectFilters(value));
@@ -377,11 +377,11 @@ public class FiltersConverter {
    * gene, gene.ssm - true<br>
    * transcript, gene - false
    */
-  private static boolean isChildNesting(String parentPath, String childPath) {
+  static boolean isChildNesting(String parentPath, String childPath) {
     return childPath.startsWith(parentPath);
   }
 
-  private static String resolveNestedPath(String nestedPath, Type indexType) {
+  static String resolveNestedPath(String nestedPath, Type indexType) {
     if (nestedPath.equals(GENE_PATH)) {
       switch (indexType) {
       case DONOR_CENTRIC:
@@ -399,7 +399,7 @@ public class FiltersConverter {
   /**
    * Defines if filter should be nested because it's filtering on a nested field
    */
-  private static boolean isNestFilter(String nestedPath, Type indexType) {
+  static boolean isNestFilter(String nestedPath, Type indexType) {
     return !(nestedPath.equals(EMPTY_NESTED_PATH));
   }
 
@@ -449,12 +449,12 @@ public class FiltersConverter {
     return joinFilters(remainingFields, typeFilter.isEmpty() ? null : COMMA_JOINER.join(typeFilter), indexType);
   }
 
-  private static boolean isGeneFacetField(String fieldName) {
+  static boolean isGeneFacetField(String fieldName) {
     return GENE_FACET_FIELDS.stream()
         .anyMatch(geneFacetField -> geneFacetField.equals(fieldName));
   }
 
-  private static String getGeneFacetFieldFamily(String fieldName) {
+  static String getGeneFacetFieldFamily(String fieldName) {
     return fieldName
         .replaceAll("^has", EMPTY_STRING)
         .replaceAll("Id$", EMPTY_STRING)
@@ -627,7 +627,7 @@ public class FiltersConverter {
         rawValue -> format(IN_TEMPLATE, fieldName, stringValue(rawValue)));
   }
 
-  private static boolean isTrue(JqlValue boolValue) {
+  static boolean isTrue(JqlValue boolValue) {
     if (null == boolValue) {
       return false;
     }
@@ -692,7 +692,7 @@ public class FiltersConverter {
     return format(IN_TEMPLATE, parseFieldName(jqlField, indexType), arrayField.textValue());
   }
 
-  private static String parseFieldName(JqlField jqlField, Type indexType) {
+  static String parseFieldName(JqlField jqlField, Type indexType) {
     val fieldName = jqlField.getName();
 
     if (isNestedField(jqlField) && indexType == MUTATION_CENTRIC) {// && jqlField.getPrefix().equals("mutation")) {
@@ -22,6 +22,10 @@ import static com.google.common.collect.Lists.newArrayList;
 import static java.lang.String.format;
 import static org.icgc.dcc.portal.server.util.Collections.isEmpty;
 import static org.dcc.portal.pql.ast.builder.PqlBuilders.count;
+import static org.dcc.portal.pql.ast.function.FunctionBuilders.facetsAll;
+import static org.dcc.portal.pql.ast.function.FunctionBuilders.limit;
+import static org.dcc.portal.pql.ast.function.FunctionBuilders.select;
+import static org.dcc.portal.pql.ast.function.FunctionBuilders.selectAll;
 import static org.dcc.portal.pql.query.PqlParser.parse;
 
 import java.util.List;
@@ -31,16 +35,25 @@ import lombok.SneakyThrows;
 import lombok.val;
 import lombok.extern.slf4j.Slf4j;
 
+import org.dcc.portal.pql.ast.StatementNode;
+import org.dcc.portal.pql.ast.filter.AndNode;
+import org.dcc.portal.pql.ast.filter.FilterNode;
+import org.dcc.portal.pql.ast.function.SelectNode;
+import org.dcc.portal.pql.ast.function.SortNode;
+import org.dcc.portal.pql.es.model.Order;
 import org.dcc.portal.pql.exception.SemanticException;
 import org.dcc.portal.pql.meta.Type;
 import org.elasticsearch.search.sort.SortOrder;
 import org.icgc.dcc.common.core.util.Joiners;
+import org.icgc.dcc.common.core.util.Splitters;
 import org.icgc.dcc.portal.server.model.Query;
 import org.icgc.dcc.portal.server.pql.convert.model.JqlFilters;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
 
 /**
  * Converts JSON-like queries to PQL ones.
@@ -51,6 +64,7 @@ public class Jql2PqlConverter {
   private final static Jql2PqlConverter INSTANCE = new Jql2PqlConverter();
 
   private final static FiltersConverter FILTERS_CONVERTER = new FiltersConverter();
+  private final static FiltersAstConverter FILTERS_AST_CONVERTER = new FiltersAstConverter();
   private final static ObjectMapper MAPPER = createObjectMapper();
 
   private static final Joiner COMMA_JOINER = Joiners.COMMA.skipNulls();
@@ -146,6 +160,130 @@ public class Jql2PqlConverter {
     return result;
   }
 
+  /**
+   * Same as {@link #convert(Query, Type)}, but builds the PQL AST directly instead of a PQL string which has to be
+   * parsed again.
+   */
+  public StatementNode convertAst(@NonNull Query query, @NonNull Type type) {
+    val result = new StatementNode();
+    result.addSelect(toSelectNode(query.getFields()));
+
+    val includes = query.getIncludes();
+    if (!isEmpty(includes)) {
+      addIncludes(result, includes);
+    }
+
+    if (query.hasFilters()) {
+      val filters = convertFilterNodes(query.getFilters(), type);
+
+      // After the cleaning project filters may get empty
+      if (!filters.isEmpty()) {
+        result.setFilters(toFilterNode(filters));
+      }
+    }
+
+    val sort = query.getSort();
+    if (sort != null && !sort.isEmpty()) {
+      val order = query.getOrder();
+      checkState(order != null, "The query is missing sort order");
+      result.setSort(toSortNode(sort, order));
+    }
+
+    if (query.getSize() > 0) {
+      checkState(query.getLimit() == null, "Limit is not implemented");
+      result.setLimit(limit(query.getFrom(), query.getSize()));
+    }
+
+    checkState(query.getScore() == null && query.getQuery() == null, "Not implemented");
+
+    return result;
+  }
+
+  /**
+   * Same as {@link #convertCount(Query, Type)}, but builds the PQL AST directly.
+   */
+  public StatementNode convertCountAst(@NonNull Query query, @NonNull Type type) {
+    val sort = query.getSort();
+    checkState(sort == null || sort.isEmpty() || query.getOrder() != null, "The query is missing sort order");
+    checkState(query.getSize() <= 0 || query.getLimit() == null, "Limit is not implemented");
+    checkState(query.getScore() == null && query.getQuery() == null, "Not implemented");
+
+    val result = count().build();
+    if (query.hasFilters()) {
+      val filters = convertFilterNodes(query.getFilters(), type);
+      if (filters.isEmpty()) {
+        throw new SemanticException("Filter contains an invalid value: '%s'", query.getFilters());
+      }
+
+      result.setFilters(toFilterNode(filters));
+    }
+
+    if (query.hasInclude(FACETS)) {
+      result.setFacets(facetsAll());
+    }
+
+    log.debug("Converted Count PQL AST: {}", result);
+
+    return result;
+  }
+
+  private static void addIncludes(StatementNode statement, List<String> queryIncludes) {
+    val includes = newArrayList(queryIncludes);
+
+    if (includes.contains(FACETS)) {
+      includes.removeAll(newArrayList(FACETS));
+      statement.setFacets(facetsAll());
+    }
+
+    if (!includes.isEmpty()) {
+      statement.addSelect(toSelectNode(includes));
+    }
+  }
+
+  private static SelectNode toSelectNode(List<String> fields) {
+    if (isEmpty(fields)) {
+      return selectAll();
+    }
+
+    val result = ImmutableList.<String> builder();
+    for (val field : fields) {
+      if (field != null) {
+        result.add(field);
+      }
+    }
+
+    return select(result.build());
+  }
+
+  /**
+   * Mirrors how {@code sort(+a,b)} is parsed: the order applies to the first field only.
+   */
+  private static SortNode toSortNode(String sort, SortOrder order) {
+    val result = SortNode.builder();
+    boolean first = true;
+    for (val field : Splitters.COMMA.trimResults().split(sort)) {
+      if (first) {
+        result.sort(field, order == SortOrder.ASC ? Order.ASC : Order.DESC);
+        first = false;
+      } else {
+        result.sortAsc(field);
+      }
+    }
+
+    return result.build();
+  }
+
+  /**
+   * Top level filters are implicitly joined with {@code and}.
+   */
+  private static FilterNode toFilterNode(List<FilterNode> filters) {
+    if (filters.size() == 1) {
+      return filters.get(0);
+    }
+
+    return new AndNode(filters.toArray(new FilterNode[filters.size()]));
+  }
+
   private static String parseIncludes(List<String> queryIncludes) {
     val includes = newArrayList(queryIncludes);
     val result = new StringBuilder();
@@ -192,6 +330,14 @@ public class Jql2PqlConverter {
     return FILTERS_CONVERTER.convertFilters(filtersEntry, indexType);
   }
 
+  @SneakyThrows
+  private static List<FilterNode> convertFilterNodes(@NonNull ObjectNode jqlFilters, Type indexType) {
+    val filtersEntry = MAPPER.treeToValue(jqlFilters, JqlFilters.class);
+    log.debug("Parsed JQL filters: {}", filtersEntry);
+
+    return FILTERS_AST_CONVERTER.convertFilters(filtersEntry, indexType);
+  }
+
   private static ObjectMapper createObjectMapper() {
     return registerJqlDeserializer(new ObjectMapper());
   }
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2018 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.portal.server.repository;
+
+import org.icgc.dcc.portal.server.repository.JsonRepository.JsonMapperFactory;
+import org.skife.jdbi.v2.sqlobject.Bind;
+import org.skife.jdbi.v2.sqlobject.SqlQuery;
+import org.skife.jdbi.v2.sqlobject.SqlUpdate;
+import org.skife.jdbi.v2.sqlobject.customizers.RegisterMapperFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * DAO for analysis_result table in Postgres. Rows are keyed by a digest of the analysis inputs and hold the JSON of
+ * the analysis results.
+ */
+@RegisterMapperFactory(JsonMapperFactory.class)
+public interface AnalysisResultRepository extends JsonRepository {
+
+  public final static String TABLE_NAME = "analysis_result";
+  public final static String TYPE_FIELD_NAME = "type";
+  public final static String VERSION_FIELD_NAME = "version";
+
+  @SqlQuery("SELECT " + DATA_FIELD_NAME + " FROM " + TABLE_NAME + " WHERE " + ID_FIELD_NAME + " = :id AND "
+      + VERSION_FIELD_NAME + " = :version")
+  JsonNode find(@Bind(ID_FIELD_NAME) String key, @Bind(VERSION_FIELD_NAME) int dataVersion);
+
+  @SqlUpdate("INSERT INTO " + TABLE_NAME + " (" + ID_FIELD_NAME + ", " + TYPE_FIELD_NAME + ", " + VERSION_FIELD_NAME
+      + ", " + DATA_FIELD_NAME + ") VALUES (:id, :type, :version, :data)")
+  int save(@Bind(ID_FIELD_NAME) String key, @Bind(TYPE_FIELD_NAME) String type,
+      @Bind(VERSION_FIELD_NAME) int dataVersion, @Bind(DATA_FIELD_NAME) String data);
+
+  @SqlUpdate("DELETE FROM " + TABLE_NAME + " WHERE " + VERSION_FIELD_NAME + " <> :version")
+  int deleteOtherVersions(@Bind(VERSION_FIELD_NAME) int dataVersion);
+
+}
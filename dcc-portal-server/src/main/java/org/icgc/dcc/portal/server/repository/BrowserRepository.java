@@ -31,7 +31,9 @@ import java.util.function.Consumer;
 import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.client.Client;
+import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.search.aggregations.AggregationBuilder;
 import org.elasticsearch.search.aggregations.AggregationBuilders;
 import org.icgc.dcc.portal.server.model.IndexType;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -53,6 +55,7 @@ public class BrowserRepository {
   private static final String GENE = IndexType.GENE_CENTRIC.getId();
   private static final Integer MUTATION_SIZE = 100000;
   private static final Integer GENE_SIZE = 10000;
+  private static final int CHROMOSOME_COUNT = 100;
   private static final String[] FETCH_SOURCE =
       { "_gene_id", "name", "biotype", "chromosome", "start", "end", "strand", "description" };
   private static final String[] NO_EXCLUDE = null;
@@ -150,6 +153,33 @@ public class BrowserRepository {
         .setSize(0));
   }
 
+  /**
+   * Counts the mutations of every chromosome in tiles of {@code resolution} base pairs.
+   */
+  public SearchResponse getMutationHistogramTiles(int resolution, List<String> consequenceTypes,
+      List<String> projectFilters, List<String> impactFilters) {
+    val query = getMutationFilter(consequenceTypes, projectFilters, impactFilters);
+
+    return execute("Browser Mutation Histogram Tiles Request", (request) -> request
+        .setTypes(MUTATION)
+        .setQuery(query)
+        .addAggregation(getTilesAggs("chromosome_start", resolution))
+        .setSize(0));
+  }
+
+  /**
+   * Counts the genes of every chromosome in tiles of {@code resolution} base pairs.
+   */
+  public SearchResponse getGeneHistogramTiles(int resolution, List<String> biotypes, List<String> impactFilters) {
+    val query = getGeneFilter(biotypes, impactFilters);
+
+    return execute("Browser Gene Histogram Tiles Request", (request) -> request
+        .setTypes(GENE)
+        .setQuery(query)
+        .addAggregation(getTilesAggs("start", resolution))
+        .setSize(0));
+  }
+
   private SearchResponse execute(String message, Consumer<SearchRequestBuilder> customizer) {
     val request = client.prepareSearch(indexName);
     customizer.accept(request);
@@ -163,10 +193,18 @@ public class BrowserRepository {
    */
   private static QueryBuilder getMutationFilter(String segmentId, Long start, Long stop, List<String> consequenceTypes,
       List<String> projectFilters, List<String> impacts) {
-    val andQueryFilter = boolQuery()
+    return getMutationFilter(consequenceTypes, projectFilters, impacts)
         .must(termQuery("chromosome", segmentId))
         .must(rangeQuery("chromosome_start").lte(stop))
         .must(rangeQuery("chromosome_end").gte(start));
+  }
+
+  /**
+   * Builds a FilterBuilder with only the applicable filter values, over all chromosomes.
+   */
+  private static BoolQueryBuilder getMutationFilter(List<String> consequenceTypes, List<String> projectFilters,
+      List<String> impacts) {
+    val andQueryFilter = boolQuery();
 
     if (impacts != null && !impacts.isEmpty()) {
       val impactFilter = getImpactFilterMutation(impacts);
@@ -191,10 +229,17 @@ public class BrowserRepository {
    */
   private static QueryBuilder getGeneFilter(String segmentId, Long start, Long stop,
       List<String> biotypes, List<String> impacts) {
-    val andQueryFilter = boolQuery()
+    return getGeneFilter(biotypes, impacts)
         .must(termQuery("chromosome", segmentId))
         .must(rangeQuery("start").lte(stop))
         .must(rangeQuery("end").gte(start));
+  }
+
+  /**
+   * Builds a FilterBuilder with only the applicable filter values, over all chromosomes.
+   */
+  private static BoolQueryBuilder getGeneFilter(List<String> biotypes, List<String> impacts) {
+    val andQueryFilter = boolQuery();
 
     if (biotypes != null) {
       val biotypeFilter = getBiotypeFilterBuilder(biotypes);
@@ -209,6 +254,19 @@ public class BrowserRepository {
     return andQueryFilter;
   }
 
+  /**
+   * Builds a histogram of {@code field} per chromosome.
+   */
+  private static AggregationBuilder getTilesAggs(String field, int resolution) {
+    return AggregationBuilders.terms("chromosome")
+        .field("chromosome")
+        .size(CHROMOSOME_COUNT)
+        .subAggregation(AggregationBuilders.histogram("hf")
+            .field(field)
+            .interval(resolution)
+            .minDocCount(1));
+  }
+
   /**
    * Readability method to build list of biotype filters.
    */
@@ -28,7 +28,6 @@ import static com.google.common.collect.Sets.newHashSetWithExpectedSize;
 import static java.util.Collections.singletonMap;
 import static org.dcc.portal.pql.ast.function.FunctionBuilders.facets;
 import static org.dcc.portal.pql.meta.Type.DONOR_CENTRIC;
-import static org.dcc.portal.pql.query.PqlParser.parse;
 import static org.elasticsearch.action.search.SearchType.QUERY_THEN_FETCH;
 import static org.elasticsearch.index.query.QueryBuilders.boolQuery;
 import static org.elasticsearch.index.query.QueryBuilders.matchAllQuery;
@@ -36,6 +35,7 @@ import static org.elasticsearch.index.query.QueryBuilders.termsQuery;
 import static org.elasticsearch.search.aggregations.AggregationBuilders.missing;
 import static org.elasticsearch.search.aggregations.AggregationBuilders.stats;
 import static org.elasticsearch.search.aggregations.AggregationBuilders.terms;
+import static org.elasticsearch.search.sort.FieldSortBuilder.DOC_FIELD_NAME;
 import static org.elasticsearch.search.sort.SortOrder.ASC;
 import static org.icgc.dcc.common.core.util.stream.Collectors.toImmutableList;
 import static org.icgc.dcc.portal.server.model.IndexModel.FIELDS_MAPPING;
@@ -46,11 +46,14 @@ import static org.icgc.dcc.portal.server.model.IndexType.DONOR_TEXT;
 import static org.icgc.dcc.portal.server.model.IndexType.FILE_DONOR_TEXT;
 import static org.icgc.dcc.portal.server.model.fields.SearchFieldMapper.searchFieldMapper;
 import static org.icgc.dcc.portal.server.repository.TermsLookupRepository.createTermsLookupFilter;
+import static org.icgc.dcc.portal.server.util.ElasticsearchFutures.execute;
+import static org.icgc.dcc.portal.server.util.ElasticsearchFutures.join;
 import static org.icgc.dcc.portal.server.util.ElasticsearchRequestUtils.isRepositoryDonor;
 import static org.icgc.dcc.portal.server.util.ElasticsearchRequestUtils.setFetchSourceOfGetRequest;
 import static org.icgc.dcc.portal.server.util.ElasticsearchResponseUtils.checkResponseState;
 import static org.icgc.dcc.portal.server.util.ElasticsearchResponseUtils.createResponseMap;
-import static org.icgc.dcc.portal.server.util.SearchResponses.hasHits;
+import static org.icgc.dcc.portal.server.util.SearchResponses.getHitIdsSet;
+import static org.icgc.dcc.portal.server.util.SearchScroll.scroll;
 
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.LinkedHashMap;
@@ -60,6 +63,7 @@ import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import org.dcc.portal.pql.ast.StatementNode;
 import org.dcc.portal.pql.query.QueryEngine;
@@ -73,7 +77,6 @@ import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.NestedQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
-import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.aggregations.Aggregation;
 import org.elasticsearch.search.aggregations.bucket.terms.Terms;
 import org.elasticsearch.search.aggregations.bucket.terms.TermsAggregationBuilder;
@@ -87,6 +90,7 @@ import org.icgc.dcc.portal.server.model.Statistics;
 import org.icgc.dcc.portal.server.model.TermFacet.Term;
 import org.icgc.dcc.portal.server.pql.convert.Jql2PqlConverter;
 import org.icgc.dcc.portal.server.repository.TermsLookupRepository.TermLookupType;
+import org.icgc.dcc.portal.server.util.SearchScroll;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -173,10 +177,10 @@ public class DonorRepository implements Repository {
   @Override
   @NonNull
   public SearchResponse findAllCentric(Query query) {
-    val pql = CONVERTER.convert(query, DONOR_CENTRIC);
-    log.info("pql of findAllCentric is: {}", pql);
+    val pqlAst = CONVERTER.convertAst(query, DONOR_CENTRIC);
+    log.debug("pql of findAllCentric is: {}", pqlAst);
 
-    val request = queryEngine.execute(pql, DONOR_CENTRIC);
+    val request = queryEngine.execute(pqlAst, DONOR_CENTRIC);
     val response = request.getRequestBuilder().execute().actionGet();
     return response;
   }
@@ -192,7 +196,7 @@ public class DonorRepository implements Repository {
   }
 
   private SearchRequestBuilder projectDonorCountSearch(Query query, String facetName) {
-    val pqlAst = parse(CONVERTER.convert(query, DONOR_CENTRIC));
+    val pqlAst = CONVERTER.convertAst(query, DONOR_CENTRIC);
     pqlAst.setFacets(facets(facetName));
 
     val result = queryEngine.execute(pqlAst, DONOR_CENTRIC).getRequestBuilder().setFetchSource(false);
@@ -380,40 +384,88 @@ public class DonorRepository implements Repository {
 
   @Override
   public long count(Query query) {
+    return join(countAsync(query));
+  }
+
+  @Override
+  public CompletableFuture<Long> countAsync(Query query) {
     log.debug("Converting {}", query.getFilters());
 
-    val pql = CONVERTER.convertCount(query, DONOR_CENTRIC);
+    val pqlAst = CONVERTER.convertCountAst(query, DONOR_CENTRIC);
 
-    val request = queryEngine.execute(pql, DONOR_CENTRIC);
-    return request.getRequestBuilder().setSize(0).execute().actionGet().getHits().getTotalHits();
+    val request = queryEngine.execute(pqlAst, DONOR_CENTRIC);
+    return execute("donor-count", request.getRequestBuilder().setSize(0))
+        .thenApply(response -> response.getHits().getTotalHits());
   }
 
   @Override
   public MultiSearchResponse counts(LinkedHashMap<String, Query> queries) {
+    return join(countsAsync(queries));
+  }
+
+  @Override
+  public CompletableFuture<MultiSearchResponse> countsAsync(LinkedHashMap<String, Query> queries) {
     MultiSearchRequestBuilder search = client.prepareMultiSearch();
 
     for (val query : queries.values()) {
       log.debug("Converting {}", query.getFilters());
-      val pql = CONVERTER.convertCount(query, DONOR_CENTRIC);
-      val request = queryEngine.execute(pql, DONOR_CENTRIC);
+      val pqlAst = CONVERTER.convertCountAst(query, DONOR_CENTRIC);
+      val request = queryEngine.execute(pqlAst, DONOR_CENTRIC);
       search.add(request.getRequestBuilder());
     }
-    return search.execute().actionGet();
+    return execute("donor-counts", search);
   }
 
   public SearchResponse donorSearchRequest(final BoolQueryBuilder boolFilter, int maxUnionCount) {
+    val request = prepareDonorSearch(boolFilter, maxUnionCount);
+
+    log.debug("Terms Lookup - Donor Search: {}", request);
+    val response = request.execute().actionGet();
+    log.debug("ElasticSearch result is: '{}'", response);
+    return response;
+  }
+
+  /**
+   * Same as {@link #donorSearchRequest(BoolQueryBuilder, int)} for every filter, in a single multi search round trip.
+   * Responses are in {@code boolFilters} order.
+   */
+  public MultiSearchResponse donorSearchRequests(@NonNull List<BoolQueryBuilder> boolFilters, int maxUnionCount) {
+    val search = client.prepareMultiSearch();
+    for (val boolFilter : boolFilters) {
+      search.add(prepareDonorSearch(boolFilter, maxUnionCount));
+    }
+
+    log.debug("Terms Lookup - Donor Searches: {}", search);
+    val response = search.execute().actionGet();
+    log.debug("ElasticSearch result is: '{}'", response);
+    return response;
+  }
+
+  /**
+   * Ids of all the donors matching {@code boolFilter} in the same indices as
+   * {@link #donorSearchRequest(BoolQueryBuilder, int)}, paged through without its hit limit.
+   */
+  public Set<String> findDonorIds(@NonNull BoolQueryBuilder boolFilter) {
+    Set<String> donorIds = newHashSet();
+    try (SearchScroll scroll = scroll(client, prepareDonorSearch(boolFilter, SCAN_BATCH_SIZE), KEEP_ALIVE)) {
+      while (scroll.hasNext()) {
+        donorIds.addAll(getHitIdsSet(scroll.next()));
+      }
+    }
+
+    return donorIds;
+  }
+
+  private SearchRequestBuilder prepareDonorSearch(BoolQueryBuilder boolFilter, int maxUnionCount) {
+    // Only the ids are needed. Sorting by index order skips scoring and is the cheapest way to collect them
     val query = boolQuery().must(matchAllQuery()).filter(boolFilter);
-    val request = client.prepareSearch(repoIndexName, indexName)
+    return client.prepareSearch(repoIndexName, indexName)
         .setTypes(DONOR_TEXT.getId(), FILE_DONOR_TEXT.getId())
         .setQuery(query)
         .setSize(maxUnionCount)
         .setFetchSource(false)
+        .addSort(DOC_FIELD_NAME, ASC)
         .setSearchType(SearchType.DEFAULT);
-
-    log.debug("Terms Lookup - Donor Search: {}", request);
-    val response = request.execute().actionGet();
-    log.debug("ElasticSearch result is: '{}'", response);
-    return response;
   }
 
   /**
@@ -444,21 +496,27 @@ public class DonorRepository implements Repository {
 
   @Override
   public MultiSearchResponse nestedCounts(LinkedHashMap<String, LinkedHashMap<String, Query>> queries) {
+    return join(nestedCountsAsync(queries));
+  }
+
+  @Override
+  public CompletableFuture<MultiSearchResponse> nestedCountsAsync(
+      LinkedHashMap<String, LinkedHashMap<String, Query>> queries) {
     val search = client.prepareMultiSearch();
 
     for (val nestedQuery : queries.values()) {
       for (val innerQuery : nestedQuery.values()) {
         log.debug("Nested converting {}", innerQuery);
 
-        val pql = CONVERTER.convertCount(innerQuery, DONOR_CENTRIC);
-        val request = queryEngine.execute(pql, DONOR_CENTRIC);
+        val pqlAst = CONVERTER.convertCountAst(innerQuery, DONOR_CENTRIC);
+        val request = queryEngine.execute(pqlAst, DONOR_CENTRIC);
 
         search.add(request.getRequestBuilder());
       }
     }
 
     log.debug("{}", search);
-    return search.execute().actionGet();
+    return execute("donor-nested-counts", search);
   }
 
   @Override
@@ -516,17 +574,14 @@ public class DonorRepository implements Repository {
     val request = queryEngine.execute(pqlString, DONOR_CENTRIC);
     val requestBuilder = request.getRequestBuilder()
         .setSize(SCAN_BATCH_SIZE)
-        .setScroll(KEEP_ALIVE)
         .setFetchSource(false);
 
-    SearchResponse response = requestBuilder.execute().actionGet();
-    while (hasHits(response)) {
-      for (SearchHit hit : response.getHits()) {
-        donorIds.add(hit.getId());
+    try (SearchScroll scroll = scroll(client, requestBuilder, KEEP_ALIVE)) {
+      while (scroll.hasNext()) {
+        for (val hit : scroll.next().getHits()) {
+          donorIds.add(hit.getId());
+        }
       }
-      response = client.prepareSearchScroll(response.getScrollId())
-          .setScroll(KEEP_ALIVE)
-          .execute().actionGet();
     }
 
     return donorIds;
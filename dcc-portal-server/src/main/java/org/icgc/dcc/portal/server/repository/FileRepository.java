@@ -27,7 +27,6 @@ import static java.util.stream.IntStream.range;
 import static org.apache.lucene.search.join.ScoreMode.Avg;
 import static org.dcc.portal.pql.ast.function.FunctionBuilders.limit;
 import static org.dcc.portal.pql.ast.function.FunctionBuilders.select;
-import static org.dcc.portal.pql.ast.function.FunctionBuilders.sortBuilder;
 import static org.dcc.portal.pql.meta.Type.FILE;
 import static org.dcc.portal.pql.query.PqlParser.parse;
 import static org.elasticsearch.action.search.SearchType.QUERY_THEN_FETCH;
@@ -36,6 +35,7 @@ import static org.elasticsearch.index.query.QueryBuilders.matchAllQuery;
 import static org.elasticsearch.index.query.QueryBuilders.multiMatchQuery;
 import static org.elasticsearch.index.query.QueryBuilders.nestedQuery;
 import static org.elasticsearch.index.query.QueryBuilders.termQuery;
+import static org.elasticsearch.index.query.QueryBuilders.termsQuery;
 import static org.elasticsearch.search.aggregations.AggregationBuilders.avg;
 import static org.elasticsearch.search.aggregations.AggregationBuilders.filter;
 import static org.elasticsearch.search.aggregations.AggregationBuilders.filters;
@@ -43,6 +43,7 @@ import static org.elasticsearch.search.aggregations.AggregationBuilders.missing;
 import static org.elasticsearch.search.aggregations.AggregationBuilders.nested;
 import static org.elasticsearch.search.aggregations.AggregationBuilders.sum;
 import static org.elasticsearch.search.aggregations.AggregationBuilders.terms;
+import static org.elasticsearch.search.sort.SortOrder.ASC;
 import static org.icgc.dcc.common.core.util.stream.Collectors.toImmutableList;
 import static org.icgc.dcc.common.core.util.stream.Collectors.toImmutableSet;
 import static org.icgc.dcc.portal.server.model.IndexModel.FIELDS_MAPPING;
@@ -57,8 +58,10 @@ import static org.icgc.dcc.portal.server.util.ElasticsearchResponseUtils.checkRe
 import static org.icgc.dcc.portal.server.util.JsonUtils.merge;
 import static org.icgc.dcc.portal.server.util.SearchResponses.getHitIds;
 import static org.icgc.dcc.portal.server.util.SearchResponses.getTotalHitCount;
+import static org.icgc.dcc.portal.server.util.SearchScroll.searchAfter;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -67,19 +70,18 @@ import java.util.function.Consumer;
 
 import org.dcc.portal.pql.ast.StatementNode;
 import org.dcc.portal.pql.ast.function.SelectNode;
-import org.dcc.portal.pql.ast.function.SortNode;
 import org.dcc.portal.pql.meta.FileTypeModel.EsFields;
 import org.dcc.portal.pql.meta.FileTypeModel.Fields;
 import org.dcc.portal.pql.meta.IndexModel;
 import org.dcc.portal.pql.meta.TypeModel;
+import org.dcc.portal.pql.query.QueryCache;
 import org.dcc.portal.pql.query.QueryEngine;
+import org.dcc.portal.pql.query.TermsLookupCache;
 import org.elasticsearch.action.get.GetResponse;
 import org.elasticsearch.action.search.MultiSearchResponse.Item;
 import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchResponse;
-import org.elasticsearch.action.search.SearchType;
 import org.elasticsearch.client.Client;
-import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.search.aggregations.AbstractAggregationBuilder;
 import org.elasticsearch.search.aggregations.AggregationBuilder;
@@ -102,6 +104,7 @@ import org.icgc.dcc.portal.server.model.UniqueSummaryQuery;
 import org.icgc.dcc.portal.server.model.param.FiltersParam;
 import org.icgc.dcc.portal.server.pql.convert.Jql2PqlConverter;
 import org.icgc.dcc.portal.server.service.IndexService;
+import org.icgc.dcc.portal.server.util.SearchScroll;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -111,7 +114,6 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
-import com.google.common.primitives.Ints;
 
 import lombok.NonNull;
 import lombok.SneakyThrows;
@@ -144,8 +146,6 @@ public class FileRepository {
       Fields.DATA_BUNDLE_ID,
       Fields.FILE_COPIES,
       Fields.DONORS));
-  private static final SortNode FILE_INFO_SORT = sortBuilder()
-      .sortAsc(Fields.REPO_TYPE).build();
 
   private static final TypeModel TYPE_MODEL = IndexModel.getFileTypeModel();
   private static final String FILE_INDEX_TYPE = FILE.getId();
@@ -155,7 +155,7 @@ public class FileRepository {
   private static final Jql2PqlConverter PQL_CONVERTER = Jql2PqlConverter.getInstance();
   private static final Map<String, String> JQL_FIELD_NAME_MAPPING = FIELDS_MAPPING.get(EntityType.FILE);
 
-  private static final TimeValue KEEP_ALIVE = new TimeValue(10000);
+  private static final int EXPORT_PAGE_SIZE = 5000;
 
   // This should be larger than the reported number of files, otherwise total size and donor numbers will be wrong
   private static final int MAX_FILE_BUCKET_SIZE = 300000;
@@ -171,10 +171,10 @@ public class FileRepository {
   @Autowired
   public FileRepository(Client client,
       @NonNull @org.springframework.beans.factory.annotation.Value("#{repoIndexName}") String repoIndexName,
-      IndexService indexService) {
+      IndexService indexService, QueryCache queryCache, TermsLookupCache termsLookupCache) {
     this.client = client;
     this.repoIndexName = repoIndexName;
-    this.queryEngine = new QueryEngine(client, repoIndexName);
+    this.queryEngine = new QueryEngine(client, repoIndexName, queryCache, termsLookupCache);
     this.indexService = indexService;
   }
 
@@ -226,7 +226,7 @@ public class FileRepository {
   }
 
   public SearchResponse findAll(@NonNull Query query) {
-    val pqlAst = PQL_CONVERTER.convert(query, FILE);
+    val pqlAst = PQL_CONVERTER.convertAst(query, FILE);
     val request = queryEngine.execute(pqlAst, FILE).getRequestBuilder();
 
     aggs().stream().forEach(agg -> request.addAggregation(agg));
@@ -237,35 +237,33 @@ public class FileRepository {
   }
 
   /**
-   * This findAll is used to export files to file and requires a scroll.
-   * 
-   * @param query object with filter
-   * @param fields that we require in the response
-   * @return SearchResponse with scroll
+   * Pages through the files of a data table export with {@code search_after}, so that slow export clients do not pin a
+   * scroll context on the cluster.
    */
-  public SearchResponse findAll(Query query, final String[] fields) {
-    val pqlAst = PQL_CONVERTER.convert(query, FILE);
-    val request = queryEngine.execute(pqlAst, FILE).getRequestBuilder();
-    int pageSize = 5000;
-
-    request.setSize(pageSize)
-        .setScroll(KEEP_ALIVE)
+  public SearchScroll findAll(Query query, final String[] fields) {
+    val pqlAst = PQL_CONVERTER.convertAst(query, FILE);
+    val request = queryEngine.execute(pqlAst, FILE).getRequestBuilder()
+        .setSize(EXPORT_PAGE_SIZE)
         .setFetchSource(fields, NO_EXCLUDE);
 
-    val response = request.get();
-    return response;
+    return searchAfter(request, EsFields.ID);
   }
 
   // FIXME: Support terms lookup on files as part of the filter builder so we don't need an extra method.
-  public SearchResponse findAll(String setId, final String[] fields) {
-    val query = fileSetIdQuery(setId);
+  public SearchScroll findAll(String setId, final String[] fields) {
+    val request = client.prepareSearch(repoIndexName)
+        .setTypes(FILE_INDEX_TYPE)
+        .setQuery(fileSetIdQuery(setId))
+        .setSize(EXPORT_PAGE_SIZE)
+        .setFetchSource(fields, NO_EXCLUDE);
 
-    return searchFileCentric(request -> request.setQuery(query), fields);
+    log.debug("Preparing data table export; ES query is: '{}'", request);
+    return searchAfter(request, EsFields.ID);
   }
 
   @SuppressWarnings({ "rawtypes", "unchecked" })
   public Set<String> findAllDonorIds(@NonNull Query query, final int setLimit) {
-    val pqlAst = parse(PQL_CONVERTER.convert(query, FILE));
+    val pqlAst = PQL_CONVERTER.convertAst(query, FILE);
     val size = query.getSize();
     int pageNumber = 0;
 
@@ -307,7 +305,7 @@ public class FileRepository {
   }
 
   public List<String> findAllFileIds(Query query) {
-    val pqlAst = PQL_CONVERTER.convert(query, FILE);
+    val pqlAst = PQL_CONVERTER.convertAst(query, FILE);
     val request = queryEngine.execute(pqlAst, FILE).getRequestBuilder()
         .setSearchType(QUERY_THEN_FETCH)
         .setFrom(query.getFrom())
@@ -330,18 +328,25 @@ public class FileRepository {
     return response;
   }
 
-  public SearchResponse findFileInfoPQL(@NonNull final String pql) {
+  /**
+   * Pages through the files matching {@code pql} that have a copy in one of {@code repoCodes}, ordered by file id so
+   * that manifests can be written as the pages arrive. When {@code bundled}, files of the same data bundle are kept
+   * adjacent.
+   */
+  public SearchScroll findManifestFiles(@NonNull String pql, @NonNull Collection<String> repoCodes, boolean bundled) {
     val pqlAst = parse(pql);
     pqlAst.setSelect(FILE_INFO_FIELDS);
-    pqlAst.setSort(FILE_INFO_SORT);
 
-    log.debug("PQL for download is: '{}'.", pqlAst.toString());
-
-    // Get the total count first.
-    val count = getTotalHitCount(findFileInfoPQLCount(pqlAst));
-    log.debug("A total of {} files will be returned from this query.", count);
+    val repoFilter = termsQuery(toRawFieldName(Fields.REPO_CODE), repoCodes);
+    val request = queryEngine.execute(pqlAst, FILE).getRequestBuilder()
+        .setPostFilter(nestedQuery(EsFields.FILE_COPIES, repoFilter, Avg))
+        .setSize(EXPORT_PAGE_SIZE);
+    if (bundled) {
+      request.addSort(EsFields.DATA_BUNDLE_ID, ASC);
+    }
 
-    return findFileInfoPQL(pqlAst, QUERY_THEN_FETCH, Ints.saturatedCast(count));
+    log.debug("Preparing manifest files; ES query is: '{}'", request);
+    return searchAfter(request, EsFields.ID);
   }
 
   /**
@@ -356,7 +361,7 @@ public class FileRepository {
 
     val fileSizeSubAgg = averageFileSizePerFileCopyAgg(SummaryAggregationKeys.FILE);
 
-    val pqlAst = PQL_CONVERTER.convertCount(query, FILE);
+    val pqlAst = PQL_CONVERTER.convertCountAst(query, FILE);
     val request = queryEngine.execute(pqlAst, FILE).getRequestBuilder()
         .addAggregation(fileSizeSubAgg)
         .addAggregation(donorSubAggs);
@@ -383,7 +388,7 @@ public class FileRepository {
    */
   public long getDonorCount(Query query) {
     val aggKey = "donorCount";
-    val pqlAst = PQL_CONVERTER.convert(query, FILE);
+    val pqlAst = PQL_CONVERTER.convertAst(query, FILE);
     val request = queryEngine.execute(pqlAst, FILE).getRequestBuilder()
         .setSize(0)
         .addAggregation(donorIdAgg(aggKey));
@@ -415,12 +420,6 @@ public class FileRepository {
     return indexService.getIndexMetaData(client, repoIndexName);
   }
 
-  public SearchResponse prepareSearchScroll(@NonNull String scrollId) {
-    return client.prepareSearchScroll(scrollId)
-        .setScroll(KEEP_ALIVE)
-        .execute().actionGet();
-  }
-
   /*
    * Facets that aren't visible in the UI, mostly used by the Manifest Download modal dialog. These use special filters,
    * which do not exclude self.
@@ -446,7 +445,7 @@ public class FileRepository {
   }
 
   public SearchResponse getManifestSummary(UniqueSummaryQuery summary) {
-    val pqlAst = PQL_CONVERTER.convert(summary.getQuery(), FILE);
+    val pqlAst = PQL_CONVERTER.convertAst(summary.getQuery(), FILE);
     val request = queryEngine.execute(pqlAst, FILE).getRequestBuilder();
 
     val repoNames = summary.getRepoNames();
@@ -512,7 +511,7 @@ public class FileRepository {
       val mergedFilter = merge(userFilter, repoFilter.get());
       val mergedQuery = new Query().setFilters(mergedFilter);
 
-      val pqlAst = PQL_CONVERTER.convert(mergedQuery, FILE);
+      val pqlAst = PQL_CONVERTER.convertAst(mergedQuery, FILE);
       val request = queryEngine.execute(pqlAst, FILE).getRequestBuilder()
           .addAggregation(donorIdAgg(donorAggKey));
 
@@ -569,23 +568,6 @@ public class FileRepository {
     return response;
   }
 
-  private SearchResponse findFileInfoPQLCount(StatementNode pqlAst) {
-    val response = searchFileCentricPQL("findFileInfoPQL", pqlAst, request -> request
-        .setSize(0));
-
-    log.debug("findFileInfoPQL - ES response is: {}", response);
-    return response;
-  }
-
-  private SearchResponse findFileInfoPQL(StatementNode pqlAst, SearchType searchType, int size) {
-    val response = searchFileCentricPQL("findFileInfoPQL", pqlAst, request -> request
-        .setSearchType(searchType)
-        .setSize(size));
-
-    log.debug("findFileInfoPQL - ES response is: {}", response);
-    return response;
-  }
-
   private SearchResponse findDonorIdsPQL(@NonNull StatementNode pqlAst, int pageNumber, int size) {
     pqlAst.setLimit(limit(pageNumber * size, size));
 
@@ -609,19 +591,6 @@ public class FileRepository {
     return request.execute().actionGet();
   }
 
-  private SearchResponse searchFileCentric(Consumer<SearchRequestBuilder> queryCustomizer, String[] fields) {
-    val size = 5000;
-
-    return searchFileCentric("Preparing data table export", request -> {
-      request
-          .setSize(size)
-          .setScroll(KEEP_ALIVE)
-          .setFetchSource(fields, NO_EXCLUDE);
-
-      queryCustomizer.accept(request);
-    });
-  }
-
   private SearchResponse searchFileDonorText(String logMessage, Consumer<SearchRequestBuilder> customizer) {
     return searchFiles(FILE_DONOR_TEXT_INDEX_TYPE, logMessage, customizer);
   }
@@ -34,11 +34,13 @@ import static org.icgc.dcc.portal.server.model.IndexModel.FIELDS_MAPPING;
 import static org.icgc.dcc.portal.server.model.IndexModel.MAX_FACET_TERM_COUNT;
 import static org.icgc.dcc.portal.server.model.IndexModel.TEXT_PREFIX;
 import static org.icgc.dcc.portal.server.model.IndexModel.getFields;
+import static org.icgc.dcc.portal.server.util.ElasticsearchFutures.execute;
+import static org.icgc.dcc.portal.server.util.ElasticsearchFutures.join;
 import static org.icgc.dcc.portal.server.util.ElasticsearchResponseUtils.checkResponseState;
 import static org.icgc.dcc.portal.server.util.Filters.andFilter;
 import static org.icgc.dcc.portal.server.util.Filters.geneSetFilter;
 import static org.icgc.dcc.portal.server.util.Filters.inputGeneSetFilter;
-import static org.icgc.dcc.portal.server.util.SearchResponses.hasHits;
+import static org.icgc.dcc.portal.server.util.SearchScroll.scroll;
 
 import java.util.Collection;
 import java.util.LinkedHashMap;
@@ -46,6 +48,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 import org.dcc.portal.pql.ast.StatementNode;
@@ -65,6 +68,7 @@ import org.icgc.dcc.portal.server.model.IndexType;
 import org.icgc.dcc.portal.server.model.Query;
 import org.icgc.dcc.portal.server.model.Universe;
 import org.icgc.dcc.portal.server.pql.convert.Jql2PqlConverter;
+import org.icgc.dcc.portal.server.util.SearchScroll;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -213,15 +217,25 @@ public class GeneRepository implements Repository {
 
   @Override
   public long count(Query query) {
+    return join(countAsync(query));
+  }
+
+  @Override
+  public CompletableFuture<Long> countAsync(Query query) {
     val pql = converter.convertCount(query, GENE_CENTRIC);
     val search = queryEngine.execute(pql, GENE_CENTRIC).getRequestBuilder();
 
     log.debug("{}", search);
-    return search.execute().actionGet().getHits().getTotalHits();
+    return execute("gene-count", search).thenApply(response -> response.getHits().getTotalHits());
   }
 
   @Override
   public MultiSearchResponse counts(LinkedHashMap<String, Query> queries) {
+    return join(countsAsync(queries));
+  }
+
+  @Override
+  public CompletableFuture<MultiSearchResponse> countsAsync(LinkedHashMap<String, Query> queries) {
     val search = client.prepareMultiSearch();
 
     for (val query : queries.values()) {
@@ -231,11 +245,17 @@ public class GeneRepository implements Repository {
 
     log.debug("{}", search);
 
-    return search.execute().actionGet();
+    return execute("gene-counts", search);
   }
 
   @Override
   public MultiSearchResponse nestedCounts(LinkedHashMap<String, LinkedHashMap<String, Query>> queries) {
+    return join(nestedCountsAsync(queries));
+  }
+
+  @Override
+  public CompletableFuture<MultiSearchResponse> nestedCountsAsync(
+      LinkedHashMap<String, LinkedHashMap<String, Query>> queries) {
     val search = client.prepareMultiSearch();
 
     for (val nestedQuery : queries.values()) {
@@ -247,7 +267,7 @@ public class GeneRepository implements Repository {
 
     log.debug("{}", search);
 
-    return search.execute().actionGet();
+    return execute("gene-nested-counts", search);
   }
 
   @Override
@@ -353,23 +373,16 @@ public class GeneRepository implements Repository {
 
   public Multimap<String, String> getGeneSymbolEnsemblIdMap() {
     val result = ImmutableMultimap.<String, String> builder();
-    String scrollId = prepareScrollSearch(GENE_SYMBOL_ENSEMBL_ID_FIELDS).getScrollId();
-
-    while (true) {
-      val response = fetchScrollData(scrollId);
 
-      if (!hasHits(response)) {
-        break;
+    try (SearchScroll scroll = prepareScrollSearch(GENE_SYMBOL_ENSEMBL_ID_FIELDS)) {
+      while (scroll.hasNext()) {
+        for (val hit : scroll.next().getHits()) {
+          val values = DEFAULT.convertValue(hit.getSource(), JsonNode.class);
+          val ensemblId = values.path(TEXT_PATH).path(ENSEMBL_ID_FIELD_NAME).asText();
+          val geneSymbol = values.path(TEXT_PATH).path(GENE_SYMBOL_FIELD_NAME).asText();
+          result.put(geneSymbol, ensemblId);
+        }
       }
-
-      for (val hit : response.getHits()) {
-        val values = DEFAULT.convertValue(hit.getSource(), JsonNode.class);
-        val ensemblId = values.path(TEXT_PATH).path(ENSEMBL_ID_FIELD_NAME).asText();
-        val geneSymbol = values.path(TEXT_PATH).path(GENE_SYMBOL_FIELD_NAME).asText();
-        result.put(geneSymbol, ensemblId);
-      }
-
-      scrollId = response.getScrollId();
     }
 
     return result.build();
@@ -385,21 +398,16 @@ public class GeneRepository implements Repository {
     return request.execute().actionGet();
   }
 
-  private SearchResponse prepareScrollSearch(String[] fields) {
+  private SearchScroll prepareScrollSearch(String[] fields) {
     val batchSize = 5000;
-
-    return searchGenes(GENE_TEXT, "prepareScrollSearch", request -> {
-      request.addSort(DOC_FIELD_NAME, ASC)
-          .setSize(batchSize)
-          .setScroll(KEEP_ALIVE)
-          .setFetchSource(fields, NO_EXCLUDE);
-    });
-  }
-
-  private SearchResponse fetchScrollData(String scrollId) {
-    return client.prepareSearchScroll(scrollId)
-        .setScroll(KEEP_ALIVE)
-        .execute().actionGet();
+    val request = client.prepareSearch(indexName)
+        .setTypes(GENE_TEXT)
+        .addSort(DOC_FIELD_NAME, ASC)
+        .setSize(batchSize)
+        .setFetchSource(fields, NO_EXCLUDE);
+
+    log.debug("prepareScrollSearch; ES query is: '{}'", request);
+    return scroll(client, request, KEEP_ALIVE);
   }
 
   private static String[] toStringArray(Collection<String> source) {
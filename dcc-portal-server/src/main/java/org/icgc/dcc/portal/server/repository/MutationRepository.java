@@ -22,6 +22,8 @@ import static org.apache.lucene.search.join.ScoreMode.Avg;
 import static org.dcc.portal.pql.meta.Type.MUTATION_CENTRIC;
 import static org.elasticsearch.index.query.QueryBuilders.nestedQuery;
 import static org.elasticsearch.index.query.QueryBuilders.termQuery;
+import static org.icgc.dcc.portal.server.util.ElasticsearchFutures.execute;
+import static org.icgc.dcc.portal.server.util.ElasticsearchFutures.join;
 import static org.icgc.dcc.portal.server.util.ElasticsearchRequestUtils.setFetchSourceOfGetRequest;
 import static org.icgc.dcc.portal.server.util.ElasticsearchResponseUtils.checkResponseState;
 import static org.icgc.dcc.portal.server.util.ElasticsearchResponseUtils.createResponseMap;
@@ -29,6 +31,7 @@ import static org.icgc.dcc.portal.server.util.ElasticsearchResponseUtils.createR
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.dcc.portal.pql.ast.StatementNode;
 import org.dcc.portal.pql.query.QueryEngine;
@@ -75,8 +78,8 @@ public class MutationRepository implements Repository {
   @Override
   @NonNull
   public SearchResponse findAllCentric(Query query) {
-    val pql = converter.convert(query, MUTATION_CENTRIC);
-    val search = queryEngine.execute(pql, MUTATION_CENTRIC);
+    val pqlAst = converter.convertAst(query, MUTATION_CENTRIC);
+    val search = queryEngine.execute(pqlAst, MUTATION_CENTRIC);
 
     return search.getRequestBuilder().get();
   }
@@ -94,8 +97,8 @@ public class MutationRepository implements Repository {
    * within the same project as donor X.
    */
   public SearchResponse findMutationsByDonor(@NonNull Query query, @NonNull String donorId) {
-    val pql = converter.convert(query, MUTATION_CENTRIC);
-    val search = queryEngine.execute(pql, MUTATION_CENTRIC);
+    val pqlAst = converter.convertAst(query, MUTATION_CENTRIC);
+    val search = queryEngine.execute(pqlAst, MUTATION_CENTRIC);
 
     val termFilter = termQuery("ssm_occurrence.donor._donor_id", donorId);
     val nestedFilter = nestedQuery("ssm_occurrence", termFilter, Avg);
@@ -118,23 +121,34 @@ public class MutationRepository implements Repository {
 
   @Override
   public long count(Query query) {
+    return join(countAsync(query));
+  }
+
+  @Override
+  public CompletableFuture<Long> countAsync(Query query) {
     log.debug("Count Query {}", query.getFilters());
-    val pql = converter.convertCount(query, MUTATION_CENTRIC);
-    val search = queryEngine.execute(pql, MUTATION_CENTRIC);
-    return search.getRequestBuilder().execute().actionGet().getHits().getTotalHits();
+    val pqlAst = converter.convertCountAst(query, MUTATION_CENTRIC);
+    val search = queryEngine.execute(pqlAst, MUTATION_CENTRIC);
+    return execute("mutation-count", search.getRequestBuilder())
+        .thenApply(response -> response.getHits().getTotalHits());
   }
 
   @Override
   public MultiSearchResponse counts(@NonNull LinkedHashMap<String, Query> queries) {
+    return join(countsAsync(queries));
+  }
+
+  @Override
+  public CompletableFuture<MultiSearchResponse> countsAsync(@NonNull LinkedHashMap<String, Query> queries) {
     val search = client.prepareMultiSearch();
 
     for (val query : queries.values()) {
-      val pql = converter.convertCount(query, MUTATION_CENTRIC);
-      search.add(queryEngine.execute(pql, MUTATION_CENTRIC).getRequestBuilder());
+      val pqlAst = converter.convertCountAst(query, MUTATION_CENTRIC);
+      search.add(queryEngine.execute(pqlAst, MUTATION_CENTRIC).getRequestBuilder());
     }
 
     log.debug("{}", search);
-    return search.execute().actionGet();
+    return execute("mutation-counts", search);
   }
 
   @NonNull
@@ -171,17 +185,23 @@ public class MutationRepository implements Repository {
 
   @Override
   public MultiSearchResponse nestedCounts(LinkedHashMap<String, LinkedHashMap<String, Query>> queries) {
+    return join(nestedCountsAsync(queries));
+  }
+
+  @Override
+  public CompletableFuture<MultiSearchResponse> nestedCountsAsync(
+      LinkedHashMap<String, LinkedHashMap<String, Query>> queries) {
     val search = client.prepareMultiSearch();
 
     for (val nestedQuery : queries.values()) {
       for (val innerQuery : nestedQuery.values()) {
-        val pql = converter.convertCount(innerQuery, MUTATION_CENTRIC);
-        search.add(queryEngine.execute(pql, MUTATION_CENTRIC).getRequestBuilder());
+        val pqlAst = converter.convertCountAst(innerQuery, MUTATION_CENTRIC);
+        search.add(queryEngine.execute(pqlAst, MUTATION_CENTRIC).getRequestBuilder());
       }
     }
 
     log.debug("{}", search);
-    return search.execute().actionGet();
+    return execute("mutation-nested-counts", search);
   }
 
   @Override
@@ -202,8 +222,8 @@ public class MutationRepository implements Repository {
   }
 
   public SearchResponse protein(Query query) {
-    val pql = converter.convert(query, MUTATION_CENTRIC);
-    val search = queryEngine.execute(pql, MUTATION_CENTRIC)
+    val pqlAst = converter.convertAst(query, MUTATION_CENTRIC);
+    val search = queryEngine.execute(pqlAst, MUTATION_CENTRIC)
         .getRequestBuilder();
 
     search.setFrom(0)
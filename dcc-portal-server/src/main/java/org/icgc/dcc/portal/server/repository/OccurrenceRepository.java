@@ -59,7 +59,9 @@ import static org.icgc.dcc.portal.server.util.SearchResponses.getTotalHitCount;
 import java.util.Map;
 
 import org.dcc.portal.pql.ast.StatementNode;
+import org.dcc.portal.pql.query.QueryCache;
 import org.dcc.portal.pql.query.QueryEngine;
+import org.dcc.portal.pql.query.TermsLookupCache;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchResponse;
@@ -128,10 +130,11 @@ public class OccurrenceRepository {
   private final QueryEngine queryEngine;
 
   @Autowired
-  public OccurrenceRepository(Client client, @Value("#{indexName}") String indexName) {
+  public OccurrenceRepository(Client client, @Value("#{indexName}") String indexName, QueryCache queryCache,
+      TermsLookupCache termsLookupCache) {
     this.indexName = indexName;
     this.client = client;
-    this.queryEngine = new QueryEngine(client, indexName);
+    this.queryEngine = new QueryEngine(client, indexName, queryCache, termsLookupCache);
   }
 
   public SearchResponse findAll(Query query) {
@@ -1,6 +1,7 @@
 package org.icgc.dcc.portal.server.repository;
 
 import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
 
 import org.elasticsearch.action.search.MultiSearchResponse;
 import org.elasticsearch.action.search.SearchRequestBuilder;
@@ -21,6 +22,16 @@ public interface Repository {
 
   MultiSearchResponse nestedCounts(LinkedHashMap<String, LinkedHashMap<String, Query>> queries);
 
+  /*
+   * Non-blocking variants, so that independent counts can be in flight together.
+   */
+
+  CompletableFuture<Long> countAsync(Query query);
+
+  CompletableFuture<MultiSearchResponse> countsAsync(LinkedHashMap<String, Query> queries);
+
+  CompletableFuture<MultiSearchResponse> nestedCountsAsync(LinkedHashMap<String, LinkedHashMap<String, Query>> queries);
+
   // Needed for tests
   SearchRequestBuilder buildFindAllRequest(Query query, IndexType type);
 
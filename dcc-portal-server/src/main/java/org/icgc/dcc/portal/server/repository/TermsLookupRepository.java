@@ -27,32 +27,47 @@ import static org.dcc.portal.pql.meta.TypeModel.FILE_LOOKUP;
 import static org.dcc.portal.pql.meta.TypeModel.GENE_LOOKUP;
 import static org.dcc.portal.pql.meta.TypeModel.MUTATION_LOOKUP;
 import static org.elasticsearch.action.support.WriteRequest.RefreshPolicy.IMMEDIATE;
+import static org.elasticsearch.common.xcontent.XContentFactory.jsonBuilder;
 import static org.elasticsearch.index.query.QueryBuilders.termsLookupQuery;
+import static org.elasticsearch.search.sort.FieldSortBuilder.DOC_FIELD_NAME;
+import static org.elasticsearch.search.sort.SortOrder.ASC;
+import static org.icgc.dcc.portal.server.util.JsonUtils.LIST_TYPE_REFERENCE;
 import static org.icgc.dcc.portal.server.util.JsonUtils.MAPPER;
+import static org.icgc.dcc.portal.server.util.SearchResponses.getHitIdsSet;
+import static org.icgc.dcc.portal.server.util.SearchScroll.scroll;
 
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.function.Consumer;
 
 import javax.annotation.PostConstruct;
 import javax.validation.constraints.Min;
 
+import org.elasticsearch.action.search.MultiSearchResponse;
 import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.search.SearchType;
 import org.elasticsearch.client.Client;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.index.query.TermsQueryBuilder;
 import org.elasticsearch.indices.TermsLookup;
 import org.icgc.dcc.portal.server.config.ServerProperties;
 import org.icgc.dcc.portal.server.model.EntitySet.SubType;
+import org.icgc.dcc.portal.server.util.SearchScroll;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 
 import lombok.Getter;
 import lombok.NonNull;
@@ -71,6 +86,8 @@ public class TermsLookupRepository {
    */
   public static final String TERMS_LOOKUP_PATH = "values";
   public static final String TERMS_LOOKUP_INDEX_NAME = "terms-lookup";
+  private static final int SCAN_BATCH_SIZE = 1000;
+  private static final TimeValue KEEP_ALIVE = new TimeValue(10000);
 
   /**
    * Dependencies.
@@ -180,6 +197,45 @@ public class TermsLookupRepository {
     createTermsLookup(type, id, attributes);
   }
 
+  /**
+   * Opens a terms lookup whose values are appended one by one. It is only indexed once
+   * {@link TermsLookupWriter#create()} is called.
+   */
+  public TermsLookupWriter openTermsLookup(@NonNull final TermLookupType type, @NonNull final UUID id,
+      final boolean trans) {
+    return new TermsLookupWriter(type, id, trans);
+  }
+
+  /**
+   * Fetches the values of the {@code ids} terms lookups in a single round trip. Lookups which do not exist (yet) are
+   * absent from the result.
+   */
+  public Map<UUID, List<String>> findTermsLookups(@NonNull final TermLookupType type,
+      @NonNull final Collection<UUID> ids) {
+    val result = Maps.<UUID, List<String>> newLinkedHashMap();
+    if (ids.isEmpty()) {
+      return result;
+    }
+
+    val request = client.prepareMultiGet();
+    for (val id : ids) {
+      request.add(TERMS_LOOKUP_INDEX_NAME, type.getName(), id.toString());
+    }
+
+    for (val item : request.get()) {
+      if (item.isFailed() || !item.getResponse().isExists()) {
+        log.debug("Terms lookup '{}' is not available: {}", item.getId(), item.getFailure());
+        continue;
+      }
+
+      val rawValues = item.getResponse().getSource().get(TERMS_LOOKUP_PATH);
+      List<String> values = MAPPER.convertValue(rawValues, LIST_TYPE_REFERENCE);
+      result.put(UUID.fromString(item.getId()), values);
+    }
+
+    return result;
+  }
+
   public static TermsQueryBuilder createTermsLookupFilter(@NonNull String fieldName,
       @NonNull TermLookupType type, @NonNull UUID id) {
     val termsLookup = new TermsLookup(TERMS_LOOKUP_INDEX_NAME, type.getName(), id.toString(), TERMS_LOOKUP_PATH);
@@ -204,22 +260,93 @@ public class TermsLookupRepository {
     });
   }
 
-  public SearchResponse runUnionEsQueryCount(final String indexTypeName, @NonNull final BoolQueryBuilder boolFilter,
-      final int max) {
-
-    val query = QueryBuilders.boolQuery().must(boolFilter);
-    return execute("Union ES Query", false, (request) -> {
-      request
+  /**
+   * Counts the hits of every filter in a single multi search round trip. Responses are in {@code boolFilters} order.
+   */
+  public MultiSearchResponse runUnionEsQueryCounts(final String indexTypeName,
+      @NonNull final List<BoolQueryBuilder> boolFilters) {
+    val search = client.prepareMultiSearch();
+    for (val boolFilter : boolFilters) {
+      val index = indexTypeName.equalsIgnoreCase(FILE.getId()) ? repoIndexName : indexName;
+      val request = client.prepareSearch(index)
           .setTypes(indexTypeName)
+          .setQuery(QueryBuilders.boolQuery().must(boolFilter))
           .setSize(0)
-          .setQuery(query)
-          .setSize(max)
           .setFetchSource(false);
 
-      if (indexTypeName.equalsIgnoreCase(FILE.getId())) {
-        request.setIndices(repoIndexName);
+      search.add(request);
+    }
+
+    log.debug("Union ES Count Queries: {}", search);
+    val response = search.execute().actionGet();
+    log.debug("ElasticSearch result is: '{}'", response);
+    return response;
+  }
+
+  /**
+   * Ids of all the {@code indexTypeName} documents matching {@code boolFilter}, paged through without the hit limit of
+   * {@link #runUnionEsQuery(String, SearchType, BoolQueryBuilder, int)}.
+   */
+  public Set<String> findIds(final String indexTypeName, @NonNull final BoolQueryBuilder boolFilter) {
+    val index = indexTypeName.equalsIgnoreCase(FILE.getId()) ? repoIndexName : indexName;
+    val request = client.prepareSearch(index)
+        .setTypes(indexTypeName)
+        .setQuery(QueryBuilders.boolQuery().filter(boolFilter))
+        .setSize(SCAN_BATCH_SIZE)
+        .setFetchSource(false)
+        .addSort(DOC_FIELD_NAME, ASC);
+
+    val result = Sets.<String> newHashSet();
+    try (SearchScroll scroll = scroll(client, request, KEEP_ALIVE)) {
+      while (scroll.hasNext()) {
+        result.addAll(getHitIdsSet(scroll.next()));
       }
-    });
+    }
+
+    return result;
+  }
+
+  /**
+   * Serializes values as they are added, so that only the compact JSON form of a large set is held in memory rather
+   * than the search hits or strings it was built from.
+   */
+  public class TermsLookupWriter {
+
+    private final TermLookupType type;
+    private final UUID id;
+    private final boolean trans;
+    private final XContentBuilder source;
+    @Getter
+    private long count;
+
+    @SneakyThrows
+    private TermsLookupWriter(TermLookupType type, UUID id, boolean trans) {
+      this.type = type;
+      this.id = id;
+      this.trans = trans;
+      this.source = jsonBuilder().startObject().startArray(TERMS_LOOKUP_PATH);
+    }
+
+    @SneakyThrows
+    public void add(@NonNull String value) {
+      source.value(value);
+      count++;
+    }
+
+    @SneakyThrows
+    public void create() {
+      source.endArray()
+          .field(SubType.TRANSIENT.getName(), trans)
+          .endObject();
+
+      val request = client.prepareIndex(TERMS_LOOKUP_INDEX_NAME, type.getName())
+          .setId(id.toString())
+          .setSource(source)
+          .setRefreshPolicy(IMMEDIATE);
+      log.debug("Creating terms lookup '{}' with {} values", id, count);
+      request.get();
+    }
+
   }
 
   private String createSettings() {
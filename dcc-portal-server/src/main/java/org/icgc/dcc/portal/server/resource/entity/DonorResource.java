@@ -19,6 +19,7 @@ package org.icgc.dcc.portal.server.resource.entity;
 
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 import static org.icgc.dcc.portal.server.resource.Resources.*;
+import static org.icgc.dcc.portal.server.util.ElasticsearchFutures.join;
 
 import java.util.Collections;
 import java.util.LinkedHashMap;
@@ -36,6 +37,7 @@ import org.icgc.dcc.portal.server.model.Donor;
 import org.icgc.dcc.portal.server.model.Donors;
 import org.icgc.dcc.portal.server.model.Genes;
 import org.icgc.dcc.portal.server.model.Mutations;
+import org.icgc.dcc.portal.server.model.Query;
 import org.icgc.dcc.portal.server.model.param.FiltersParam;
 import org.icgc.dcc.portal.server.model.param.IdsParam;
 import org.icgc.dcc.portal.server.model.param.IntParam;
@@ -48,6 +50,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.Maps;
 import com.yammer.metrics.annotation.Timed;
 
 import io.swagger.annotations.Api;
@@ -183,15 +186,12 @@ public class DonorResource extends Resource {
 
     log.debug(NESTED_COUNT_TEMPLATE, GENE, donors);
     val queries = queries(filters, DONOR_FILTER_TEMPLATE, donors);
-    val counts = geneService.counts(queries);
 
-    // Get total Gene count using all Donors
+    // Get total Gene count using all Donors, in the same multi search
     filters = mergeFilters(filters, DONOR_FILTER_TEMPLATE, JsonUtils.join(donors));
-    long uniqueCount = geneService.count(query().filters(filters).build());
+    queries.put(TOTAL, query().filters(filters).build());
 
-    counts.put(TOTAL, uniqueCount);
-
-    return counts;
+    return geneService.counts(queries);
   }
 
   @Path("/{" + API_DONOR_PARAM + "}/genes/{" + API_GENE_PARAM + "}/mutations/count")
@@ -223,16 +223,22 @@ public class DonorResource extends Resource {
 
     log.info(NESTED_NESTED_COUNT_TEMPLATE, new Object[] { MUTATION, donors, genes });
     val queries = queries(filters, GENE_DONOR_FILTER_TEMPLATE, genes, donors);
-    val counts = mutationService.nestedCounts(queries);
+    val counts = mutationService.nestedCountsAsync(queries);
 
-    // Get total Mutation count for each Donor using all Genes
+    // Get total Mutation count for each Donor using all Genes, in a single multi search
+    val totalQueries = Maps.<String, Query> newLinkedHashMap();
     for (String donorId : donors) {
       filters = mergeFilters(filters, GENE_DONOR_FILTER_TEMPLATE, JsonUtils.join(genes), donorId);
-      long uniqueCount = mutationService.count(query().filters(filters).build());
-      counts.get(donorId).put(TOTAL, uniqueCount);
+      totalQueries.put(donorId, query().filters(filters).build());
+    }
+    val totals = mutationService.countsAsync(totalQueries);
+
+    val result = join(counts);
+    for (val entry : join(totals).entrySet()) {
+      result.get(entry.getKey()).put(TOTAL, entry.getValue());
     }
 
-    return counts;
+    return result;
   }
 
   @Path("/{" + API_DONOR_PARAM + "}/mutations")
@@ -283,15 +289,12 @@ public class DonorResource extends Resource {
 
     log.debug(NESTED_COUNT_TEMPLATE, MUTATION, donors);
     val queries = queries(filters, DONOR_FILTER_TEMPLATE, donors);
-    val counts = mutationService.counts(queries);
 
-    // Get total Mutation count using all Donors
+    // Get total Mutation count using all Donors, in the same multi search
     filters = mergeFilters(filters, DONOR_FILTER_TEMPLATE, JsonUtils.join(donors));
-    long uniqueCount = mutationService.count(query().filters(filters).build());
+    queries.put(TOTAL, query().filters(filters).build());
 
-    counts.put(TOTAL, uniqueCount);
-
-    return counts;
+    return mutationService.counts(queries);
   }
 
   @Path("/{" + API_DONOR_PARAM + "}/mutations/{" + API_MUTATION_PARAM + "}/genes/count")
@@ -324,16 +327,22 @@ public class DonorResource extends Resource {
 
     log.info(NESTED_NESTED_COUNT_TEMPLATE, new Object[] { GENE, donors, mutations });
     val queries = queries(filters, MUTATION_DONOR_FILTER_TEMPLATE, mutations, donors);
-    val counts = geneService.nestedCounts(queries);
+    val counts = geneService.nestedCountsAsync(queries);
 
-    // Get total Gene count for each Donor using all Mutations
+    // Get total Gene count for each Donor using all Mutations, in a single multi search
+    val totalQueries = Maps.<String, Query> newLinkedHashMap();
     for (String donorId : donors) {
       filters = mergeFilters(filters, MUTATION_DONOR_FILTER_TEMPLATE, JsonUtils.join(mutations), donorId);
-      long uniqueCount = geneService.count(query().filters(filters).build());
-      counts.get(donorId).put(TOTAL, uniqueCount);
+      totalQueries.put(donorId, query().filters(filters).build());
+    }
+    val totals = geneService.countsAsync(totalQueries);
+
+    val result = join(counts);
+    for (val entry : join(totals).entrySet()) {
+      result.get(entry.getKey()).put(TOTAL, entry.getValue());
     }
 
-    return counts;
+    return result;
   }
 
 }
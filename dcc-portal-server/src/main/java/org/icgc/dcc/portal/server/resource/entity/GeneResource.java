@@ -20,6 +20,7 @@ package org.icgc.dcc.portal.server.resource.entity;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 import static org.icgc.dcc.portal.server.resource.Resources.*;
 import static org.icgc.dcc.portal.server.resource.Resources.API_QUERY_PARAM;
+import static org.icgc.dcc.portal.server.util.ElasticsearchFutures.join;
 
 import java.util.Collections;
 import java.util.LinkedHashMap;
@@ -37,6 +38,7 @@ import org.icgc.dcc.portal.server.model.Donors;
 import org.icgc.dcc.portal.server.model.Gene;
 import org.icgc.dcc.portal.server.model.Genes;
 import org.icgc.dcc.portal.server.model.Mutations;
+import org.icgc.dcc.portal.server.model.Query;
 import org.icgc.dcc.portal.server.model.param.FiltersParam;
 import org.icgc.dcc.portal.server.model.param.IdsParam;
 import org.icgc.dcc.portal.server.model.param.IntParam;
@@ -50,6 +52,7 @@ import org.springframework.stereotype.Component;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
 import com.yammer.metrics.annotation.Timed;
 
 import io.swagger.annotations.Api;
@@ -187,14 +190,12 @@ public class GeneResource extends Resource {
     log.info(NESTED_COUNT_TEMPLATE, DONOR, genes);
 
     val queries = queries(filters, GENE_FILTER_TEMPLATE, genes);
-    val counts = donorService.counts(queries);
 
-    // Get total Donor count using all Genes
+    // Get total Donor count using all Genes, in the same multi search
     filters = mergeFilters(filters, GENE_FILTER_TEMPLATE, JsonUtils.join(genes));
-    long uniqueCount = donorService.count(query().filters(filters).build());
-    counts.put(TOTAL, uniqueCount);
+    queries.put(TOTAL, query().filters(filters).build());
 
-    return counts;
+    return donorService.counts(queries);
   }
 
   @Path("/{" + API_GENE_PARAM + "}/donors/{" + API_DONOR_PARAM + "}/mutations/count")
@@ -227,16 +228,22 @@ public class GeneResource extends Resource {
     log.info(NESTED_NESTED_COUNT_TEMPLATE, new Object[] { MUTATION, genes, donors });
 
     val queries = queries(filters, DONOR_GENE_FILTER_TEMPLATE, donors, genes);
-    val counts = mutationService.nestedCounts(queries);
+    val counts = mutationService.nestedCountsAsync(queries);
 
-    // Get total Mutation count for each Gene using all Donors
+    // Get total Mutation count for each Gene using all Donors, in a single multi search
+    val totalQueries = Maps.<String, Query> newLinkedHashMap();
     for (String geneId : genes) {
       filters = mergeFilters(filters, DONOR_GENE_FILTER_TEMPLATE, JsonUtils.join(donors), geneId);
-      long uniqueCount = mutationService.count(query().filters(filters).build());
-      counts.get(geneId).put(TOTAL, uniqueCount);
+      totalQueries.put(geneId, query().filters(filters).build());
     }
+    val totals = mutationService.countsAsync(totalQueries);
 
-    return counts;
+    val result = join(counts);
+    for (val entry : join(totals).entrySet()) {
+      result.get(entry.getKey()).put(TOTAL, entry.getValue());
+    }
+
+    return result;
   }
 
   @Path("/{" + API_GENE_PARAM + "}/mutations")
@@ -291,15 +298,12 @@ public class GeneResource extends Resource {
     log.info(NESTED_COUNT_TEMPLATE, MUTATION, genes);
 
     val queries = queries(filters, GENE_FILTER_TEMPLATE, genes);
-    val counts = mutationService.counts(queries);
 
-    // Get total Mutation count using all Genes
+    // Get total Mutation count using all Genes, in the same multi search
     filters = mergeFilters(filters, GENE_FILTER_TEMPLATE, JsonUtils.join(genes));
-    long uniqueCount = mutationService.count(query().filters(filters).build());
-
-    counts.put(TOTAL, uniqueCount);
+    queries.put(TOTAL, query().filters(filters).build());
 
-    return counts;
+    return mutationService.counts(queries);
   }
 
   @Path("/{" + API_GENE_PARAM + "}/mutations/{" + API_MUTATION_PARAM + "}/donors/count")
@@ -333,16 +337,22 @@ public class GeneResource extends Resource {
     log.info(NESTED_NESTED_COUNT_TEMPLATE, new Object[] { DONOR, genes, mutations });
 
     val queries = queries(filters, MUTATION_GENE_FILTER_TEMPLATE, mutations, genes);
-    val counts = donorService.nestedCounts(queries);
+    val counts = donorService.nestedCountsAsync(queries);
 
-    // Get total Donor count for each Gene using all Mutations
+    // Get total Donor count for each Gene using all Mutations, in a single multi search
+    val totalQueries = Maps.<String, Query> newLinkedHashMap();
     for (String geneId : genes) {
       filters = mergeFilters(filters, MUTATION_GENE_FILTER_TEMPLATE, JsonUtils.join(mutations), geneId);
-      long uniqueCount = donorService.count(query().filters(filters).build());
-      counts.get(geneId).put(TOTAL, uniqueCount);
+      totalQueries.put(geneId, query().filters(filters).build());
+    }
+    val totals = donorService.countsAsync(totalQueries);
+
+    val result = join(counts);
+    for (val entry : join(totals).entrySet()) {
+      result.get(entry.getKey()).put(TOTAL, entry.getValue());
     }
 
-    return counts;
+    return result;
   }
 
   @Path("/{" + API_GENE_PARAM + "}/projects/{" + API_PROJECT_PARAM + "}/mutations/count")
@@ -375,16 +385,22 @@ public class GeneResource extends Resource {
 
     log.info(NESTED_NESTED_COUNT_TEMPLATE, new Object[] { MUTATION, genes, projects });
     val queries = queries(filters, PROJECT_GENE_FILTER_TEMPLATE, projects, genes);
-    val counts = mutationService.nestedCounts(queries);
+    val counts = mutationService.nestedCountsAsync(queries);
 
-    // Get total Mutation count for each Gene using all Projects
+    // Get total Mutation count for each Gene using all Projects, in a single multi search
+    val totalQueries = Maps.<String, Query> newLinkedHashMap();
     for (String geneId : genes) {
       filters = mergeFilters(filters, PROJECT_GENE_FILTER_TEMPLATE, JsonUtils.join(projects), geneId);
-      long uniqueCount = mutationService.count(query().filters(filters).build());
-      counts.get(geneId).put(TOTAL, uniqueCount);
+      totalQueries.put(geneId, query().filters(filters).build());
     }
+    val totals = mutationService.countsAsync(totalQueries);
 
-    return counts;
+    val result = join(counts);
+    for (val entry : join(totals).entrySet()) {
+      result.get(entry.getKey()).put(TOTAL, entry.getValue());
+    }
+
+    return result;
   }
 
   @Path("/{" + API_GENE_PARAM + "}/projects/{" + API_PROJECT_PARAM + "}/donors/count")
@@ -417,16 +433,22 @@ public class GeneResource extends Resource {
 
     log.info(NESTED_NESTED_COUNT_TEMPLATE, new Object[] { DONOR, genes, projects });
     val queries = queries(filters, PROJECT_GENE_FILTER_TEMPLATE, projects, genes);
-    val counts = donorService.nestedCounts(queries);
+    val counts = donorService.nestedCountsAsync(queries);
 
-    // Get total Donor count for each Gene using all Projects
+    // Get total Donor count for each Gene using all Projects, in a single multi search
+    val totalQueries = Maps.<String, Query> newLinkedHashMap();
     for (String geneId : genes) {
       filters = mergeFilters(filters, PROJECT_GENE_FILTER_TEMPLATE, JsonUtils.join(projects), geneId);
-      long uniqueCount = donorService.count(query().filters(filters).build());
-      counts.get(geneId).put(TOTAL, uniqueCount);
+      totalQueries.put(geneId, query().filters(filters).build());
+    }
+    val totals = donorService.countsAsync(totalQueries);
+
+    val result = join(counts);
+    for (val entry : join(totals).entrySet()) {
+      result.get(entry.getKey()).put(TOTAL, entry.getValue());
     }
 
-    return counts;
+    return result;
   }
 
   @Path("/{" + API_GENE_PARAM + "}/affected-transcripts")
@@ -18,6 +18,7 @@
 package org.icgc.dcc.portal.server.resource.entity;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.Maps;
 import com.yammer.metrics.annotation.Timed;
 import io.swagger.annotations.*;
 import lombok.RequiredArgsConstructor;
@@ -27,6 +28,7 @@ import org.icgc.dcc.portal.server.model.Donors;
 import org.icgc.dcc.portal.server.model.Genes;
 import org.icgc.dcc.portal.server.model.Mutation;
 import org.icgc.dcc.portal.server.model.Mutations;
+import org.icgc.dcc.portal.server.model.Query;
 import org.icgc.dcc.portal.server.model.param.FiltersParam;
 import org.icgc.dcc.portal.server.model.param.IdsParam;
 import org.icgc.dcc.portal.server.model.param.IntParam;
@@ -46,6 +48,7 @@ import java.util.Map;
 
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 import static org.icgc.dcc.portal.server.resource.Resources.*;
+import static org.icgc.dcc.portal.server.util.ElasticsearchFutures.join;
 
 @Component
 @Slf4j
@@ -171,14 +174,12 @@ public class MutationResource extends Resource {
 
     log.info(NESTED_COUNT_TEMPLATE, DONOR, mutations);
     val queries = queries(filters, MUTATION_FILTER_TEMPLATE, mutations);
-    val counts = donorService.counts(queries);
 
-    // Get total Donor count using all Mutations
+    // Get total Donor count using all Mutations, in the same multi search
     filters = mergeFilters(filters, MUTATION_FILTER_TEMPLATE, JsonUtils.join(mutations));
-    long uniqueCount = donorService.count(query().filters(filters).build());
-    counts.put(TOTAL, uniqueCount);
+    queries.put(TOTAL, query().filters(filters).build());
 
-    return counts;
+    return donorService.counts(queries);
   }
 
   @Path("/{" + API_MUTATION_PARAM + "}/genes")
@@ -231,14 +232,12 @@ public class MutationResource extends Resource {
 
     log.info(NESTED_COUNT_TEMPLATE, GENE, mutations);
     val queries = queries(filters, MUTATION_FILTER_TEMPLATE, mutations);
-    val counts = geneService.counts(queries);
 
-    // Get total Gene count using all Mutations
+    // Get total Gene count using all Mutations, in the same multi search
     filters = mergeFilters(filters, MUTATION_FILTER_TEMPLATE, JsonUtils.join(mutations));
-    long uniqueCount = geneService.count(query().filters(filters).build());
-    counts.put(TOTAL, uniqueCount);
+    queries.put(TOTAL, query().filters(filters).build());
 
-    return counts;
+    return geneService.counts(queries);
   }
 
   @Path("/{" + API_MUTATION_PARAM + "}/genes/{" + API_GENE_PARAM + "}/donors/count")
@@ -271,16 +270,22 @@ public class MutationResource extends Resource {
 
     log.info(NESTED_NESTED_COUNT_TEMPLATE, new Object[] { DONOR, mutations, genes });
     val queries = queries(filters, GENE_MUTATION_FILTER_TEMPLATE, genes, mutations);
-    val counts = donorService.nestedCounts(queries);
+    val counts = donorService.nestedCountsAsync(queries);
 
-    // Get total Donor count for each Mutation using all Genes
+    // Get total Donor count for each Mutation using all Genes, in a single multi search
+    val totalQueries = Maps.<String, Query> newLinkedHashMap();
     for (String mutationId : mutations) {
       filters = mergeFilters(filters, GENE_MUTATION_FILTER_TEMPLATE, JsonUtils.join(genes), mutationId);
-      Long uniqueCount = donorService.count(query().filters(filters).build());
-      counts.get(mutationId).put(TOTAL, uniqueCount);
+      totalQueries.put(mutationId, query().filters(filters).build());
     }
+    val totals = donorService.countsAsync(totalQueries);
 
-    return counts;
+    val result = join(counts);
+    for (val entry : join(totals).entrySet()) {
+      result.get(entry.getKey()).put(TOTAL, entry.getValue());
+    }
+
+    return result;
   }
 
   @Path("/{" + API_MUTATION_PARAM + "}/projects/{" + API_PROJECT_PARAM + "}/donors/count")
@@ -316,15 +321,21 @@ public class MutationResource extends Resource {
 
     log.info(NESTED_NESTED_COUNT_TEMPLATE, new Object[] { DONOR, mutations, projects });
     val queries = queries(filters, PROJECT_MUTATION_FILTER_TEMPLATE, projects, mutations);
-    val counts = donorService.nestedCounts(queries);
+    val counts = donorService.nestedCountsAsync(queries);
 
-    // Get total Donor count for each Mutation using all Genes
+    // Get total Donor count for each Mutation using all Genes, in a single multi search
+    val totalQueries = Maps.<String, Query> newLinkedHashMap();
     for (String mutationId : mutations) {
       filters = mergeFilters(filters, PROJECT_MUTATION_FILTER_TEMPLATE, JsonUtils.join(projects), mutationId);
-      long uniqueCount = donorService.count(query().filters(filters).build());
-      counts.get(mutationId).put(TOTAL, uniqueCount);
+      totalQueries.put(mutationId, query().filters(filters).build());
+    }
+    val totals = donorService.countsAsync(totalQueries);
+
+    val result = join(counts);
+    for (val entry : join(totals).entrySet()) {
+      result.get(entry.getKey()).put(TOTAL, entry.getValue());
     }
 
-    return counts;
+    return result;
   }
 }
@@ -19,6 +19,7 @@ package org.icgc.dcc.portal.server.resource.entity;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.Maps;
 import com.google.common.io.Resources;
 import com.yammer.metrics.annotation.Timed;
 import io.swagger.annotations.*;
@@ -50,6 +51,7 @@ import static com.google.common.net.HttpHeaders.CONTENT_DISPOSITION;
 import static com.sun.jersey.core.header.ContentDisposition.type;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 import static org.icgc.dcc.portal.server.resource.Resources.*;
+import static org.icgc.dcc.portal.server.util.ElasticsearchFutures.join;
 import static org.icgc.dcc.portal.server.util.JsonUtils.MAPPER;
 import static org.icgc.dcc.portal.server.util.MediaTypes.TEXT_TSV;
 
@@ -182,14 +184,12 @@ public class ProjectResource extends Resource {
     log.info(NESTED_COUNT_TEMPLATE, DONOR, projects);
 
     val queries = queries(filters, PROJECT_FILTER_TEMPLATE, projects);
-    val counts = donorService.counts(queries);
 
-    // Get total Donor count using all Projects
+    // Get total Donor count using all Projects, in the same multi search
     filters = mergeFilters(filters, PROJECT_FILTER_TEMPLATE, JsonUtils.join(projects));
-    long uniqueCount = donorService.count(query().filters(filters).build());
-    counts.put(TOTAL, uniqueCount);
+    queries.put(TOTAL, query().filters(filters).build());
 
-    return counts;
+    return donorService.counts(queries);
   }
 
   @Path("/{" + API_PROJECT_PARAM + "}/donors/{" + API_DONOR_PARAM + "}/genes/count")
@@ -225,16 +225,22 @@ public class ProjectResource extends Resource {
     log.info(NESTED_NESTED_COUNT_TEMPLATE, new Object[] { GENE, projects, donors });
 
     val queries = queries(filters, DONOR_PROJECT_FILTER_TEMPLATE, donors, projects);
-    val counts = geneService.nestedCounts(queries);
+    val counts = geneService.nestedCountsAsync(queries);
 
-    // Get total Gene count for each Project using all Donors
+    // Get total Gene count for each Project using all Donors, in a single multi search
+    val totalQueries = Maps.<String, Query> newLinkedHashMap();
     for (String projectId : projects) {
       filters = mergeFilters(filters, DONOR_PROJECT_FILTER_TEMPLATE, JsonUtils.join(donors), projectId);
-      long uniqueCount = geneService.count(query().filters(filters).build());
-      counts.get(projectId).put(TOTAL, uniqueCount);
+      totalQueries.put(projectId, query().filters(filters).build());
     }
+    val totals = geneService.countsAsync(totalQueries);
 
-    return counts;
+    val result = join(counts);
+    for (val entry : join(totals).entrySet()) {
+      result.get(entry.getKey()).put(TOTAL, entry.getValue());
+    }
+
+    return result;
   }
 
   @Path("/{" + API_PROJECT_PARAM + "}/donors/{" + API_DONOR_PARAM + "}/mutations/count")
@@ -270,16 +276,22 @@ public class ProjectResource extends Resource {
     log.info(NESTED_NESTED_COUNT_TEMPLATE, new Object[] { MUTATION, projects, donors });
 
     val queries = queries(filters, DONOR_PROJECT_FILTER_TEMPLATE, donors, projects);
-    val counts = mutationService.nestedCounts(queries);
+    val counts = mutationService.nestedCountsAsync(queries);
 
-    // Get total Mutation count for each Project using all Donors
+    // Get total Mutation count for each Project using all Donors, in a single multi search
+    val totalQueries = Maps.<String, Query> newLinkedHashMap();
     for (String projectId : projects) {
       filters = mergeFilters(filters, DONOR_PROJECT_FILTER_TEMPLATE, JsonUtils.join(donors), projectId);
-      long uniqueCount = mutationService.count(query().filters(filters).build());
-      counts.get(projectId).put(TOTAL, uniqueCount);
+      totalQueries.put(projectId, query().filters(filters).build());
+    }
+    val totals = mutationService.countsAsync(totalQueries);
+
+    val result = join(counts);
+    for (val entry : join(totals).entrySet()) {
+      result.get(entry.getKey()).put(TOTAL, entry.getValue());
     }
 
-    return counts;
+    return result;
   }
 
   @Produces(TEXT_TSV)
@@ -357,15 +369,12 @@ public class ProjectResource extends Resource {
     log.info(NESTED_COUNT_TEMPLATE, GENE, projects);
 
     val queries = queries(filters, PROJECT_FILTER_TEMPLATE, projects);
-    val counts = geneService.counts(queries);
 
-    // Get total Gene count using all Projects
+    // Get total Gene count using all Projects, in the same multi search
     filters = mergeFilters(filters, PROJECT_FILTER_TEMPLATE, JsonUtils.join(projects));
+    queries.put(TOTAL, query().filters(filters).build());
 
-    Long uniqueCount = geneService.count(query().filters(filters).build());
-    counts.put(TOTAL, uniqueCount);
-
-    return counts;
+    return geneService.counts(queries);
   }
 
   @Path("/{" + API_PROJECT_PARAM + "}/genes/{" + API_GENE_PARAM + "}/mutations/count")
@@ -401,16 +410,22 @@ public class ProjectResource extends Resource {
     log.info(NESTED_NESTED_COUNT_TEMPLATE, new Object[] { MUTATION, projects, genes });
 
     val queries = queries(filters, GENE_PROJECT_FILTER_TEMPLATE, genes, projects);
-    val counts = mutationService.nestedCounts(queries);
+    val counts = mutationService.nestedCountsAsync(queries);
 
-    // Get total Mutation count for each Project using all Genes
+    // Get total Mutation count for each Project using all Genes, in a single multi search
+    val totalQueries = Maps.<String, Query> newLinkedHashMap();
     for (String projectId : projects) {
       filters = mergeFilters(filters, GENE_PROJECT_FILTER_TEMPLATE, JsonUtils.join(genes), projectId);
-      long uniqueCount = mutationService.count(query().filters(filters).build());
-      counts.get(projectId).put(TOTAL, uniqueCount);
+      totalQueries.put(projectId, query().filters(filters).build());
+    }
+    val totals = mutationService.countsAsync(totalQueries);
+
+    val result = join(counts);
+    for (val entry : join(totals).entrySet()) {
+      result.get(entry.getKey()).put(TOTAL, entry.getValue());
     }
 
-    return counts;
+    return result;
   }
 
   @Path("/{" + API_PROJECT_PARAM + "}/genes/{" + API_GENE_PARAM + "}/donors/count")
@@ -446,16 +461,22 @@ public class ProjectResource extends Resource {
     log.info(NESTED_NESTED_COUNT_TEMPLATE, new Object[] { DONOR, projects, genes });
 
     val queries = queries(filters, GENE_PROJECT_FILTER_TEMPLATE, genes, projects);
-    val counts = donorService.nestedCounts(queries);
+    val counts = donorService.nestedCountsAsync(queries);
 
-    // Get total Donor count for each Project using all Genes
+    // Get total Donor count for each Project using all Genes, in a single multi search
+    val totalQueries = Maps.<String, Query> newLinkedHashMap();
     for (String projectId : projects) {
       filters = mergeFilters(filters, GENE_PROJECT_FILTER_TEMPLATE, JsonUtils.join(genes), projectId);
-      long uniqueCount = donorService.count(query().filters(filters).build());
-      counts.get(projectId).put(TOTAL, uniqueCount);
+      totalQueries.put(projectId, query().filters(filters).build());
     }
+    val totals = donorService.countsAsync(totalQueries);
 
-    return counts;
+    val result = join(counts);
+    for (val entry : join(totals).entrySet()) {
+      result.get(entry.getKey()).put(TOTAL, entry.getValue());
+    }
+
+    return result;
   }
 
   @Path("/{" + API_PROJECT_PARAM + "}/mutations")
@@ -513,15 +534,12 @@ public class ProjectResource extends Resource {
     log.info(NESTED_COUNT_TEMPLATE, MUTATION, projects);
 
     val queries = queries(filters, PROJECT_FILTER_TEMPLATE, projects);
-    val counts = mutationService.counts(queries);
 
-    // Get total Mutation count using all Projects
+    // Get total Mutation count using all Projects, in the same multi search
     filters = mergeFilters(filters, PROJECT_FILTER_TEMPLATE, JsonUtils.join(projects));
+    queries.put(TOTAL, query().filters(filters).build());
 
-    Long uniqueCount = mutationService.count(query().filters(filters).build());
-    counts.put(TOTAL, uniqueCount);
-
-    return counts;
+    return mutationService.counts(queries);
   }
 
   @Path("/{" + API_PROJECT_PARAM + "}/mutations/{" + API_MUTATION_PARAM + "}/donors/count")
@@ -558,16 +576,22 @@ public class ProjectResource extends Resource {
     log.info(NESTED_NESTED_COUNT_TEMPLATE, new Object[] { DONOR, projects, mutations });
 
     val queries = queries(filters, MUTATION_PROJECT_FILTER_TEMPLATE, mutations, projects);
-    val counts = donorService.nestedCounts(queries);
+    val counts = donorService.nestedCountsAsync(queries);
 
-    // Get total Donor count for each Project using all Mutations
+    // Get total Donor count for each Project using all Mutations, in a single multi search
+    val totalQueries = Maps.<String, Query> newLinkedHashMap();
     for (String projectId : projects) {
       filters = mergeFilters(filters, MUTATION_PROJECT_FILTER_TEMPLATE, JsonUtils.join(mutations), projectId);
-      long uniqueCount = donorService.count(query().filters(filters).build());
-      counts.get(projectId).put(TOTAL, uniqueCount);
+      totalQueries.put(projectId, query().filters(filters).build());
     }
+    val totals = donorService.countsAsync(totalQueries);
 
-    return counts;
+    val result = join(counts);
+    for (val entry : join(totals).entrySet()) {
+      result.get(entry.getKey()).put(TOTAL, entry.getValue());
+    }
+
+    return result;
   }
 
   @Path("/{" + API_PROJECT_PARAM + "}/mutations/{" + API_MUTATION_PARAM + "}/genes/count")
@@ -604,16 +628,22 @@ public class ProjectResource extends Resource {
     log.info(NESTED_NESTED_COUNT_TEMPLATE, new Object[] { GENE, projects, mutations });
 
     val queries = queries(filters, MUTATION_PROJECT_FILTER_TEMPLATE, mutations, projects);
-    val counts = geneService.nestedCounts(queries);
+    val counts = geneService.nestedCountsAsync(queries);
 
-    // Get total Gene count for each Project using all Mutations
+    // Get total Gene count for each Project using all Mutations, in a single multi search
+    val totalQueries = Maps.<String, Query> newLinkedHashMap();
     for (String projectId : projects) {
       filters = mergeFilters(filters, MUTATION_PROJECT_FILTER_TEMPLATE, JsonUtils.join(mutations), projectId);
-      long uniqueCount = geneService.count(query().filters(filters).build());
-      counts.get(projectId).put(TOTAL, uniqueCount);
+      totalQueries.put(projectId, query().filters(filters).build());
+    }
+    val totals = geneService.countsAsync(totalQueries);
+
+    val result = join(counts);
+    for (val entry : join(totals).entrySet()) {
+      result.get(entry.getKey()).put(TOTAL, entry.getValue());
     }
 
-    return counts;
+    return result;
   }
 
   @Path("/history")
@@ -17,29 +17,42 @@
  */
 package org.icgc.dcc.portal.server.resource.tool;
 
+import static com.fasterxml.jackson.databind.SerializationFeature.FLUSH_AFTER_WRITE_VALUE;
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.ws.rs.Consumes;
 import javax.ws.rs.GET;
+import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.StreamingOutput;
 
 import org.icgc.dcc.common.core.model.Chromosome;
 import org.icgc.dcc.portal.server.model.Beacon;
 import org.icgc.dcc.portal.server.model.BeaconInfo;
+import org.icgc.dcc.portal.server.model.BeaconQuery;
 import org.icgc.dcc.portal.server.model.param.AlleleParam;
 import org.icgc.dcc.portal.server.resource.Resource;
 import org.icgc.dcc.portal.server.service.BeaconService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.primitives.Doubles;
 import com.yammer.metrics.annotation.Timed;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
+import lombok.Cleanup;
 import lombok.RequiredArgsConstructor;
 import lombok.val;
 
@@ -52,6 +65,8 @@ public class BeaconResource extends Resource {
 
   private final BeaconService beaconService;
   private static final String ANY_DATASET = " ";
+  private static final int MAX_BATCH_QUERIES = 10000;
+  private static final ObjectMapper MAPPER = new ObjectMapper().disable(FLUSH_AFTER_WRITE_VALUE);
 
   @GET
   @ApiOperation(value = "Query the Beacon", nickname = "query", response = Beacon.class, notes = "<strong>Answers the question: \"Have you observed this genotype?\"</strong>"
@@ -86,6 +101,49 @@ public class BeaconResource extends Resource {
         dataset.trim());
   }
 
+  @POST
+  @Consumes(APPLICATION_JSON)
+  @ApiOperation(value = "Query the Beacon with many variants at once", nickname = "batchQuery", response = Beacon.class, responseContainer = "List", notes = "Answers each query as the single variant query does, returning the responses in input order.")
+  @Path("/query")
+  @Timed
+  public StreamingOutput query(
+      @ApiParam(value = "Queries (allele, chromosome, position, reference, dataset_id)", required = true) List<BeaconQuery> queries) {
+    checkRequest(queries == null || queries.isEmpty(), "Queries cannot be empty or null.");
+    checkRequest(queries.size() > MAX_BATCH_QUERIES, "Too many queries (%s), the maximum is %s", queries.size(),
+        MAX_BATCH_QUERIES);
+
+    // Validate everything up front so a bad query fails the request before any results are streamed
+    val normalized = new ArrayList<BeaconQuery>(queries.size());
+    for (val query : queries) {
+      checkRequest(query == null, "Query cannot be null.");
+
+      val parsedChromosome = Chromosome.byExpression(query.getChromosome());
+      val parsedPosition = parsedChromosome.parsePosition(String.valueOf(query.getPosition()));
+      val allele = new AlleleParam(query.getAllele());
+      val reference = query.getReference();
+      checkRequest(!isValidReference(reference), "Reference param ('%s') is empty or invalid (must be GRCh\\d+)",
+          reference);
+
+      val dataset = isNullOrEmpty(query.getDataset()) ? ANY_DATASET : query.getDataset();
+      normalized.add(new BeaconQuery(allele.get().getMutation(), parsedChromosome.getName(), parsedPosition,
+          reference.trim(), dataset.trim()));
+    }
+
+    return outputStream -> {
+      @Cleanup
+      JsonGenerator generator = MAPPER.getFactory().createGenerator(outputStream);
+      generator.writeStartArray();
+      beaconService.query(normalized, beacon -> {
+        try {
+          MAPPER.writeValue(generator, beacon);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+      generator.writeEndArray();
+    };
+  }
+
   @GET
   @ApiOperation(value = "Get information about the Beacon", nickname = "info", response = BeaconInfo.class, notes = "Provides information about the Beacon")
   @Path("/info")
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2018 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.portal.server.service;
+
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static org.elasticsearch.search.sort.SortOrder.ASC;
+import static org.icgc.dcc.common.core.model.FieldNames.MUTATION_CHROMOSOME;
+import static org.icgc.dcc.common.core.model.FieldNames.MUTATION_CHROMOSOME_START;
+import static org.icgc.dcc.common.core.model.FieldNames.MUTATION_OBSERVATION_PROJECT;
+import static org.icgc.dcc.common.core.model.FieldNames.MUTATION_OCCURRENCES;
+import static org.icgc.dcc.common.core.model.FieldNames.PROJECT_ID;
+import static org.icgc.dcc.portal.server.util.SearchScroll.searchAfter;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+import javax.annotation.PostConstruct;
+
+import org.elasticsearch.client.Client;
+import org.elasticsearch.search.SearchHit;
+import org.icgc.dcc.portal.server.config.ServerProperties;
+import org.icgc.dcc.portal.server.model.IndexType;
+import org.icgc.dcc.portal.server.util.AlleleIndex;
+import org.icgc.dcc.portal.server.util.PrefetchingScroll;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.Sets;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Holds the {@link AlleleIndex} of the release for {@link BeaconService}.
+ * <p>
+ * The index is built from the mutation centric type in the background on the first start against a release and
+ * reopened from disk afterwards. Until it is ready, Beacon queries are answered with a search.
+ */
+@Slf4j
+@Component
+public class BeaconIndex {
+
+  /**
+   * Constants.
+   */
+  private static final int PAGE_SIZE = 5000;
+  private static final int PREFETCH_PAGES = 2;
+  private static final String MUTATION = "mutation";
+  private static final String MUTATION_ID = "_mutation_id";
+  private static final String[] FIELDS = {
+      MUTATION_CHROMOSOME,
+      MUTATION_CHROMOSOME_START,
+      MUTATION,
+      MUTATION_OCCURRENCES + '.' + MUTATION_OBSERVATION_PROJECT + '.' + PROJECT_ID };
+  private static final String[] NO_EXCLUDE = null;
+
+  /**
+   * Dependencies.
+   */
+  private final Client client;
+  private final String indexName;
+  private final ServerProperties.BeaconProperties properties;
+  private final ExecutorService executor;
+
+  /**
+   * State.
+   */
+  @Getter
+  private volatile AlleleIndex index;
+
+  @Autowired
+  public BeaconIndex(@NonNull Client client, @NonNull @Value("#{indexName}") String indexName,
+      @NonNull ServerProperties properties, @NonNull @Value("#{beaconExecutor}") ExecutorService executor) {
+    this.client = client;
+    this.indexName = indexName;
+    this.properties = properties.getBeacon();
+    this.executor = executor;
+  }
+
+  @PostConstruct
+  public void init() {
+    if (!properties.isIndexed()) {
+      return;
+    }
+
+    if (isNullOrEmpty(properties.getIndexDir())) {
+      log.warn("No 'beacon.indexDir' is configured, Beacon queries will be searched instead of indexed");
+      return;
+    }
+
+    executor.execute(this::load);
+  }
+
+  /**
+   * Opens the index of the release, building it first if it has never been built.
+   */
+  public void load() {
+    val dir = new File(properties.getIndexDir(), indexName);
+    try {
+      if (!AlleleIndex.exists(dir)) {
+        build(dir);
+      }
+
+      index = AlleleIndex.open(dir);
+      log.info("Opened Beacon allele index of {} mutations from '{}'", index.size(), dir);
+    } catch (Exception e) {
+      log.error("Could not load the Beacon allele index from '{}', queries will be searched instead:", dir, e);
+    }
+  }
+
+  private void build(File dir) throws IOException {
+    val watch = Stopwatch.createStarted();
+    log.info("Building Beacon allele index of '{}' in '{}'...", indexName, dir);
+
+    val request = client.prepareSearch(indexName)
+        .setTypes(IndexType.MUTATION_CENTRIC.getId())
+        .setFetchSource(FIELDS, NO_EXCLUDE)
+        .setSize(PAGE_SIZE)
+        .addSort(MUTATION_CHROMOSOME, ASC)
+        .addSort(MUTATION_CHROMOSOME_START, ASC);
+
+    try (AlleleIndex.Writer writer = AlleleIndex.writer(dir);
+        PrefetchingScroll pages = new PrefetchingScroll(searchAfter(request, MUTATION_ID), PREFETCH_PAGES, executor)) {
+      while (pages.hasNext()) {
+        for (val hit : pages.next().getHits()) {
+          add(writer, hit);
+        }
+      }
+
+      writer.finish();
+    }
+
+    log.info("Finished building Beacon allele index in {}", watch);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static void add(AlleleIndex.Writer writer, SearchHit hit) throws IOException {
+    val source = hit.getSource();
+    val mutation = (String) source.get(MUTATION);
+    if (mutation == null) {
+      // Never matched by a search either
+      return;
+    }
+
+    Set<String> projectIds = Sets.newLinkedHashSet();
+    val occurrences = (List<Map<String, Object>>) source.get(MUTATION_OCCURRENCES);
+    if (occurrences != null) {
+      for (val occurrence : occurrences) {
+        val project = (Map<String, Object>) occurrence.get(MUTATION_OBSERVATION_PROJECT);
+        if (project != null && project.get(PROJECT_ID) != null) {
+          projectIds.add(project.get(PROJECT_ID).toString());
+        }
+      }
+    }
+
+    writer.add(
+        (String) source.get(MUTATION_CHROMOSOME),
+        ((Number) source.get(MUTATION_CHROMOSOME_START)).intValue(),
+        mutation,
+        projectIds);
+  }
+
+}
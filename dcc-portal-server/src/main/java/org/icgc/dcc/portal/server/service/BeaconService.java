@@ -17,7 +17,9 @@
  */
 package org.icgc.dcc.portal.server.service;
 
+import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Strings.isNullOrEmpty;
+import static java.util.stream.Collectors.toList;
 import static org.apache.lucene.search.join.ScoreMode.Avg;
 import static org.elasticsearch.action.search.SearchType.QUERY_THEN_FETCH;
 import static org.icgc.dcc.common.core.model.FieldNames.MUTATION_CHROMOSOME;
@@ -26,13 +28,20 @@ import static org.icgc.dcc.common.core.model.FieldNames.MUTATION_CHROMOSOME_STAR
 import static org.icgc.dcc.common.core.model.FieldNames.MUTATION_OBSERVATION_PROJECT;
 import static org.icgc.dcc.common.core.model.FieldNames.MUTATION_OCCURRENCES;
 import static org.icgc.dcc.common.core.model.FieldNames.PROJECT_ID;
+import static org.icgc.dcc.portal.server.util.AlleleIndex.POSITION_BUFFER;
 
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
 
+import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.script.Script;
 import org.elasticsearch.script.ScriptType;
+import org.elasticsearch.search.SearchHits;
 import org.icgc.dcc.portal.server.model.AlleleMutation;
 import org.icgc.dcc.portal.server.model.Beacon;
 import org.icgc.dcc.portal.server.model.BeaconInfo;
@@ -45,7 +54,9 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
 
+import lombok.NonNull;
 import lombok.val;
 
 /**
@@ -66,21 +77,89 @@ import lombok.val;
 @Service
 public class BeaconService {
 
-  private static final int POSITION_BUFFER = 1000; // Must be larger than any single mutation.
+  /**
+   * Number of batch queries resolved per multi-search, and so the number of results buffered before being emitted.
+   */
+  public static final int BATCH_SIZE = 500;
 
   private final Client client;
   private final String index;
+  private final BeaconIndex beaconIndex;
 
   @Autowired
-  public BeaconService(Client client, @Value("#{indexName}") String index) {
+  public BeaconService(Client client, @Value("#{indexName}") String index, BeaconIndex beaconIndex) {
     this.index = index;
     this.client = client;
+    this.beaconIndex = beaconIndex;
   }
 
   public Beacon query(String chromosome, int position, String reference, AlleleMutation alleleMutation,
       String dataset) {
     String allele = alleleMutation.getMutation();
 
+    val alleleIndex = beaconIndex.getIndex();
+    val finalResult = alleleIndex != null ?
+        String.valueOf(alleleIndex.query(chromosome, position, allele, dataset)) :
+        search(chromosome, position, allele, dataset);
+
+    return createBeaconResponse(finalResult, chromosome, position, reference, allele, dataset);
+  }
+
+  /**
+   * Answers many queries at once, emitting a response for each one in input order. Queries are expected to be
+   * validated and normalized already (chromosome name, mutation allele, trimmed dataset).
+   */
+  public void query(@NonNull List<BeaconQuery> queries, @NonNull Consumer<Beacon> callback) {
+    for (val batch : Lists.partition(queries, BATCH_SIZE)) {
+      val results = resolve(batch);
+      for (int i = 0; i < batch.size(); i++) {
+        val query = batch.get(i);
+        callback.accept(createBeaconResponse(results[i], query.getChromosome(), query.getPosition(),
+            query.getReference(), query.getAllele(), query.getDataset()));
+      }
+    }
+  }
+
+  private String[] resolve(List<BeaconQuery> batch) {
+    // Visit queries grouped by chromosome and in position order so neighbouring lookups touch the same data
+    Comparator<Integer> ordering = Comparator.<Integer, String> comparing(i -> batch.get(i).getChromosome())
+        .thenComparingInt(i -> batch.get(i).getPosition());
+    List<Integer> order = IntStream.range(0, batch.size()).boxed().sorted(ordering).collect(toList());
+
+    val results = new String[batch.size()];
+    val alleleIndex = beaconIndex.getIndex();
+    if (alleleIndex != null) {
+      for (val i : order) {
+        val query = batch.get(i);
+        results[i] = String.valueOf(alleleIndex.query(query.getChromosome(), query.getPosition(), query.getAllele(),
+            query.getDataset()));
+      }
+
+      return results;
+    }
+
+    val search = client.prepareMultiSearch();
+    for (val i : order) {
+      val query = batch.get(i);
+      search.add(prepareSearch(query.getChromosome(), query.getPosition(), query.getAllele(), query.getDataset()));
+    }
+
+    val responses = search.execute().actionGet().getResponses();
+    for (int k = 0; k < responses.length; k++) {
+      val item = responses[k];
+      checkState(!item.isFailure(), "Beacon search failed: %s", item.getFailureMessage());
+
+      results[order.get(k)] = getResult(item.getResponse().getHits());
+    }
+
+    return results;
+  }
+
+  private String search(String chromosome, int position, String allele, String dataset) {
+    return getResult(prepareSearch(chromosome, position, allele, dataset).execute().actionGet().getHits());
+  }
+
+  private SearchRequestBuilder prepareSearch(String chromosome, int position, String allele, String dataset) {
     val search = client.prepareSearch(index)
         .setTypes(IndexType.MUTATION_CENTRIC.getId())
         .setSearchType(QUERY_THEN_FETCH);
@@ -112,7 +191,10 @@ public class BeaconService {
             ImmutableMap.of("position", position)));
     search.setPostFilter(filter);
 
-    val hits = search.execute().actionGet().getHits();
+    return search;
+  }
+
+  private static String getResult(SearchHits hits) {
     String finalResult = "null";
 
     for (val hit : hits) {
@@ -125,7 +207,7 @@ public class BeaconService {
       }
     }
 
-    return createBeaconResponse(finalResult, chromosome, position, reference, allele, dataset);
+    return finalResult;
   }
 
   private Script generateDefaultScriptField(Map<String, Object> params) {
@@ -24,23 +24,43 @@ import static java.util.Collections.emptyList;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 
 import org.icgc.dcc.common.core.model.ChromosomeLocation;
 import org.icgc.dcc.portal.server.repository.BrowserRepository;
 import org.icgc.dcc.portal.server.util.BrowserParsers;
+import org.icgc.dcc.portal.server.util.HistogramTiles;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.Maps;
+
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.val;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor(onConstructor = @__({ @Autowired }))
 public class BrowserService {
 
+  /**
+   * Constants.
+   */
+  private static final int TILE_RESOLUTION = 5000;
+  private static final long MIN_TILE_INTERVAL = 20 * TILE_RESOLUTION;
+  private static final List<String> TILED_RESOURCES = asList("mutation", "gene");
+
   private final BrowserRepository browserRepository;
 
+  /**
+   * State.
+   */
+  private final ConcurrentMap<String, HistogramTiles> tiles = Maps.newConcurrentMap();
+
   private static class ParameterNames {
 
     private static final String SEGMENT = "segment";
@@ -48,6 +68,22 @@ public class BrowserService {
 
   }
 
+  /**
+   * Builds the tiles of the unfiltered histograms off the request thread. Until they are built, histograms are
+   * aggregated per request.
+   */
+  @Async
+  public void init() {
+    for (val resource : TILED_RESOURCES) {
+      try {
+        tiles.put(resource, loadTiles(resource));
+      } catch (Exception e) {
+        log.error("Could not load browser histogram tiles for {}, histograms will be aggregated per request:",
+            resource, e);
+      }
+    }
+  }
+
   /**
    * Retrieves histogram.
    */
@@ -130,6 +166,11 @@ public class BrowserService {
     val intervalValue = queryMap.get("interval");
     val interval = intervalValue != null ? Math.round(Double.parseDouble(intervalValue)) : 0;
 
+    val mutationTiles = tiles.get("mutation");
+    if (mutationTiles != null && isTiled(interval, consequenceTypes, projectFilters, impactFilters)) {
+      return BrowserParsers.parseHistogramMutation(segmentId, start, stop, interval, mutationTiles);
+    }
+
     val searchResponse =
         browserRepository.getMutationHistogram(interval, segmentId, start, stop, consequenceTypes, projectFilters,
             impactFilters);
@@ -160,10 +201,38 @@ public class BrowserService {
     val intervalValue = queryMap.get("interval");
     val interval = intervalValue != null ? Math.round(Double.parseDouble(intervalValue)) : 0;
 
+    val geneTiles = tiles.get("gene");
+    if (geneTiles != null && isTiled(interval, biotypes, emptyList(), impactFilters)) {
+      return BrowserParsers.parseHistogramGene(segmentId, start, stop, interval, geneTiles);
+    }
+
     val searchResponse = browserRepository.getGeneHistogram(interval, segmentId, start, stop, biotypes, impactFilters);
     return BrowserParsers.parseHistogramGene(segmentId, start, stop, interval, biotypes, searchResponse);
   }
 
+  private HistogramTiles loadTiles(String resource) {
+    val watch = Stopwatch.createStarted();
+
+    val searchResponse = resource.equals("mutation") ?
+        browserRepository.getMutationHistogramTiles(TILE_RESOLUTION, emptyList(), emptyList(), emptyList()) :
+        browserRepository.getGeneHistogramTiles(TILE_RESOLUTION, emptyList(), emptyList());
+
+    val result = BrowserParsers.parseHistogramTiles(TILE_RESOLUTION, searchResponse);
+    log.info("Loaded browser histogram tiles for {} in {}", resource, watch);
+
+    return result;
+  }
+
+  /**
+   * Whether a histogram is coarse enough to be answered from tiles without visibly rounding its intervals. Only the
+   * unfiltered histograms are tiled, as every filter combination would need tiles of its own.
+   */
+  private static boolean isTiled(long interval, List<String> typeFilters, List<String> projectFilters,
+      List<String> impactFilters) {
+    return interval >= MIN_TILE_INTERVAL && typeFilters.isEmpty() && projectFilters.isEmpty()
+        && impactFilters.isEmpty();
+  }
+
   private static ChromosomeLocation getChromosomeLocation(String segmentRegion) {
     try {
       return ChromosomeLocation.parse(segmentRegion);
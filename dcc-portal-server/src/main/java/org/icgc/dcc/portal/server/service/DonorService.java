@@ -22,6 +22,7 @@ import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.nio.charset.Charset;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.StreamingOutput;
@@ -204,12 +205,20 @@ public class DonorService {
     return donorRepository.count(query);
   }
 
+  public CompletableFuture<Long> countAsync(Query query) {
+    return donorRepository.countAsync(query);
+  }
+
   public LinkedHashMap<String, Long> counts(LinkedHashMap<String, Query> queries) {
     MultiSearchResponse sr = donorRepository.counts(queries);
 
     return getCounts(queries, sr);
   }
 
+  public CompletableFuture<LinkedHashMap<String, Long>> countsAsync(LinkedHashMap<String, Query> queries) {
+    return donorRepository.countsAsync(queries).thenApply(sr -> getCounts(queries, sr));
+  }
+
   public LinkedHashMap<String, LinkedHashMap<String, Long>> nestedCounts(
       LinkedHashMap<String, LinkedHashMap<String, Query>> queries) {
     MultiSearchResponse sr = donorRepository.nestedCounts(queries);
@@ -217,6 +226,11 @@ public class DonorService {
     return getNestedCounts(queries, sr);
   }
 
+  public CompletableFuture<LinkedHashMap<String, LinkedHashMap<String, Long>>> nestedCountsAsync(
+      LinkedHashMap<String, LinkedHashMap<String, Query>> queries) {
+    return donorRepository.nestedCountsAsync(queries).thenApply(sr -> getNestedCounts(queries, sr));
+  }
+
   public Donor findOne(String donorId, Query query) {
     return new Donor(donorRepository.findOne(donorId, query));
   }
@@ -20,73 +20,224 @@ package org.icgc.dcc.portal.server.service;
 import com.auth0.jwt.JWT;
 import com.auth0.jwt.exceptions.JWTDecodeException;
 import com.auth0.jwt.interfaces.DecodedJWT;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.icgc.dcc.common.client.api.cud.User;
 import org.icgc.dcc.portal.server.model.Settings;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
-import org.springframework.stereotype.Service;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
-import java.io.IOException;
-import java.util.HashMap;
+import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
  * Authenticates with the ICGC authenticator. The service is used to retrieve user information authenticate by the
  * Google API.
+ * <p>
+ * Verified tokens are cached by their hash until they expire, so that clients presenting the same token on every
+ * request cost one call to the authenticator. Concurrent verifications of the same token share that call. When a
+ * shared cache is given (Hazelcast when the portal is distributed) verifications are also shared between nodes.
  */
 @Slf4j
-@Service
 public class EgoAuthService {
 
-  @Autowired
-  private Settings settings;
+  /**
+   * Constants.
+   */
+  public static final String TOKENS_CACHE_NAME = "ego_tokens";
+  private static final int MAX_CACHED_TOKENS = 10000;
+  private static final long MAX_CACHE_MILLIS = MINUTES.toMillis(10);
+  private static final long INVALID_CACHE_MILLIS = MINUTES.toMillis(1);
+  private static final int TIMEOUT_MILLIS = (int) SECONDS.toMillis(10);
+
+  /**
+   * Dependencies.
+   */
+  private final Settings settings;
+  private final RestTemplate restTemplate;
+  private final Optional<Map<String, VerifiedToken>> sharedTokens;
+
+  /**
+   * State.
+   */
+  private final Cache<String, VerifiedToken> tokens = CacheBuilder.newBuilder()
+      .maximumSize(MAX_CACHED_TOKENS)
+      .expireAfterWrite(MAX_CACHE_MILLIS, MILLISECONDS)
+      .build();
+
+  public EgoAuthService(Settings settings) {
+    this(settings, createRestTemplate(), Optional.empty());
+  }
+
+  public EgoAuthService(Settings settings, Map<String, VerifiedToken> sharedTokens) {
+    this(settings, createRestTemplate(), Optional.of(sharedTokens));
+  }
+
+  EgoAuthService(@NonNull Settings settings, @NonNull RestTemplate restTemplate,
+      @NonNull Optional<Map<String, VerifiedToken>> sharedTokens) {
+    this.settings = settings;
+    this.restTemplate = restTemplate;
+    this.sharedTokens = sharedTokens;
+  }
 
-  @SuppressWarnings("unchecked")
   public Optional<User> getUserInfo(String jwtToken) {
-    RestTemplate restTemplate = new RestTemplate();
+    val token = verify(jwtToken);
+    if (!token.isValid()) {
+      return Optional.empty();
+    }
+
+    return Optional.of(new User(token.getUserName(), token.getEmail(), token.getFirstName(), token.getLastName()));
+  }
+
+  // This function doesn't valid jwtToken, make sure it is valid
+  public boolean hasDacoAccess(String jwtToken) {
+    return hasDacoAccess(getScopes(jwtToken));
+  }
+
+  public Boolean hasCloudAccess(String jwtToken) {
+    return hasCloudAccess(getScopes(jwtToken));
+  }
+
+  private VerifiedToken verify(String jwtToken) {
+    val key = hash(jwtToken);
+    val cached = tokens.getIfPresent(key);
+    if (cached != null && cached.isExpired()) {
+      tokens.invalidate(key);
+    }
+
+    try {
+      return tokens.get(key, () -> load(key, jwtToken));
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      val cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+
+      throw new IllegalStateException("Could not verify token", cause);
+    }
+  }
+
+  private VerifiedToken load(String key, String jwtToken) {
+    if (sharedTokens.isPresent()) {
+      val shared = sharedTokens.get().get(key);
+      if (shared != null && !shared.isExpired()) {
+        return shared;
+      }
+    }
+
+    val token = verifyUpstream(jwtToken);
+    sharedTokens.ifPresent(cache -> cache.put(key, token));
+
+    return token;
+  }
+
+  private VerifiedToken verifyUpstream(String jwtToken) {
     HttpHeaders headers = new HttpHeaders();
     headers.set("token", jwtToken);
 
     val entity = new HttpEntity<String>(headers);
     val resp = restTemplate.exchange(settings.getEgoUrl() + "/oauth/token/verify", HttpMethod.GET, entity, String.class);
-    if (resp.getBody().equals("true")) {
+    if ("true".equals(resp.getBody())) {
       try {
-        DecodedJWT jwt = JWT.decode(jwtToken);
-        val m = (HashMap<String,String>) jwt.getClaims().get("context").asMap().get("user");
-        val user = new User(jwt.getSubject(), m.get("email"), m.get("firstName"), m.get("lastName"));
-        return Optional.of(user);
-      } catch (JWTDecodeException exception){
-        //Invalid token
-        return Optional.empty();
+        return createToken(JWT.decode(jwtToken));
+      } catch (JWTDecodeException exception) {
+        log.debug("Could not decode verified token: {}", exception.getMessage());
       }
     }
 
-    return Optional.empty();
+    // Invalid token
+    return VerifiedToken.invalid(System.currentTimeMillis() + INVALID_CACHE_MILLIS);
+  }
+
+  private List<String> getScopes(String jwtToken) {
+    val token = tokens.getIfPresent(hash(jwtToken));
+    if (token != null && token.isValid()) {
+      return token.getScopes();
+    }
+
+    return getScopes(JWT.decode(jwtToken));
   }
 
-  // This function doesn't valid jwtToken, make sure it is valid
   @SuppressWarnings("unchecked")
-  public boolean hasDacoAccess(String jwtToken) {
-    DecodedJWT jwt = JWT.decode(jwtToken);
-    val scope = (List<String>) jwt.getClaims().get("context").asMap().get("scope");
-    return scope.contains("portal.READ") || scope.contains("portal.WRITE");
+  private static VerifiedToken createToken(DecodedJWT jwt) {
+    val user = (Map<String, String>) jwt.getClaims().get("context").asMap().get("user");
+    val expiresAt = jwt.getExpiresAt() == null ?
+        System.currentTimeMillis() + MAX_CACHE_MILLIS :
+        jwt.getExpiresAt().getTime();
+
+    return new VerifiedToken(true, jwt.getSubject(), user.get("email"), user.get("firstName"), user.get("lastName"),
+        new ArrayList<String>(getScopes(jwt)), expiresAt);
   }
 
   @SuppressWarnings("unchecked")
-  public Boolean hasCloudAccess(String jwtToken) {
-    DecodedJWT jwt = JWT.decode(jwtToken);
+  private static List<String> getScopes(DecodedJWT jwt) {
     val scope = (List<String>) jwt.getClaims().get("context").asMap().get("scope");
+    return scope == null ? ImmutableList.<String> of() : scope;
+  }
+
+  private static boolean hasDacoAccess(List<String> scope) {
+    return scope.contains("portal.READ") || scope.contains("portal.WRITE");
+  }
+
+  private static boolean hasCloudAccess(List<String> scope) {
     return (scope.contains("aws.READ") && scope.contains("collab.READ"))
             || (scope.contains("aws.WRITE") && scope.contains("collab.WRITE"));
   }
-}
 
+  private static String hash(String jwtToken) {
+    return Hashing.sha256().hashString(jwtToken, UTF_8).toString();
+  }
+
+  private static RestTemplate createRestTemplate() {
+    // The JDK connection keeps verification connections alive between requests
+    val requestFactory = new SimpleClientHttpRequestFactory();
+    requestFactory.setConnectTimeout(TIMEOUT_MILLIS);
+    requestFactory.setReadTimeout(TIMEOUT_MILLIS);
+
+    return new RestTemplate(requestFactory);
+  }
+
+  /**
+   * The outcome of verifying a token, with the claims needed to authorize its requests.
+   */
+  @Value
+  public static class VerifiedToken implements Serializable {
+
+    boolean valid;
+    String userName;
+    String email;
+    String firstName;
+    String lastName;
+    ArrayList<String> scopes;
+    long expiresAt;
+
+    public boolean isExpired() {
+      return System.currentTimeMillis() >= expiresAt;
+    }
+
+    private static VerifiedToken invalid(long expiresAt) {
+      return new VerifiedToken(false, null, null, null, null, new ArrayList<String>(), expiresAt);
+    }
+
+  }
+
+}
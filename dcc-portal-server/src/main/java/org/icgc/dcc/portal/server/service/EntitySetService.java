@@ -21,6 +21,7 @@ import static com.google.common.base.Preconditions.checkState;
 import static java.lang.Math.min;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static lombok.AccessLevel.PRIVATE;
+import static org.icgc.dcc.portal.server.util.SearchScroll.scroll;
 import org.springframework.beans.factory.annotation.Value;
 import static org.supercsv.prefs.CsvPreference.TAB_PREFERENCE;
 
@@ -37,7 +38,8 @@ import javax.annotation.PostConstruct;
 
 import org.dcc.portal.pql.meta.Type;
 import org.dcc.portal.pql.query.QueryEngine;
-import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.unit.TimeValue;
 import org.icgc.dcc.portal.server.analysis.UnionAnalyzer;
 import org.icgc.dcc.portal.server.config.ServerProperties;
 import org.icgc.dcc.portal.server.model.BaseEntitySet;
@@ -51,7 +53,7 @@ import org.icgc.dcc.portal.server.pql.convert.Jql2PqlConverter;
 import org.icgc.dcc.portal.server.repository.EntitySetRepository;
 import org.icgc.dcc.portal.server.repository.FileRepository;
 import org.icgc.dcc.portal.server.repository.TermsLookupRepository;
-import org.icgc.dcc.portal.server.util.SearchResponses;
+import org.icgc.dcc.portal.server.util.SearchScroll;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
@@ -75,10 +77,18 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
 public class EntitySetService {
 
+  /**
+   * Constants.
+   */
+  private static final int SCROLL_BATCH_SIZE = 5000;
+  private static final TimeValue SCROLL_KEEP_ALIVE = TimeValue.timeValueMinutes(1);
+
   /**
    * Dependencies
    */
   @NonNull
+  private final Client client;
+  @NonNull
   private final EntitySetRepository entitySetRepository;
   @NonNull
   private final TermsLookupRepository termsLookupRepository;
@@ -104,6 +114,7 @@ public class EntitySetService {
   private int maxNumberOfHits;
   private int maxMultiplier;
   private int maxUnionCount;
+  private int maxMaterializedNumberOfHits;
   // TODO: Either use this or loose this!
   @SuppressWarnings("unused")
   private int maxPreviewNumberOfHits;
@@ -223,17 +234,28 @@ public class EntitySetService {
       val dataVersion = newEntity.getVersion();
       entitySetRepository.update(newEntity.updateStateToInProgress(), dataVersion);
 
-      val max = entitySetDefinition.getLimit(maxNumberOfHits);
-      val response = executeFilterQuery(entitySetDefinition, max);
-
-      val entityIds = SearchResponses.getHitIds(response);
-      log.debug("The result of running a FilterParam query is: '{}'", entityIds);
-
+      val max = entitySetDefinition.getLimit(maxMaterializedNumberOfHits);
       val lookupType = entitySetDefinition.getType().toLookupType();
-      termsLookupRepository.createTermsLookup(lookupType, newEntityId, entityIds, entitySetDefinition.isTransient());
+      val lookup = termsLookupRepository.openTermsLookup(lookupType, newEntityId, entitySetDefinition.isTransient());
+
+      // Stream the ids page by page so that only a single page of hits is held in memory
+      try (SearchScroll scroll = executeFilterQuery(entitySetDefinition, min(max, SCROLL_BATCH_SIZE))) {
+        while (scroll.hasNext() && lookup.getCount() < max) {
+          for (val hit : scroll.next().getHits()) {
+            if (lookup.getCount() >= max) {
+              break;
+            }
+
+            lookup.add(hit.getId());
+          }
+
+          log.debug("Materialized {} of the {} ids of list {}", lookup.getCount(), max, newEntityId);
+          entitySetRepository.update(newEntity.updateStateToInProgress(lookup.getCount()), dataVersion);
+        }
+      }
 
-      val count = getCountFrom(response, max);
-      entitySetRepository.update(newEntity.updateStateToFinished(count), dataVersion);
+      lookup.create();
+      entitySetRepository.update(newEntity.updateStateToFinished(lookup.getCount()), dataVersion);
     } catch (Exception e) {
       log.error("Error while materializing list for {}: {}", newEntityId, e);
 
@@ -355,13 +377,7 @@ public class EntitySetService {
     throw new IllegalStateException("No mapping for enum value: " + entityType);
   }
 
-  private long getCountFrom(@NonNull final SearchResponse response, final long max) {
-    val result = SearchResponses.getTotalHitCount(response);
-
-    return min(max, result);
-  }
-
-  private SearchResponse executeFilterQuery(@NonNull final EntitySetDefinition definition, final int max) {
+  private SearchScroll executeFilterQuery(@NonNull final EntitySetDefinition definition, final int batchSize) {
     log.debug("List def is: " + definition);
 
     val query = Query.builder()
@@ -373,12 +389,14 @@ public class EntitySetService {
 
     val type = getRepositoryByEntityType(definition.getType());
     val pql = converter.convert(query, type);
-    val request = queryEngine.execute(pql, type).getRequestBuilder().setSize(max);
+    val request = queryEngine.execute(pql, type).getRequestBuilder()
+        .setSize(batchSize)
+        .setFetchSource(false);
 
     if (type == Type.FILE) {
       request.setIndices(repoIndexName);
     }
-    return request.get();
+    return scroll(client, request, SCROLL_KEEP_ALIVE);
   }
 
   @PostConstruct
@@ -388,6 +406,7 @@ public class EntitySetService {
     maxMultiplier = setOpSettings.getMaxMultiplier();
     maxUnionCount = maxNumberOfHits * maxMultiplier;
     maxPreviewNumberOfHits = min(setOpSettings.getMaxPreviewNumberOfHits(), maxUnionCount);
+    maxMaterializedNumberOfHits = setOpSettings.getMaxMaterializedNumberOfHits();
   }
 
 }
@@ -18,11 +18,14 @@
 package org.icgc.dcc.portal.server.service;
 
 import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
+import static com.fasterxml.jackson.core.JsonEncoding.UTF8;
 import static com.google.common.collect.Iterables.toArray;
 import static com.google.common.collect.Iterables.transform;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Sets.intersection;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonList;
 import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toMap;
 import static org.icgc.dcc.common.core.util.Separators.COMMA;
@@ -34,7 +37,6 @@ import static org.icgc.dcc.portal.server.repository.FileRepository.CustomAggrega
 import static org.icgc.dcc.portal.server.repository.FileRepository.CustomAggregationKeys.REPO_SIZE;
 import static org.icgc.dcc.portal.server.util.Collections.isEmpty;
 import static org.icgc.dcc.portal.server.util.ElasticsearchResponseUtils.createResponseMap;
-import static org.icgc.dcc.portal.server.util.SearchResponses.hasHits;
 import static org.supercsv.prefs.CsvPreference.TAB_PREFERENCE;
 
 import java.io.BufferedWriter;
@@ -44,10 +46,11 @@ import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.Map.Entry;
-import java.util.function.Function;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Stream;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import org.dcc.portal.pql.meta.FileTypeModel.EsFields;
 import org.dcc.portal.pql.meta.FileTypeModel.Fields;
 import org.dcc.portal.pql.meta.IndexModel;
 import org.elasticsearch.action.search.SearchResponse;
@@ -61,30 +64,30 @@ import org.elasticsearch.search.aggregations.bucket.terms.Terms;
 import org.elasticsearch.search.aggregations.metrics.sum.InternalSum;
 import org.icgc.dcc.common.core.util.stream.Collectors;
 import org.icgc.dcc.portal.server.model.*;
-import org.icgc.dcc.portal.server.model.File.Donor;
-import org.icgc.dcc.portal.server.model.File.FileCopy;
 import org.icgc.dcc.portal.server.pql.convert.AggregationToFacetConverter;
 import org.icgc.dcc.portal.server.repository.FileRepository;
 import org.icgc.dcc.portal.server.repository.FileRepository.CustomAggregationKeys;
+import org.icgc.dcc.portal.server.util.PrefetchingScroll;
+import org.icgc.dcc.portal.server.util.SearchScroll;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.supercsv.io.CsvMapWriter;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import lombok.Cleanup;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.val;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
 @Slf4j
-@RequiredArgsConstructor(onConstructor = @__({ @Autowired }))
 public class FileService {
 
   /**
@@ -93,6 +96,10 @@ public class FileService {
   private static final String UTF_8 = StandardCharsets.UTF_8.name();
   private static final ObjectMapper NON_NULL_MAPPER = new ObjectMapper().setSerializationInclusion(NON_NULL);
 
+  /**
+   * Number of scroll pages fetched ahead of the page being written by an export.
+   */
+  private static final int EXPORT_PREFETCH_PAGES = 2;
   private static final Map<String, String> DATA_TABLE_EXPORT_MAP = ImmutableMap.<String, String> builder()
       .put(Fields.ACCESS, "Access")
       .put(Fields.FILE_ID, "File ID")
@@ -135,8 +142,15 @@ public class FileService {
   /**
    * Dependencies
    */
-  @NonNull
   private final FileRepository fileRepository;
+  private final ExecutorService exportExecutor;
+
+  @Autowired
+  public FileService(@NonNull FileRepository fileRepository,
+      @NonNull @Value("#{exportExecutor}") ExecutorService exportExecutor) {
+    this.fileRepository = fileRepository;
+    this.exportExecutor = exportExecutor;
+  }
 
   public Map<String, String> findRepos() {
     return fileRepository.findRepos();
@@ -206,13 +220,13 @@ public class FileService {
   }
 
   public void exportFiles(OutputStream output, Query query, String type) {
-    val prepResponse = fileRepository.findAll(query, DATA_TABLE_EXPORT_MAP_FIELD_ARRAY);
-    exportFiles(output, prepResponse, query, DATA_TABLE_MAPPING_KEYS, type);
+    val scroll = fileRepository.findAll(query, DATA_TABLE_EXPORT_MAP_FIELD_ARRAY);
+    exportFiles(output, scroll, query, DATA_TABLE_MAPPING_KEYS, type);
   }
 
   public void exportFiles(OutputStream output, String setId, String type) {
-    val prepResponse = fileRepository.findAll(setId, DATA_TABLE_EXPORT_MAP_FIELD_ARRAY);
-    exportFiles(output, prepResponse, new Query(), DATA_TABLE_MAPPING_KEYS, type);
+    val scroll = fileRepository.findAll(setId, DATA_TABLE_EXPORT_MAP_FIELD_ARRAY);
+    exportFiles(output, scroll, new Query(), DATA_TABLE_MAPPING_KEYS, type);
   }
 
   public Map<String, Map<String, Long>> getUniqueFileAggregations(UniqueSummaryQuery summary) {
@@ -253,30 +267,46 @@ public class FileService {
   }
 
   @SneakyThrows
-  private void exportFiles(OutputStream output, SearchResponse response, Query query, String[] keys, String type) {
+  private void exportFiles(OutputStream output, SearchScroll scroll, Query query, String[] keys, String type) {
+    @Cleanup
+    val pages = new PrefetchingScroll(scroll, EXPORT_PREFETCH_PAGES, exportExecutor);
+
+    if ("json".equals(type)) {
+      exportJson(output, pages, query);
+    } else {
+      exportTsv(output, pages, keys);
+    }
+  }
+
+  @SneakyThrows
+  private static void exportTsv(OutputStream output, Iterator<SearchResponse> pages, String[] keys) {
     @Cleanup
     val writer = new CsvMapWriter(new BufferedWriter(new OutputStreamWriter(output, UTF_8)), TAB_PREFERENCE);
     writer.writeHeader(toArray(DATA_TABLE_EXPORT_MAP.values(), String.class));
 
-    String scrollId = response.getScrollId();
-
-    while (true) {
-      if (!hasHits(response)) {
-        break;
+    while (pages.hasNext()) {
+      for (val hit : pages.next().getHits()) {
+        writer.write(toRowMap(hit.getSource()), keys);
       }
+    }
+  }
 
-      val files = convertHitsToRepoFiles(response.getHits(), query);
-      if("json".equals(type)) {
-        NON_NULL_MAPPER.writeValue(output, files);
-      } else {
-        for (val file : files) {
-          writer.write(toRowMap(file), keys);
-        }
-      }
+  /**
+   * Writes all pages as the elements of a single JSON array.
+   */
+  @SneakyThrows
+  private static void exportJson(OutputStream output, Iterator<SearchResponse> pages, Query query) {
+    @Cleanup
+    val generator = NON_NULL_MAPPER.getFactory().createGenerator(output, UTF8);
+    generator.writeStartArray();
 
-      scrollId = response.getScrollId();
-      response = fileRepository.prepareSearchScroll(scrollId);
+    while (pages.hasNext()) {
+      for (val file : convertHitsToRepoFiles(pages.next().getHits(), query)) {
+        NON_NULL_MAPPER.writeValue(generator, file);
+      }
     }
+
+    generator.writeEndArray();
   }
 
   private static Set<String> toRawFieldSet(Collection<String> aliases) {
@@ -295,52 +325,86 @@ public class FileService {
     return (count > 1) ? String.valueOf(count) : Iterables.get(values, 0).toString();
   }
 
-  private static Map<String, String> toRowMap(File file) {
-    val row = ImmutableMap.<String, String> builder();
-    val study = file.getStudy();
-    String strategy = "";
-    String dataType = "";
-    if(file.getDataCategorization() != null) {
-      strategy = file.getDataCategorization().getExperimentalStrategy();
-      dataType = file.getDataCategorization().getDataType();
+  /**
+   * Builds an export row straight from the raw {@code _source} of a file hit.
+   */
+  private static Map<String, String> toRowMap(Map<String, Object> source) {
+    val donors = getObjects(source, EsFields.DONORS);
+    val fileCopies = getObjects(source, EsFields.FILE_COPIES);
+    val dataCategorization = getObject(source, EsFields.DATA_CATEGORIZATION);
+    val study = getValues(source.get(EsFields.STUDY));
+
+    val row = Maps.<String, String> newHashMapWithExpectedSize(DATA_TABLE_EXPORT_MAP.size());
+    row.put(Fields.DONOR_ID, toSummarizedString(toSet(donors, EsFields.DONOR_ID)));
+    row.put(Fields.SPECIMEN_ID, toSummarizedString(toSet(donors, EsFields.SPECIMEN_ID)));
+    row.put(Fields.SPECIMEN_TYPE, toSummarizedString(toSet(donors, EsFields.SPECIMEN_TYPE)));
+    row.put(Fields.SAMPLE_ID, toSummarizedString(toSet(donors, EsFields.SAMPLE_ID)));
+    row.put(Fields.PROJECT_CODE, toSummarizedString(toSet(donors, EsFields.PROJECT_CODE)));
+    row.put(Fields.FILE_NAME, String.valueOf(fileCopies.isEmpty() ? null : fileCopies.get(0).get(EsFields.FILE_NAME)));
+    row.put(Fields.FILE_SIZE, String.valueOf(averageFileSize(fileCopies)));
+    row.put(Fields.ACCESS, toCellString(source.get(EsFields.ACCESS)));
+    row.put(Fields.FILE_ID, toCellString(source.get(EsFields.ID)));
+    row.put(Fields.OBJECT_ID, toCellString(source.get(EsFields.OBJECT_ID)));
+    row.put(Fields.REPO_NAME, toCSV(toSet(fileCopies, EsFields.REPO_NAME)));
+    row.put(Fields.STUDY, toCSV(new LinkedHashSet<Object>(study)));
+    row.put(Fields.DATA_TYPE, toCellString(dataCategorization.get(EsFields.DATA_TYPE)));
+    row.put(Fields.EXPERIMENTAL_STRATEGY, toCellString(dataCategorization.get(EsFields.EXPERIMENTAL_STRATEGY)));
+    row.put(Fields.FILE_FORMAT, toCSV(toSet(fileCopies, EsFields.FILE_FORMAT)));
+
+    return row;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<Map<String, Object>> getObjects(Map<String, Object> source, String field) {
+    return (List<Map<String, Object>>) (List<?>) getValues(source.get(field));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> getObject(Map<String, Object> source, String field) {
+    val value = source.get(field);
+    return value == null ? emptyMap() : (Map<String, Object>) value;
+  }
+
+  /**
+   * Normalizes a source value that may be missing, single or multi-valued into a list.
+   */
+  private static List<Object> getValues(Object value) {
+    if (value == null) {
+      return emptyList();
     }
 
-    row.put(Fields.DONOR_ID,
-        toSummarizedString(fieldToSet(file.getDonors(), Donor::getDonorId)));
-    row.put(Fields.SPECIMEN_ID,
-        toSummarizedString(listToSet(file.getDonors(), Donor::getSpecimenId)));
-    row.put(Fields.SPECIMEN_TYPE,
-        toSummarizedString(listToSet(file.getDonors(), Donor::getSpecimenType)));
-    row.put(Fields.SAMPLE_ID,
-        toSummarizedString(listToSet(file.getDonors(), Donor::getSampleId)));
-    row.put(Fields.PROJECT_CODE,
-        toSummarizedString(fieldToSet(file.getDonors(), Donor::getProjectCode)));
-    row.put(Fields.FILE_NAME,
-        String.valueOf(file.getFileCopies().get(0).getFileName()));
-    row.put(Fields.FILE_SIZE,
-        String.valueOf(file.getFileCopies().stream().mapToLong(FileCopy::getFileSize).average().orElse(0)));
-    row.put(Fields.ACCESS, file.getAccess());
-    row.put(Fields.FILE_ID, file.getId());
-    row.put(Fields.OBJECT_ID, file.getObjectId());
-    row.put(Fields.REPO_NAME, fieldToCSV(file.getFileCopies(), FileCopy::getRepoName));
-    row.put(Fields.STUDY, study != null ? study.stream().distinct().collect(joining(COMMA)) : "");
-    row.put(Fields.DATA_TYPE, dataType != null? dataType : "");
-    row.put(Fields.EXPERIMENTAL_STRATEGY, strategy != null ? strategy : "");
-    row.put(Fields.FILE_FORMAT, fieldToCSV(file.getFileCopies(), FileCopy::getFileFormat));
-
-    return row.build();
+    if (value instanceof List) {
+      @SuppressWarnings("unchecked")
+      List<Object> values = (List<Object>) value;
+      return values;
+    }
+
+    return singletonList(value);
+  }
+
+  private static Set<Object> toSet(List<Map<String, Object>> objects, String field) {
+    val result = new LinkedHashSet<Object>();
+    for (val object : objects) {
+      result.addAll(getValues(object.get(field)));
+    }
+
+    return result;
   }
 
-  private static Collection<Object> listToSet(List<Donor> list, Function<Donor, List<String>> mapper) {
-    return list.stream().map(mapper).flatMap(Collection::stream).collect(toImmutableSet());
+  private static double averageFileSize(List<Map<String, Object>> fileCopies) {
+    return fileCopies.stream()
+        .map(fileCopy -> fileCopy.get(EsFields.FILE_SIZE))
+        .mapToLong(fileSize -> fileSize == null ? 0L : ((Number) fileSize).longValue())
+        .average()
+        .orElse(0);
   }
 
-  private static Collection<Object> fieldToSet(List<Donor> list, Function<Donor, String> mapper) {
-    return list.stream().map(mapper).collect(toImmutableSet());
+  private static String toCSV(Set<Object> values) {
+    return values.stream().map(String::valueOf).collect(joining(COMMA));
   }
 
-  private static String fieldToCSV(List<FileCopy> list, Function<FileCopy, String> mapper) {
-    return list.stream().map(mapper).distinct().collect(joining(COMMA));
+  private static String toCellString(Object value) {
+    return value == null ? "" : value.toString();
   }
 
   private static Map<String, Object> toKeywordFieldMap(@NonNull SearchHit hit) {
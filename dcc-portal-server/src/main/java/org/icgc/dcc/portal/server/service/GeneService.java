@@ -19,6 +19,7 @@ import static org.icgc.dcc.portal.server.util.SearchResponses.getCounts;
 import static org.icgc.dcc.portal.server.util.SearchResponses.getNestedCounts;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.commons.lang3.tuple.Pair;
@@ -279,12 +280,20 @@ public class GeneService {
     return geneRepository.count(query);
   }
 
+  public CompletableFuture<Long> countAsync(Query query) {
+    return geneRepository.countAsync(query);
+  }
+
   public LinkedHashMap<String, Long> counts(LinkedHashMap<String, Query> queries) {
     MultiSearchResponse sr = geneRepository.counts(queries);
 
     return getCounts(queries, sr);
   }
 
+  public CompletableFuture<LinkedHashMap<String, Long>> countsAsync(LinkedHashMap<String, Query> queries) {
+    return geneRepository.countsAsync(queries).thenApply(sr -> getCounts(queries, sr));
+  }
+
   public LinkedHashMap<String, LinkedHashMap<String, Long>> nestedCounts(
       LinkedHashMap<String, LinkedHashMap<String, Query>> queries) {
     MultiSearchResponse sr = geneRepository.nestedCounts(queries);
@@ -292,6 +301,11 @@ public class GeneService {
     return getNestedCounts(queries, sr);
   }
 
+  public CompletableFuture<LinkedHashMap<String, LinkedHashMap<String, Long>>> nestedCountsAsync(
+      LinkedHashMap<String, LinkedHashMap<String, Query>> queries) {
+    return geneRepository.nestedCountsAsync(queries).thenApply(sr -> getNestedCounts(queries, sr));
+  }
+
   public Gene findOne(String geneId, Query query) {
     return new Gene(geneRepository.findOne(geneId, query));
   }
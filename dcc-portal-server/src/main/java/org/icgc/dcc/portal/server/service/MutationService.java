@@ -14,6 +14,7 @@ import static org.icgc.dcc.portal.server.util.SearchResponses.getTotalHitCount;
 
 import java.util.*;
 import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.concurrent.CompletableFuture;
 
 import org.elasticsearch.action.search.MultiSearchResponse;
 import org.elasticsearch.action.search.SearchResponse;
@@ -115,12 +116,20 @@ public class MutationService {
     return mutationRepository.count(query);
   }
 
+  public CompletableFuture<Long> countAsync(Query query) {
+    return mutationRepository.countAsync(query);
+  }
+
   public Map<String, Long> counts(LinkedHashMap<String, Query> queries) {
     val sr = mutationRepository.counts(queries);
 
     return getCounts(queries, sr);
   }
 
+  public CompletableFuture<Map<String, Long>> countsAsync(LinkedHashMap<String, Query> queries) {
+    return mutationRepository.countsAsync(queries).thenApply(sr -> getCounts(queries, sr));
+  }
+
   public List<Map<String, Object>> counts(@NonNull List<String> geneIds,
       LinkedHashMap<String, Query> queries,
       int maxSize,
@@ -151,6 +160,11 @@ public class MutationService {
     return getNestedCounts(queries, sr);
   }
 
+  public CompletableFuture<Map<String, LinkedHashMap<String, Long>>> nestedCountsAsync(
+      LinkedHashMap<String, LinkedHashMap<String, Query>> queries) {
+    return mutationRepository.nestedCountsAsync(queries).thenApply(sr -> getNestedCounts(queries, sr));
+  }
+
   public Mutation findOne(String mutationId, Query query) {
     return new Mutation(mutationRepository.findOne(mutationId, query));
   }
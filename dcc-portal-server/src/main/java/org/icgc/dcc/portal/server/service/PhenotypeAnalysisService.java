@@ -22,18 +22,25 @@ import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
+import org.icgc.dcc.portal.server.analysis.AnalysisResultCache;
 import org.icgc.dcc.portal.server.analysis.PhenotypeAnalyzer;
 import org.icgc.dcc.portal.server.config.ServerProperties;
 import org.icgc.dcc.portal.server.model.PhenotypeAnalysis;
+import org.icgc.dcc.portal.server.model.PhenotypeResult;
 import org.icgc.dcc.portal.server.repository.PhenotypeAnalysisRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+
 import java.util.List;
 import java.util.UUID;
 
 import static com.google.common.base.Preconditions.checkState;
+import static java.util.Comparator.comparingInt;
 import static lombok.AccessLevel.PRIVATE;
+import static org.icgc.dcc.common.core.util.stream.Collectors.toImmutableList;
+import static org.icgc.dcc.portal.server.analysis.AnalysisResultCache.AnalysisType.PHENOTYPE;
 
 /**
  * A service to create and retrieve results of phenotype analysis.
@@ -43,12 +50,17 @@ import static lombok.AccessLevel.PRIVATE;
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
 public class PhenotypeAnalysisService {
 
+  private static final TypeReference<List<PhenotypeResult>> RESULT_TYPE =
+      new TypeReference<List<PhenotypeResult>>() {};
+
   @NonNull
   private final PhenotypeAnalysisRepository sqlRepository;
   @NonNull
   private final PhenotypeAnalyzer analyzer;
   @NonNull
   private final ServerProperties properties;
+  @NonNull
+  private final AnalysisResultCache analysisCache;
 
   @Getter(lazy = true, value = PRIVATE)
   private final int currentDataVersion = resolveDataVersion();
@@ -71,12 +83,29 @@ public class PhenotypeAnalysisService {
       throw new NotFoundException(analysisId.toString(), "phenotype analysis");
     }
 
-    val results = analyzer.getPhenotypeAnalysisResult(analysis.getEntitySetIds());
-    analysis.setResults(results);
+    val setIds = analysis.getEntitySetIds();
+    val results = analysisCache.get(PHENOTYPE, setIds, null, RESULT_TYPE,
+        () -> analyzer.getPhenotypeAnalysisResult(setIds));
+    analysis.setResults(inSetOrder(results, setIds));
 
     return analysis;
   }
 
+  /**
+   * Orders the facets of each result like the requested sets, which may differ from the order the cached result was
+   * computed with.
+   */
+  private static List<PhenotypeResult> inSetOrder(List<PhenotypeResult> results, List<UUID> setIds) {
+    return results.stream()
+        .map(result -> new PhenotypeResult(
+            result.getName(),
+            result.getData().stream()
+                .sorted(comparingInt(facet -> setIds.indexOf(facet.getId())))
+                .collect(toImmutableList()),
+            result.getPValue()))
+        .collect(toImmutableList());
+  }
+
   private int resolveDataVersion() {
     return properties.getRelease().getDataVersion();
   }
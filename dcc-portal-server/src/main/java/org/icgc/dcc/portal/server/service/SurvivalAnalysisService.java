@@ -19,10 +19,12 @@ package org.icgc.dcc.portal.server.service;
 
 import static com.google.common.base.Preconditions.checkState;
 import static lombok.AccessLevel.PRIVATE;
+import static org.icgc.dcc.portal.server.analysis.AnalysisResultCache.AnalysisType.SURVIVAL;
 
 import java.util.List;
 import java.util.UUID;
 
+import org.icgc.dcc.portal.server.analysis.AnalysisResultCache;
 import org.icgc.dcc.portal.server.analysis.SurvivalAnalyzer;
 import org.icgc.dcc.portal.server.config.ServerProperties;
 import org.icgc.dcc.portal.server.model.SurvivalAnalysis;
@@ -30,6 +32,8 @@ import org.icgc.dcc.portal.server.repository.SurvivalAnalysisRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
@@ -41,6 +45,12 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
 public class SurvivalAnalysisService {
 
+  /**
+   * Constants.
+   */
+  private static final TypeReference<SurvivalAnalysis.Outcome> RESULT_TYPE =
+      new TypeReference<SurvivalAnalysis.Outcome>() {};
+
   /**
    * Dependencies
    */
@@ -50,6 +60,8 @@ public class SurvivalAnalysisService {
   private final ServerProperties properties;
   @NonNull
   private final SurvivalAnalyzer analyzer;
+  @NonNull
+  private final AnalysisResultCache analysisCache;
 
   @Getter(lazy = true, value = PRIVATE)
   private final int currentDataVersion = resolveDataVersion();
@@ -72,7 +84,10 @@ public class SurvivalAnalysisService {
       throw new NotFoundException(analysisId.toString(), "survival analysis");
     }
 
-    return analyzer.analyze(analysis);
+    val setIds = analysis.getEntitySetIds();
+    val outcome = analysisCache.get(SURVIVAL, setIds, null, RESULT_TYPE, () -> analyzer.analyze(setIds));
+
+    return analysis.attach(outcome);
   }
 
   private int resolveDataVersion() {
@@ -0,0 +1,340 @@
+/*
+ * Copyright (c) 2018 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.portal.server.util;
+
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardOpenOption.READ;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+
+/**
+ * Compact index of the simple somatic mutations of a release by chromosome position, for answering Beacon queries
+ * without a search.
+ * <p>
+ * Within each chromosome mutations are kept in start order as parallel arrays of start positions, mutation strings and
+ * project ordinals. The arrays are files mapped into memory so the heap only holds the chromosome ranges and project
+ * ids. An index is written once with a {@link Writer} and can be reopened as long as its directory is kept.
+ */
+@RequiredArgsConstructor
+public class AlleleIndex {
+
+  /**
+   * Constants.
+   */
+  public static final int POSITION_BUFFER = 1000; // Must be larger than any single mutation.
+
+  private static final String META_FILE = "index.meta";
+  private static final String STARTS_FILE = "starts.bin";
+  private static final String MUTATION_OFFSETS_FILE = "mutation-offsets.bin";
+  private static final String MUTATIONS_FILE = "mutations.bin";
+  private static final String PROJECT_OFFSETS_FILE = "project-offsets.bin";
+  private static final String PROJECTS_FILE = "projects.bin";
+
+  /**
+   * Metadata.
+   */
+  private final Map<String, int[]> chromosomes;
+  private final Map<String, Integer> projectOrdinals;
+
+  /**
+   * Data.
+   */
+  private final IntBuffer starts;
+  private final IntBuffer mutationOffsets;
+  private final ByteBuffer mutations;
+  private final IntBuffer projectOffsets;
+  private final ShortBuffer projects;
+
+  public static boolean exists(@NonNull File dir) {
+    return new File(dir, META_FILE).exists();
+  }
+
+  public static AlleleIndex open(@NonNull File dir) throws IOException {
+    val chromosomes = ImmutableMap.<String, int[]> builder();
+    val projectOrdinals = ImmutableMap.<String, Integer> builder();
+    try (DataInputStream meta = new DataInputStream(
+        new BufferedInputStream(new FileInputStream(new File(dir, META_FILE))))) {
+      val chromosomeCount = meta.readInt();
+      for (int i = 0; i < chromosomeCount; i++) {
+        chromosomes.put(meta.readUTF(), new int[] { meta.readInt(), meta.readInt() });
+      }
+
+      val projectCount = meta.readInt();
+      for (int i = 0; i < projectCount; i++) {
+        projectOrdinals.put(meta.readUTF(), i);
+      }
+    }
+
+    return new AlleleIndex(
+        chromosomes.build(),
+        projectOrdinals.build(),
+        map(dir, STARTS_FILE).asIntBuffer(),
+        map(dir, MUTATION_OFFSETS_FILE).asIntBuffer(),
+        map(dir, MUTATIONS_FILE),
+        map(dir, PROJECT_OFFSETS_FILE).asIntBuffer(),
+        map(dir, PROJECTS_FILE).asShortBuffer());
+  }
+
+  public static Writer writer(@NonNull File dir) throws IOException {
+    return new Writer(dir);
+  }
+
+  /**
+   * Answers a Beacon query the same way the search in {@code BeaconService} does.
+   * 
+   * @return {@code null} if no mutation of {@code project} (if any) covers {@code position}, {@code true} if one of
+   * them has {@code allele} at the position and {@code false} otherwise
+   */
+  public Boolean query(@NonNull String chromosome, int position, @NonNull String allele, String project) {
+    val range = chromosomes.get(chromosome);
+    if (range == null) {
+      return null;
+    }
+
+    int projectOrdinal = -1;
+    if (!isNullOrEmpty(project)) {
+      val ordinal = projectOrdinals.get(project);
+      if (ordinal == null) {
+        return null;
+      }
+
+      projectOrdinal = ordinal;
+    }
+
+    Boolean result = null;
+    for (int i = lowerBound(range[0], range[1], position - POSITION_BUFFER); i < range[1]; i++) {
+      val start = starts.get(i);
+      if (start > position) {
+        break;
+      }
+      if (projectOrdinal >= 0 && !hasProject(i, projectOrdinal)) {
+        continue;
+      }
+
+      val mutation = getMutation(i);
+      val alternative = mutation.substring(mutation.indexOf('>') + 1);
+      if (position > start + alternative.length()) {
+        continue;
+      }
+
+      if (matches(mutation, position - start, allele)) {
+        return true;
+      }
+
+      result = false;
+    }
+
+    return result;
+  }
+
+  public int size() {
+    return starts.limit();
+  }
+
+  private int lowerBound(int from, int to, int start) {
+    int low = from;
+    int high = to;
+    while (low < high) {
+      val middle = (low + high) >>> 1;
+      if (starts.get(middle) < start) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+
+    return low;
+  }
+
+  private boolean hasProject(int i, int projectOrdinal) {
+    for (int j = projectOffsets.get(i); j < projectOffsets.get(i + 1); j++) {
+      if (projects.get(j) == projectOrdinal) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  private String getMutation(int i) {
+    val offset = mutationOffsets.get(i);
+    val bytes = new byte[mutationOffsets.get(i + 1) - offset];
+    for (int j = 0; j < bytes.length; j++) {
+      bytes[j] = mutations.get(offset + j);
+    }
+
+    return new String(bytes, US_ASCII);
+  }
+
+  private static boolean matches(String mutation, int offset, String allele) {
+    if (allele.contains(">")) {
+      // Insertion or deletion
+      return mutation.equals(allele);
+    }
+
+    val begin = mutation.indexOf('>') + 1 + offset;
+    val end = Math.min(begin + allele.length(), mutation.length());
+
+    return mutation.substring(begin, end).equals(allele);
+  }
+
+  private static ByteBuffer map(File dir, String fileName) throws IOException {
+    try (FileChannel channel = FileChannel.open(new File(dir, fileName).toPath(), READ)) {
+      return channel.map(READ_ONLY, 0, channel.size());
+    }
+  }
+
+  /**
+   * Writes an index from mutations added in chromosome and start order. The index only becomes visible to
+   * {@link AlleleIndex#open(File)} once {@link #finish()} completes.
+   */
+  public static class Writer implements Closeable {
+
+    /**
+     * Configuration.
+     */
+    private final File dir;
+
+    /**
+     * Data.
+     */
+    private final DataOutputStream starts;
+    private final DataOutputStream mutationOffsets;
+    private final DataOutputStream mutations;
+    private final DataOutputStream projectOffsets;
+    private final DataOutputStream projects;
+
+    /**
+     * State.
+     */
+    private final Map<String, int[]> chromosomes = Maps.newLinkedHashMap();
+    private final Map<String, Integer> projectOrdinals = Maps.newLinkedHashMap();
+    private String chromosome;
+    private int lastStart;
+    private int count;
+    private int mutationOffset;
+    private int projectOffset;
+
+    private Writer(File dir) throws IOException {
+      this.dir = dir;
+      Files.createDirectories(dir.toPath());
+
+      this.starts = create(STARTS_FILE);
+      this.mutationOffsets = create(MUTATION_OFFSETS_FILE);
+      this.mutations = create(MUTATIONS_FILE);
+      this.projectOffsets = create(PROJECT_OFFSETS_FILE);
+      this.projects = create(PROJECTS_FILE);
+    }
+
+    public void add(@NonNull String chromosome, int start, @NonNull String mutation,
+        @NonNull Collection<String> projectIds) throws IOException {
+      if (!chromosome.equals(this.chromosome)) {
+        checkState(!chromosomes.containsKey(chromosome), "Mutations of chromosome %s are not contiguous", chromosome);
+        this.chromosome = chromosome;
+        chromosomes.put(chromosome, new int[] { count, count });
+      } else {
+        checkState(start >= lastStart, "Mutations of chromosome %s are not in start order at %s", chromosome, start);
+      }
+      lastStart = start;
+
+      starts.writeInt(start);
+
+      val bytes = mutation.getBytes(US_ASCII);
+      mutationOffsets.writeInt(mutationOffset);
+      mutations.write(bytes);
+      mutationOffset += bytes.length;
+
+      projectOffsets.writeInt(projectOffset);
+      for (val projectId : projectIds) {
+        val ordinal = projectOrdinals.computeIfAbsent(projectId, id -> projectOrdinals.size());
+        checkState(ordinal <= Short.MAX_VALUE, "Too many projects to index");
+
+        projects.writeShort(ordinal);
+        projectOffset++;
+      }
+
+      chromosomes.get(chromosome)[1] = ++count;
+    }
+
+    public AlleleIndex finish() throws IOException {
+      mutationOffsets.writeInt(mutationOffset);
+      projectOffsets.writeInt(projectOffset);
+      close();
+
+      // Write the metadata last so that a partial index is never opened
+      val temp = new File(dir, META_FILE + ".tmp");
+      try (DataOutputStream meta = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+        meta.writeInt(chromosomes.size());
+        for (val entry : chromosomes.entrySet()) {
+          meta.writeUTF(entry.getKey());
+          meta.writeInt(entry.getValue()[0]);
+          meta.writeInt(entry.getValue()[1]);
+        }
+
+        meta.writeInt(projectOrdinals.size());
+        for (val projectId : projectOrdinals.keySet()) {
+          meta.writeUTF(projectId);
+        }
+      }
+      Files.move(temp.toPath(), new File(dir, META_FILE).toPath(), ATOMIC_MOVE);
+
+      return open(dir);
+    }
+
+    @Override
+    public void close() throws IOException {
+      starts.close();
+      mutationOffsets.close();
+      mutations.close();
+      projectOffsets.close();
+      projects.close();
+    }
+
+    private DataOutputStream create(String fileName) throws IOException {
+      return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(new File(dir, fileName))));
+    }
+
+  }
+
+}
@@ -26,9 +26,11 @@ import static org.icgc.dcc.common.core.util.stream.Collectors.toImmutableList;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.function.LongUnaryOperator;
 
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.search.aggregations.bucket.histogram.Histogram;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -114,94 +116,120 @@ public final class BrowserParsers {
    */
   public static List<Object> parseHistogramMutation(String segmentId, Long start, Long stop, Long interval,
       List<String> consequenceTypes, List<String> projectFilters, SearchResponse searchResponse) {
-    val histogramAggs = (Histogram) searchResponse.getAggregations().get("hf");
+    return parseHistogram(start, stop, interval, searchResponse, HistogramMutation::new);
+  }
 
-    // Find max and index entries by start
-    long highestAbsolute = 0l;
-    Map<String, Histogram.Bucket> buckets = newHashMap();
-    for (val bucket : histogramAggs.getBuckets()) {
-      buckets.put(String.valueOf(Double.valueOf(bucket.getKeyAsString()).longValue()), bucket);
+  /**
+   * Build a histogram representation of mutations from pre-aggregated tiles.
+   */
+  public static List<Object> parseHistogramMutation(String segmentId, Long start, Long stop, Long interval,
+      HistogramTiles tiles) {
+    return parseHistogram(segmentId, start, stop, interval, tiles, HistogramMutation::new);
+  }
 
-      if (bucket.getDocCount() > highestAbsolute) {
-        highestAbsolute = bucket.getDocCount();
-      }
-    }
+  /**
+   * Build a histogram representation of genes.
+   */
+  public static List<Object> parseHistogramGene(String segmentId, Long start, Long stop, Long interval,
+      List<String> biotypes,
+      SearchResponse searchResponse) {
+    return parseHistogram(start, stop, interval, searchResponse, HistogramGene::new);
+  }
 
-    List<Object> mutations = newArrayList();
-    int intervalNumber = 0;
-    long intervalStart = 0;
-    long intervalStop = intervalStart + interval - 1;
-    while (intervalStart < stop) {
-      if (intervalStop >= start) {
-        val bucket = buckets.get(String.valueOf(intervalStart));
-        val mutationCount = bucket != null ? bucket.getDocCount() : 0;
+  /**
+   * Build a histogram representation of genes from pre-aggregated tiles.
+   */
+  public static List<Object> parseHistogramGene(String segmentId, Long start, Long stop, Long interval,
+      HistogramTiles tiles) {
+    return parseHistogram(segmentId, start, stop, interval, tiles, HistogramGene::new);
+  }
 
-        val mutation = new HistogramMutation(
-            intervalStart,
-            intervalStop,
-            intervalNumber,
-            mutationCount,
-            (double) mutationCount / highestAbsolute);
+  /**
+   * Build the tiles of each chromosome from a per chromosome histogram aggregation.
+   */
+  public static HistogramTiles parseHistogramTiles(int resolution, SearchResponse searchResponse) {
+    val chromosomes = (Terms) searchResponse.getAggregations().get("chromosome");
 
-        mutations.add(mutation);
+    Map<String, Map<Long, Long>> tileCounts = newHashMap();
+    for (val chromosome : chromosomes.getBuckets()) {
+      val histogramAggs = (Histogram) chromosome.getAggregations().get("hf");
 
-        intervalNumber++;
+      Map<Long, Long> counts = newHashMap();
+      for (val bucket : histogramAggs.getBuckets()) {
+        counts.put(Double.valueOf(bucket.getKeyAsString()).longValue(), bucket.getDocCount());
       }
 
-      // Advance
-      intervalStart += interval;
-      intervalStop += interval;
+      tileCounts.put(chromosome.getKeyAsString(), counts);
     }
 
-    return mutations;
+    return HistogramTiles.of(resolution, tileCounts);
   }
 
-  /**
-   * Build a histogram representation of genes.
-   */
-  public static List<Object> parseHistogramGene(String segmentId, Long start, Long stop, Long interval,
-      List<String> biotypes,
-      SearchResponse searchResponse) {
+  private static List<Object> parseHistogram(Long start, Long stop, Long interval, SearchResponse searchResponse,
+      HistogramBinFactory factory) {
     val histogramAggs = (Histogram) searchResponse.getAggregations().get("hf");
 
     // Find max and index entries by start
     long highestAbsolute = 0l;
-    Map<String, Histogram.Bucket> buckets = newHashMap();
+    Map<Long, Long> counts = newHashMap();
     for (val bucket : histogramAggs.getBuckets()) {
-      buckets.put(String.valueOf(Double.valueOf(bucket.getKeyAsString()).longValue()), bucket);
+      counts.put(Double.valueOf(bucket.getKeyAsString()).longValue(), bucket.getDocCount());
 
       if (bucket.getDocCount() > highestAbsolute) {
         highestAbsolute = bucket.getDocCount();
       }
     }
 
-    val genes = ImmutableList.<Object> builder();
+    return createHistogram(start, stop, interval, highestAbsolute,
+        intervalStart -> counts.getOrDefault(intervalStart, 0L), factory);
+  }
+
+  private static List<Object> parseHistogram(String segmentId, Long start, Long stop, Long interval,
+      HistogramTiles tiles, HistogramBinFactory factory) {
+    // Clip the first and last intervals to the segment, like the range filter of the search does
+    LongUnaryOperator count = intervalStart -> tiles.count(segmentId,
+        Math.max(intervalStart, start), Math.min(intervalStart + interval - 1, stop));
+
+    // Find max
+    long highestAbsolute = 0l;
+    for (long intervalStart = firstIntervalStart(start, interval); intervalStart < stop; intervalStart += interval) {
+      highestAbsolute = Math.max(highestAbsolute, count.applyAsLong(intervalStart));
+    }
+
+    return createHistogram(start, stop, interval, highestAbsolute, count, factory);
+  }
+
+  private static List<Object> createHistogram(Long start, Long stop, Long interval, long highestAbsolute,
+      LongUnaryOperator count, HistogramBinFactory factory) {
+    val bins = ImmutableList.<Object> builder();
     int intervalNumber = 0;
-    long intervalStart = 0;
+    long intervalStart = firstIntervalStart(start, interval);
     long intervalStop = intervalStart + interval - 1;
     while (intervalStart < stop) {
-      if (intervalStop >= start) {
-        val bucket = buckets.get(String.valueOf(intervalStart));
-        val geneCount = bucket != null ? bucket.getDocCount() : 0;
+      val binCount = count.applyAsLong(intervalStart);
 
-        val gene = new HistogramGene(
-            intervalStart,
-            intervalStop,
-            intervalNumber,
-            geneCount,
-            (double) geneCount / highestAbsolute);
+      bins.add(factory.create(
+          intervalStart,
+          intervalStop,
+          intervalNumber,
+          binCount,
+          (double) binCount / highestAbsolute));
 
-        genes.add(gene);
-
-        intervalNumber++;
-      }
+      intervalNumber++;
 
       // Advance
       intervalStart += interval;
       intervalStop += interval;
     }
 
-    return genes.build();
+    return bins.build();
+  }
+
+  /**
+   * The start of the first interval ending at or after {@code start}, with intervals counted from the origin.
+   */
+  private static long firstIntervalStart(long start, long interval) {
+    return Math.max(0, start / interval * interval);
   }
 
   /**
@@ -483,6 +511,12 @@ public final class BrowserParsers {
 
   }
 
+  private interface HistogramBinFactory {
+
+    Object create(long start, long end, int interval, long absolute, double value);
+
+  }
+
   @Value
   private static class HistogramMutation {
 
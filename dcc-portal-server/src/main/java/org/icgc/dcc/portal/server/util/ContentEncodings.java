@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2018 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.portal.server.util;
+
+import static lombok.AccessLevel.PRIVATE;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import lombok.val;
+
+/**
+ * {@code Content-Encoding} helpers for serving precompressed bodies.
+ */
+@NoArgsConstructor(access = PRIVATE)
+public final class ContentEncodings {
+
+  /**
+   * Constants.
+   */
+  public static final String GZIP = "gzip";
+
+  private static final Splitter CODINGS = Splitter.on(',').trimResults().omitEmptyStrings();
+  private static final Splitter PARAMETERS = Splitter.on(';').trimResults();
+
+  /**
+   * Returns whether the {@code Accept-Encoding} header values allow a gzip body.
+   */
+  public static boolean isGzipAccepted(List<String> acceptEncodings) {
+    if (acceptEncodings == null) {
+      return false;
+    }
+
+    // Repeated headers are one comma separated list, so an explicit gzip in one overrides * in another
+    return isGzipAccepted(Joiner.on(',').skipNulls().join(acceptEncodings));
+  }
+
+  /**
+   * Returns whether the {@code Accept-Encoding} header value allows a gzip body, i.e. it lists {@code gzip} without
+   * {@code q=0}, or does not list {@code gzip} at all but {@code *} without {@code q=0}.
+   */
+  public static boolean isGzipAccepted(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+
+    Double gzipQuality = null;
+    Double anyQuality = null;
+    for (val coding : CODINGS.split(acceptEncoding)) {
+      val parameters = PARAMETERS.split(coding).iterator();
+      val name = parameters.next();
+      if (GZIP.equalsIgnoreCase(name) || "x-gzip".equalsIgnoreCase(name)) {
+        gzipQuality = Math.max(getQuality(parameters), gzipQuality == null ? 0 : gzipQuality);
+      } else if ("*".equals(name)) {
+        anyQuality = getQuality(parameters);
+      }
+    }
+
+    // An explicit gzip takes precedence over *
+    val quality = gzipQuality != null ? gzipQuality : anyQuality;
+
+    return quality != null && quality > 0;
+  }
+
+  /**
+   * Compresses {@code body} in the gzip format.
+   */
+  public static byte[] gzip(@NonNull byte[] body) {
+    val compressed = new ByteArrayOutputStream(Math.max(32, body.length / 4));
+    try (GZIPOutputStream output = new GZIPOutputStream(compressed)) {
+      output.write(body);
+    } catch (IOException e) {
+      // Not possible in memory
+      throw new IllegalStateException(e);
+    }
+
+    return compressed.toByteArray();
+  }
+
+  private static double getQuality(Iterator<String> parameters) {
+    while (parameters.hasNext()) {
+      val parameter = parameters.next();
+      if (parameter.startsWith("q=")) {
+        try {
+          return Double.parseDouble(parameter.substring(2));
+        } catch (NumberFormatException e) {
+          return 0;
+        }
+      }
+    }
+
+    return 1;
+  }
+
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2018 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.portal.server.util;
+
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static lombok.AccessLevel.PRIVATE;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+
+import org.elasticsearch.ElasticsearchTimeoutException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.ActionRequestBuilder;
+import org.elasticsearch.action.ActionResponse;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.TimerContext;
+
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Executes Elasticsearch requests without blocking the calling thread.
+ * <p>
+ * The returned future completes on a transport thread when the response arrives, or exceptionally when the request
+ * fails or does not answer within its timeout. Each request is timed under its {@code name} so that slow queries show
+ * up in the metrics next to the resource timers.
+ */
+@Slf4j
+@NoArgsConstructor(access = PRIVATE)
+public final class ElasticsearchFutures {
+
+  /**
+   * Constants.
+   */
+  public static final long DEFAULT_TIMEOUT_MILLIS = SECONDS.toMillis(60);
+
+  /**
+   * Completes futures whose requests ran past their timeout.
+   */
+  private static final ScheduledExecutorService TIMEOUTS = newSingleThreadScheduledExecutor(
+      new ThreadFactoryBuilder().setNameFormat("elasticsearch-timeout-%d").setDaemon(true).build());
+
+  public static <T extends ActionResponse> CompletableFuture<T> execute(String name,
+      ActionRequestBuilder<?, T, ?> request) {
+    return execute(name, request, DEFAULT_TIMEOUT_MILLIS);
+  }
+
+  public static <T extends ActionResponse> CompletableFuture<T> execute(@NonNull String name,
+      @NonNull ActionRequestBuilder<?, T, ?> request, long timeoutMillis) {
+    final CompletableFuture<T> future = new CompletableFuture<T>();
+    final TimerContext timer = Metrics.newTimer(ElasticsearchFutures.class, name, MILLISECONDS, SECONDS).time();
+    final ScheduledFuture<?> timeout = TIMEOUTS.schedule(() -> {
+      if (future.completeExceptionally(new ElasticsearchTimeoutException("'{}' timed out after {} ms", name,
+          timeoutMillis))) {
+        Metrics.newCounter(ElasticsearchFutures.class, name + "-timeouts").inc();
+        log.warn("Search '{}' timed out after {} ms", name, timeoutMillis);
+      }
+    }, timeoutMillis, MILLISECONDS);
+
+    future.whenComplete((response, e) -> {
+      timeout.cancel(false);
+      timer.stop();
+    });
+
+    request.execute(new ActionListener<T>() {
+
+      @Override
+      public void onResponse(T response) {
+        future.complete(response);
+      }
+
+      @Override
+      public void onFailure(Exception e) {
+        Metrics.newCounter(ElasticsearchFutures.class, name + "-failures").inc();
+        future.completeExceptionally(e);
+      }
+
+    });
+
+    return future;
+  }
+
+  /**
+   * Waits for {@code future}, rethrowing the failure of the underlying request as is.
+   */
+  public static <T> T join(@NonNull CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+
+      throw e;
+    }
+  }
+
+}
@@ -24,12 +24,10 @@ import static java.util.Collections.emptyMap;
 import static javax.ws.rs.core.Response.status;
 import static javax.ws.rs.core.Response.Status.NOT_FOUND;
 import static lombok.AccessLevel.PRIVATE;
-import static org.icgc.dcc.portal.server.model.IndexModel.FIELDS_MAPPING;
 
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 import javax.ws.rs.WebApplicationException;
 
@@ -140,8 +138,12 @@ public final class ElasticsearchResponseUtils {
     return defaultValue;
   }
 
+  private static boolean isConsequences(Collection<String> includes) {
+    return includes != null && includes.contains("consequences");
+  }
+
   private static void processConsequences(Map<String, Object> map, Collection<String> includes) {
-    if (includes != null && includes.contains("consequences")) {
+    if (isConsequences(includes)) {
       log.debug("Copying transcripts to consequences...");
       map.put("consequences", map.get("transcript"));
       if (includes == null || !includes.contains("transcripts")) {
@@ -181,7 +183,12 @@ public final class ElasticsearchResponseUtils {
   public static Map<String, Object> createResponseMap(SearchHit response,
       Collection<String> includes, EntityType entityType) {
       val map = createMapFromSearchFields(response.getFields());
-      map.putAll(processSource(response.getSource(),includes, entityType));
+      if (isConsequences(includes)) {
+        map.putAll(processSource(response.getSource(), includes, entityType));
+      } else if (response.getSource() != null) {
+        // Nothing to post-process, so flatten straight into the result
+        SourceFlattener.of(entityType, includes).flatten(response.getSource(), map);
+      }
 
       return map;
   }
@@ -224,7 +231,7 @@ public final class ElasticsearchResponseUtils {
       return emptyMap();
     }
 
-    return flattenMap(Optional.empty(), source, null, null);
+    return SourceFlattener.of(null, null).flatten(source);
   }
 
   public static Map<String, Object> flattenMap(Map<String, Object> source,
@@ -233,43 +240,7 @@ public final class ElasticsearchResponseUtils {
       return emptyMap();
     }
 
-    return flattenMap(Optional.empty(), source, entityType, includes);
+    return SourceFlattener.of(entityType, includes).flatten(source);
   }
 
-  @SuppressWarnings("unchecked")
-  private static Map<String, Object> flattenMap(Optional<String> prefix, Map<String, Object> source,
-      EntityType entityType,
-      Collection<String> includes) {
-    val result = Maps.<String, Object> newHashMap();
-
-    for (val entry : source.entrySet()) {
-      val fieldName = resolvePrefix(prefix, entry.getKey());
-      if (entry.getValue() instanceof Map && !isSkip(fieldName, includes, entityType)) {
-        result.putAll(
-            flattenMap(Optional.of(entry.getKey()), (Map<String, Object>) entry.getValue(), entityType, includes));
-      } else {
-        result.put(fieldName, entry.getValue());
-      }
-    }
-
-    return result;
-  }
-
-  /**
-   * Some fields are maps and the client expects them to be a map.
-   * 
-   * This method returns true if fieldName refers to a map that should not be flattened.
-   */
-  private static boolean isSkip(String fieldName, Collection<String> includes,
-      EntityType entityType) {
-    if (entityType == null || includes == null) {
-      return false;
-    }
-
-    return (FIELDS_MAPPING.get(entityType).containsValue(fieldName) || includes.contains(fieldName));
-  }
-
-  private static String resolvePrefix(Optional<String> prefix, String field) {
-    return prefix.isPresent() ? format("%s.%s", prefix.get(), field) : field;
-  }
 }
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2018 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.portal.server.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Map;
+
+import com.google.common.collect.ImmutableMap;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+
+/**
+ * Cumulative document counts per chromosome at a fixed tile resolution, from which genome browser histograms of any
+ * interval can be answered without a search.
+ * <p>
+ * Counts are exact for ranges aligned on the resolution. Otherwise the range ends are rounded to the nearest tile.
+ */
+@RequiredArgsConstructor
+public class HistogramTiles {
+
+  /**
+   * The width of a tile in base pairs.
+   */
+  @Getter
+  private final int resolution;
+
+  /**
+   * Per chromosome, the number of documents starting before each tile.
+   */
+  private final Map<String, int[]> cumulativeCounts;
+
+  /**
+   * Creates tiles from the document counts of the non-empty tiles of each chromosome, keyed by tile start.
+   */
+  public static HistogramTiles of(int resolution, @NonNull Map<String, ? extends Map<Long, Long>> tileCounts) {
+    checkArgument(resolution > 0, "Resolution must be positive: %s", resolution);
+
+    val cumulativeCounts = ImmutableMap.<String, int[]> builder();
+    for (val entry : tileCounts.entrySet()) {
+      val counts = entry.getValue();
+      val tileCount = counts.keySet().stream().mapToLong(start -> start / resolution).max().orElse(-1) + 1;
+
+      val cumulative = new int[(int) tileCount + 1];
+      for (val tile : counts.entrySet()) {
+        cumulative[(int) (tile.getKey() / resolution) + 1] += tile.getValue();
+      }
+      for (int i = 1; i < cumulative.length; i++) {
+        cumulative[i] += cumulative[i - 1];
+      }
+
+      cumulativeCounts.put(entry.getKey(), cumulative);
+    }
+
+    return new HistogramTiles(resolution, cumulativeCounts.build());
+  }
+
+  /**
+   * Counts the documents of {@code chromosome} starting between {@code from} and {@code to} inclusive.
+   */
+  public long count(@NonNull String chromosome, long from, long to) {
+    val cumulative = cumulativeCounts.get(chromosome);
+    if (cumulative == null || to < from) {
+      return 0;
+    }
+
+    return cumulative[tile(cumulative, to + 1)] - cumulative[tile(cumulative, from)];
+  }
+
+  private int tile(int[] cumulative, long position) {
+    val tile = Math.round((double) position / resolution);
+    return (int) Math.max(0, Math.min(tile, cumulative.length - 1));
+  }
+
+}
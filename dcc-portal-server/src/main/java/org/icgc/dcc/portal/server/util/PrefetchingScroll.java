@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2018 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.portal.server.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.elasticsearch.action.search.SearchResponse;
+
+import com.google.common.util.concurrent.Futures;
+
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import lombok.Value;
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Iterates the pages of a {@link SearchScroll} while a background task fetches up to {@code capacity} pages ahead, so
+ * that writing out one page overlaps with the round trip for the next.
+ * <p>
+ * The background task does not hold on to its thread for a slow consumer. If the consumer does not make room for a
+ * page within the handoff timeout, the task hands that page and the scroll over and the consumer pages synchronously
+ * from there on. The consumer also pages synchronously if the executor rejects the task or does not start it within
+ * the poll interval. The task always ends with a terminal page, so failures are rethrown to the consumer.
+ * {@link #close()} must be called to stop prefetching if the consumer gives up early. The underlying scroll is closed by
+ * whichever side owns it last.
+ */
+@Slf4j
+public class PrefetchingScroll implements Iterator<SearchResponse>, AutoCloseable {
+
+  /**
+   * Constants.
+   */
+  private static final long DEFAULT_HANDOFF_TIMEOUT_MS = SECONDS.toMillis(30);
+  private static final long POLL_INTERVAL_MS = 100;
+  private static final Page END = new Page(Kind.END, null, null);
+
+  /**
+   * Configuration.
+   */
+  private final SearchScroll scroll;
+  private final long handoffTimeoutMs;
+
+  /**
+   * State.
+   */
+  private final BlockingQueue<Page> pages;
+  private final Semaphore slots;
+  private final AtomicBoolean started = new AtomicBoolean();
+  private final AtomicBoolean scrollClosed = new AtomicBoolean();
+  private volatile boolean handedOff;
+  private volatile boolean closed;
+  private final Future<?> producer;
+  private SearchResponse next;
+  private boolean synchronous;
+  private boolean done;
+
+  public PrefetchingScroll(@NonNull SearchScroll scroll, int capacity, @NonNull ExecutorService executor) {
+    this(scroll, capacity, executor, DEFAULT_HANDOFF_TIMEOUT_MS);
+  }
+
+  PrefetchingScroll(@NonNull SearchScroll scroll, int capacity, @NonNull ExecutorService executor,
+      long handoffTimeoutMs) {
+    checkArgument(capacity > 0, "Prefetch capacity must be positive but was %s", capacity);
+    this.scroll = scroll;
+    this.handoffTimeoutMs = handoffTimeoutMs;
+
+    // One more than the prefetched pages, so that the terminal page always fits
+    this.pages = new ArrayBlockingQueue<>(capacity + 1);
+    this.slots = new Semaphore(capacity);
+    this.producer = submit(executor);
+  }
+
+  @Override
+  @SneakyThrows
+  public boolean hasNext() {
+    while (next == null && !done) {
+      if (synchronous) {
+        if (scroll.hasNext()) {
+          next = scroll.next();
+        } else {
+          done = true;
+          closeScroll();
+        }
+      } else {
+        receive();
+      }
+    }
+
+    return next != null;
+  }
+
+  @Override
+  public SearchResponse next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+
+    val response = next;
+    next = null;
+
+    return response;
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    if (producer.cancel(true) && started.compareAndSet(false, true)) {
+      // Cancelled while queued, so the task will never run to close it
+      closeScroll();
+    } else if (synchronous || handedOff) {
+      closeScroll();
+    }
+  }
+
+  private Future<?> submit(ExecutorService executor) {
+    try {
+      return executor.submit(this::produce);
+    } catch (RejectedExecutionException e) {
+      log.debug("No thread to prefetch with, paging synchronously");
+      started.set(true);
+      synchronous = true;
+
+      return Futures.immediateFuture(null);
+    }
+  }
+
+  private void receive() throws Throwable {
+    val page = pages.poll(POLL_INTERVAL_MS, MILLISECONDS);
+    if (page == null) {
+      if (started.compareAndSet(false, true)) {
+        // Every thread of the executor is busy, so page synchronously instead of waiting for one
+        producer.cancel(false);
+        synchronous = true;
+      }
+
+      return;
+    }
+
+    switch (page.getKind()) {
+    case DATA:
+      slots.release();
+      next = page.getResponse();
+      break;
+    case HANDOFF:
+      // The page that could not be handed over in time, after which the scroll is ours
+      next = page.getResponse();
+      synchronous = true;
+      break;
+    case ERROR:
+      done = true;
+      throw page.getError();
+    default:
+      done = true;
+    }
+  }
+
+  private void produce() {
+    if (!started.compareAndSet(false, true)) {
+      // Already closed or paged synchronously
+      return;
+    }
+
+    Page last = END;
+    try {
+      while (scroll.hasNext()) {
+        val response = scroll.next();
+        if (!slots.tryAcquire(handoffTimeoutMs, MILLISECONDS)) {
+          log.debug("Consumer did not keep up for {} ms, handing the scroll over", handoffTimeoutMs);
+          last = new Page(Kind.HANDOFF, response, null);
+          break;
+        }
+
+        pages.add(new Page(Kind.DATA, response, null));
+      }
+    } catch (InterruptedException e) {
+      log.debug("Scroll prefetching cancelled");
+      last = new Page(Kind.ERROR, null, e);
+      Thread.currentThread().interrupt();
+    } catch (Throwable t) {
+      last = new Page(Kind.ERROR, null, t);
+    } finally {
+      if (last.getKind() == Kind.HANDOFF) {
+        handedOff = true;
+      }
+
+      pages.add(last);
+
+      if (!handedOff || closed) {
+        // Nobody is left to page the rest
+        closeScroll();
+      }
+    }
+  }
+
+  private void closeScroll() {
+    if (scrollClosed.compareAndSet(false, true)) {
+      scroll.close();
+    }
+  }
+
+  private enum Kind {
+
+    DATA, HANDOFF, ERROR, END;
+
+  }
+
+  @Value
+  private static class Page {
+
+    Kind kind;
+    SearchResponse response;
+    Throwable error;
+
+  }
+
+}
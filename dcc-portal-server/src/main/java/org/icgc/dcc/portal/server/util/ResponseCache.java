@@ -0,0 +1,308 @@
+/*
+ * Copyright (c) 2018 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.portal.server.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.cache.RemovalCause.REPLACED;
+import static com.google.common.hash.Hashing.sha256;
+import static com.google.common.util.concurrent.Futures.getUnchecked;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static org.icgc.dcc.portal.server.util.ContentEncodings.gzip;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListeners;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Counter;
+import com.yammer.metrics.core.Gauge;
+
+import lombok.NonNull;
+import lombok.Value;
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A size bounded cache of gzip compressed response bodies, keyed by canonical request.
+ * <p>
+ * Entries are kept in memory and, if a directory is given, entries evicted from memory are spilled to disk so that
+ * they can be promoted back on the next request. Both tiers evict the least recently used entries first.
+ */
+@Slf4j
+public class ResponseCache {
+
+  /**
+   * Constants.
+   */
+  private static final String FILE_SUFFIX = ".response";
+  private static final String TEMP_SUFFIX = ".tmp";
+
+  /**
+   * Metrics.
+   */
+  private static final AtomicLong MEMORY_BYTES = new AtomicLong();
+  private static final AtomicLong DISK_BYTES = new AtomicLong();
+  private static final Counter HITS = Metrics.newCounter(ResponseCache.class, "hits");
+  private static final Counter DISK_HITS = Metrics.newCounter(ResponseCache.class, "disk-hits");
+  private static final Counter MISSES = Metrics.newCounter(ResponseCache.class, "misses");
+  private static final Counter EVICTIONS = Metrics.newCounter(ResponseCache.class, "evictions");
+
+  static {
+    Metrics.newGauge(ResponseCache.class, "memory-bytes", new Gauge<Long>() {
+
+      @Override
+      public Long value() {
+        return MEMORY_BYTES.get();
+      }
+
+    });
+    Metrics.newGauge(ResponseCache.class, "disk-bytes", new Gauge<Long>() {
+
+      @Override
+      public Long value() {
+        return DISK_BYTES.get();
+      }
+
+    });
+  }
+
+  /**
+   * Spills evicted entries without holding up the request that caused the eviction.
+   */
+  private static final ExecutorService SPILLER = newSingleThreadExecutor(
+      new ThreadFactoryBuilder().setNameFormat("response-cache-spill-%d").setDaemon(true).build());
+
+  /**
+   * Configuration.
+   */
+  private final int maxEntrySize;
+  private final Optional<File> dir;
+
+  /**
+   * State.
+   */
+  private final Cache<String, Entry> memory;
+  private final Cache<String, Integer> disk;
+
+  /**
+   * @param maxSize the maximum compressed size of the entries kept in memory
+   * @param maxEntrySize the maximum uncompressed size of a body worth caching
+   * @param dir the directory to spill evicted entries to, if any
+   * @param maxDiskSize the maximum compressed size of the entries kept on disk
+   */
+  public ResponseCache(long maxSize, int maxEntrySize, Optional<File> dir, long maxDiskSize) {
+    checkArgument(maxSize > 0, "Response cache size must be positive: %s", maxSize);
+    this.maxEntrySize = maxEntrySize;
+    this.dir = dir;
+    this.memory = CacheBuilder.newBuilder()
+        .maximumWeight(maxSize)
+        .weigher((String key, Entry entry) -> entry.getBody().length)
+        .removalListener(RemovalListeners.asynchronous(this::onMemoryRemoval, SPILLER))
+        .build();
+    this.disk = CacheBuilder.newBuilder()
+        .maximumWeight(maxDiskSize)
+        .weigher((String key, Integer length) -> length)
+        .removalListener(this::onDiskRemoval)
+        .build();
+
+    if (dir.isPresent()) {
+      prepare(dir.get());
+    }
+  }
+
+  /**
+   * Returns the entry cached for {@code key}, if any.
+   */
+  public Optional<Entry> get(@NonNull String key) {
+    val entry = memory.getIfPresent(key);
+    if (entry != null) {
+      HITS.inc();
+      return Optional.of(entry);
+    }
+
+    val spilled = readSpilled(key);
+    if (spilled != null) {
+      DISK_HITS.inc();
+      put(key, spilled);
+      return Optional.of(spilled);
+    }
+
+    MISSES.inc();
+    return Optional.empty();
+  }
+
+  /**
+   * Caches the uncompressed {@code body} for {@code key}, unless it is larger than the maximum entry size.
+   */
+  public void put(@NonNull String key, @NonNull String contentType, @NonNull byte[] body) {
+    if (body.length > maxEntrySize) {
+      return;
+    }
+
+    put(key, Entry.of(contentType, body));
+  }
+
+  public int getMaxEntrySize() {
+    return maxEntrySize;
+  }
+
+  /**
+   * Discards every entry, for example when the release index changes.
+   */
+  public void clear() {
+    memory.invalidateAll();
+
+    // Behind any pending spills, so that none of them outlives the clear
+    getUnchecked(SPILLER.submit(disk::invalidateAll));
+  }
+
+  private void put(String key, Entry entry) {
+    MEMORY_BYTES.addAndGet(entry.getBody().length);
+    memory.put(key, entry);
+  }
+
+  private void onMemoryRemoval(RemovalNotification<String, Entry> notification) {
+    MEMORY_BYTES.addAndGet(-notification.getValue().getBody().length);
+    if (!notification.wasEvicted()) {
+      return;
+    }
+
+    EVICTIONS.inc();
+    if (dir.isPresent() && disk.getIfPresent(notification.getKey()) == null) {
+      spill(notification.getKey(), notification.getValue());
+    }
+  }
+
+  private void onDiskRemoval(RemovalNotification<String, Integer> notification) {
+    DISK_BYTES.addAndGet(-notification.getValue());
+    if (notification.getCause() == REPLACED) {
+      // Same file, rewritten
+      return;
+    }
+
+    if (!getFile(notification.getKey()).delete()) {
+      log.warn("Could not delete spilled response '{}'", notification.getKey());
+    }
+  }
+
+  private void spill(String key, Entry entry) {
+    val file = getFile(key);
+    val temp = new File(file.getPath() + TEMP_SUFFIX);
+    try (DataOutputStream output = new DataOutputStream(new FileOutputStream(temp))) {
+      output.writeUTF(key);
+      output.writeUTF(entry.getContentType());
+      output.write(entry.getBody());
+    } catch (IOException e) {
+      log.warn("Could not spill response '{}' to '{}': {}", key, temp, e.getMessage());
+      temp.delete();
+      return;
+    }
+
+    // Never expose a partially written file
+    if (!temp.renameTo(file)) {
+      log.warn("Could not move spilled response '{}' to '{}'", key, file);
+      temp.delete();
+      return;
+    }
+
+    val length = (int) file.length();
+    DISK_BYTES.addAndGet(length);
+    disk.put(key, length);
+  }
+
+  private Entry readSpilled(String key) {
+    if (disk.getIfPresent(key) == null) {
+      return null;
+    }
+
+    try (DataInputStream input = new DataInputStream(new FileInputStream(getFile(key)))) {
+      // Guard against the (unlikely) collision of file names
+      if (!key.equals(input.readUTF())) {
+        return null;
+      }
+
+      val contentType = input.readUTF();
+      return new Entry(contentType, ByteStreams.toByteArray(input));
+    } catch (IOException e) {
+      log.warn("Could not read spilled response '{}': {}", key, e.getMessage());
+      disk.invalidate(key);
+      return null;
+    }
+  }
+
+  private File getFile(String key) {
+    return new File(dir.get(), sha256().hashString(key, UTF_8) + FILE_SUFFIX);
+  }
+
+  private static void prepare(File dir) {
+    checkArgument(dir.isDirectory() || dir.mkdirs(), "Could not create response cache directory '%s'", dir);
+
+    // Entries spilled by a previous process may belong to another release
+    File[] stale = dir.listFiles((parent, name) -> name.endsWith(FILE_SUFFIX) || name.endsWith(TEMP_SUFFIX));
+    if (stale != null) {
+      for (val file : stale) {
+        file.delete();
+      }
+    }
+  }
+
+  /**
+   * A cached response body.
+   */
+  @Value
+  public static class Entry {
+
+    String contentType;
+
+    /**
+     * The gzip compressed body, which may be served as is to clients accepting it.
+     */
+    byte[] body;
+
+    public static Entry of(@NonNull String contentType, @NonNull byte[] body) {
+      return new Entry(contentType, gzip(body));
+    }
+
+    /**
+     * Writes the uncompressed body to {@code output}.
+     */
+    public void writeTo(@NonNull OutputStream output) throws IOException {
+      try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(body))) {
+        ByteStreams.copy(input, output);
+      }
+    }
+
+  }
+
+}
@@ -17,6 +17,7 @@
  */
 package org.icgc.dcc.portal.server.util;
 
+import static com.google.common.base.Preconditions.checkState;
 import static lombok.AccessLevel.PRIVATE;
 
 import java.util.Iterator;
@@ -81,8 +82,11 @@ public final class SearchResponses {
     val counts = Maps.<String, Long> newLinkedHashMap();
     val ids = queries.keySet().iterator();
     for (val item : sr.getResponses()) {
+      val id = ids.next();
+      checkState(!item.isFailure(), "Count search for '%s' failed: %s", id, item.getFailureMessage());
+
       SearchResponse r = item.getResponse();
-      counts.put(ids.next(), r.getHits().getTotalHits());
+      counts.put(id, r.getHits().getTotalHits());
     }
 
     return counts;
@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2018 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.portal.server.util;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.elasticsearch.search.sort.SortOrder.ASC;
+import static org.icgc.dcc.portal.server.util.SearchResponses.hasHits;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.elasticsearch.action.search.SearchRequestBuilder;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.unit.TimeValue;
+
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Counter;
+import com.yammer.metrics.core.Gauge;
+import com.yammer.metrics.core.Timer;
+
+import lombok.NonNull;
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Iterates the hit pages of a search, either through a scroll context or through {@code search_after} on a unique sort
+ * field.
+ * <p>
+ * A scroll context is cleared as soon as the last page has been read, when a page request fails or when the iterator
+ * is closed early (e.g. the client of an export disconnected). Always use in a try-with-resources block.
+ * {@code search_after} holds no context on the cluster between pages and is preferable for long running consumers.
+ */
+@Slf4j
+public class SearchScroll implements Iterator<SearchResponse>, Closeable {
+
+  /**
+   * Metrics.
+   */
+  private static final AtomicInteger OPEN_CONTEXTS = new AtomicInteger();
+  private static final Timer PAGE_LATENCY = Metrics.newTimer(SearchScroll.class, "page-latency", MILLISECONDS, SECONDS);
+  private static final Counter CLOSED_EARLY = Metrics.newCounter(SearchScroll.class, "closed-early");
+
+  static {
+    Metrics.newGauge(SearchScroll.class, "open-contexts", new Gauge<Integer>() {
+
+      @Override
+      public Integer value() {
+        return OPEN_CONTEXTS.get();
+      }
+
+    });
+  }
+
+  /**
+   * Configuration.
+   */
+  private final Client client;
+  private final SearchRequestBuilder request;
+  private final TimeValue keepAlive;
+
+  /**
+   * State.
+   */
+  private SearchResponse next;
+  private String scrollId;
+  private boolean started;
+  private boolean exhausted;
+
+  private SearchScroll(Client client, SearchRequestBuilder request, TimeValue keepAlive) {
+    this.client = client;
+    this.request = request;
+    this.keepAlive = keepAlive;
+  }
+
+  /**
+   * Pages through {@code request} with a scroll context kept alive for {@code keepAlive} between pages.
+   */
+  public static SearchScroll scroll(@NonNull Client client, @NonNull SearchRequestBuilder request,
+      @NonNull TimeValue keepAlive) {
+    request.setScroll(keepAlive);
+
+    return new SearchScroll(client, request, keepAlive);
+  }
+
+  /**
+   * Pages through {@code request} with {@code search_after}, using {@code uniqueField} to break ties between the sorts
+   * already on the request.
+   */
+  public static SearchScroll searchAfter(@NonNull SearchRequestBuilder request, @NonNull String uniqueField) {
+    request.setFrom(0).addSort(uniqueField, ASC);
+
+    return new SearchScroll(null, request, null);
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (next == null && !exhausted) {
+      next = fetch();
+      if (!hasHits(next)) {
+        next = null;
+        exhausted = true;
+        close();
+      }
+    }
+
+    return next != null;
+  }
+
+  @Override
+  public SearchResponse next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+
+    val response = next;
+    next = null;
+
+    return response;
+  }
+
+  @Override
+  public void close() {
+    if (!exhausted) {
+      exhausted = true;
+      CLOSED_EARLY.inc();
+    }
+
+    if (scrollId != null) {
+      val id = scrollId;
+      scrollId = null;
+      OPEN_CONTEXTS.decrementAndGet();
+
+      try {
+        client.prepareClearScroll().addScrollId(id).get();
+      } catch (Exception e) {
+        log.warn("Could not clear scroll context: {}", e.getMessage());
+      }
+    }
+  }
+
+  private SearchResponse fetch() {
+    val timer = PAGE_LATENCY.time();
+    try {
+      return isScroll() ? fetchScroll() : fetchSearchAfter();
+    } catch (RuntimeException e) {
+      close();
+      throw e;
+    } finally {
+      timer.stop();
+    }
+  }
+
+  private SearchResponse fetchScroll() {
+    if (!started) {
+      started = true;
+      return track(request.get());
+    }
+
+    return track(client.prepareSearchScroll(scrollId).setScroll(keepAlive).get());
+  }
+
+  private SearchResponse fetchSearchAfter() {
+    val response = request.get();
+
+    val hits = response.getHits().hits();
+    val source = request.request().source();
+    val size = source == null ? -1 : source.size();
+    if (hits.length > 0) {
+      request.searchAfter(hits[hits.length - 1].getSortValues());
+    }
+    if (size > 0 && hits.length < size) {
+      // A short page is the last one so there is no need for another round trip
+      exhausted = true;
+    }
+
+    return response;
+  }
+
+  private SearchResponse track(SearchResponse response) {
+    if (scrollId == null) {
+      OPEN_CONTEXTS.incrementAndGet();
+    }
+    scrollId = response.getScrollId();
+
+    return response;
+  }
+
+  private boolean isScroll() {
+    return keepAlive != null;
+  }
+
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2018 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.portal.server.util;
+
+import static org.icgc.dcc.portal.server.model.IndexModel.FIELDS_MAPPING;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.icgc.dcc.portal.server.model.EntityType;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+
+import lombok.NonNull;
+import lombok.Value;
+import lombok.val;
+
+/**
+ * Flattens the nested maps of a document source into dotted keys, as the entity models expect them.
+ * <p>
+ * A nested key is qualified with its immediate parent key only (e.g. {@code a.b.c} becomes {@code b.c}). Maps named by
+ * the entity's field mapping or by the query includes are kept as maps. Flatteners are compiled once per entity type
+ * and includes, and dotted keys are shared between hits, so that flattening a page of hits allocates little more than
+ * the result maps.
+ */
+public final class SourceFlattener {
+
+  /**
+   * Constants.
+   */
+  private static final int MAX_FLATTENERS = 1000;
+  private static final int MAX_PATHS = 100000;
+  private static final int MAX_EXPECTED_SIZE = 1024;
+
+  private static final SourceFlattener NONE = new SourceFlattener(ImmutableSet.of());
+
+  /**
+   * State.
+   */
+  private static final Cache<Key, SourceFlattener> FLATTENERS = CacheBuilder.newBuilder()
+      .maximumSize(MAX_FLATTENERS)
+      .build();
+  private static final ConcurrentMap<String, ConcurrentMap<String, String>> PATHS = new ConcurrentHashMap<>();
+  private static final AtomicInteger PATH_COUNT = new AtomicInteger();
+
+  /**
+   * Configuration.
+   */
+  private final Set<String> skips;
+
+  /**
+   * The size of the largest result so far, used to size the next one.
+   */
+  private volatile int expectedSize = 16;
+
+  private SourceFlattener(Set<String> skips) {
+    this.skips = skips;
+  }
+
+  /**
+   * Returns the flattener for hits of {@code entityType} requested with {@code includes}. Nothing is kept as a map
+   * unless both are given.
+   */
+  public static SourceFlattener of(EntityType entityType, Collection<String> includes) {
+    if (entityType == null || includes == null) {
+      return NONE;
+    }
+
+    SourceFlattener flattener = FLATTENERS.getIfPresent(new Key(entityType, includes));
+    if (flattener == null) {
+      flattener = new SourceFlattener(createSkips(entityType, includes));
+      FLATTENERS.put(new Key(entityType, copyOf(includes)), flattener);
+    }
+
+    return flattener;
+  }
+
+  public Map<String, Object> flatten(@NonNull Map<String, Object> source) {
+    val result = Maps.<String, Object> newHashMapWithExpectedSize(expectedSize);
+    flatten(source, result);
+
+    val size = result.size();
+    if (size > expectedSize && size <= MAX_EXPECTED_SIZE) {
+      expectedSize = size;
+    }
+
+    return result;
+  }
+
+  /**
+   * Flattens {@code source} into {@code target}, replacing any keys already there.
+   */
+  public void flatten(@NonNull Map<String, Object> source, @NonNull Map<String, Object> target) {
+    flatten(null, source, target);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void flatten(String prefix, Map<String, Object> source, Map<String, Object> target) {
+    for (val entry : source.entrySet()) {
+      val key = entry.getKey();
+      val value = entry.getValue();
+      val fieldName = prefix == null ? key : path(prefix, key);
+
+      if (value instanceof Map && !skips.contains(fieldName)) {
+        flatten(key, (Map<String, Object>) value, target);
+      } else {
+        target.put(fieldName, value);
+      }
+    }
+  }
+
+  private static String path(String prefix, String key) {
+    val children = PATHS.get(prefix);
+    if (children != null) {
+      val cached = children.get(key);
+      if (cached != null) {
+        return cached;
+      }
+    }
+
+    val path = prefix + '.' + key;
+    if (PATH_COUNT.get() < MAX_PATHS) {
+      // Keys are bounded by the index mappings, but keep a cap in case a source contains data keyed maps
+      val added = PATHS.computeIfAbsent(prefix, p -> new ConcurrentHashMap<String, String>()).putIfAbsent(key, path);
+      if (added == null) {
+        PATH_COUNT.incrementAndGet();
+      }
+    }
+
+    return path;
+  }
+
+  private static Set<String> createSkips(EntityType entityType, Collection<String> includes) {
+    val skips = ImmutableSet.<String> builder().addAll(includes);
+    val mapping = FIELDS_MAPPING.get(entityType);
+    if (mapping != null) {
+      skips.addAll(mapping.values());
+    }
+
+    return skips.build();
+  }
+
+  private static Collection<String> copyOf(Collection<String> includes) {
+    // Keep the collection kind so that equal includes of the same kind find this flattener
+    return includes instanceof Set ? ImmutableSet.copyOf(includes) : ImmutableList.copyOf(includes);
+  }
+
+  @Value
+  private static class Key {
+
+    EntityType entityType;
+    Collection<String> includes;
+
+  }
+
+}
@@ -68,3 +68,12 @@ CREATE TABLE IF NOT EXISTS oncogrid_analysis(
 );
 
 --------------------------------------------------------------------------------
+
+CREATE TABLE IF NOT EXISTS analysis_result(
+   id       VARCHAR(64) PRIMARY KEY,
+   type     VARCHAR(32),
+   version  INT,
+   data     TEXT
+);
+
+--------------------------------------------------------------------------------
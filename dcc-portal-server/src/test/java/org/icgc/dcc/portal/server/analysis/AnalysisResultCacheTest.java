@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2018 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.portal.server.analysis;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.icgc.dcc.portal.server.analysis.AnalysisResultCache.AnalysisType.SURVIVAL;
+import static org.icgc.dcc.portal.server.analysis.AnalysisResultCache.AnalysisType.UNION;
+import static org.icgc.dcc.portal.server.analysis.KaplanMeierTest.randomData;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.icgc.dcc.portal.server.config.ServerProperties;
+import org.icgc.dcc.portal.server.model.BaseEntitySet;
+import org.icgc.dcc.portal.server.model.EntitySet;
+import org.icgc.dcc.portal.server.model.EntitySet.State;
+import org.icgc.dcc.portal.server.model.SurvivalAnalysis;
+import org.icgc.dcc.portal.server.model.UnionAnalysisRequest;
+import org.icgc.dcc.portal.server.model.UnionUnitWithCount;
+import org.icgc.dcc.portal.server.repository.AnalysisResultRepository;
+import org.icgc.dcc.portal.server.repository.EntitySetRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import lombok.val;
+
+public class AnalysisResultCacheTest {
+
+  static final TypeReference<List<UnionUnitWithCount>> UNION_TYPE = new TypeReference<List<UnionUnitWithCount>>() {};
+  static final TypeReference<SurvivalAnalysis.Outcome> SURVIVAL_TYPE =
+      new TypeReference<SurvivalAnalysis.Outcome>() {};
+
+  static final UUID SET_1 = UUID.randomUUID();
+  static final UUID SET_2 = UUID.randomUUID();
+
+  AnalysisResultRepository repository = mock(AnalysisResultRepository.class);
+  EntitySetRepository entitySetRepository = mock(EntitySetRepository.class);
+  ServerProperties properties = new ServerProperties();
+  AtomicInteger analysisCount = new AtomicInteger();
+
+  @Before
+  public void setUp() {
+    properties.getRelease().setDataVersion(2);
+    when(entitySetRepository.find(any(UUID.class))).thenReturn(set(State.FINISHED));
+  }
+
+  @Test
+  public void testReusesResultsOfSameSetsInAnyOrder() {
+    val cache = new AnalysisResultCache(repository, entitySetRepository, properties);
+
+    val first = cache.get(UNION, ImmutableList.of(SET_1, SET_2), "DONOR", UNION_TYPE, this::countUnion);
+    val second = cache.get(UNION, ImmutableList.of(SET_2, SET_1), "DONOR", UNION_TYPE, this::countUnion);
+
+    assertThat(second).isSameAs(first);
+    assertThat(analysisCount.get()).isEqualTo(1);
+    verify(repository).deleteOtherVersions(2);
+    verify(repository).save(anyString(), eq("union"), eq(2), anyString());
+  }
+
+  @Test
+  public void testDistinguishesParameters() {
+    val cache = new AnalysisResultCache(repository, entitySetRepository, properties);
+
+    cache.get(UNION, ImmutableList.of(SET_1, SET_2), "DONOR", UNION_TYPE, this::countUnion);
+    cache.get(UNION, ImmutableList.of(SET_1, SET_2), "GENE", UNION_TYPE, this::countUnion);
+
+    assertThat(analysisCount.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void testReadsResultsFromDatabase() throws Exception {
+    properties.getAnalysisCache().setSize(0);
+    val cache = new AnalysisResultCache(repository, entitySetRepository, properties);
+    val setIds = ImmutableList.of(SET_1, SET_2);
+    val analysis = survival(setIds);
+
+    cache.get(SURVIVAL, setIds, null, SURVIVAL_TYPE, () -> analysis);
+
+    val key = ArgumentCaptor.forClass(String.class);
+    val data = ArgumentCaptor.forClass(String.class);
+    verify(repository).save(key.capture(), eq("survival"), eq(2), data.capture());
+    when(repository.find(key.getValue(), 2)).thenReturn(new ObjectMapper().readTree(data.getValue()));
+
+    val cached = cache.get(SURVIVAL, setIds, null, SURVIVAL_TYPE, () -> {
+      throw new AssertionError("Analysis should not run");
+    });
+
+    assertThat(cached.getResults()).hasSameSizeAs(analysis.getResults());
+    assertThat(cached.getOverallStats()).isEqualTo(analysis.getOverallStats());
+    for (int i = 0; i < analysis.getResults().size(); i++) {
+      val expected = analysis.getResults().get(i).getOverall();
+      val actual = cached.getResults().get(i).getOverall();
+      assertThat(actual).hasSameSizeAs(expected);
+      for (int j = 0; j < expected.size(); j++) {
+        assertThat(actual.get(j).getCumulativeSurvival()).isEqualTo(expected.get(j).getCumulativeSurvival());
+        assertThat(actual.get(j).getDonors()).isEqualTo(expected.get(j).getDonors());
+      }
+    }
+  }
+
+  @Test
+  public void testBypassedUnlessAllSetsFinished() {
+    when(entitySetRepository.find(SET_2)).thenReturn(set(State.IN_PROGRESS));
+    val cache = new AnalysisResultCache(repository, entitySetRepository, properties);
+
+    cache.get(UNION, ImmutableList.of(SET_1, SET_2), "DONOR", UNION_TYPE, this::countUnion);
+    cache.get(UNION, ImmutableList.of(SET_1, SET_2), "DONOR", UNION_TYPE, this::countUnion);
+
+    assertThat(analysisCount.get()).isEqualTo(2);
+    verify(repository, times(0)).save(anyString(), anyString(), anyInt(), anyString());
+  }
+
+  @Test
+  public void testUnionUnitsFollowRequestOrder() {
+    val cached = ImmutableList.of(
+        new UnionUnitWithCount(ImmutableSet.of(SET_2), ImmutableSet.of(SET_1), 2),
+        new UnionUnitWithCount(ImmutableSet.of(SET_1), ImmutableSet.of(SET_2), 1),
+        UnionUnitWithCount.noExclusionInstance(ImmutableSet.of(SET_1, SET_2), 3));
+    val request = new UnionAnalysisRequest(ImmutableList.of(SET_2, SET_1), BaseEntitySet.Type.DONOR);
+
+    val units = UnionAnalyzer.inRequestOrder(cached, request);
+
+    val expected = request.toUnionSets();
+    assertThat(units).hasSameSizeAs(expected);
+    for (int i = 0; i < expected.size(); i++) {
+      assertThat(units.get(i).getIntersection()).isEqualTo(expected.get(i).getIntersection());
+      assertThat(units.get(i).getExclusions()).isEqualTo(expected.get(i).getExclusions());
+    }
+    assertThat(ImmutableSet.copyOf(units)).isEqualTo(ImmutableSet.copyOf(cached));
+  }
+
+  @Test
+  public void testBypassedWhenDisabled() {
+    properties.getAnalysisCache().setEnabled(false);
+    val cache = new AnalysisResultCache(repository, entitySetRepository, properties);
+
+    cache.get(UNION, ImmutableList.of(SET_1, SET_2), "DONOR", UNION_TYPE, this::countUnion);
+    cache.get(UNION, ImmutableList.of(SET_1, SET_2), "DONOR", UNION_TYPE, this::countUnion);
+
+    assertThat(analysisCount.get()).isEqualTo(2);
+    verify(repository, times(0)).find(anyString(), anyInt());
+  }
+
+  private List<UnionUnitWithCount> countUnion() {
+    analysisCount.incrementAndGet();
+    return ImmutableList.of(UnionUnitWithCount.noExclusionInstance(ImmutableSet.of(SET_1, SET_2), 42));
+  }
+
+  private static SurvivalAnalysis.Outcome survival(List<UUID> setIds) {
+    val random = new Random(1);
+    val data = ImmutableList.<SurvivalData> builder();
+    val results = ImmutableList.<SurvivalAnalysis.Result> builder();
+    for (val setId : setIds) {
+      val columns = randomData(random, 50);
+      data.add(columns);
+      results.add(new SurvivalAnalysis.Result(setId, KaplanMeier.compute(columns), KaplanMeier.compute(columns)));
+    }
+
+    return new SurvivalAnalysis.Outcome(results.build(), false, new SurvivalLogRank(data.build()).runLogRankTest(),
+        null);
+  }
+
+  private static EntitySet set(State state) {
+    return new EntitySet(UUID.randomUUID(), state, 1L, "test", "test", BaseEntitySet.Type.DONOR, 2);
+  }
+
+}
@@ -9,6 +9,7 @@ import static org.icgc.dcc.portal.server.test.JsonNodes.$;
 
 import java.util.UUID;
 
+import org.icgc.dcc.portal.server.config.ServerProperties;
 import org.icgc.dcc.portal.server.model.EnrichmentAnalysis;
 import org.icgc.dcc.portal.server.model.EnrichmentParams;
 import org.icgc.dcc.portal.server.model.Query;
@@ -48,6 +49,8 @@ public class EnrichmentAnalyzerTest extends AbstractSpringIntegrationTest {
   DonorRepository donorRepository;
   @Autowired
   MutationRepository mutationRepository;
+  @Autowired
+  ServerProperties properties;
 
   /**
    * Subject.
@@ -62,7 +65,8 @@ public class EnrichmentAnalyzerTest extends AbstractSpringIntegrationTest {
         geneRepository,
         geneSetRepository,
         donorRepository,
-        mutationRepository);
+        mutationRepository,
+        properties);
   }
 
   @Test
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2018 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.portal.server.analysis;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+
+import org.icgc.dcc.portal.server.model.UnionUnit;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import lombok.val;
+
+public class EntitySetAlgebraTest {
+
+  private static final UUID A = UUID.randomUUID();
+  private static final UUID B = UUID.randomUUID();
+  private static final UUID C = UUID.randomUUID();
+
+  EntitySetAlgebra algebra;
+
+  @Before
+  public void setUp() {
+    algebra = new EntitySetAlgebra();
+    algebra.add(A, ImmutableList.of("DO1", "DO2", "DO3"));
+    algebra.add(B, ImmutableList.of("DO2", "DO3", "DO4"));
+    algebra.add(C, ImmutableList.of("DO3", "DO5"));
+  }
+
+  @Test
+  public void testIntersection() {
+    val unit = UnionUnit.noExclusionInstance(ImmutableSet.of(A, B));
+    assertThat(algebra.getIds(algebra.evaluate(unit))).containsExactly("DO2", "DO3");
+    assertThat(algebra.count(unit)).isEqualTo(2);
+  }
+
+  @Test
+  public void testExclusion() {
+    val unit = new UnionUnit(ImmutableSet.of(A, B), ImmutableSet.of(C));
+    assertThat(algebra.getIds(algebra.evaluate(unit))).containsExactly("DO2");
+  }
+
+  @Test
+  public void testUnion() {
+    val units = ImmutableList.of(
+        UnionUnit.noExclusionInstance(ImmutableSet.of(A)),
+        new UnionUnit(ImmutableSet.of(C), ImmutableSet.of(A)));
+    val union = algebra.evaluate(units);
+
+    assertThat(algebra.getIds(union)).containsExactly("DO1", "DO2", "DO3", "DO5");
+    assertThat(algebra.getIds(union, 2)).containsExactly("DO1", "DO2");
+  }
+
+  @Test
+  public void testEvaluateDoesNotModifySets() {
+    algebra.evaluate(new UnionUnit(ImmutableSet.of(A), ImmutableSet.of(B)));
+    assertThat(algebra.count(UnionUnit.noExclusionInstance(ImmutableSet.of(A)))).isEqualTo(3);
+  }
+
+  @Test
+  public void testEmptyIntersection() {
+    val unit = new UnionUnit(ImmutableSet.of(), ImmutableSet.of(C));
+    assertThat(algebra.count(unit)).isEqualTo(0);
+  }
+
+  @Test
+  public void testRetainAll() {
+    algebra.retainAll(ImmutableSet.of("DO1", "DO3", "DO6"));
+
+    assertThat(algebra.getIds(algebra.evaluate(UnionUnit.noExclusionInstance(ImmutableSet.of(A)))))
+        .containsExactly("DO1", "DO3");
+    assertThat(algebra.count(UnionUnit.noExclusionInstance(ImmutableSet.of(B)))).isEqualTo(1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownSet() {
+    algebra.evaluate(UnionUnit.noExclusionInstance(ImmutableSet.of(UUID.randomUUID())));
+  }
+
+}
@@ -4,8 +4,12 @@ import org.icgc.dcc.portal.server.analysis.KaplanMeier.DonorValue;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
 import lombok.val;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.*;
 
 
@@ -39,4 +43,78 @@ public class KaplanMeierTest {
     assertTrue(intervals.size() == 6);
   }
 
-}
\ No newline at end of file
+  @Test
+  public void testConfidenceIntervals() {
+    val data = randomData(new Random(1), 500);
+    val intervals = KaplanMeier.compute(data);
+
+    // Greenwood's sum recomputed from the first interval for each interval
+    for (int i = 0; i < intervals.size(); i++) {
+      val interval = intervals.get(i);
+      if (interval.getCumulativeSurvival() <= 0f || interval.getCumulativeSurvival() >= 1f) {
+        continue;
+      }
+
+      int atRisk = data.size();
+      double sigma = 0.0;
+      for (int j = 0; j < i; j++) {
+        val died = (double) intervals.get(j).getDied();
+        sigma += died / (atRisk * (atRisk - died));
+        atRisk -= died;
+      }
+
+      double loglog = Math.log(-1.0 * Math.log(interval.getCumulativeSurvival()));
+      double variance = sigma / Math.pow(Math.log(interval.getCumulativeSurvival()), 2);
+      val upper = (float) Math.exp(-1.0 * Math.exp(loglog - (1.96 * Math.sqrt(variance))));
+      val lower = (float) Math.exp(-1.0 * Math.exp(loglog + (1.96 * Math.sqrt(variance))));
+
+      assertThat(interval.getUpperConfidence()).isEqualTo(upper);
+      assertThat(interval.getLowerConfidence()).isEqualTo(lower);
+    }
+  }
+
+  @Test
+  public void testDonors() {
+    val data = randomData(new Random(2), 100);
+    val intervals = KaplanMeier.compute(data);
+
+    val donors = new ArrayList<DonorValue>();
+    for (val interval : intervals) {
+      donors.addAll(interval.getDonors());
+    }
+
+    assertThat(donors).hasSize(data.size());
+    for (int i = 0; i < donors.size(); i++) {
+      assertThat(donors.get(i)).isEqualTo(new DonorValue(data.getIds()[i], data.getStatuses()[i], data.getTimes()[i],
+          data.getDeceased()[i]));
+    }
+
+    // Counted from the columns before the donors are materialized
+    for (val interval : KaplanMeier.compute(data)) {
+      val censured = interval.getCensured();
+      assertThat(censured).isEqualTo(countAlive(interval.getDonors()));
+    }
+  }
+
+  static SurvivalData randomData(Random random, int size) {
+    val builder = SurvivalData.builder(size);
+    for (int i = 0; i < size; i++) {
+      val deceased = random.nextInt(3) == 0;
+      builder.add("DO" + i, deceased ? "deceased" : "alive", random.nextInt(size), deceased);
+    }
+
+    return builder.build(true);
+  }
+
+  private static int countAlive(List<DonorValue> donors) {
+    int count = 0;
+    for (val donor : donors) {
+      if (donor.getStatus().equalsIgnoreCase("alive")) {
+        count++;
+      }
+    }
+
+    return count;
+  }
+
+}
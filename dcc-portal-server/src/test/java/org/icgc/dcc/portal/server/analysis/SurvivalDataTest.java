@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2018 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.portal.server.analysis;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import lombok.val;
+
+public class SurvivalDataTest {
+
+  @Test
+  public void testBuildSortsByTimeKeepingTies() {
+    val data = SurvivalData.builder(2)
+        .add("DO1", "alive", 10, false)
+        .add("DO2", "deceased", 3, true)
+        .add("DO3", "deceased", 10, true)
+        .add("DO4", "alive", 3, false)
+        .build(true);
+
+    assertThat(data.size()).isEqualTo(4);
+    assertThat(data.getIds()).containsExactly("DO2", "DO4", "DO1", "DO3");
+    assertThat(data.getTimes()).containsExactly(3, 3, 10, 10);
+    assertThat(data.getDeceased()).containsExactly(true, false, false, true);
+    assertThat(data.getDeceasedCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void testBuildUnsorted() {
+    val data = SurvivalData.builder(0)
+        .add("DO1", "alive", 10, false)
+        .add("DO2", "deceased", 3, true)
+        .build(false);
+
+    assertThat(data.getIds()).containsExactly("DO1", "DO2");
+    assertThat(data.getStatuses()).containsExactly("alive", "deceased");
+  }
+
+}
@@ -19,6 +19,11 @@ package org.icgc.dcc.portal.server.analysis;
 
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.icgc.dcc.portal.server.analysis.KaplanMeierTest.randomData;
+
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
 
 import org.assertj.core.data.Offset;
 import static org.icgc.dcc.portal.server.analysis.KaplanMeier.DonorValue;
@@ -109,6 +114,67 @@ public class SurvivalLogRankTest {
     assertThat(stats.getPValue()).isLessThan(0.001);
   }
 
+  @Test
+  public void runTestEquivalence() {
+    val random = new Random(1);
+    for (int n = 0; n < 20; n++) {
+      val data = asList(randomData(random, 50), randomData(random, 200), randomData(random, 120));
+      val stats = new SurvivalLogRank(data).runLogRankTest();
+
+      assertThat(stats.getChiSquared()).isCloseTo(referenceChiSquared(data), Offset.offset(1e-9));
+    }
+  }
+
+  /**
+   * Log-rank chi squared over a map of time to per set died / censured counts.
+   */
+  private static double referenceChiSquared(List<SurvivalData> data) {
+    val numSets = data.size();
+    val samples = new TreeMap<Integer, int[][]>();
+    val alive = new int[numSets];
+    val observed = new int[numSets];
+    int largestTime = 0;
+    for (int i = 0; i < numSets; i++) {
+      val set = data.get(i);
+      alive[i] = set.size();
+      for (int j = 0; j < set.size(); j++) {
+        val time = set.getTimes()[j];
+        val sample = samples.computeIfAbsent(time, t -> new int[2][numSets]);
+        if (set.getDeceased()[j]) {
+          largestTime = Math.max(largestTime, time);
+          sample[0][i]++;
+          observed[i]++;
+        } else {
+          sample[1][i]++;
+        }
+      }
+    }
+
+    val expectedSums = new double[numSets];
+    for (val entry : samples.entrySet()) {
+      if (entry.getKey() > largestTime) break;
+
+      int totalDied = 0;
+      int totalAlive = 0;
+      for (int i = 0; i < numSets; i++) {
+        totalDied += entry.getValue()[0][i];
+        totalAlive += alive[i];
+      }
+
+      for (int i = 0; i < numSets; i++) {
+        expectedSums[i] += totalDied * ((double) alive[i] / (double) totalAlive);
+        alive[i] = alive[i] - entry.getValue()[0][i] - entry.getValue()[1][i];
+      }
+    }
+
+    double chiSquared = 0;
+    for (int i = 0; i < numSets; i++) {
+      chiSquared += Math.pow(observed[i] - expectedSums[i], 2.0) / expectedSums[i];
+    }
+
+    return chiSquared;
+  }
+
   private DonorValue cAt(int time) {
     return new DonorValue("1", "alive", time, false);
   }
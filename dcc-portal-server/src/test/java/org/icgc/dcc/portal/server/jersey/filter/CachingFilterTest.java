@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2018 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.portal.server.jersey.filter;
+
+import static javax.ws.rs.core.HttpHeaders.AUTHORIZATION;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+
+import javax.ws.rs.core.Cookie;
+import javax.ws.rs.core.EntityTag;
+
+import org.icgc.dcc.portal.server.config.ServerProperties.AuthProperties;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.sun.jersey.core.util.MultivaluedMapImpl;
+import com.sun.jersey.spi.container.ContainerRequest;
+
+import lombok.val;
+
+public class CachingFilterTest {
+
+  private static final Date RELEASE_DATE = new Date(1000L);
+
+  @Test
+  public void testParameterOrderIsIgnored() {
+    val first = tag(RELEASE_DATE, "v1/donors", params("from", "1", "size", "10"), null, null);
+    val second = tag(RELEASE_DATE, "v1/donors", params("size", "10", "from", "1"), null, null);
+
+    assertThat(first).isEqualTo(second);
+  }
+
+  @Test
+  public void testRequestChangesTag() {
+    val tag = tag(RELEASE_DATE, "v1/donors", params("size", "10"), null, null);
+
+    assertThat(tag(RELEASE_DATE, "v1/genes", params("size", "10"), null, null)).isNotEqualTo(tag);
+    assertThat(tag(RELEASE_DATE, "v1/donors", params("size", "20"), null, null)).isNotEqualTo(tag);
+    assertThat(tag(new Date(2000L), "v1/donors", params("size", "10"), null, null)).isNotEqualTo(tag);
+  }
+
+  @Test
+  public void testCredentialsChangeTag() {
+    val anonymous = tag(RELEASE_DATE, "v1/donors", params(), null, null);
+    val bearer = tag(RELEASE_DATE, "v1/donors", params(), "Bearer a", null);
+    val session = tag(RELEASE_DATE, "v1/donors", params(), null, "a");
+
+    assertThat(bearer).isNotEqualTo(anonymous);
+    assertThat(session).isNotEqualTo(anonymous);
+    assertThat(tag(RELEASE_DATE, "v1/donors", params(), "Bearer b", null)).isNotEqualTo(bearer);
+    assertThat(tag(RELEASE_DATE, "v1/donors", params(), null, "b")).isNotEqualTo(session);
+  }
+
+  private static EntityTag tag(Date releaseDate, String path, MultivaluedMapImpl params, String authorization,
+      String sessionToken) {
+    val request = mock(ContainerRequest.class);
+    when(request.getPath()).thenReturn(path);
+    when(request.getQueryParameters()).thenReturn(params);
+    when(request.getRequestHeader(AUTHORIZATION))
+        .thenReturn(authorization == null ? null : ImmutableList.of(authorization));
+
+    Map<String, Cookie> cookies = sessionToken == null ?
+        Collections.<String, Cookie> emptyMap() :
+        ImmutableMap.of(AuthProperties.SESSION_TOKEN_NAME, new Cookie(AuthProperties.SESSION_TOKEN_NAME, sessionToken));
+    when(request.getCookies()).thenReturn(cookies);
+
+    return CachingFilter.entityTag(request, releaseDate);
+  }
+
+  private static MultivaluedMapImpl params(String... namesAndValues) {
+    val params = new MultivaluedMapImpl();
+    for (int i = 0; i < namesAndValues.length; i += 2) {
+      params.add(namesAndValues[i], namesAndValues[i + 1]);
+    }
+
+    return params;
+  }
+
+}
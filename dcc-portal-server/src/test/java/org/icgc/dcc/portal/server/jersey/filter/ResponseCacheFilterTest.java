@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2018 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+package org.icgc.dcc.portal.server.jersey.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.Test;
+
+import com.sun.jersey.core.header.OutBoundHeaders;
+import com.sun.jersey.spi.container.ContainerResponse;
+
+import lombok.val;
+
+public class ResponseCacheFilterTest {
+
+  @Test
+  public void testPlainResponseIsCacheable() {
+    assertThat(ResponseCacheFilter.isCacheable(response(200, "Content-Type", "application/json"))).isTrue();
+  }
+
+  @Test
+  public void testAttachmentIsNotCacheable() {
+    // Would lose the file name on a hit
+    val response = response(200, "content-disposition", "attachment; filename=\"samples.tsv\"");
+
+    assertThat(ResponseCacheFilter.isCacheable(response)).isFalse();
+  }
+
+  @Test
+  public void testCookieIsNotCacheable() {
+    assertThat(ResponseCacheFilter.isCacheable(response(200, "Set-Cookie", "a=b"))).isFalse();
+  }
+
+  @Test
+  public void testErrorIsNotCacheable() {
+    assertThat(ResponseCacheFilter.isCacheable(response(404, "Content-Type", "application/json"))).isFalse();
+  }
+
+  private static ContainerResponse response(int status, String header, String value) {
+    val headers = new OutBoundHeaders();
+    headers.putSingle(header, value);
+
+    val response = mock(ContainerResponse.class);
+    when(response.getStatus()).thenReturn(status);
+    when(response.getEntity()).thenReturn("{}");
+    when(response.getHttpHeaders()).thenReturn(headers);
+
+    return response;
+  }
+
+}
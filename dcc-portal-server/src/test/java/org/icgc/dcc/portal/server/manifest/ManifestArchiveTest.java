@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2018 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.portal.server.manifest;
+
+import static com.google.common.base.Strings.repeat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.junit.Test;
+
+import com.google.common.collect.Maps;
+import com.google.common.io.ByteSource;
+import com.google.common.io.ByteStreams;
+
+import lombok.Cleanup;
+import lombok.val;
+
+public class ManifestArchiveTest {
+
+  @Test
+  public void testAddManifest() throws IOException {
+    val output = new ByteArrayOutputStream();
+    try (ManifestArchive archive = new ManifestArchive(output)) {
+      archive.addManifest("manifest.collab.1.tsv", ByteSource.wrap("a\tb\n".getBytes(UTF_8)));
+      archive.addManifest("manifest.pcawg-heidelberg.1.xml", ByteSource.wrap("<ResultSet/>".getBytes(UTF_8)));
+    }
+
+    val entries = readEntries(output.toByteArray());
+    assertThat(entries.keySet()).containsExactly("manifest.collab.1.tsv", "manifest.pcawg-heidelberg.1.xml");
+    assertThat(entries).containsEntry("manifest.collab.1.tsv", "a\tb\n");
+    assertThat(entries).containsEntry("manifest.pcawg-heidelberg.1.xml", "<ResultSet/>");
+  }
+
+  @Test
+  public void testLongFileName() throws IOException {
+    // Longer than the 100 characters of a plain tar header
+    val fileName = "manifest." + repeat("x", 120) + ".1.tsv";
+
+    val output = new ByteArrayOutputStream();
+    try (ManifestArchive archive = new ManifestArchive(output)) {
+      archive.addManifest(fileName, ByteSource.empty());
+    }
+
+    val entries = readEntries(output.toByteArray());
+    assertThat(entries.keySet()).containsExactly(fileName);
+    assertThat(entries).containsEntry(fileName, "");
+  }
+
+  private static Map<String, String> readEntries(byte[] archive) throws IOException {
+    @Cleanup
+    val tar = new TarArchiveInputStream(new GZIPInputStream(new ByteArrayInputStream(archive)));
+
+    val entries = Maps.<String, String> newLinkedHashMap();
+    TarArchiveEntry entry;
+    while ((entry = tar.getNextTarEntry()) != null) {
+      entries.put(entry.getName(), new String(ByteStreams.toByteArray(tar), UTF_8));
+    }
+
+    return entries;
+  }
+
+}
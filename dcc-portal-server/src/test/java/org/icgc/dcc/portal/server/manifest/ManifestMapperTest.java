@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2018 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.portal.server.manifest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.icgc.dcc.common.core.json.Jackson.DEFAULT;
+import static org.icgc.dcc.common.core.util.stream.Collectors.toImmutableList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.elasticsearch.search.SearchHit;
+import org.icgc.dcc.portal.server.manifest.model.ManifestFile;
+import org.icgc.dcc.portal.server.model.Repository;
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.google.common.collect.ImmutableList;
+
+import lombok.val;
+
+public class ManifestMapperTest {
+
+  private static final String HIT = (""
+      + "{"
+      + "  'id': 'FI1',"
+      + "  'object_id': 'uuid-1',"
+      + "  'study': ['PCAWG'],"
+      + "  'data_bundle': {'data_bundle_id': 'bundle-1'},"
+      + "  'file_copies': ["
+      + "    {'repo_code': 'pcawg-heidelberg', 'repo_type': 'GNOS', 'repo_data_bundle_id': 'gnos-bundle-1',"
+      + "     'repo_file_id': 'gnos-file-1', 'repo_base_url': 'https://gnos/', 'repo_data_path': '/download/',"
+      + "     'file_name': 'a.bam', 'file_format': 'BAM', 'file_size': 10, 'file_md5sum': 'md5-a',"
+      + "     'index_file': {'object_id': 'uuid-2'}},"
+      + "    {'repo_code': 'collab', 'repo_type': 'S3', 'repo_file_id': 'collab-file-1',"
+      + "     'repo_base_url': 'https://collab/', 'repo_data_path': '/oicr.icgc/data/',"
+      + "     'file_name': 'a.bam', 'file_format': 'BAM', 'file_size': 10, 'file_md5sum': 'md5-a'},"
+      + "    {'repo_code': 'song-pdc', 'repo_type': 'S3', 'repo_file_id': 'pdc-file-1',"
+      + "     'repo_base_url': 'https://pdc/', 'repo_data_path': '//path//',"
+      + "     'file_name': 'a.bam', 'file_format': 'BAM', 'file_size': 10, 'file_md5sum': 'md5-a'}"
+      + "  ],"
+      + "  'donors': ["
+      + "    {'donor_id': 'DO1', 'project_code': 'BRCA-US'}"
+      + "  ]"
+      + "}").replace('\'', '"');
+
+  ManifestMapper mapper = new ManifestMapper(ImmutableList.of(
+      repo("pcawg-heidelberg", "GNOS"),
+      repo("collab", "S3"),
+      repo("pdc", "PDC")));
+
+  @Test
+  public void testMap() throws IOException {
+    val files = map(HIT);
+
+    assertThat(files).extracting("repoCode").containsExactly("pcawg-heidelberg", "collab", "pdc");
+    for (val file : files) {
+      assertThat(file.getId()).isEqualTo("FI1");
+      assertThat(file.getObjectId()).isEqualTo("uuid-1");
+      assertThat(file.getStudy()).isEqualTo("PCAWG");
+      assertThat(file.getDataBundleId()).isEqualTo("bundle-1");
+      assertThat(file.getDonorId()).isEqualTo("DO1");
+      assertThat(file.getProjectCode()).isEqualTo("BRCA-US");
+      assertThat(file.getName()).isEqualTo("a.bam");
+      assertThat(file.getSize()).isEqualTo(10L);
+      assertThat(file.getMd5sum()).isEqualTo("md5-a");
+    }
+  }
+
+  @Test
+  public void testMapRepoFileId() throws IOException {
+    val files = map(HIT);
+
+    // GNOS copies are identified by their bundle
+    assertThat(files).extracting("repoFileId").containsExactly("gnos-bundle-1", "collab-file-1", "pdc-file-1");
+    assertThat(files).extracting("indexObjectId").containsExactly("uuid-2", "", "");
+  }
+
+  @Test
+  public void testMapSongPdcCopy() throws IOException {
+    val pdc = map(HIT).get(2);
+
+    assertThat(pdc.getRepoCode()).isEqualTo("pdc");
+    assertThat(pdc.getRepoDataPath()).isEqualTo("pcawg-tcga-brca-us/path");
+  }
+
+  @Test
+  public void testGetIndexRepoCodes() {
+    assertThat(ManifestMapper.getIndexRepoCodes("pdc")).containsExactly("pdc", "song-pdc");
+    assertThat(ManifestMapper.getIndexRepoCodes("collab")).containsExactly("collab");
+  }
+
+  private List<ManifestFile> map(String json) throws IOException {
+    Map<String, Object> source = DEFAULT.readValue(json, new TypeReference<Map<String, Object>>() {});
+
+    val hit = mock(SearchHit.class);
+    when(hit.sourceAsString()).thenReturn(json);
+    when(hit.getSource()).thenReturn(source);
+
+    return mapper.map(hit).collect(toImmutableList());
+  }
+
+  private static Repository repo(String code, String type) {
+    val repo = new Repository();
+    repo.setCode(code);
+    repo.setType(type);
+
+    return repo;
+  }
+
+}
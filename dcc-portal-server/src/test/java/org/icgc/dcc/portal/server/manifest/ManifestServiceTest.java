@@ -36,6 +36,7 @@ import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Stream;
 import java.util.zip.GZIPInputStream;
 
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -43,9 +44,12 @@ import javax.xml.parsers.DocumentBuilderFactory;
 import org.apache.commons.compress.archivers.ArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 import org.apache.commons.io.IOUtils;
+import org.dcc.portal.pql.query.QueryCache;
+import org.dcc.portal.pql.query.TermsLookupCache;
 import org.assertj.core.api.Assertions;
 import org.icgc.dcc.portal.server.config.ServerProperties;
 import org.icgc.dcc.portal.server.manifest.model.Manifest;
+import org.icgc.dcc.portal.server.manifest.model.ManifestFile;
 import org.icgc.dcc.portal.server.manifest.model.ManifestFormat;
 import org.icgc.dcc.portal.server.model.Repository;
 import org.icgc.dcc.portal.server.model.param.FiltersParam;
@@ -141,7 +145,8 @@ public class ManifestServiceTest extends BaseElasticsearchTest {
             new ServerProperties(),
             repositories,
             mock(ManifestRepository.class),
-            new FileRepository(client, REPOSITORY_INDEX_NAME, new IndexService()),
+            new FileRepository(client, REPOSITORY_INDEX_NAME, new IndexService(), new QueryCache(),
+                new TermsLookupCache(client)),
             entitySetService);
   }
 
@@ -196,6 +201,70 @@ public class ManifestServiceTest extends BaseElasticsearchTest {
 
   }
 
+  @Test
+  public void testUniqueSelectsHighestPriorityCopy() {
+    val context = context(true, "collab", "aws-virginia");
+
+    Assertions.assertThat(selectFiles(context, "collab")).extracting("repoCode").containsExactly("collab");
+    Assertions.assertThat(selectFiles(context, "aws-virginia")).isEmpty();
+  }
+
+  @Test
+  public void testUniqueWithoutPrioritiesSelectsFirstRepoCode() {
+    val context = context(true);
+
+    Assertions.assertThat(selectFiles(context, "aws-virginia")).extracting("repoCode").containsExactly("aws-virginia");
+    Assertions.assertThat(selectFiles(context, "collab")).isEmpty();
+  }
+
+  @Test
+  public void testNonUniqueSelectsEveryActiveCopy() {
+    val context = context(false, "collab", "aws-virginia");
+
+    Assertions.assertThat(selectFiles(context, "collab")).extracting("repoCode").containsExactly("collab");
+    Assertions.assertThat(selectFiles(context, "aws-virginia")).extracting("repoCode").containsExactly("aws-virginia");
+    Assertions.assertThat(selectFiles(context(false, "collab"), "aws-virginia")).isEmpty();
+  }
+
+  @Test
+  public void testBundleGroupsAdjacentFilesByUrl() {
+    val files = ImmutableList.of(
+        new ManifestFile().setName("a1").setRepoDataPath("a"),
+        new ManifestFile().setName("a2").setRepoDataPath("a"),
+        new ManifestFile().setName("b1").setRepoDataPath("b"),
+        new ManifestFile().setName("a3").setRepoDataPath("a"));
+
+    val bundles = ImmutableList.copyOf(ManifestService.bundle(files.iterator(), ManifestFile::getRepoDataPath));
+
+    Assertions.assertThat(bundles).extracting("url").containsExactly("a", "b", "a");
+    Assertions.assertThat(bundles.get(0).getFiles()).extracting("name").containsExactly("a1", "a2");
+    Assertions.assertThat(bundles.get(1).getFiles()).extracting("name").containsExactly("b1");
+    Assertions.assertThat(bundles.get(2).getFiles()).extracting("name").containsExactly("a3");
+  }
+
+  @Test
+  public void testBundleOfNoFiles() {
+    val bundles = ManifestService.bundle(Collections.<ManifestFile> emptyIterator(), ManifestFile::getRepoDataPath);
+
+    Assertions.assertThat(bundles.hasNext()).isFalse();
+  }
+
+  private static ManifestContext context(boolean unique, String... repos) {
+    return new ManifestContext(new Manifest().setUnique(unique).setRepos(ImmutableList.copyOf(repos)), null);
+  }
+
+  private static List<ManifestFile> selectFiles(ManifestContext context, String repoCode) {
+    val repo = new Repository();
+    repo.setCode(repoCode);
+
+    // Copies of the same file, as mapped from a single hit
+    val copies = Stream.of(
+        new ManifestFile().setId("FI1").setRepoCode("aws-virginia"),
+        new ManifestFile().setId("FI1").setRepoCode("collab"));
+
+    return ManifestService.selectFiles(context, repo, copies);
+  }
+
   private static boolean isXmlFile(String fileName) {
     return XML_FILE_EXTENSION.equalsIgnoreCase(getFileExtension(fileName));
   }
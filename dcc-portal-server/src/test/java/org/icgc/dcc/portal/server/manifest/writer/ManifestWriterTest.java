@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2018 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.portal.server.manifest.writer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.icgc.dcc.portal.server.manifest.model.ManifestBundle;
+import org.icgc.dcc.portal.server.manifest.model.ManifestFile;
+import org.junit.Test;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+
+import lombok.val;
+
+/**
+ * Tests the manifest writers, which consume the bundles as they stream by.
+ */
+public class ManifestWriterTest {
+
+  private static final List<ManifestBundle> BUNDLES = ImmutableList.of(
+      new ManifestBundle("https://repo/data/b1", ImmutableList.of(
+          file("FI1", "a.bam", "bundle-1", "r1"),
+          file("FI2", "a.bam.bai", "bundle-1", "r2"))),
+      new ManifestBundle("https://repo/data/b2", ImmutableList.of(
+          file("FI3", "b.vcf", "bundle-2", "r3"))));
+
+  @Test
+  public void testGenericWritesRowPerBundle() {
+    val lines = lines(output -> GenericManifestWriter.write(output, BUNDLES));
+
+    assertThat(lines).containsExactly(
+        "url\tfile_name\tfile_size\tmd5_sum\tstudy",
+        "https://repo/data/b1\ta.bam,a.bam.bai\t1,1\tmd5-FI1,md5-FI2\tPCAWG,PCAWG",
+        "https://repo/data/b2\tb.vcf\t1\tmd5-FI3\tPCAWG");
+  }
+
+  @Test
+  public void testICGCWritesRowPerBundle() {
+    val lines = lines(output -> ICGCManifestWriter.write(output, BUNDLES));
+
+    assertThat(lines).hasSize(3);
+    assertThat(lines.get(1)).startsWith("collab,collab\tFI1,FI2\t");
+    assertThat(lines.get(2)).startsWith("collab\tFI3\t");
+  }
+
+  @Test
+  public void testGDCWritesRowPerFile() {
+    val bundles = ImmutableList.of(
+        new ManifestBundle("r1", ImmutableList.of(file("FI1", "a.bam", "bundle-1", "r1"))),
+        new ManifestBundle("r3", ImmutableList.of(file("FI3", "b.vcf", "bundle-2", "r3"))));
+    val lines = lines(output -> GDCManifestWriter.write(output, bundles));
+
+    assertThat(lines).containsExactly(
+        "id\tfilename\tmd5\tsize\tstate",
+        "r1\ta.bam\tmd5-FI1\t1\tsubmitted",
+        "r3\tb.vcf\tmd5-FI3\t1\tsubmitted");
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testGDCRejectsBundles() {
+    GDCManifestWriter.write(new ByteArrayOutputStream(), BUNDLES);
+  }
+
+  @Test
+  public void testGNOSWritesResultPerBundle() {
+    val xml = write(output -> GNOSManifestWriter.write(output, BUNDLES, 0L));
+
+    assertThat(xml).contains("<Result id=\"1\">", "<Result id=\"2\">").doesNotContain("<Result id=\"3\">");
+    assertThat(xml).contains("<analysis_id>bundle-1</analysis_id>", "<analysis_id>bundle-2</analysis_id>");
+    assertThat(xml).contains("<analysis_data_uri>https://repo/data/b1</analysis_data_uri>");
+    assertThat(xml).contains("<filename>a.bam.bai</filename>");
+  }
+
+  @Test
+  public void testPDCWritesCommandPerBundle() {
+    val script = write(output -> PDCManifestWriter.write(output, BUNDLES));
+
+    assertThat(script)
+        .contains("--endpoint-url https://repo s3 cp s3://data/b1 .\n")
+        .contains("--endpoint-url https://repo s3 cp s3://data/b2 .\n");
+  }
+
+  @Test
+  public void testEGAWritesEveryFile() {
+    val script = write(output -> EGAManifestWriter.write(output, BUNDLES));
+
+    assertThat(script).contains("r1 r2 r3", "{r1=FI1, r2=FI2, r3=FI3}");
+  }
+
+  private static String write(Consumer<OutputStream> writer) {
+    val output = new ByteArrayOutputStream();
+    writer.accept(output);
+
+    return new String(output.toByteArray(), UTF_8);
+  }
+
+  private static List<String> lines(Consumer<OutputStream> writer) {
+    return Splitter.onPattern("\r?\n").omitEmptyStrings().splitToList(write(writer));
+  }
+
+  private static ManifestFile file(String id, String name, String bundleId, String repoFileId) {
+    return new ManifestFile()
+        .setId(id)
+        .setName(name)
+        .setSize(1L)
+        .setMd5sum("md5-" + id)
+        .setStudy("PCAWG")
+        .setDataBundleId(bundleId)
+        .setRepoFileId(repoFileId)
+        .setRepoCode("collab");
+  }
+
+}
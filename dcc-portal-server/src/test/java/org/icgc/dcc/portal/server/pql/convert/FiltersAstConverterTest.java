@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2015 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.portal.server.pql.convert;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.dcc.portal.pql.query.PqlParser.parse;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.dcc.portal.pql.ast.StatementNode;
+import org.dcc.portal.pql.meta.Type;
+import org.icgc.dcc.portal.server.model.Query;
+import org.icgc.dcc.portal.server.model.param.FiltersParam;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Differential test between the string based {@link Jql2PqlConverter#convert(Query, Type)} path (which is re-parsed)
+ * and the direct {@link Jql2PqlConverter#convertAst(Query, Type)} path.
+ */
+@Slf4j
+public class FiltersAstConverterTest {
+
+  private static final Jql2PqlConverter CONVERTER = Jql2PqlConverter.getInstance();
+
+  private static final List<Type> TYPES = ImmutableList.of(
+      Type.DONOR_CENTRIC,
+      Type.GENE_CENTRIC,
+      Type.MUTATION_CENTRIC,
+      Type.OBSERVATION_CENTRIC,
+      Type.PROJECT,
+      Type.FILE);
+
+  private static final List<String> FILTERS = ImmutableList.of(
+      "{donor:{id:{is:'DO1'}}}",
+      "{donor:{id:{is:['DO1']}}}",
+      "{donor:{id:{is:['DO1', 'DO2']}}}",
+      "{donor:{id:{not:'DO1'}}}",
+      "{donor:{id:{is:1}}}",
+      "{donor:{id:{is:['DO1', 'DO3'], not:['DO2']}}}",
+      "{donor:{id:{is:['_missing']}}}",
+      "{donor:{id:{not:['_missing','DO1']}}}",
+      "{donor:{hasPathway:true}}",
+      "{donor:{id:{is:'DO1'}},mutation:{id:{is:'MU1'},consequenceType:{is:'start_lost'}}}",
+      "{gene:{id:{all:['G1','G2','G3']}}}",
+      "{gene:{id:{is:'G1'},start:{is:123}}}",
+      "{gene:{id:{is:'G1'}},mutation:{id:{is:'M1'}}}",
+      "{gene:{hasPathway:true,goTermId:{is:['123']}}}",
+      "{gene:{pathwayId:{is:['123']},hasCompound:true}}",
+      "{gene:{hasPathway:true},mutation:{consequenceType:{is:['sl']}}}",
+      "{gene:{curatedSetId:{is:['GS1']}},mutation:{consequenceType:{is:['sl']}}}",
+      "{gene:{geneSetId:{is:['REACT_111155']}}}",
+      "{gene:{location:{is:['chr12:43566-3457633']}}}",
+      "{mutation:{platform:{is:['p']},functionalImpact:{is:['f']}}}",
+      "{mutation:{location:{is:['chr1:100-200']}}}",
+      "{project:{id:{is:['p']}},mutation:{consequenceType:{is:['sl']}}}",
+      "{project:{primaryCountries:{is:['US']},id:{is:'P1'},primarySite:{is:'Blood'}}}",
+      "{file:{donorId:{is:['DO1']},study:{is:['PCAWG']}}}",
+      "{donor:{id:{is:['ES:abc']}}}",
+      "{gene:{id:{is:['ES:abc','G1']}}}");
+
+  @Test
+  public void convertTest() {
+    for (val filters : FILTERS) {
+      for (val type : TYPES) {
+        val query = Query.builder()
+            .filters(new FiltersParam(filters).get())
+            .build();
+
+        assertEquivalent(query, type);
+      }
+    }
+  }
+
+  @Test
+  public void convertWithFieldsSortLimitTest() {
+    for (val filters : FILTERS) {
+      val query = Query.builder()
+          .fields(ImmutableList.of("id", "age"))
+          .includes(singletonList("facets"))
+          .filters(new FiltersParam(filters).get())
+          .sort("id")
+          .order("desc")
+          .from(10)
+          .size(100)
+          .build();
+
+      assertEquivalent(query, Type.DONOR_CENTRIC);
+    }
+  }
+
+  @Test
+  public void convertCountTest() {
+    for (val filters : FILTERS) {
+      for (val type : TYPES) {
+        val query = Query.builder()
+            .filters(new FiltersParam(filters).get())
+            .includes(singletonList("facets"))
+            .build();
+
+        assertCountEquivalent(query, type);
+      }
+    }
+  }
+
+  private static void assertEquivalent(Query query, Type type) {
+    assertEquivalent(query, type,
+        () -> parse(CONVERTER.convert(query, type)),
+        () -> CONVERTER.convertAst(query, type));
+  }
+
+  private static void assertCountEquivalent(Query query, Type type) {
+    assertEquivalent(query, type,
+        () -> parse(CONVERTER.convertCount(query, type)),
+        () -> CONVERTER.convertCountAst(query, type));
+  }
+
+  /**
+   * Both paths must either fail or produce the same PQL.
+   */
+  private static void assertEquivalent(Query query, Type type, Supplier<StatementNode> stringPath,
+      Supplier<StatementNode> astPath) {
+    val expected = convert(stringPath);
+    val actual = convert(astPath);
+    log.debug("{} for {}: {} -> {}", query.getFilters(), type, expected, actual);
+
+    assertThat(actual).as("%s for %s", query.getFilters(), type).isEqualTo(expected);
+  }
+
+  private static Optional<String> convert(Supplier<StatementNode> path) {
+    try {
+      return Optional.of(path.get().toString());
+    } catch (RuntimeException e) {
+      log.debug("Conversion failed: {}", e.getMessage());
+      return Optional.empty();
+    }
+  }
+
+}
@@ -20,6 +20,7 @@ import org.icgc.dcc.portal.server.model.Project;
 import org.icgc.dcc.portal.server.model.Projects;
 import org.icgc.dcc.portal.server.model.Query;
 import org.mockito.Matchers;
+import org.mockito.stubbing.Answer;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -29,11 +30,8 @@ import lombok.val;
 
 public class ResourceTests {
 
-  public static final LinkedHashMap<String, Long> COUNT_MAP_REQUEST = Maps.newLinkedHashMap();
   public static final LinkedHashMap<String, LinkedHashMap<String, Long>> NESTED_MAP_REQUEST = Maps.newLinkedHashMap();
   static {
-    COUNT_MAP_REQUEST.put("A", 1L);
-    COUNT_MAP_REQUEST.put("B", 1L);
     NESTED_MAP_REQUEST.put("A", Maps.<String, Long> newLinkedHashMap());
     NESTED_MAP_REQUEST.put("B", Maps.<String, Long> newLinkedHashMap());
     NESTED_MAP_REQUEST.get("A").put("AA", 1L);
@@ -42,6 +40,12 @@ public class ResourceTests {
     NESTED_MAP_REQUEST.get("B").put("BB", 1L);
   }
 
+  public static final LinkedHashMap<String, Long> TOTAL_MAP_REQUEST = Maps.newLinkedHashMap();
+  static {
+    TOTAL_MAP_REQUEST.put("A", 2L);
+    TOTAL_MAP_REQUEST.put("B", 2L);
+  }
+
   public static final LinkedHashMap<String, Long> COUNT_MAP_RESULT = Maps.newLinkedHashMap();
   public static final LinkedHashMap<String, LinkedHashMap<String, Long>> NESTED_MAP_RESULT = Maps.newLinkedHashMap();
   static {
@@ -68,6 +72,22 @@ public class ResourceTests {
     return Matchers.any(LinkedHashMap.class);
   }
 
+  /**
+   * Answers a counts multi search with 1 for each id and 2 for the {@code Total} query sent along with them.
+   */
+  @SuppressWarnings("unchecked")
+  public static Answer<LinkedHashMap<String, Long>> countsWithTotal() {
+    return invocation -> {
+      val queries = (LinkedHashMap<String, Query>) invocation.getArguments()[0];
+      val counts = Maps.<String, Long> newLinkedHashMap();
+      for (val key : queries.keySet()) {
+        counts.put(key, "Total".equals(key) ? 2L : 1L);
+      }
+
+      return counts;
+    };
+  }
+
   public static final Project PROJECT = new Project(Maps.<String, Object> newHashMap());
 
   public static final Projects PROJECTS = new Projects(Lists.<Project> newArrayList(PROJECT));
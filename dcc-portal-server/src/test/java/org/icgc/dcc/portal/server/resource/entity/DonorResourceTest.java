@@ -17,7 +17,7 @@
 
 package org.icgc.dcc.portal.server.resource.entity;
 
-import static org.icgc.dcc.portal.server.resource.ResourceTests.COUNT_MAP_REQUEST;
+import static java.util.concurrent.CompletableFuture.completedFuture;
 import static org.icgc.dcc.portal.server.resource.ResourceTests.COUNT_MAP_RESULT;
 import static org.icgc.dcc.portal.server.resource.ResourceTests.DONOR;
 import static org.icgc.dcc.portal.server.resource.ResourceTests.DONORS;
@@ -25,11 +25,13 @@ import static org.icgc.dcc.portal.server.resource.ResourceTests.GENES;
 import static org.icgc.dcc.portal.server.resource.ResourceTests.MUTATIONS;
 import static org.icgc.dcc.portal.server.resource.ResourceTests.NESTED_MAP_REQUEST;
 import static org.icgc.dcc.portal.server.resource.ResourceTests.NESTED_MAP_RESULT;
+import static org.icgc.dcc.portal.server.resource.ResourceTests.TOTAL_MAP_REQUEST;
 import static org.icgc.dcc.portal.server.resource.ResourceTests.anyCountQuery;
 import static org.icgc.dcc.portal.server.resource.ResourceTests.anyNestedCountQuery;
 import static org.icgc.dcc.portal.server.resource.ResourceTests.assertEntityEquals;
 import static org.icgc.dcc.portal.server.resource.ResourceTests.assertEntityInstanceOf;
 import static org.icgc.dcc.portal.server.resource.ResourceTests.assertOK;
+import static org.icgc.dcc.portal.server.resource.ResourceTests.countsWithTotal;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.when;
 
@@ -132,8 +134,7 @@ public class DonorResourceTest extends ResourceTest {
 
   @Test
   public void test_countsGenes() throws IOException {
-    when(geneService.counts(anyCountQuery())).thenReturn(COUNT_MAP_REQUEST);
-    when(geneService.count(any(Query.class))).thenReturn(2L);
+    when(geneService.counts(anyCountQuery())).thenAnswer(countsWithTotal());
 
     val response = resource("A,B/genes/counts");
 
@@ -152,8 +153,8 @@ public class DonorResourceTest extends ResourceTest {
 
   @Test
   public void test_countsGeneMutations() throws IOException {
-    when(mutationService.nestedCounts(anyNestedCountQuery())).thenReturn(NESTED_MAP_REQUEST);
-    when(mutationService.count(any(Query.class))).thenReturn(2L);
+    when(mutationService.nestedCountsAsync(anyNestedCountQuery())).thenReturn(completedFuture(NESTED_MAP_REQUEST));
+    when(mutationService.countsAsync(anyCountQuery())).thenReturn(completedFuture(TOTAL_MAP_REQUEST));
 
     val response = resource("A,B/genes/AA,BB/mutations/counts");
 
@@ -182,8 +183,7 @@ public class DonorResourceTest extends ResourceTest {
 
   @Test
   public void test_countsMutations() throws IOException {
-    when(mutationService.counts(anyCountQuery())).thenReturn(COUNT_MAP_REQUEST);
-    when(mutationService.count(any(Query.class))).thenReturn(2L);
+    when(mutationService.counts(anyCountQuery())).thenAnswer(countsWithTotal());
 
     val response = resource("A,B/mutations/counts");
 
@@ -202,8 +202,8 @@ public class DonorResourceTest extends ResourceTest {
 
   @Test
   public void test_countsMutationGenes() throws IOException {
-    when(geneService.nestedCounts(anyNestedCountQuery())).thenReturn(NESTED_MAP_REQUEST);
-    when(geneService.count(any(Query.class))).thenReturn(2L);
+    when(geneService.nestedCountsAsync(anyNestedCountQuery())).thenReturn(completedFuture(NESTED_MAP_REQUEST));
+    when(geneService.countsAsync(anyCountQuery())).thenReturn(completedFuture(TOTAL_MAP_REQUEST));
 
     val response = resource("A,B/mutations/AA,BB/genes/counts");
 
@@ -17,7 +17,7 @@
 
 package org.icgc.dcc.portal.server.resource.entity;
 
-import static org.icgc.dcc.portal.server.resource.ResourceTests.COUNT_MAP_REQUEST;
+import static java.util.concurrent.CompletableFuture.completedFuture;
 import static org.icgc.dcc.portal.server.resource.ResourceTests.COUNT_MAP_RESULT;
 import static org.icgc.dcc.portal.server.resource.ResourceTests.DONORS;
 import static org.icgc.dcc.portal.server.resource.ResourceTests.GENES;
@@ -25,11 +25,13 @@ import static org.icgc.dcc.portal.server.resource.ResourceTests.MUTATION;
 import static org.icgc.dcc.portal.server.resource.ResourceTests.MUTATIONS;
 import static org.icgc.dcc.portal.server.resource.ResourceTests.NESTED_MAP_REQUEST;
 import static org.icgc.dcc.portal.server.resource.ResourceTests.NESTED_MAP_RESULT;
+import static org.icgc.dcc.portal.server.resource.ResourceTests.TOTAL_MAP_REQUEST;
 import static org.icgc.dcc.portal.server.resource.ResourceTests.anyCountQuery;
 import static org.icgc.dcc.portal.server.resource.ResourceTests.anyNestedCountQuery;
 import static org.icgc.dcc.portal.server.resource.ResourceTests.assertEntityEquals;
 import static org.icgc.dcc.portal.server.resource.ResourceTests.assertEntityInstanceOf;
 import static org.icgc.dcc.portal.server.resource.ResourceTests.assertOK;
+import static org.icgc.dcc.portal.server.resource.ResourceTests.countsWithTotal;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.when;
 
@@ -130,8 +132,7 @@ public class MutationResourceTest extends ResourceTest {
 
   @Test
   public void test_countsDonors() throws IOException {
-    when(donorService.counts(anyCountQuery())).thenReturn(COUNT_MAP_REQUEST);
-    when(donorService.count(any(Query.class))).thenReturn(2L);
+    when(donorService.counts(anyCountQuery())).thenAnswer(countsWithTotal());
 
     val response = resource("A,B/donors/counts");
 
@@ -161,8 +162,7 @@ public class MutationResourceTest extends ResourceTest {
 
   @Test
   public void test_countsGenes() throws IOException {
-    when(geneService.counts(anyCountQuery())).thenReturn(COUNT_MAP_REQUEST);
-    when(geneService.count(any(Query.class))).thenReturn(2L);
+    when(geneService.counts(anyCountQuery())).thenAnswer(countsWithTotal());
 
     val response = resource("A,B/genes/counts");
 
@@ -181,8 +181,8 @@ public class MutationResourceTest extends ResourceTest {
 
   @Test
   public void test_countsGeneDonors() throws IOException {
-    when(donorService.nestedCounts(anyNestedCountQuery())).thenReturn(NESTED_MAP_REQUEST);
-    when(donorService.count(any(Query.class))).thenReturn(2L);
+    when(donorService.nestedCountsAsync(anyNestedCountQuery())).thenReturn(completedFuture(NESTED_MAP_REQUEST));
+    when(donorService.countsAsync(anyCountQuery())).thenReturn(completedFuture(TOTAL_MAP_REQUEST));
 
     val response = resource("A,B/genes/AA,BB/donors/counts");
 
@@ -200,8 +200,8 @@ public class MutationResourceTest extends ResourceTest {
 
   @Test
   public void test_countsProjectDonors() throws IOException {
-    when(donorService.nestedCounts(anyNestedCountQuery())).thenReturn(NESTED_MAP_REQUEST);
-    when(donorService.count(any(Query.class))).thenReturn(2L);
+    when(donorService.nestedCountsAsync(anyNestedCountQuery())).thenReturn(completedFuture(NESTED_MAP_REQUEST));
+    when(donorService.countsAsync(anyCountQuery())).thenReturn(completedFuture(TOTAL_MAP_REQUEST));
 
     val response = resource("A,B/projects/AA,BB/donors/counts");
 
@@ -17,7 +17,7 @@
 
 package org.icgc.dcc.portal.server.resource.entity;
 
-import static org.icgc.dcc.portal.server.resource.ResourceTests.COUNT_MAP_REQUEST;
+import static java.util.concurrent.CompletableFuture.completedFuture;
 import static org.icgc.dcc.portal.server.resource.ResourceTests.COUNT_MAP_RESULT;
 import static org.icgc.dcc.portal.server.resource.ResourceTests.DONORS;
 import static org.icgc.dcc.portal.server.resource.ResourceTests.GENES;
@@ -26,11 +26,13 @@ import static org.icgc.dcc.portal.server.resource.ResourceTests.NESTED_MAP_REQUE
 import static org.icgc.dcc.portal.server.resource.ResourceTests.NESTED_MAP_RESULT;
 import static org.icgc.dcc.portal.server.resource.ResourceTests.PROJECT;
 import static org.icgc.dcc.portal.server.resource.ResourceTests.PROJECTS;
+import static org.icgc.dcc.portal.server.resource.ResourceTests.TOTAL_MAP_REQUEST;
 import static org.icgc.dcc.portal.server.resource.ResourceTests.anyCountQuery;
 import static org.icgc.dcc.portal.server.resource.ResourceTests.anyNestedCountQuery;
 import static org.icgc.dcc.portal.server.resource.ResourceTests.assertEntityEquals;
 import static org.icgc.dcc.portal.server.resource.ResourceTests.assertEntityInstanceOf;
 import static org.icgc.dcc.portal.server.resource.ResourceTests.assertOK;
+import static org.icgc.dcc.portal.server.resource.ResourceTests.countsWithTotal;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.when;
 
@@ -138,8 +140,7 @@ public class ProjectResourceTest extends ResourceTest {
 
   @Test
   public void test_countsDonors() throws IOException {
-    when(donorService.counts(anyCountQuery())).thenReturn(COUNT_MAP_REQUEST);
-    when(donorService.count(any(Query.class))).thenReturn(2L);
+    when(donorService.counts(anyCountQuery())).thenAnswer(countsWithTotal());
 
     val response = resource("A,B/donors/counts");
 
@@ -159,8 +160,8 @@ public class ProjectResourceTest extends ResourceTest {
 
   @Test
   public void test_countsDonorGenes() throws IOException {
-    when(geneService.nestedCounts(anyNestedCountQuery())).thenReturn(NESTED_MAP_REQUEST);
-    when(geneService.count(any(Query.class))).thenReturn(2L);
+    when(geneService.nestedCountsAsync(anyNestedCountQuery())).thenReturn(completedFuture(NESTED_MAP_REQUEST));
+    when(geneService.countsAsync(anyCountQuery())).thenReturn(completedFuture(TOTAL_MAP_REQUEST));
 
     val response = resource("A,B/donors/AA,BB/genes/counts");
 
@@ -179,8 +180,8 @@ public class ProjectResourceTest extends ResourceTest {
 
   @Test
   public void test_countsDonorMutations() throws IOException {
-    when(mutationService.nestedCounts(anyNestedCountQuery())).thenReturn(NESTED_MAP_REQUEST);
-    when(mutationService.count(any(Query.class))).thenReturn(2L);
+    when(mutationService.nestedCountsAsync(anyNestedCountQuery())).thenReturn(completedFuture(NESTED_MAP_REQUEST));
+    when(mutationService.countsAsync(anyCountQuery())).thenReturn(completedFuture(TOTAL_MAP_REQUEST));
 
     val response = resource("A,B/donors/AA,BB/mutations/counts");
 
@@ -209,8 +210,7 @@ public class ProjectResourceTest extends ResourceTest {
 
   @Test
   public void test_countsGenes() throws IOException {
-    when(geneService.counts(anyCountQuery())).thenReturn(COUNT_MAP_REQUEST);
-    when(geneService.count(any(Query.class))).thenReturn(2L);
+    when(geneService.counts(anyCountQuery())).thenAnswer(countsWithTotal());
 
     val response = resource("A,B/genes/counts");
 
@@ -228,8 +228,8 @@ public class ProjectResourceTest extends ResourceTest {
 
   @Test
   public void test_countsGeneMutations() throws IOException {
-    when(mutationService.nestedCounts(anyNestedCountQuery())).thenReturn(NESTED_MAP_REQUEST);
-    when(mutationService.count(any(Query.class))).thenReturn(2L);
+    when(mutationService.nestedCountsAsync(anyNestedCountQuery())).thenReturn(completedFuture(NESTED_MAP_REQUEST));
+    when(mutationService.countsAsync(anyCountQuery())).thenReturn(completedFuture(TOTAL_MAP_REQUEST));
     val response = resource("A,B/genes/AA,BB/mutations/counts");
 
     assertOK(response);
@@ -246,8 +246,8 @@ public class ProjectResourceTest extends ResourceTest {
 
   @Test
   public void test_countsGeneDonors() throws IOException {
-    when(donorService.nestedCounts(anyNestedCountQuery())).thenReturn(NESTED_MAP_REQUEST);
-    when(donorService.count(any(Query.class))).thenReturn(2L);
+    when(donorService.nestedCountsAsync(anyNestedCountQuery())).thenReturn(completedFuture(NESTED_MAP_REQUEST));
+    when(donorService.countsAsync(anyCountQuery())).thenReturn(completedFuture(TOTAL_MAP_REQUEST));
     val response = resource("A,B/genes/AA,BB/donors/counts");
 
     assertOK(response);
@@ -273,8 +273,7 @@ public class ProjectResourceTest extends ResourceTest {
 
   @Test
   public void test_countsMutations() throws IOException {
-    when(mutationService.counts(anyCountQuery())).thenReturn(COUNT_MAP_REQUEST);
-    when(mutationService.count(any(Query.class))).thenReturn(2L);
+    when(mutationService.counts(anyCountQuery())).thenAnswer(countsWithTotal());
 
     val response = resource("A,B/mutations/counts");
 
@@ -293,8 +292,8 @@ public class ProjectResourceTest extends ResourceTest {
 
   @Test
   public void test_countsMutationDonors() throws IOException {
-    when(donorService.nestedCounts(anyNestedCountQuery())).thenReturn(NESTED_MAP_REQUEST);
-    when(donorService.count(any(Query.class))).thenReturn(2L);
+    when(donorService.nestedCountsAsync(anyNestedCountQuery())).thenReturn(completedFuture(NESTED_MAP_REQUEST));
+    when(donorService.countsAsync(anyCountQuery())).thenReturn(completedFuture(TOTAL_MAP_REQUEST));
 
     val response = resource("A,B/mutations/AA,BB/donors/counts");
 
@@ -313,8 +312,8 @@ public class ProjectResourceTest extends ResourceTest {
 
   @Test
   public void test_countsMutationGenes() throws IOException {
-    when(geneService.nestedCounts(anyNestedCountQuery())).thenReturn(NESTED_MAP_REQUEST);
-    when(geneService.count(any(Query.class))).thenReturn(2L);
+    when(geneService.nestedCountsAsync(anyNestedCountQuery())).thenReturn(completedFuture(NESTED_MAP_REQUEST));
+    when(geneService.countsAsync(anyCountQuery())).thenReturn(completedFuture(TOTAL_MAP_REQUEST));
 
     val response = resource("A,B/mutations/AA,BB/genes/counts");
 
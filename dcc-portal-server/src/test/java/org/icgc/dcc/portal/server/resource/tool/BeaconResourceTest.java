@@ -20,6 +20,7 @@ package org.icgc.dcc.portal.server.resource.tool;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import javax.ws.rs.core.MediaType;
@@ -38,6 +39,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import com.google.common.collect.ImmutableList;
 import com.sun.jersey.api.client.ClientResponse;
 
 import lombok.val;
@@ -121,6 +123,20 @@ public class BeaconResourceTest extends ResourceTest {
     assertEqualToBadRequest(response);
   }
 
+  @Test
+  public void testBatchInvalidArgs() {
+    val queries = ImmutableList.of(
+        new BeaconQuery("A", "1", 1111, "GRCh37", ""),
+        new BeaconQuery("WTWT", "1", 1111, "GRCh37", ""));
+    val response = client()
+        .resource(RESOURCE)
+        .type(MediaType.APPLICATION_JSON)
+        .accept(MediaType.APPLICATION_JSON)
+        .post(ClientResponse.class, queries);
+    assertEqualToBadRequest(response);
+    verifyZeroInteractions(service);
+  }
+
   private ClientResponse generateResponse(String chromosome, String position, String reference, String allele) {
     return client()
         .resource(RESOURCE)
@@ -18,23 +18,49 @@
 package org.icgc.dcc.portal.server.service;
 
 import org.assertj.core.api.Assertions;
+import org.icgc.dcc.portal.server.config.ServerProperties;
 import org.icgc.dcc.portal.server.model.AlleleMutation;
 import org.icgc.dcc.portal.server.model.Beacon;
+import org.icgc.dcc.portal.server.model.BeaconQuery;
 import org.icgc.dcc.portal.server.repository.BaseElasticsearchTest;
+import org.junit.After;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
 import static org.dcc.portal.pql.meta.Type.MUTATION_CENTRIC;
 
+import java.util.concurrent.ExecutorService;
+
+import com.google.common.collect.Lists;
+
+import lombok.val;
+
 public class BeaconServiceTest extends BaseElasticsearchTest {
 
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private ExecutorService executor = newSingleThreadExecutor();
+  private BeaconIndex beaconIndex;
   private BeaconService service;
 
   @Before
   public void setUpBeaconServiceTest() throws Exception {
     prepareIndex(RELEASE_INDEX_NAME, MUTATION_CENTRIC);
     loadData("BeaconServiceTest.json");
-    service = new BeaconService(client(), RELEASE_INDEX_NAME);
+
+    val properties = new ServerProperties();
+    properties.getBeacon().setIndexDir(temp.getRoot().getAbsolutePath());
+    beaconIndex = new BeaconIndex(client(), RELEASE_INDEX_NAME, properties, executor);
+    service = new BeaconService(client(), RELEASE_INDEX_NAME, beaconIndex);
+  }
+
+  @After
+  public void tearDownBeaconServiceTest() {
+    executor.shutdownNow();
   }
 
   @Test
@@ -64,4 +90,61 @@ public class BeaconServiceTest extends BaseElasticsearchTest {
     Assertions.assertThat(result.getResponse().exists).isEqualTo("null");
   }
 
+  @Test
+  public void testIndexMatchesSearch() {
+    val queries = new Object[][] {
+        { "19", 1207014, "T", "" },
+        { "19", 1207014, "C", "" },
+        { "19", 1207013, "T", "" },
+        { "19", 1207015, "T", "" },
+        { "11", 11111, "T", "" },
+        { "19", 1207014, "T", "53049.0" },
+        { "19", 1207014, "T", "MADE-UP" } };
+
+    val searched = Lists.<String> newArrayList();
+    for (val query : queries) {
+      searched.add(query(query));
+    }
+
+    beaconIndex.load();
+    Assertions.assertThat(beaconIndex.getIndex()).isNotNull();
+
+    for (int i = 0; i < queries.length; i++) {
+      Assertions.assertThat(query(queries[i])).as("Query %s", i).isEqualTo(searched.get(i));
+    }
+  }
+
+  @Test
+  public void testBatchMatchesSingle() {
+    val queries = new Object[][] {
+        { "19", 1207015, "T", "" },
+        { "11", 11111, "T", "" },
+        { "19", 1207014, "T", "" },
+        { "19", 1207014, "C", "" },
+        { "19", 1207014, "T", "MADE-UP" } };
+
+    val batch = Lists.<BeaconQuery> newArrayList();
+    val expected = Lists.<String> newArrayList();
+    for (val query : queries) {
+      batch.add(new BeaconQuery((String) query[2], (String) query[0], (Integer) query[1], "GRCh37",
+          (String) query[3]));
+      expected.add(query(query));
+    }
+
+    val searched = Lists.<String> newArrayList();
+    service.query(batch, beacon -> searched.add(beacon.getResponse().exists));
+    Assertions.assertThat(searched).isEqualTo(expected);
+
+    beaconIndex.load();
+    val indexed = Lists.<String> newArrayList();
+    service.query(batch, beacon -> indexed.add(beacon.getResponse().exists));
+    Assertions.assertThat(indexed).isEqualTo(expected);
+  }
+
+  private String query(Object[] query) {
+    val allele = (String) query[2];
+    return service.query((String) query[0], (Integer) query[1], "GRCh37", new AlleleMutation("-", allele, allele),
+        (String) query[3]).getResponse().exists;
+  }
+
 }
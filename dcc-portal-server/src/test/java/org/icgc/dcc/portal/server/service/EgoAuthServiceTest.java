@@ -0,0 +1,119 @@
+package org.icgc.dcc.portal.server.service;
+
+import com.google.common.collect.Maps;
+import com.google.common.io.BaseEncoding;
+import lombok.val;
+import org.icgc.dcc.portal.server.model.Settings;
+import org.icgc.dcc.portal.server.service.EgoAuthService.VerifiedToken;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpStatus.OK;
+
+public class EgoAuthServiceTest {
+
+  private final Settings settings = Settings.builder().egoUrl("http://ego").build();
+  private final RestTemplate restTemplate = mock(RestTemplate.class);
+  private final Map<String, VerifiedToken> sharedTokens = Maps.newConcurrentMap();
+
+  @Before
+  public void setUp() {
+    when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(String.class)))
+        .thenReturn(new ResponseEntity<String>("true", OK));
+  }
+
+  @Test
+  public void testVerifiesTokenOnce() {
+    val service = new EgoAuthService(settings, restTemplate, Optional.empty());
+    val token = createToken(expiresIn(60), "portal.READ");
+
+    for (int i = 0; i < 3; i++) {
+      val user = service.getUserInfo(token);
+      assertThat(user.isPresent()).isTrue();
+      assertThat(user.get().getEmail()).isEqualTo("test@email.com");
+      assertThat(service.hasDacoAccess(token)).isTrue();
+      assertThat(service.hasCloudAccess(token)).isFalse();
+    }
+
+    verifyUpstreamCalls(1);
+  }
+
+  @Test
+  public void testReverifiesExpiredToken() {
+    val service = new EgoAuthService(settings, restTemplate, Optional.empty());
+    val token = createToken(expiresIn(-1), "portal.READ");
+
+    service.getUserInfo(token);
+    service.getUserInfo(token);
+
+    verifyUpstreamCalls(2);
+  }
+
+  @Test
+  public void testSharesVerifiedTokens() {
+    val token = createToken(expiresIn(60), "aws.READ", "collab.READ");
+
+    new EgoAuthService(settings, restTemplate, Optional.of(sharedTokens)).getUserInfo(token);
+    val other = new EgoAuthService(settings, restTemplate, Optional.of(sharedTokens));
+
+    assertThat(other.getUserInfo(token).isPresent()).isTrue();
+    assertThat(other.hasCloudAccess(token)).isTrue();
+    verifyUpstreamCalls(1);
+  }
+
+  @Test
+  public void testRejectsUnverifiedToken() {
+    when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(String.class)))
+        .thenReturn(new ResponseEntity<String>("false", OK));
+    val service = new EgoAuthService(settings, restTemplate, Optional.empty());
+    val token = createToken(expiresIn(60), "portal.READ");
+
+    assertThat(service.getUserInfo(token).isPresent()).isFalse();
+    assertThat(service.getUserInfo(token).isPresent()).isFalse();
+    verifyUpstreamCalls(1);
+  }
+
+  private void verifyUpstreamCalls(int count) {
+    verify(restTemplate, times(count))
+        .exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(String.class));
+  }
+
+  private static long expiresIn(int seconds) {
+    return MILLISECONDS.toSeconds(System.currentTimeMillis()) + seconds;
+  }
+
+  private static String createToken(long exp, String... scopes) {
+    val scope = new StringBuilder();
+    for (val s : scopes) {
+      scope.append(scope.length() == 0 ? "" : ",").append('"').append(s).append('"');
+    }
+
+    val header = "{\"alg\":\"none\",\"typ\":\"JWT\"}";
+    val payload = "{\"sub\":\"user\",\"exp\":" + exp + ",\"context\":{\"scope\":[" + scope + "],"
+        + "\"user\":{\"email\":\"test@email.com\",\"firstName\":\"First\",\"lastName\":\"Last\"}}}";
+
+    return encode(header) + "." + encode(payload) + ".";
+  }
+
+  private static String encode(String json) {
+    return BaseEncoding.base64Url().omitPadding().encode(json.getBytes(UTF_8));
+  }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2018 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.portal.server.util;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Measures the throughput of Beacon queries answered by an {@link AlleleIndex} of randomly placed substitutions.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.icgc.dcc.portal.server.util.AlleleIndexBenchmark}.
+ */
+@Fork(1)
+@Threads(4)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(SECONDS)
+@State(Scope.Benchmark)
+public class AlleleIndexBenchmark {
+
+  static final String[] BASES = { "A", "C", "G", "T" };
+  static final int CHROMOSOME_LENGTH = 250000000;
+
+  @Param({ "100000", "10000000" })
+  int mutations;
+
+  AlleleIndex index;
+
+  @Setup
+  public void setup() throws IOException {
+    Random random = new Random(1);
+    int[] starts = random.ints(mutations, 0, CHROMOSOME_LENGTH).sorted().toArray();
+
+    try (AlleleIndex.Writer writer = AlleleIndex.writer(Files.createTempDirectory("allele-index").toFile())) {
+      for (int start : starts) {
+        writer.add("1", start, "N>" + BASES[random.nextInt(BASES.length)], ImmutableList.of("P" + random.nextInt(50)));
+      }
+
+      index = writer.finish();
+    }
+  }
+
+  @Benchmark
+  public Boolean query() {
+    Random random = new Random();
+    return index.query("1", random.nextInt(CHROMOSOME_LENGTH), BASES[random.nextInt(BASES.length)], null);
+  }
+
+  @Benchmark
+  public Boolean queryProject() {
+    Random random = new Random();
+    return index.query("1", random.nextInt(CHROMOSOME_LENGTH), BASES[random.nextInt(BASES.length)],
+        "P" + random.nextInt(50));
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(AlleleIndexBenchmark.class.getSimpleName()).build()).run();
+  }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2018 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.portal.server.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import lombok.val;
+
+public class AlleleIndexTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @Test
+  public void testSubstitution() throws IOException {
+    val index = createIndex(temp.newFolder());
+
+    assertThat(index.query("1", 100, "T", null)).isTrue();
+    assertThat(index.query("1", 100, "G", null)).isFalse();
+    assertThat(index.query("1", 99, "T", null)).isNull();
+    assertThat(index.query("2", 100, "T", null)).isNull();
+  }
+
+  @Test
+  public void testMultipleMutationsAtPosition() throws IOException {
+    val index = createIndex(temp.newFolder());
+
+    assertThat(index.query("1", 200, "A", null)).isTrue();
+    assertThat(index.query("1", 200, "G", null)).isTrue();
+    assertThat(index.query("1", 200, "C", null)).isFalse();
+  }
+
+  @Test
+  public void testInsertion() throws IOException {
+    val index = createIndex(temp.newFolder());
+
+    // Covered positions of an insertion are matched against its inserted bases
+    assertThat(index.query("X", 5000, "-", null)).isFalse();
+    assertThat(index.query("X", 5001, "C", null)).isTrue();
+    assertThat(index.query("X", 5002, "G", null)).isTrue();
+    assertThat(index.query("X", 5003, "G", null)).isFalse();
+    assertThat(index.query("X", 5004, "G", null)).isNull();
+    assertThat(index.query("X", 5000, "->ACG", null)).isTrue();
+    assertThat(index.query("X", 5000, "->ACT", null)).isFalse();
+  }
+
+  @Test
+  public void testProject() throws IOException {
+    val index = createIndex(temp.newFolder());
+
+    assertThat(index.query("1", 100, "T", "BRCA-US")).isTrue();
+    assertThat(index.query("1", 100, "T", "PACA-CA")).isNull();
+    assertThat(index.query("1", 200, "G", "PACA-CA")).isTrue();
+    assertThat(index.query("1", 200, "A", "PACA-CA")).isFalse();
+    assertThat(index.query("1", 100, "T", "MADE-UP")).isNull();
+  }
+
+  @Test
+  public void testReopen() throws IOException {
+    val dir = temp.newFolder();
+    assertThat(AlleleIndex.exists(dir)).isFalse();
+
+    createIndex(dir);
+    assertThat(AlleleIndex.exists(dir)).isTrue();
+
+    val index = AlleleIndex.open(dir);
+    assertThat(index.size()).isEqualTo(4);
+    assertThat(index.query("X", 5001, "C", "PACA-CA")).isTrue();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testUnorderedStarts() throws IOException {
+    try (AlleleIndex.Writer writer = AlleleIndex.writer(temp.newFolder())) {
+      writer.add("1", 200, "A>G", ImmutableList.of());
+      writer.add("1", 100, "C>T", ImmutableList.of());
+    }
+  }
+
+  private static AlleleIndex createIndex(File dir) throws IOException {
+    try (AlleleIndex.Writer writer = AlleleIndex.writer(dir)) {
+      writer.add("1", 100, "C>T", ImmutableSet.of("BRCA-US"));
+      writer.add("1", 200, "C>A", ImmutableSet.of("BRCA-US"));
+      writer.add("1", 200, "C>G", ImmutableSet.of("BRCA-US", "PACA-CA"));
+      writer.add("X", 5000, "->ACG", ImmutableSet.of("PACA-CA"));
+
+      return writer.finish();
+    }
+  }
+
+}
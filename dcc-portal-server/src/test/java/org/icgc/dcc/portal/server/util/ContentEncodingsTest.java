@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2018 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.portal.server.util;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.icgc.dcc.portal.server.util.ContentEncodings.gzip;
+import static org.icgc.dcc.portal.server.util.ContentEncodings.isGzipAccepted;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteStreams;
+
+import lombok.val;
+
+public class ContentEncodingsTest {
+
+  @Test
+  public void testGzipAccepted() {
+    assertThat(isGzipAccepted("gzip")).isTrue();
+    assertThat(isGzipAccepted("deflate, GZIP;q=0.5")).isTrue();
+    assertThat(isGzipAccepted("br, *")).isTrue();
+    assertThat(isGzipAccepted("*;q=0, gzip;q=0.5")).isTrue();
+    assertThat(isGzipAccepted(ImmutableList.of("br", "gzip, deflate"))).isTrue();
+  }
+
+  @Test
+  public void testGzipNotAccepted() {
+    assertThat(isGzipAccepted((String) null)).isFalse();
+    assertThat(isGzipAccepted("")).isFalse();
+    assertThat(isGzipAccepted("identity, br")).isFalse();
+    assertThat(isGzipAccepted("gzip;q=0, *")).isFalse();
+    assertThat(isGzipAccepted("gzip;q=0.0")).isFalse();
+    assertThat(isGzipAccepted("*;q=0.5, gzip;q=0")).isFalse();
+    assertThat(isGzipAccepted(ImmutableList.of("*;q=0.5", "gzip;q=0"))).isFalse();
+  }
+
+  @Test
+  public void testGzip() throws IOException {
+    val body = "{\"id\":\"DO1\"}".getBytes(UTF_8);
+
+    val compressed = gzip(body);
+
+    assertThat(ByteStreams.toByteArray(new GZIPInputStream(new ByteArrayInputStream(compressed)))).isEqualTo(body);
+  }
+
+}
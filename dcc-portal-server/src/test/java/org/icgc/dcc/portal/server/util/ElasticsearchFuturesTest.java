@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2018 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.portal.server.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.icgc.dcc.portal.server.util.ElasticsearchFutures.execute;
+import static org.icgc.dcc.portal.server.util.ElasticsearchFutures.join;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.mock;
+
+import org.elasticsearch.ElasticsearchTimeoutException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.search.SearchRequestBuilder;
+import org.elasticsearch.action.search.SearchResponse;
+import org.junit.Test;
+
+import lombok.val;
+
+public class ElasticsearchFuturesTest {
+
+  SearchRequestBuilder request = mock(SearchRequestBuilder.class);
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testCompletesWithResponse() {
+    val response = mock(SearchResponse.class);
+    doAnswer(invocation -> {
+      ((ActionListener<SearchResponse>) invocation.getArguments()[0]).onResponse(response);
+      return null;
+    }).when(request).execute(any(ActionListener.class));
+
+    assertThat(join(execute("test", request))).isSameAs(response);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  @SuppressWarnings("unchecked")
+  public void testRethrowsFailure() {
+    doAnswer(invocation -> {
+      ((ActionListener<SearchResponse>) invocation.getArguments()[0]).onFailure(new IllegalStateException("Failed"));
+      return null;
+    }).when(request).execute(any(ActionListener.class));
+
+    join(execute("test", request));
+  }
+
+  @Test(expected = ElasticsearchTimeoutException.class)
+  @SuppressWarnings("unchecked")
+  public void testTimesOut() {
+    doNothing().when(request).execute(any(ActionListener.class));
+
+    join(execute("test", request, 10));
+  }
+
+}
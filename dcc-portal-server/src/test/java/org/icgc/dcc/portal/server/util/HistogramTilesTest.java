@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2018 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.portal.server.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+
+import lombok.val;
+
+public class HistogramTilesTest {
+
+  @Test
+  public void testAlignedCounts() {
+    val tiles = HistogramTiles.of(10, ImmutableMap.of("1", ImmutableMap.of(0L, 2L, 20L, 3L, 50L, 1L)));
+
+    assertThat(tiles.count("1", 0, 9)).isEqualTo(2);
+    assertThat(tiles.count("1", 0, 29)).isEqualTo(5);
+    assertThat(tiles.count("1", 10, 19)).isEqualTo(0);
+    assertThat(tiles.count("1", 20, 59)).isEqualTo(4);
+    assertThat(tiles.count("1", 60, 1000)).isEqualTo(0);
+    assertThat(tiles.count("1", 0, 1000)).isEqualTo(6);
+  }
+
+  @Test
+  public void testUnknownChromosome() {
+    val tiles = HistogramTiles.of(10, ImmutableMap.of("1", ImmutableMap.of(0L, 2L)));
+
+    assertThat(tiles.count("2", 0, 100)).isEqualTo(0);
+  }
+
+  @Test
+  public void testUnalignedCountsRoundToNearestTile() {
+    val tiles = HistogramTiles.of(10, ImmutableMap.of("1", ImmutableMap.of(0L, 2L, 10L, 4L, 20L, 8L)));
+
+    // [3, 16) rounds to [0, 20)
+    assertThat(tiles.count("1", 3, 15)).isEqualTo(6);
+    // [6, 24) rounds to [10, 20)
+    assertThat(tiles.count("1", 6, 23)).isEqualTo(4);
+  }
+
+  @Test
+  public void testMatchesBinnedCounts() {
+    val random = new Random(1);
+    val resolution = 100;
+    val positions = new long[10000];
+    Map<Long, Long> counts = Maps.newHashMap();
+    for (int i = 0; i < positions.length; i++) {
+      positions[i] = random.nextInt(1000000);
+      counts.merge(positions[i] / resolution * resolution, 1L, Long::sum);
+    }
+
+    val tiles = HistogramTiles.of(resolution, ImmutableMap.of("X", counts));
+    for (long start = 0; start < 1000000; start += 25000) {
+      val end = start + 25000 - 1;
+      long expected = 0;
+      for (val position : positions) {
+        if (position >= start && position <= end) {
+          expected++;
+        }
+      }
+
+      assertThat(tiles.count("X", start, end)).isEqualTo(expected);
+    }
+  }
+
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2018 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.portal.server.util;
+
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHits;
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+import lombok.val;
+
+public class PrefetchingScrollTest {
+
+  ExecutorService executor = newSingleThreadExecutor();
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testIteratesAllPages() {
+    val scroll = mock(SearchScroll.class);
+    when(scroll.hasNext()).thenReturn(true, true, false);
+    when(scroll.next()).thenReturn(page(2), page(3));
+
+    @SuppressWarnings("resource")
+    val pages = new PrefetchingScroll(scroll, 1, executor);
+
+    assertThat(hitCounts(pages)).containsExactly(2, 3);
+    verify(scroll, timeout(1000)).close();
+  }
+
+  @Test
+  public void testEmptyScroll() {
+    val scroll = mock(SearchScroll.class);
+    when(scroll.hasNext()).thenReturn(false);
+
+    @SuppressWarnings("resource")
+    val pages = new PrefetchingScroll(scroll, 2, executor);
+
+    assertThat(pages.hasNext()).isFalse();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testRethrowsScrollFailure() {
+    val scroll = mock(SearchScroll.class);
+    when(scroll.hasNext()).thenReturn(true).thenThrow(new IllegalStateException("Scroll expired"));
+    when(scroll.next()).thenReturn(page(1));
+
+    @SuppressWarnings("resource")
+    val pages = new PrefetchingScroll(scroll, 2, executor);
+
+    hitCounts(pages);
+  }
+
+  @Test
+  public void testCloseStopsPrefetching() {
+    val scroll = mock(SearchScroll.class);
+    when(scroll.hasNext()).thenReturn(true);
+    when(scroll.next()).thenReturn(page(1));
+
+    val pages = new PrefetchingScroll(scroll, 1, executor);
+    pages.next();
+    pages.close();
+
+    verify(scroll, timeout(1000)).close();
+  }
+
+  @Test
+  public void testCloseBeforeStartClosesScroll() throws InterruptedException {
+    // Keep the only thread busy so that the producer is still queued when closed
+    val busy = new CountDownLatch(1);
+    executor.submit(() -> {
+      busy.await();
+      return null;
+    });
+
+    val scroll = mock(SearchScroll.class);
+    val pages = new PrefetchingScroll(scroll, 1, executor);
+    pages.close();
+    busy.countDown();
+
+    verify(scroll).close();
+    executor.shutdown();
+    executor.awaitTermination(1, SECONDS);
+    verify(scroll, never()).hasNext();
+    verify(scroll).close();
+  }
+
+  @Test
+  public void testHandsOffToSlowConsumer() throws InterruptedException {
+    val scroll = mock(SearchScroll.class);
+    when(scroll.hasNext()).thenReturn(true, true, true, false);
+    when(scroll.next()).thenReturn(page(1), page(2), page(3));
+
+    @SuppressWarnings("resource")
+    val pages = new PrefetchingScroll(scroll, 1, executor, 50);
+    assertThat(pages.next().getHits().hits()).hasSize(1);
+
+    // Let the producer give up on the full queue
+    SECONDS.sleep(1);
+
+    assertThat(hitCounts(pages)).containsExactly(2, 3);
+    verify(scroll).close();
+  }
+
+  @Test
+  public void testPagesSynchronouslyWhenExecutorBusy() {
+    val busy = new CountDownLatch(1);
+    executor.submit(() -> {
+      busy.await();
+      return null;
+    });
+
+    val scroll = mock(SearchScroll.class);
+    when(scroll.hasNext()).thenReturn(true, true, false);
+    when(scroll.next()).thenReturn(page(2), page(3));
+
+    val pages = new PrefetchingScroll(scroll, 1, executor);
+    assertThat(hitCounts(pages)).containsExactly(2, 3);
+    pages.close();
+    busy.countDown();
+
+    verify(scroll).close();
+  }
+
+  @Test
+  public void testPagesSynchronouslyWhenExecutorRejects() {
+    val rejecting = mock(ExecutorService.class);
+    when(rejecting.submit(any(Runnable.class))).thenThrow(new RejectedExecutionException());
+
+    val scroll = mock(SearchScroll.class);
+    when(scroll.hasNext()).thenReturn(true, false);
+    when(scroll.next()).thenReturn(page(4));
+
+    val pages = new PrefetchingScroll(scroll, 1, rejecting);
+    assertThat(hitCounts(pages)).containsExactly(4);
+    pages.close();
+
+    verify(scroll).close();
+  }
+
+  private static List<Integer> hitCounts(PrefetchingScroll pages) {
+    val counts = Lists.<Integer> newArrayList();
+    while (pages.hasNext()) {
+      counts.add(pages.next().getHits().hits().length);
+    }
+
+    return counts;
+  }
+
+  static SearchResponse page(int hitCount) {
+    val hits = mock(SearchHits.class);
+    when(hits.hits()).thenReturn(new SearchHit[hitCount]);
+
+    val response = mock(SearchResponse.class);
+    when(response.getHits()).thenReturn(hits);
+
+    return response;
+  }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2018 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.portal.server.util;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Optional;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import lombok.val;
+
+public class ResponseCacheTest {
+
+  private static final String CONTENT_TYPE = "application/json";
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    val cache = new ResponseCache(1024 * 1024, 1024, Optional.empty(), 0);
+    cache.put("a", CONTENT_TYPE, body("a"));
+
+    val entry = cache.get("a");
+    assertThat(entry.isPresent()).isTrue();
+    assertThat(entry.get().getContentType()).isEqualTo(CONTENT_TYPE);
+    assertThat(read(entry.get())).isEqualTo(body("a"));
+    assertThat(cache.get("b").isPresent()).isFalse();
+  }
+
+  @Test
+  public void testLargeBodiesAreNotCached() {
+    val cache = new ResponseCache(1024 * 1024, 16, Optional.empty(), 0);
+    cache.put("a", CONTENT_TYPE, new byte[17]);
+
+    assertThat(cache.get("a").isPresent()).isFalse();
+  }
+
+  @Test
+  public void testEvictedEntriesArePromotedFromDisk() throws Exception {
+    val dir = tmp.newFolder();
+    // Too small to hold any entry in memory, so every entry is spilled
+    val cache = new ResponseCache(1, 1024, Optional.of(dir), 1024 * 1024);
+    cache.put("a", CONTENT_TYPE, body("a"));
+
+    // Spilled asynchronously
+    val entry = awaitHit(cache, "a");
+    assertThat(entry.isPresent()).isTrue();
+    assertThat(read(entry.get())).isEqualTo(body("a"));
+    assertThat(dir.listFiles()).hasSize(1);
+
+    cache.clear();
+    assertThat(cache.get("a").isPresent()).isFalse();
+    assertThat(dir.listFiles()).isEmpty();
+  }
+
+  private static Optional<ResponseCache.Entry> awaitHit(ResponseCache cache, String key) throws InterruptedException {
+    Optional<ResponseCache.Entry> entry = cache.get(key);
+    for (int i = 0; i < 100 && !entry.isPresent(); i++) {
+      Thread.sleep(50);
+      entry = cache.get(key);
+    }
+
+    return entry;
+  }
+
+  private static byte[] body(String id) {
+    return ("{\"id\":\"" + id + "\"}").getBytes(UTF_8);
+  }
+
+  private static byte[] read(ResponseCache.Entry entry) throws IOException {
+    val output = new ByteArrayOutputStream();
+    entry.writeTo(output);
+
+    return output.toByteArray();
+  }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2018 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.portal.server.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.icgc.dcc.portal.server.util.PrefetchingScrollTest.page;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.elasticsearch.action.search.ClearScrollRequestBuilder;
+import org.elasticsearch.action.search.SearchRequestBuilder;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchScrollRequestBuilder;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.unit.TimeValue;
+import org.junit.Before;
+import org.junit.Test;
+
+import lombok.val;
+
+public class SearchScrollTest {
+
+  static final TimeValue KEEP_ALIVE = TimeValue.timeValueSeconds(10);
+
+  Client client = mock(Client.class);
+  SearchRequestBuilder request = mock(SearchRequestBuilder.class);
+  SearchScrollRequestBuilder scrollRequest = mock(SearchScrollRequestBuilder.class);
+  ClearScrollRequestBuilder clearRequest = mock(ClearScrollRequestBuilder.class);
+
+  @Before
+  public void setUp() {
+    when(request.setScroll(any(TimeValue.class))).thenReturn(request);
+    when(client.prepareSearchScroll(anyString())).thenReturn(scrollRequest);
+    when(scrollRequest.setScroll(any(TimeValue.class))).thenReturn(scrollRequest);
+    when(client.prepareClearScroll()).thenReturn(clearRequest);
+    when(clearRequest.addScrollId(anyString())).thenReturn(clearRequest);
+  }
+
+  @Test
+  public void testClearsContextWhenExhausted() {
+    when(request.get()).thenReturn(scrollPage("s1", 2));
+    when(scrollRequest.get()).thenReturn(scrollPage("s2", 0));
+
+    try (SearchScroll scroll = SearchScroll.scroll(client, request, KEEP_ALIVE)) {
+      assertThat(scroll.hasNext()).isTrue();
+      assertThat(scroll.next().getHits().hits()).hasSize(2);
+      assertThat(scroll.hasNext()).isFalse();
+
+      verify(clearRequest).addScrollId("s2");
+    }
+  }
+
+  @Test
+  public void testClearsContextWhenClosedEarly() {
+    when(request.get()).thenReturn(scrollPage("s1", 2));
+
+    try (SearchScroll scroll = SearchScroll.scroll(client, request, KEEP_ALIVE)) {
+      scroll.next();
+    }
+
+    verify(clearRequest).addScrollId("s1");
+    verify(client, never()).prepareSearchScroll(anyString());
+  }
+
+  @Test
+  public void testClearsContextWhenPageFails() {
+    when(request.get()).thenReturn(scrollPage("s1", 2));
+    when(scrollRequest.get()).thenThrow(new IllegalStateException("No search context found"));
+
+    try (SearchScroll scroll = SearchScroll.scroll(client, request, KEEP_ALIVE)) {
+      scroll.next();
+      scroll.hasNext();
+    } catch (IllegalStateException e) {
+      // Expected
+    }
+
+    verify(clearRequest).addScrollId("s1");
+  }
+
+  private static SearchResponse scrollPage(String scrollId, int hitCount) {
+    val response = page(hitCount);
+    when(response.getScrollId()).thenReturn(scrollId);
+
+    return response;
+  }
+
+}
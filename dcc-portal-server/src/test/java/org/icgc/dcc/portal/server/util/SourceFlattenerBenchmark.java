@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2018 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.portal.server.util;
+
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.icgc.dcc.portal.server.model.IndexModel.FIELDS_MAPPING;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.icgc.dcc.portal.server.model.EntityType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Compares flattening a page of donor sources with {@link SourceFlattener} against the per-hit recursion it replaced.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.icgc.dcc.portal.server.util.SourceFlattenerBenchmark}.
+ */
+@Fork(1)
+@Threads(4)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(SECONDS)
+@State(Scope.Benchmark)
+public class SourceFlattenerBenchmark {
+
+  static final int PAGE_SIZE = 100;
+  static final List<String> INCLUDES = ImmutableList.of("specimen");
+
+  List<Map<String, Object>> page;
+
+  @Setup
+  public void setup() {
+    page = Lists.newArrayList();
+    for (int i = 0; i < PAGE_SIZE; i++) {
+      Map<String, Object> summary = Maps.newHashMap();
+      summary.put("_ssm_count", i);
+      summary.put("_cnsm_exists", true);
+      summary.put("experimental_analysis_performed", ImmutableMap.of("WGS", i, "RNA-Seq", i / 2));
+
+      Map<String, Object> project = Maps.newHashMap();
+      project.put("_project_id", "P" + i % 50);
+      project.put("primary_site", "Blood");
+
+      Map<String, Object> source = Maps.newHashMap();
+      source.put("_donor_id", "DO" + i);
+      source.put("donor_sex", "female");
+      source.put("donor_age_at_diagnosis", 40 + i % 30);
+      source.put("_summary", summary);
+      source.put("project", project);
+      source.put("specimen", ImmutableList.of());
+      page.add(source);
+    }
+  }
+
+  @Benchmark
+  public int legacy() {
+    int size = 0;
+    for (Map<String, Object> source : page) {
+      size += legacyFlatten(null, source, EntityType.DONOR, INCLUDES).size();
+    }
+
+    return size;
+  }
+
+  @Benchmark
+  public int flattener() {
+    int size = 0;
+    for (Map<String, Object> source : page) {
+      size += SourceFlattener.of(EntityType.DONOR, INCLUDES).flatten(source).size();
+    }
+
+    return size;
+  }
+
+  @SuppressWarnings("unchecked")
+  static Map<String, Object> legacyFlatten(String prefix, Map<String, Object> source, EntityType entityType,
+      Collection<String> includes) {
+    Map<String, Object> results = Maps.newHashMap();
+    for (Map.Entry<String, Object> entry : source.entrySet()) {
+      String fieldName = prefix == null ? entry.getKey() : format("%s.%s", prefix, entry.getKey());
+      boolean skip = FIELDS_MAPPING.get(entityType).containsValue(fieldName) || includes.contains(fieldName);
+      if (entry.getValue() instanceof Map && !skip) {
+        results.putAll(legacyFlatten(entry.getKey(), (Map<String, Object>) entry.getValue(), entityType, includes));
+      } else {
+        results.put(fieldName, entry.getValue());
+      }
+    }
+
+    return results;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(SourceFlattenerBenchmark.class.getSimpleName()).build()).run();
+  }
+
+}
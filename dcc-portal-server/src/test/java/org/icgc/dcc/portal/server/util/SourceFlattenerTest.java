@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2018 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.portal.server.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.icgc.dcc.portal.server.model.EntityType;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+
+import lombok.val;
+
+public class SourceFlattenerTest {
+
+  @Test
+  public void testNestedKeysArePrefixedWithParent() {
+    val source = source();
+
+    val result = SourceFlattener.of(null, null).flatten(source);
+
+    assertThat(result).isEqualTo(ImmutableMap.of(
+        "_specimen_id", "SP1",
+        "a.d", 1,
+        "b.c", 2,
+        "specimen_db_xref.e", 3));
+  }
+
+  @Test
+  public void testMappedAndIncludedFieldsAreKept() {
+    val source = source();
+
+    val result = SourceFlattener.of(EntityType.SPECIMEN, ImmutableList.of("a")).flatten(source);
+
+    assertThat(result).isEqualTo(ImmutableMap.of(
+        "_specimen_id", "SP1",
+        "a", source.get("a"),
+        "specimen_db_xref", source.get("specimen_db_xref")));
+  }
+
+  @Test
+  public void testNothingKeptWithoutIncludes() {
+    val source = source();
+
+    assertThat(SourceFlattener.of(EntityType.SPECIMEN, null).flatten(source))
+        .isEqualTo(SourceFlattener.of(null, null).flatten(source));
+  }
+
+  @Test
+  public void testFlattenersAreShared() {
+    val flattener = SourceFlattener.of(EntityType.SPECIMEN, ImmutableList.of("a"));
+
+    assertThat(SourceFlattener.of(EntityType.SPECIMEN, ImmutableList.of("a"))).isSameAs(flattener);
+    assertThat(SourceFlattener.of(EntityType.DONOR, ImmutableList.of("a"))).isNotSameAs(flattener);
+  }
+
+  @Test
+  public void testFlattenIntoTarget() {
+    val target = Maps.<String, Object> newHashMap();
+    target.put("_specimen_id", "field");
+    target.put("other", "field");
+
+    SourceFlattener.of(null, null).flatten(source(), target);
+
+    assertThat(target).containsEntry("_specimen_id", "SP1").containsEntry("other", "field").containsEntry("b.c", 2);
+  }
+
+  private static Map<String, Object> source() {
+    val source = Maps.<String, Object> newLinkedHashMap();
+    source.put("_specimen_id", "SP1");
+    source.put("a", ImmutableMap.of("b", ImmutableMap.of("c", 2), "d", 1));
+    source.put("specimen_db_xref", ImmutableMap.of("e", 3));
+
+    return source;
+  }
+
+}